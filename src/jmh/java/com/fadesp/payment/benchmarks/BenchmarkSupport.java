@@ -0,0 +1,116 @@
+package com.fadesp.payment.benchmarks;
+
+import com.fadesp.payment.PaymentApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Infra comum dos benchmarks: sobe o contexto Spring (sem web) sobre um H2 em memória exclusivo
+ * e popula a tabela de pagamentos com massa sintética via JDBC batch.
+ */
+final class BenchmarkSupport {
+
+    static final String[] DOCUMENTOS = {"61563213565", "76910197003", "20387642048", "52998224725"};
+    static final String[] METODOS = {"BOLETO", "PIX", "CARTAO_CREDITO", "CARTAO_DEBITO"};
+    static final String[] STATUS = {"PENDENTE_PROCESSAMENTO", "PROCESSADO_SUCESSO", "PROCESSADO_FALHA"};
+
+    private static final int LOTE_INSERCAO = 5_000;
+
+    private BenchmarkSupport() {
+    }
+
+    static ConfigurableApplicationContext iniciarContexto(String... propriedades) {
+        Map<String, String> props = new LinkedHashMap<>();
+        for (String prop : List.of(
+                "spring.datasource.url=jdbc:h2:mem:bench-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1",
+                // só o schema, sem a massa de exemplo de db/dados
+                "spring.flyway.locations=classpath:db/migration/{vendor}",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "spring.h2.console.enabled=false",
+                "logging.level.root=WARN")) {
+            definir(props, prop);
+        }
+        // as propriedades do benchmark substituem os padrões acima (a mesma chave repetida na linha de comando
+        // viraria uma lista, não uma substituição)
+        for (String prop : propriedades) {
+            definir(props, prop);
+        }
+
+        // argumentos de linha de comando têm precedência sobre o application.properties
+        return new SpringApplicationBuilder(PaymentApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(props.entrySet().stream().map(e -> "--" + e.getKey() + "=" + e.getValue()).toArray(String[]::new));
+    }
+
+    private static void definir(Map<String, String> props, String prop) {
+        int i = prop.indexOf('=');
+        props.put(prop.substring(0, i), prop.substring(i + 1));
+    }
+
+    /** Insere {@code linhas} pagamentos ativos com ids 1..linhas. */
+    static void popular(ConfigurableApplicationContext contexto, int linhas) {
+        popular(contexto, linhas, DOCUMENTOS);
+    }
+
+    /** Como {@link #popular(ConfigurableApplicationContext, int)}, distribuindo as linhas entre os CPFs informados. */
+    static void popular(ConfigurableApplicationContext contexto, int linhas, String[] documentos) {
+        JdbcTemplate jdbc = contexto.getBean(JdbcTemplate.class);
+        String sql = """
+                INSERT INTO pagamento
+                  (id, codigo_debito, cpf_cnpj_pagador, documento_pagador, tipo_documento, metodo_pagamento, numero_cartao,
+                   valor_pagamento, status, ativo, criado_em, atualizado_em, versao)
+                VALUES (?, ?, ?, ?, 'CPF', ?, ?, ?, ?, TRUE, ?, CURRENT_TIMESTAMP, 0)
+                """;
+
+        Instant agora = Instant.now();
+        List<Object[]> lote = new ArrayList<>(LOTE_INSERCAO);
+        for (int i = 1; i <= linhas; i++) {
+            String metodo = METODOS[i % METODOS.length];
+            boolean cartao = metodo.startsWith("CARTAO");
+            lote.add(new Object[]{
+                    (long) i,
+                    i,
+                    documentos[i % documentos.length],
+                    Long.parseLong(documentos[i % documentos.length]),
+                    metodo,
+                    cartao ? "1111" : null,
+                    BigDecimal.valueOf(i % 10_000 + 1, 2),
+                    STATUS[i % STATUS.length],
+                    // um pagamento por minuto, terminando agora
+                    Timestamp.from(agora.minus(linhas - i, ChronoUnit.MINUTES))
+            });
+            if (lote.size() == LOTE_INSERCAO) {
+                jdbc.batchUpdate(sql, lote);
+                lote.clear();
+            }
+        }
+        if (!lote.isEmpty()) {
+            jdbc.batchUpdate(sql, lote);
+        }
+        if (isMySql(jdbc)) {
+            // no MySQL o Hibernate emula a sequence com uma tabela de uma linha
+            jdbc.update("UPDATE pagamento_seq SET next_val = ?", linhas + 1);
+        } else {
+            jdbc.execute("ALTER SEQUENCE pagamento_seq RESTART WITH " + (linhas + 1));
+        }
+    }
+
+    static boolean isMySql(JdbcTemplate jdbc) {
+        String banco = jdbc.execute((ConnectionCallback<String>) c -> c.getMetaData().getDatabaseProductName());
+        return "MySQL".equalsIgnoreCase(banco);
+    }
+}
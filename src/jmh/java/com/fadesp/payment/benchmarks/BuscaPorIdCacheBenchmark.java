@@ -0,0 +1,63 @@
+package com.fadesp.payment.benchmarks;
+
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.services.PagamentoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distribuição de latência (p50/p99/p99.9) de {@code buscarPorId} + serialização JSON sobre um conjunto pequeno de
+ * ids "quentes", como no polling dos dashboards, com o cache de leitura ligado e desligado.
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Djmh.args="BuscaPorIdCacheBenchmark"</pre>
+ */
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class BuscaPorIdCacheBenchmark {
+
+    private static final int LINHAS = 100_000;
+    private static final int IDS_QUENTES = 64;
+
+    @Param({"true", "false"})
+    public boolean cache;
+
+    private ConfigurableApplicationContext contexto;
+    private PagamentoService service;
+    private ObjectMapper objectMapper;
+
+    @State(Scope.Thread)
+    public static class Sequencia {
+        long proximo;
+
+        long id() {
+            return 1 + (proximo++ % IDS_QUENTES) * (LINHAS / IDS_QUENTES);
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = BenchmarkSupport.iniciarContexto("pagamento.cache.habilitado=" + cache);
+        BenchmarkSupport.popular(contexto, LINHAS);
+        service = contexto.getBean(PagamentoService.class);
+        objectMapper = contexto.getBean(ObjectMapper.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public byte[] buscarIdQuente(Sequencia sequencia) throws Exception {
+        PagamentoRespostaDTO pagamento = service.buscarPorId(sequencia.id()).orElseThrow();
+        return objectMapper.writeValueAsBytes(pagamento);
+    }
+}
@@ -0,0 +1,192 @@
+package com.fadesp.payment.benchmarks;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Teste de carga em malha fechada contra uma instância já em execução: N clientes simultâneos, cada um envia a
+ * próxima requisição assim que recebe a resposta da anterior ({@code GET /pagamentos/{id}} sobre os ids da massa de
+ * exemplo e, na proporção de {@code escritas} (padrão 10%), {@code POST /pagamentos} com código de débito novo). Para
+ * cada nível de concorrência imprime vazão, p50/p99 e erros (status diferente de 2xx ou falha de conexão).
+ * <p>
+ * Os clientes usam o {@link HttpClient} assíncrono, então 10.000 conexões não custam 10.000 threads aqui. Rodar uma
+ * vez contra a aplicação em threads de plataforma e outra com o profile {@code virtual-threads}, mudando o rótulo:
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=com.fadesp.payment.benchmarks.CargaHttp \
+ *     -Djmh.args="url=http://localhost:8080 clientes=1000,5000,10000 duracao=30 rotulo=plataforma"</pre>
+ *
+ * Para comparar a criação agrupada, só escritas, com {@code pagamento.criacao.agrupada.habilitado} ligado e desligado:
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=com.fadesp.payment.benchmarks.CargaHttp \
+ *     -Djmh.args="escritas=100 clientes=1,8,32,128,512 duracao=20 rotulo=agrupada"</pre>
+ *
+ * Com milhares de clientes, aumente o limite de arquivos abertos dos dois lados ({@code ulimit -n 65536}).
+ */
+public final class CargaHttp {
+
+    private static final long[] IDS = {1, 2, 3, 4, 5, 6, 7};
+
+    private final HttpClient http;
+    private final URI base;
+    private final int percentualEscrita;
+    private final AtomicInteger codigoDebito = new AtomicInteger(ThreadLocalRandom.current().nextInt(100_000_000, 1_000_000_000));
+
+    private CargaHttp(HttpClient http, URI base, int percentualEscrita) {
+        this.http = http;
+        this.base = base;
+        this.percentualEscrita = percentualEscrita;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opcoes = new HashMap<>(Map.of(
+                "url", "http://localhost:8080",
+                "clientes", "1000,5000,10000",
+                "duracao", "30",
+                "aquecimento", "10",
+                "escritas", "10",
+                "rotulo", "plataforma"));
+        for (String arg : args) {
+            int i = arg.indexOf('=');
+            if (i < 0) throw new IllegalArgumentException("Argumento deve ser chave=valor: " + arg);
+            opcoes.put(arg.substring(0, i), arg.substring(i + 1));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(executor)
+                .build();
+        CargaHttp carga = new CargaHttp(http, URI.create(opcoes.get("url")),
+                Integer.parseInt(opcoes.get("escritas")));
+
+        String rotulo = opcoes.get("rotulo");
+        Duration duracao = Duration.ofSeconds(Long.parseLong(opcoes.get("duracao")));
+        Duration aquecimento = Duration.ofSeconds(Long.parseLong(opcoes.get("aquecimento")));
+
+        System.out.printf("%-12s %9s %12s %10s %10s %10s %8s%n",
+                "modo", "clientes", "req/s", "p50 (ms)", "p99 (ms)", "max (ms)", "erros");
+        for (String nivel : opcoes.get("clientes").split(",")) {
+            int clientes = Integer.parseInt(nivel.trim());
+            carga.rodar(clientes, aquecimento);
+            Resultado r = carga.rodar(clientes, duracao);
+            System.out.printf(Locale.ROOT, "%-12s %9d %12.1f %10.2f %10.2f %10.2f %8d%n",
+                    rotulo, clientes, r.vazao(), r.percentil(0.50), r.percentil(0.99), r.percentil(1.0), r.erros());
+        }
+        executor.shutdownNow();
+    }
+
+    private Resultado rodar(int clientes, Duration duracao) throws InterruptedException {
+        long inicio = System.nanoTime();
+        long fim = inicio + duracao.toNanos();
+        CountDownLatch terminados = new CountDownLatch(clientes);
+        LongAdder erros = new LongAdder();
+
+        List<Cliente> todos = new ArrayList<>(clientes);
+        for (int i = 0; i < clientes; i++) {
+            Cliente cliente = new Cliente(fim, terminados, erros);
+            todos.add(cliente);
+            cliente.proxima();
+        }
+        // margem para as requisições em voo no fim da janela
+        terminados.await(duracao.toSeconds() + 60, TimeUnit.SECONDS);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        int total = 0;
+        for (Cliente c : todos) total += c.quantidade;
+        long[] latencias = new long[total];
+        int pos = 0;
+        for (Cliente c : todos) {
+            System.arraycopy(c.latencias, 0, latencias, pos, c.quantidade);
+            pos += c.quantidade;
+        }
+        Arrays.sort(latencias);
+        return new Resultado(latencias, segundos, erros.sum());
+    }
+
+    private HttpRequest proximaRequisicao() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (random.nextInt(100) < percentualEscrita) {
+            String corpo = """
+                    {"codigoDebito": %d, "cpfCnpjPagador": "52998224725", "metodoPagamento": "PIX", "valorPagamento": 10.00}
+                    """.formatted(codigoDebito.getAndIncrement());
+            return HttpRequest.newBuilder(base.resolve("/pagamentos"))
+                    .timeout(Duration.ofSeconds(30))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(corpo))
+                    .build();
+        }
+        return HttpRequest.newBuilder(base.resolve("/pagamentos/" + IDS[random.nextInt(IDS.length)]))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+    }
+
+    /** Um cliente em malha fechada; só a thread que completa a resposta anterior mexe no seu estado. */
+    private final class Cliente {
+        private final long fim;
+        private final CountDownLatch terminados;
+        private final LongAdder erros;
+        private long[] latencias = new long[64];
+        private int quantidade;
+
+        Cliente(long fim, CountDownLatch terminados, LongAdder erros) {
+            this.fim = fim;
+            this.terminados = terminados;
+            this.erros = erros;
+        }
+
+        void proxima() {
+            if (System.nanoTime() >= fim) {
+                terminados.countDown();
+                return;
+            }
+            long enviado = System.nanoTime();
+            http.sendAsync(proximaRequisicao(), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((resposta, falha) -> {
+                        registrar(System.nanoTime() - enviado);
+                        if (falha != null || resposta.statusCode() / 100 != 2) {
+                            erros.increment();
+                        }
+                        proxima();
+                    });
+        }
+
+        private void registrar(long nanos) {
+            if (quantidade == latencias.length) {
+                latencias = Arrays.copyOf(latencias, quantidade * 2);
+            }
+            latencias[quantidade++] = nanos;
+        }
+    }
+
+    private record Resultado(long[] latencias, double segundos, long erros) {
+
+        double vazao() {
+            return latencias.length / segundos;
+        }
+
+        /** Em milissegundos. */
+        double percentil(double p) {
+            if (latencias.length == 0) return Double.NaN;
+            int i = (int) Math.min(latencias.length - 1, Math.ceil(p * latencias.length) - 1);
+            return latencias[Math.max(i, 0)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.fadesp.payment.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+/**
+ * Compara dois resultados JSON do JMH (ver {@link ExecutarBenchmarks}) benchmark a benchmark, com os mesmos
+ * parâmetros, e marca como regressão a piora acima da tolerância (em %, padrão 10): score menor em
+ * {@code thrpt}, maior nos modos de tempo. Termina com código 1 se houver regressão, para uso em CI.
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Dbenchmark.main=com.fadesp.payment.benchmarks.CompararBenchmarks \
+ *     -Djmh.args="target/jmh/20250301-101500.json target/jmh/20250302-093000.json 10"</pre>
+ */
+public final class CompararBenchmarks {
+
+    private CompararBenchmarks() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("Uso: <base.json> <atual.json> [tolerancia %]");
+        }
+        double tolerancia = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+        Map<String, JsonNode> base = ler(new File(args[0]));
+        Map<String, JsonNode> atual = ler(new File(args[1]));
+
+        int regressoes = 0;
+        System.out.printf("%-70s %14s %14s %-10s %9s%n", "benchmark", "base", "atual", "unidade", "variação");
+        for (Map.Entry<String, JsonNode> entrada : atual.entrySet()) {
+            JsonNode anterior = base.get(entrada.getKey());
+            JsonNode metrica = entrada.getValue().get("primaryMetric");
+            if (anterior == null) {
+                System.out.printf(Locale.ROOT, "%-70s %14s %14.3f %-10s %9s%n", entrada.getKey(), "-",
+                        metrica.get("score").asDouble(), metrica.get("scoreUnit").asText(), "novo");
+                continue;
+            }
+            double antes = anterior.get("primaryMetric").get("score").asDouble();
+            double depois = metrica.get("score").asDouble();
+            double variacao = (depois - antes) / antes * 100;
+            // em thrpt maior é melhor; nos modos de tempo (avgt, sample, ss), menor é melhor
+            double piora = "thrpt".equals(entrada.getValue().get("mode").asText()) ? -variacao : variacao;
+            boolean regressao = piora > tolerancia;
+            if (regressao) {
+                regressoes++;
+            }
+            System.out.printf(Locale.ROOT, "%-70s %14.3f %14.3f %-10s %+8.1f%%%s%n", entrada.getKey(), antes, depois,
+                    metrica.get("scoreUnit").asText(), variacao, regressao ? "  REGRESSÃO" : "");
+        }
+        base.keySet().stream()
+                .filter(chave -> !atual.containsKey(chave))
+                .forEach(chave -> System.out.printf("%-70s %14s %14s%n", chave, "(só na base)", "-"));
+
+        System.out.printf(Locale.ROOT, "%d regressão(ões) acima de %.1f%%%n", regressoes, tolerancia);
+        if (regressoes > 0) {
+            System.exit(1);
+        }
+    }
+
+    /** Resultados por "Classe.metodo {param=valor, ...}", na ordem do arquivo. */
+    private static Map<String, JsonNode> ler(File arquivo) throws IOException {
+        Map<String, JsonNode> resultados = new LinkedHashMap<>();
+        for (JsonNode resultado : new ObjectMapper().readTree(arquivo)) {
+            String nome = resultado.get("benchmark").asText();
+            nome = nome.substring(nome.lastIndexOf('.', nome.lastIndexOf('.') - 1) + 1);
+
+            Map<String, String> params = new TreeMap<>();
+            JsonNode nos = resultado.get("params");
+            if (nos != null) {
+                Iterator<Map.Entry<String, JsonNode>> campos = nos.fields();
+                campos.forEachRemaining(campo -> params.put(campo.getKey(), campo.getValue().asText()));
+            }
+            StringJoiner chave = new StringJoiner(", ", nome + (params.isEmpty() ? "" : " {"), params.isEmpty() ? "" : "}");
+            params.forEach((k, v) -> chave.add(k + "=" + v));
+            resultados.put(chave.toString(), resultado);
+        }
+        return resultados;
+    }
+}
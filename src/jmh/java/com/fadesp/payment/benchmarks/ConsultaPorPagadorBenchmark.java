@@ -0,0 +1,121 @@
+package com.fadesp.payment.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca da primeira página de um pagador (pagador + status, ORDER BY id) pela chave antiga em texto
+ * ({@code cpf_cnpj_pagador}) e pela chave numérica ({@code documento_pagador} + {@code tipo_documento}), cada uma
+ * com o seu índice composto, sobre a mesma tabela.
+ * <p>
+ * No H2 em memória só a latência é comparável. Para ver também o tamanho de cada índice, aponte para um MySQL
+ * (o tamanho sai de {@code mysql.innodb_index_stats} e é impresso no setup):
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Djmh.args="ConsultaPorPagadorBenchmark"
+ * mvn -Pbenchmarks test-compile exec:exec \
+ *     -Djmh.args="ConsultaPorPagadorBenchmark -p banco=jdbc:mysql://localhost:3306/bench?user=root&amp;password=root"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ConsultaPorPagadorBenchmark {
+
+    private static final int LINHAS = 200_000;
+    private static final int PAGADORES = 20_000;
+    private static final String STATUS = "PROCESSADO_SUCESSO";
+
+    private static final String INDICE_TEXTO = "idx_bench_pagador_texto";
+    private static final String INDICE_NUMERICO = "idx_pagamento_pagador_status";
+
+    private static final String POR_TEXTO = """
+            SELECT id FROM pagamento
+            WHERE cpf_cnpj_pagador = ? AND status = ? AND ativo = TRUE
+            ORDER BY id LIMIT 50
+            """;
+    private static final String POR_CHAVE_NUMERICA = """
+            SELECT id FROM pagamento
+            WHERE documento_pagador = ? AND tipo_documento = 'CPF' AND status = ? AND ativo = TRUE
+            ORDER BY id LIMIT 50
+            """;
+
+    @Param({"texto", "numerica"})
+    public String chave;
+
+    /** "h2" ou uma URL JDBC de MySQL (com usuário e senha na própria URL). */
+    @Param({"h2"})
+    public String banco;
+
+    private ConfigurableApplicationContext contexto;
+    private JdbcTemplate jdbc;
+    private String[] documentos;
+
+    @State(Scope.Thread)
+    public static class Sequencia {
+        int proximo;
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = banco.startsWith("jdbc:mysql")
+                ? BenchmarkSupport.iniciarContexto(
+                        "spring.datasource.url=" + banco,
+                        "spring.datasource.driverClassName=com.mysql.cj.jdbc.Driver",
+                        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+                        // banco de benchmark reaproveitado entre execuções: schema recriado pelo Hibernate
+                        "spring.flyway.enabled=false",
+                        "spring.jpa.hibernate.ddl-auto=create")
+                : BenchmarkSupport.iniciarContexto();
+        jdbc = contexto.getBean(JdbcTemplate.class);
+
+        documentos = new String[PAGADORES];
+        for (int i = 0; i < PAGADORES; i++) {
+            documentos[i] = String.format("%011d", 10_000_000_000L + i);
+        }
+        BenchmarkSupport.popular(contexto, LINHAS, documentos);
+
+        // o índice da chave antiga é recriado só aqui, para comparar os dois sobre os mesmos dados
+        jdbc.execute("CREATE INDEX " + INDICE_TEXTO + " ON pagamento (cpf_cnpj_pagador, status, ativo, id)");
+        if (BenchmarkSupport.isMySql(jdbc)) {
+            jdbc.queryForList("ANALYZE TABLE pagamento");
+            imprimirTamanhoIndices();
+        } else {
+            jdbc.execute("ANALYZE TABLE pagamento");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Long> primeiraPaginaDoPagador(Sequencia sequencia) {
+        String documento = documentos[sequencia.proximo++ % PAGADORES];
+        return "texto".equals(chave)
+                ? jdbc.queryForList(POR_TEXTO, Long.class, documento, STATUS)
+                : jdbc.queryForList(POR_CHAVE_NUMERICA, Long.class, Long.parseLong(documento), STATUS);
+    }
+
+    private void imprimirTamanhoIndices() {
+        List<Map<String, Object>> tamanhos = jdbc.queryForList("""
+                SELECT index_name, stat_value * @@innodb_page_size AS bytes
+                FROM mysql.innodb_index_stats
+                WHERE database_name = DATABASE() AND table_name = 'pagamento' AND stat_name = 'size'
+                  AND index_name IN (?, ?)
+                """, INDICE_TEXTO, INDICE_NUMERICO);
+        List<String> linhas = new ArrayList<>();
+        for (Map<String, Object> t : tamanhos) {
+            linhas.add(t.get("index_name") + " = " + (((Number) t.get("bytes")).longValue() / 1024) + " KiB");
+        }
+        System.out.println("[ConsultaPorPagadorBenchmark] tamanho dos índices: " + String.join(", ", linhas));
+    }
+}
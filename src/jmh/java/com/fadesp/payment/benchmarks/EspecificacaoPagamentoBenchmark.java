@@ -0,0 +1,84 @@
+package com.fadesp.payment.benchmarks;
+
+import com.fadesp.payment.domain.dtos.FiltroPagamentoDTO;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.repositories.PagamentoSpecification;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de montar o filtro da listagem antes de qualquer ida ao banco: a {@link Specification} de
+ * {@link PagamentoSpecification#comFiltro} aplicada a uma {@link CriteriaQuery} nova (como faz o repositório a cada
+ * chamada) e, em seguida, a criação da consulta pelo Hibernate, para cada combinação de filtros.
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Djmh.args="EspecificacaoPagamentoBenchmark -prof gc"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EspecificacaoPagamentoBenchmark {
+
+    private static final Instant AGORA = Instant.parse("2025-03-01T00:00:00Z");
+
+    @Param({"nenhum", "cpfCnpj", "cpfCnpj+status", "status+periodo", "todos"})
+    public String filtro;
+
+    private ConfigurableApplicationContext contexto;
+    private EntityManager entityManager;
+    private CriteriaBuilder builder;
+    private FiltroPagamentoDTO dto;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = BenchmarkSupport.iniciarContexto();
+        entityManager = contexto.getBean(EntityManagerFactory.class).createEntityManager();
+        builder = entityManager.getCriteriaBuilder();
+        Instant de = AGORA.minus(30, ChronoUnit.DAYS);
+        dto = switch (filtro) {
+            case "nenhum" -> new FiltroPagamentoDTO(null, null, null, null, null);
+            case "cpfCnpj" -> new FiltroPagamentoDTO(null, "529.982.247-25", null, null, null);
+            case "cpfCnpj+status" -> new FiltroPagamentoDTO(null, "52998224725", StatusPagamentoEnum.PROCESSADO_SUCESSO, null, null);
+            case "status+periodo" -> new FiltroPagamentoDTO(null, null, StatusPagamentoEnum.PENDENTE_PROCESSAMENTO, de, AGORA);
+            case "todos" -> new FiltroPagamentoDTO(213261, "11.222.333/0001-81", StatusPagamentoEnum.PROCESSADO_FALHA, de, AGORA);
+            default -> throw new IllegalArgumentException(filtro);
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        contexto.close();
+    }
+
+    @Benchmark
+    public Predicate construirPredicado() {
+        CriteriaQuery<Pagamento> query = builder.createQuery(Pagamento.class);
+        Root<Pagamento> root = query.from(Pagamento.class);
+        return PagamentoSpecification.<Pagamento>comFiltro(dto).toPredicate(root, query, builder);
+    }
+
+    @Benchmark
+    public TypedQuery<Pagamento> criarConsulta() {
+        CriteriaQuery<Pagamento> query = builder.createQuery(Pagamento.class);
+        Root<Pagamento> root = query.from(Pagamento.class);
+        query.where(PagamentoSpecification.<Pagamento>comFiltro(dto).toPredicate(root, query, builder));
+        query.orderBy(builder.asc(root.get("id")));
+        return entityManager.createQuery(query);
+    }
+}
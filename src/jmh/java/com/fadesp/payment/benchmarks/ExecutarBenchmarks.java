@@ -0,0 +1,35 @@
+package com.fadesp.payment.benchmarks;
+
+import org.openjdk.jmh.Main;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ponto de entrada padrão do profile {@code benchmarks}: repassa os argumentos ao JMH e, se a execução não escolheu
+ * outro formato ({@code -rf}/{@code -rff}), grava o resultado em JSON em {@code target/jmh/<data-hora>.json}
+ * (diretório ajustável por {@code -Djmh.resultados}). Dois arquivos desses são comparados pelo
+ * {@link CompararBenchmarks}.
+ */
+public final class ExecutarBenchmarks {
+
+    private static final DateTimeFormatter DATA_HORA = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private ExecutarBenchmarks() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> argumentos = new ArrayList<>(List.of(args));
+        if (!argumentos.contains("-rf") && !argumentos.contains("-rff")) {
+            Path destino = Path.of(System.getProperty("jmh.resultados", "target/jmh"),
+                    LocalDateTime.now().format(DATA_HORA) + ".json");
+            Files.createDirectories(destino.getParent());
+            argumentos.addAll(List.of("-rf", "json", "-rff", destino.toString()));
+        }
+        Main.main(argumentos.toArray(String[]::new));
+    }
+}
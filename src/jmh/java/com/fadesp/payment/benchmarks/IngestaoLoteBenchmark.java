@@ -0,0 +1,85 @@
+package com.fadesp.payment.benchmarks;
+
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.ResultadoLoteDTO;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.services.PagamentoLoteService;
+import com.fadesp.payment.services.PagamentoService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vazão de criação (pagamentos/s): {@code realizar} item a item (uma transação e um INSERT por pagamento) contra
+ * {@code realizarLote} (uma checagem de duplicidade e um batch de INSERTs por bloco).
+ * Cada invocação grava {@value #ITENS} pagamentos com códigos de débito inéditos. Com {@code filtro=true}, o
+ * filtro de códigos de débito descarta todos e o lote não faz a consulta de duplicidade.
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Djmh.args="IngestaoLoteBenchmark"</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class IngestaoLoteBenchmark {
+
+    private static final int ITENS = 1_000;
+
+    @Param({"100", "500"})
+    public int tamanhoLote;
+
+    @Param({"true", "false"})
+    public boolean filtro;
+
+    private final AtomicInteger proximoCodigo = new AtomicInteger(1_000_000);
+    private ConfigurableApplicationContext contexto;
+    private PagamentoService service;
+    private PagamentoLoteService loteService;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = BenchmarkSupport.iniciarContexto(
+                "pagamento.lote.tamanho=" + tamanhoLote,
+                "spring.jpa.properties.hibernate.jdbc.batch_size=" + tamanhoLote,
+                "pagamento.codigo-debito.filtro.habilitado=" + filtro);
+        BenchmarkSupport.popular(contexto, 10_000);
+        service = contexto.getBean(PagamentoService.class);
+        loteService = contexto.getBean(PagamentoLoteService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITENS)
+    public void individual(Blackhole bh) {
+        for (PagamentoDTO dto : novosPagamentos()) {
+            bh.consume(service.realizar(dto));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITENS)
+    public ResultadoLoteDTO lote() {
+        return loteService.realizarLote(novosPagamentos());
+    }
+
+    private List<PagamentoDTO> novosPagamentos() {
+        List<PagamentoDTO> dtos = new ArrayList<>(ITENS);
+        for (int i = 0; i < ITENS; i++) {
+            dtos.add(new PagamentoDTO(proximoCodigo.incrementAndGet(), "52998224725",
+                    MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null));
+        }
+        return dtos;
+    }
+}
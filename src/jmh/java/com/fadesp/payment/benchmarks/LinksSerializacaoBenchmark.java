@@ -0,0 +1,95 @@
+package com.fadesp.payment.benchmarks;
+
+import com.fadesp.payment.controllers.PagamentoController;
+import com.fadesp.payment.controllers.PagamentoModelAssembler;
+import com.fadesp.payment.domain.dtos.FiltroPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Custo de montar os links e serializar a resposta do {@code listar} para 1.000 pagamentos: o modo antigo
+ * ({@code linkTo(methodOn(...))} quatro vezes por item) contra o {@link PagamentoModelAssembler}, que expande
+ * templates resolvidos na inicialização, com a serialização dos mesmos pagamentos sem links como referência. Roda sem
+ * contexto Spring; a requisição corrente é simulada.
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Djmh.args="LinksSerializacaoBenchmark -prof gc"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LinksSerializacaoBenchmark {
+
+    private static final int LINHAS = 1_000;
+
+    private List<PagamentoRespostaDTO> pagamentos;
+    private PagamentoModelAssembler assembler;
+    private ObjectMapper objectMapper;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        // o estado é por thread, então o RequestContextHolder (thread-local) vale para os métodos medidos
+        MockHttpServletRequest requisicao = new MockHttpServletRequest("GET", "/pagamentos");
+        requisicao.setServerName("api.exemplo.com");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(requisicao));
+
+        assembler = new PagamentoModelAssembler();
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        pagamentos = new ArrayList<>(LINHAS);
+        for (int i = 1; i <= LINHAS; i++) {
+            pagamentos.add(new PagamentoRespostaDTO((long) i, i,
+                    BenchmarkSupport.DOCUMENTOS[i % BenchmarkSupport.DOCUMENTOS.length], MetodoPagamentoEnum.PIX, null,
+                    BigDecimal.valueOf(i, 2), StatusPagamentoEnum.PENDENTE_PROCESSAMENTO, Boolean.TRUE, Instant.EPOCH, Instant.EPOCH, 0L));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public byte[] semLinks() throws Exception {
+        return objectMapper.writeValueAsBytes(pagamentos);
+    }
+
+    @Benchmark
+    public byte[] linkToMethodOn() throws Exception {
+        List<EntityModel<PagamentoRespostaDTO>> modelos = new ArrayList<>(pagamentos.size());
+        for (PagamentoRespostaDTO p : pagamentos) {
+            modelos.add(EntityModel.of(p,
+                    linkTo(methodOn(PagamentoController.class).buscar(p.id())).withSelfRel().withType("GET"),
+                    linkTo(methodOn(PagamentoController.class).listar(new FiltroPagamentoDTO(null, null, null, null, null), false))
+                            .withRel("listar").withType("GET"),
+                    linkTo(methodOn(PagamentoController.class).atualizarStatus(p.id(), null))
+                            .withRel("atualizar-status").withType("PUT"),
+                    linkTo(methodOn(PagamentoController.class).excluir(p.id()))
+                            .withRel("excluir").withType("DELETE")));
+        }
+        return objectMapper.writeValueAsBytes(modelos);
+    }
+
+    @Benchmark
+    public byte[] templatesPreResolvidos() throws Exception {
+        return objectMapper.writeValueAsBytes(assembler.toModels(pagamentos));
+    }
+}
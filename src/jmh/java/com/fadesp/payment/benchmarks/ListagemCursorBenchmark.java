@@ -0,0 +1,66 @@
+package com.fadesp.payment.benchmarks;
+
+import com.fadesp.payment.domain.dtos.FiltroPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.services.PagamentoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latência e alocação de uma página keyset ({@code listarPorCursor}) contra a listagem completa ({@code listar})
+ * conforme a tabela cresce. Com {@code -prof gc} o JMH reporta bytes alocados por operação
+ * ({@code gc.alloc.rate.norm}): na paginação keyset o valor fica estável entre os tamanhos, na listagem completa
+ * cresce linearmente com o número de linhas.
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Djmh.args="ListagemCursorBenchmark -prof gc"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ListagemCursorBenchmark {
+
+    private static final FiltroPagamentoDTO SEM_FILTRO = new FiltroPagamentoDTO(null, null, null, null, null);
+    private static final int LIMITE = 50;
+
+    @Param({"10000", "100000", "1000000"})
+    public int linhas;
+
+    private ConfigurableApplicationContext contexto;
+    private PagamentoService service;
+    private long cursorMeio;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = BenchmarkSupport.iniciarContexto();
+        BenchmarkSupport.popular(contexto, linhas);
+        service = contexto.getBean(PagamentoService.class);
+        cursorMeio = linhas / 2;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public Window<PagamentoRespostaDTO> cursor_primeiraPagina() {
+        return service.listarPorCursor(SEM_FILTRO, null, LIMITE);
+    }
+
+    @Benchmark
+    public Window<PagamentoRespostaDTO> cursor_paginaNoMeio() {
+        return service.listarPorCursor(SEM_FILTRO, cursorMeio, LIMITE);
+    }
+
+    @Benchmark
+    public List<PagamentoRespostaDTO> listagemCompleta() {
+        return service.listar(SEM_FILTRO);
+    }
+}
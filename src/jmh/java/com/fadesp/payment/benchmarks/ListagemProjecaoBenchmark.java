@@ -0,0 +1,69 @@
+package com.fadesp.payment.benchmarks;
+
+import com.fadesp.payment.domain.dtos.FiltroPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.repositories.PagamentoRepository;
+import com.fadesp.payment.repositories.PagamentoSpecification;
+import com.fadesp.payment.services.PagamentoService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por linha da listagem: entidades gerenciadas ({@code findAll(spec)}, como antes) contra a projeção em
+ * {@link PagamentoRespostaDTO} usada hoje pelo {@code listar}. Os resultados saem por linha
+ * ({@code @OperationsPerInvocation}); com {@code -prof gc}, {@code gc.alloc.rate.norm} dá os bytes alocados por
+ * pagamento listado.
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Djmh.args="ListagemProjecaoBenchmark -prof gc"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ListagemProjecaoBenchmark {
+
+    private static final int LINHAS = 10_000;
+    private static final FiltroPagamentoDTO SEM_FILTRO = new FiltroPagamentoDTO(null, null, null, null, null);
+
+    private ConfigurableApplicationContext contexto;
+    private PagamentoService service;
+    private PagamentoRepository repository;
+    private TransactionTemplate somenteLeitura;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = BenchmarkSupport.iniciarContexto();
+        BenchmarkSupport.popular(contexto, LINHAS);
+        service = contexto.getBean(PagamentoService.class);
+        repository = contexto.getBean(PagamentoRepository.class);
+        somenteLeitura = new TransactionTemplate(contexto.getBean(PlatformTransactionManager.class));
+        somenteLeitura.setReadOnly(true);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public List<Pagamento> entidades() {
+        Specification<Pagamento> spec = Specification.where(PagamentoSpecification.comFiltro(SEM_FILTRO));
+        return somenteLeitura.execute(status -> repository.findAll(spec));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LINHAS)
+    public List<PagamentoRespostaDTO> projecao() {
+        return service.listar(SEM_FILTRO);
+    }
+}
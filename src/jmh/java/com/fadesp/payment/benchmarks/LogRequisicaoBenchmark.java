@@ -0,0 +1,126 @@
+package com.fadesp.payment.benchmarks;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.exceptions.GlobalExceptionHandler;
+import com.fadesp.payment.exceptions.StatusPagamentoException;
+import com.fadesp.payment.services.PagamentoService;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vazão do caminho de escrita com a configuração de logs antiga e com o profile {@code producao}:
+ * <ul>
+ *     <li>{@code anterior}: {@code show-sql} + {@code format_sql} e as linhas por requisição de {@code PagamentoService}
+ *     em INFO (emuladas com DEBUG ligado no pacote), console síncrono; a rejeição é registrada em ERROR com stack
+ *     trace, como fazia {@code createLogError};</li>
+ *     <li>{@code producao}: sem eco de SQL, só os resumos em INFO, JSON de uma linha por um appender assíncrono;
+ *     a rejeição passa pelo {@link GlobalExceptionHandler} (uma linha WARN, sem stack trace).</li>
+ * </ul>
+ * O stdout do fork vai para {@code target/log-requisicao-<modo>.log}, como um coletor lendo o console do container.
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Djmh.args="LogRequisicaoBenchmark"</pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class LogRequisicaoBenchmark {
+
+    private static final int LINHAS = 30_000;
+
+    // mesma mensagem do createLogError antigo, com o logger do handler
+    private static final Logger logAnterior = LoggerFactory.getLogger(GlobalExceptionHandler.class);
+
+    @Param({"anterior", "producao"})
+    public String modo;
+
+    private ConfigurableApplicationContext contexto;
+    private PagamentoService service;
+    private GlobalExceptionHandler handler;
+    private PrintStream console;
+    private final AtomicInteger codigoDebito = new AtomicInteger(LINHAS);
+
+    @State(Scope.Thread)
+    public static class Sequencia {
+        long proximo;
+
+        /** Ids populados com {@code PROCESSADO_SUCESSO}: nova transição para sucesso é rejeitada. */
+        long idProcessado() {
+            return 1 + 3 * (proximo++ % (LINHAS / 3));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() throws FileNotFoundException {
+        console = System.out;
+        System.setOut(new PrintStream(new BufferedOutputStream(
+                new FileOutputStream("target/log-requisicao-" + modo + ".log"), 8192), true));
+
+        String[] comuns = {
+                "logging.level.root=INFO",
+                "pagamento.outbox.habilitado=false",
+                "pagamento.processamento.habilitado=false"
+        };
+        contexto = "anterior".equals(modo)
+                ? BenchmarkSupport.iniciarContexto(concatenar(comuns,
+                        "spring.jpa.show-sql=true",
+                        "spring.jpa.properties.hibernate.format_sql=true",
+                        "logging.level.com.fadesp.payment=DEBUG"))
+                : BenchmarkSupport.iniciarContexto(concatenar(comuns,
+                        "spring.profiles.active=producao"));
+        BenchmarkSupport.popular(contexto, LINHAS);
+        service = contexto.getBean(PagamentoService.class);
+        handler = contexto.getBean(GlobalExceptionHandler.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+        System.out.close();
+        System.setOut(console);
+    }
+
+    @Benchmark
+    public Pagamento criarPagamento() {
+        return service.realizar(new PagamentoDTO(codigoDebito.incrementAndGet(), "52998224725",
+                MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null));
+    }
+
+    @Benchmark
+    public Object rejeitarTransicao(Sequencia sequencia) {
+        try {
+            return service.atualizar(new AtualizarPagamentoDTO(sequencia.idProcessado(),
+                    StatusPagamentoEnum.PROCESSADO_SUCESSO));
+        } catch (StatusPagamentoException ex) {
+            if ("anterior".equals(modo)) {
+                logAnterior.error("Exception: {} | Message: {}", ex.getClass().getSimpleName(), ex.getMessage(), ex);
+                return ex;
+            }
+            return handler.handleBusinessExceptions(ex);
+        }
+    }
+
+    private static String[] concatenar(String[] comuns, String... especificas) {
+        String[] todas = new String[comuns.length + especificas.length];
+        System.arraycopy(comuns, 0, todas, 0, comuns.length);
+        System.arraycopy(especificas, 0, todas, comuns.length, especificas.length);
+        return todas;
+    }
+}
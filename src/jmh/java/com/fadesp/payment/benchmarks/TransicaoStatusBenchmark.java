@@ -0,0 +1,109 @@
+package com.fadesp.payment.benchmarks;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.exceptions.StatusPagamentoException;
+import com.fadesp.payment.services.PagamentoService;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.infra.ThreadParams;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Máquina de estados de {@code PagamentoService.atualizar}: transição aceita (UPDATE condicional + releitura + evento
+ * do outbox, com commit), transição rejeitada (UPDATE sem linha afetada, leitura do motivo e exceção) e, sem banco,
+ * só a validação de {@link StatusPagamentoEnum#validarTransicaoPara} nos nove pares de status.
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Djmh.args="TransicaoStatusBenchmark -prof gc"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class TransicaoStatusBenchmark {
+
+    private static final int LINHAS = 30_000;
+    private static final StatusPagamentoEnum[] STATUS = StatusPagamentoEnum.values();
+
+    private ConfigurableApplicationContext contexto;
+    private PagamentoService service;
+
+    /**
+     * Cada thread fica com um pagamento pendente só seu (id múltiplo de 3 em {@link BenchmarkSupport#popular}) e
+     * percorre PENDENTE -> FALHA -> PENDENTE, que nunca termina num estado final.
+     */
+    @State(Scope.Thread)
+    public static class Ciclo {
+        long id;
+        boolean pendente = true;
+
+        @Setup(Level.Trial)
+        public void setup(ThreadParams thread) {
+            id = 3L * (1 + thread.getThreadIndex());
+        }
+    }
+
+    /** Ids populados com PROCESSADO_SUCESSO (resto 1 na divisão por 3): qualquer transição é rejeitada. */
+    @State(Scope.Thread)
+    public static class Processados {
+        long proximo;
+
+        long id() {
+            return 1 + 3 * (proximo++ % (LINHAS / 3));
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        contexto = BenchmarkSupport.iniciarContexto(
+                "pagamento.outbox.habilitado=false",
+                "pagamento.cache.habilitado=false");
+        BenchmarkSupport.popular(contexto, LINHAS);
+        service = contexto.getBean(PagamentoService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public PagamentoRespostaDTO aceita(Ciclo ciclo) {
+        StatusPagamentoEnum destino = ciclo.pendente
+                ? StatusPagamentoEnum.PROCESSADO_FALHA
+                : StatusPagamentoEnum.PENDENTE_PROCESSAMENTO;
+        PagamentoRespostaDTO salvo = service.atualizar(new AtualizarPagamentoDTO(ciclo.id, destino));
+        ciclo.pendente = !ciclo.pendente;
+        return salvo;
+    }
+
+    @Benchmark
+    public Object rejeitada(Processados processados) {
+        try {
+            return service.atualizar(new AtualizarPagamentoDTO(processados.id(),
+                    StatusPagamentoEnum.PROCESSADO_FALHA));
+        } catch (StatusPagamentoException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void validarTransicoes(Blackhole bh) {
+        for (StatusPagamentoEnum origem : STATUS) {
+            for (StatusPagamentoEnum destino : STATUS) {
+                try {
+                    origem.validarTransicaoPara(destino);
+                    bh.consume(destino.origemPermitida());
+                } catch (StatusPagamentoException ex) {
+                    bh.consume(ex);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.fadesp.payment.benchmarks;
+
+import com.fadesp.payment.util.IsCpfCnpj;
+import com.fadesp.payment.util.IsCpfCnpjLegado;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo por validação de CPF/CNPJ: implementação original (regex + {@code replaceAll}) contra a validação
+ * sem alocação. Rodar com {@code -prof gc} para ver os bytes alocados por chamada.
+ *
+ * <pre>mvn -Pbenchmarks test-compile exec:exec -Djmh.args="ValidacaoDocumentoBenchmark -prof gc"</pre>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacaoDocumentoBenchmark {
+
+    @Param({"52998224725", "529.982.247-25", "11.222.333/0001-81", "529.982.247-26"})
+    public String documento;
+
+    private final char[] buffer = new char[IsCpfCnpj.TAMANHO_CNPJ];
+
+    @Benchmark
+    public boolean legado() {
+        return IsCpfCnpjLegado.isCpfOrCnpj(documento);
+    }
+
+    @Benchmark
+    public boolean semAlocacao() {
+        return IsCpfCnpj.isCpfOrCnpj(documento);
+    }
+
+    @Benchmark
+    public int normalizarComBuffer() {
+        return IsCpfCnpj.normalizar(documento, buffer);
+    }
+}
@@ -0,0 +1,249 @@
+package com.fadesp.payment.controllers;
+
+import com.fadesp.payment.domain.dtos.EventoPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.services.EventoPagamentoService;
+import com.fadesp.payment.services.FluxoEventosPagamento;
+import com.fadesp.payment.services.ObservadoresPagamento;
+import com.fadesp.payment.services.PagamentoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.persistence.EntityNotFoundException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+@RestController
+@RequestMapping("/pagamentos")
+@Tag(name = "Eventos", description = "Stream das mudanças de pagamentos (Server-Sent Events)")
+public class EventoPagamentoController {
+
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+    private static final int PAGINA_RETOMADA = 500;
+
+    private final FluxoEventosPagamento fluxo;
+    private final EventoPagamentoService eventoPagamentoService;
+    private final ObservadoresPagamento observadores;
+    private final PagamentoService pagamentoService;
+    private final Duration timeout;
+    private final Duration timeoutObservacao;
+    private final Duration esperaMaxima;
+
+    public EventoPagamentoController(FluxoEventosPagamento fluxo,
+                                     EventoPagamentoService eventoPagamentoService,
+                                     ObservadoresPagamento observadores,
+                                     PagamentoService pagamentoService,
+                                     @Value("${pagamento.outbox.sse.timeout:PT30M}") Duration timeout,
+                                     @Value("${pagamento.observacao.sse.timeout:PT5M}") Duration timeoutObservacao,
+                                     @Value("${pagamento.observacao.espera-maxima:PT60S}") Duration esperaMaxima) {
+        this.fluxo = fluxo;
+        this.eventoPagamentoService = eventoPagamentoService;
+        this.observadores = observadores;
+        this.pagamentoService = pagamentoService;
+        this.timeout = timeout;
+        this.timeoutObservacao = timeoutObservacao;
+        this.esperaMaxima = esperaMaxima;
+    }
+
+    /**
+     * Mantém a conexão aberta e envia cada evento publicado pelo relay ({@code id} = posição de publicação,
+     * {@code event} = tipo). Com {@code Last-Event-ID} (enviado pelo EventSource ao reconectar) ou {@code aposId},
+     * primeiro reenvia do banco os eventos publicados depois dessa posição.
+     */
+    @GetMapping(value = "/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Acompanhar criações, mudanças de status e exclusões (SSE)")
+    public SseEmitter eventos(@RequestHeader(value = LAST_EVENT_ID, required = false) Long ultimoEventoId,
+                              @Parameter(description = "Reenvia os eventos publicados depois deste id do stream")
+                              @RequestParam(required = false) Long aposId) {
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Long retomarApos = (ultimoEventoId != null) ? ultimoEventoId : aposId;
+        Assinante assinante = new Assinante(emitter, retomarApos);
+
+        // assina antes de ler o banco: o que for publicado durante a retomada fica retido, sem se perder
+        Runnable cancelar = fluxo.assinar(assinante);
+        emitter.onCompletion(cancelar);
+        emitter.onTimeout(cancelar);
+        emitter.onError(erro -> cancelar.run());
+
+        if (retomarApos != null) {
+            retomar(assinante, retomarApos);
+        }
+        return emitter;
+    }
+
+    /**
+     * Estado atual do pagamento e, depois, cada mudança ({@code id} = versão, {@code event} = {@code status}).
+     * O stream termina quando o pagamento chega a um estado final (sucesso ou excluído) ou no timeout.
+     */
+    @GetMapping(value = "/{id}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Acompanhar o status de um pagamento (SSE)")
+    public SseEmitter eventosDoPagamento(@PathVariable Long id) {
+        SseEmitter emitter = new SseEmitter(timeoutObservacao.toMillis());
+        Acompanhamento acompanhamento = new Acompanhamento(pagamento -> {
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(pagamento.versao()))
+                        .name("status")
+                        .data(pagamento, MediaType.APPLICATION_JSON));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            if (isFinal(pagamento)) {
+                emitter.complete();
+            }
+        });
+
+        Runnable cancelar = observar(id, acompanhamento);
+        emitter.onCompletion(cancelar);
+        emitter.onTimeout(cancelar);
+        emitter.onError(erro -> cancelar.run());
+        return emitter;
+    }
+
+    /**
+     * Long-poll: responde assim que o pagamento mudar (versão maior que {@code versao}) ou, sem {@code versao},
+     * assim que sair de {@code PENDENTE_PROCESSAMENTO}. Sem mudança em {@code timeout} segundos, devolve 204 e o
+     * cliente repete a chamada.
+     */
+    @GetMapping("/{id}/aguardar")
+    @Operation(summary = "Aguardar mudança de status de um pagamento (long-poll)")
+    public DeferredResult<ResponseEntity<PagamentoRespostaDTO>> aguardar(
+            @PathVariable Long id,
+            @Parameter(description = "Última versão conhecida; sem ela, aguarda o pagamento sair de pendente")
+            @RequestParam(required = false) Long versao,
+            @Parameter(description = "Espera máxima em segundos (limitada por pagamento.observacao.espera-maxima)")
+            @RequestParam(defaultValue = "30") long timeout) {
+        long espera = Math.max(1, Math.min(timeout, esperaMaxima.toSeconds()));
+        DeferredResult<ResponseEntity<PagamentoRespostaDTO>> resultado =
+                new DeferredResult<>(Duration.ofSeconds(espera).toMillis(), ResponseEntity.noContent().build());
+
+        Acompanhamento acompanhamento = new Acompanhamento(pagamento -> {
+            boolean mudou = (versao != null) ? pagamento.versao() > versao : !pagamento.status().isPendente() || !pagamento.ativo();
+            if (mudou) {
+                resultado.setResult(ResponseEntity.ok(pagamento));
+            }
+        });
+
+        Runnable cancelar = observar(id, acompanhamento);
+        resultado.onCompletion(cancelar);
+        return resultado;
+    }
+
+    // observa antes de ler o estado atual: uma mudança entre a leitura e o registro não se perde
+    private Runnable observar(Long id, Acompanhamento acompanhamento) {
+        Runnable cancelar = observadores.observar(id, acompanhamento);
+        // um pagamento arquivado já está no estado final
+        PagamentoRespostaDTO atual = pagamentoService.buscarPorId(id, true).orElse(null);
+        if (atual == null) {
+            cancelar.run();
+            throw new EntityNotFoundException("Pagamento não encontrado.");
+        }
+        acompanhamento.accept(atual);
+        return cancelar;
+    }
+
+    private static boolean isFinal(PagamentoRespostaDTO pagamento) {
+        return pagamento.status().isSucesso() || Boolean.FALSE.equals(pagamento.ativo());
+    }
+
+    private void retomar(Assinante assinante, long aposId) {
+        List<EventoPagamentoDTO> historico = new ArrayList<>();
+        long cursor = aposId;
+        List<EventoPagamentoDTO> pagina;
+        do {
+            pagina = eventoPagamentoService.buscarPublicadosApos(cursor, PAGINA_RETOMADA);
+            historico.addAll(pagina);
+            if (!pagina.isEmpty()) {
+                cursor = pagina.get(pagina.size() - 1).posicao();
+            }
+        } while (pagina.size() == PAGINA_RETOMADA);
+        assinante.concluirRetomada(historico);
+    }
+
+    /**
+     * Repassa as versões de um pagamento em ordem, descartando as já vistas: a leitura inicial (que pode vir do
+     * cache) e uma notificação concorrente chegam em qualquer ordem.
+     */
+    private static final class Acompanhamento implements Consumer<PagamentoRespostaDTO> {
+
+        private final Consumer<PagamentoRespostaDTO> destino;
+        private long ultimaVersao = -1;
+
+        Acompanhamento(Consumer<PagamentoRespostaDTO> destino) {
+            this.destino = destino;
+        }
+
+        @Override
+        public synchronized void accept(PagamentoRespostaDTO pagamento) {
+            if (pagamento.versao() > ultimaVersao) {
+                ultimaVersao = pagamento.versao();
+                destino.accept(pagamento);
+            }
+        }
+    }
+
+    /**
+     * Envia os eventos ao cliente em ordem de posição, sem repetir; enquanto a retomada não termina, retém os eventos
+     * ao vivo.
+     */
+    private static final class Assinante implements Consumer<EventoPagamentoDTO> {
+
+        private final SseEmitter emitter;
+        private List<EventoPagamentoDTO> retidos;
+        private long ultimaPosicao;
+
+        Assinante(SseEmitter emitter, Long retomarApos) {
+            this.emitter = emitter;
+            this.retidos = (retomarApos != null) ? new ArrayList<>() : null;
+            this.ultimaPosicao = (retomarApos != null) ? retomarApos : 0;
+        }
+
+        @Override
+        public synchronized void accept(EventoPagamentoDTO evento) {
+            if (retidos != null) {
+                retidos.add(evento);
+            } else {
+                enviar(evento);
+            }
+        }
+
+        synchronized void concluirRetomada(List<EventoPagamentoDTO> historico) {
+            historico.forEach(this::enviar);
+            // um evento publicado durante a leitura pode estar nas duas listas
+            retidos.forEach(this::enviar);
+            retidos = null;
+        }
+
+        private void enviar(EventoPagamentoDTO evento) {
+            if (evento.posicao() <= ultimaPosicao) {
+                return;
+            }
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(evento.posicao()))
+                        .name(evento.tipo().name())
+                        .data(evento, MediaType.APPLICATION_JSON));
+            } catch (IOException ex) {
+                // cliente desconectado; o FluxoEventosPagamento remove o assinante
+                throw new UncheckedIOException(ex);
+            }
+            ultimaPosicao = evento.posicao();
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.fadesp.payment.controllers;
+
+import com.fadesp.payment.domain.dtos.ResumoPagadorDTO;
+import com.fadesp.payment.domain.dtos.VerificacaoResumoPagadorDTO;
+import com.fadesp.payment.services.ResumoPagadorService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/pagadores")
+@Tag(name = "Pagadores", description = "Totais por pagador (CPF/CNPJ)")
+public class PagadorController {
+
+    private final ResumoPagadorService resumoPagadorService;
+
+    public PagadorController(ResumoPagadorService resumoPagadorService) {
+        this.resumoPagadorService = resumoPagadorService;
+    }
+
+    @GetMapping("/{cpfCnpj}/resumo")
+    @Operation(summary = "Quantidade e valor dos pagamentos ativos do pagador, por status e por método")
+    @ApiResponse(responseCode = "200", description = "Resumo (zerado se o pagador não tiver pagamentos)")
+    @ApiResponse(responseCode = "400", description = "CPF/CNPJ inválido")
+    public ResponseEntity<ResumoPagadorDTO> resumo(@PathVariable String cpfCnpj) {
+        return ResponseEntity.ok(resumoPagadorService.buscar(cpfCnpj));
+    }
+
+    @PostMapping("/{cpfCnpj}/resumo/verificacao")
+    @Operation(summary = "Recalcular o resumo do pagador a partir dos pagamentos e corrigir divergências")
+    @ApiResponse(responseCode = "200", description = "Células divergentes encontradas (já corrigidas)")
+    public ResponseEntity<VerificacaoResumoPagadorDTO> verificar(@PathVariable String cpfCnpj) {
+        return ResponseEntity.ok(resumoPagadorService.verificar(cpfCnpj));
+    }
+}
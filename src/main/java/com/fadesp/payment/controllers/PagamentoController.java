@@ -2,53 +2,119 @@ package com.fadesp.payment.controllers;
 
 import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
 import com.fadesp.payment.domain.dtos.FiltroPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PaginaPagamentoDTO;
+import com.fadesp.payment.domain.dtos.RespostaIdempotenteDTO;
+import com.fadesp.payment.domain.dtos.ResultadoLoteDTO;
+import com.fadesp.payment.domain.dtos.ResultadoStatusLoteDTO;
 import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
 import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.enums.FormatoExportacaoEnum;
+import com.fadesp.payment.services.AgrupadorCriacaoPagamento;
+import com.fadesp.payment.services.IdempotenciaService;
+import com.fadesp.payment.services.PagamentoLoteService;
 import com.fadesp.payment.services.PagamentoService;
+import com.fadesp.payment.util.CursorPaginacao;
+import com.fadesp.payment.util.PagamentoExportWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.data.domain.Window;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
-import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/pagamentos")
 @Tag(name = "Pagamentos", description = "API para realizar, consultar, atualizar status e excluir logicamente pagamentos")
 public class PagamentoController {
 
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final PagamentoService pagamentoService;
+    private final PagamentoLoteService pagamentoLoteService;
+    private final IdempotenciaService idempotenciaService;
+    private final AgrupadorCriacaoPagamento agrupadorCriacao;
+    private final PagamentoModelAssembler assembler;
 
-    public PagamentoController(PagamentoService pagamentoService) {
+    public PagamentoController(PagamentoService pagamentoService,
+                               PagamentoLoteService pagamentoLoteService,
+                               IdempotenciaService idempotenciaService,
+                               AgrupadorCriacaoPagamento agrupadorCriacao,
+                               PagamentoModelAssembler assembler) {
         this.pagamentoService = pagamentoService;
+        this.pagamentoLoteService = pagamentoLoteService;
+        this.idempotenciaService = idempotenciaService;
+        this.agrupadorCriacao = agrupadorCriacao;
+        this.assembler = assembler;
     }
 
     @PostMapping
     @Operation(summary = "Criar/receber pagamento")
     @ApiResponse(responseCode = "201", description = "Pagamento criado")
-    public ResponseEntity<Pagamento> criar(@RequestBody @Valid PagamentoDTO dto) {
-        Pagamento pagamento = pagamentoService.realizar(dto);
-        addLinks(pagamento);
-        return ResponseEntity.created(URI.create("/pagamentos/" + pagamento.getId())).body(pagamento);
+    @ApiResponse(responseCode = "422", description = "Idempotency-Key reutilizada com outro corpo")
+    public ResponseEntity<EntityModel<PagamentoRespostaDTO>> criar(@RequestHeader(value = IDEMPOTENCY_KEY, required = false) String chave,
+                                                        @RequestBody @Valid PagamentoDTO dto) {
+        if (chave == null) {
+            // com pagamento.criacao.agrupada.habilitado, o commit é compartilhado com outras criações simultâneas
+            Pagamento pagamento = agrupadorCriacao.realizar(dto);
+            return ResponseEntity.created(URI.create("/pagamentos/" + pagamento.getId()))
+                    .body(assembler.toModel(PagamentoRespostaDTO.de(pagamento)));
+        }
+
+        // a repetição devolve o corpo do 201 original, não o estado atual do pagamento
+        RespostaIdempotenteDTO resposta = idempotenciaService.realizar(chave, dto);
+        PagamentoRespostaDTO pagamento = resposta.pagamento();
+        return ResponseEntity.status(resposta.statusHttp())
+                .location(URI.create("/pagamentos/" + pagamento.id()))
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(resposta.repetida()))
+                .body(assembler.toModel(pagamento));
+    }
+
+    @PostMapping(value = "/lote", consumes = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Criar pagamentos em lote (array JSON)")
+    @ApiResponse(responseCode = "200", description = "Resumo com o resultado de cada item")
+    public ResponseEntity<ResultadoLoteDTO> criarLote(@RequestBody List<PagamentoDTO> dtos) {
+        return ResponseEntity.ok(pagamentoLoteService.realizarLote(dtos));
+    }
+
+    @PostMapping(value = "/lote", consumes = APPLICATION_NDJSON)
+    @Operation(summary = "Criar pagamentos em lote (NDJSON, um pagamento por linha)")
+    @ApiResponse(responseCode = "200", description = "Resumo com o resultado de cada item")
+    public ResponseEntity<ResultadoLoteDTO> criarLoteNdjson(InputStream corpo) throws IOException {
+        return ResponseEntity.ok(pagamentoLoteService.realizarLoteNdjson(corpo));
     }
 
     @PutMapping("/{id}/status")
     @Operation(summary = "Atualizar status de pagamento")
     @ApiResponse(responseCode = "200", description = "Status atualizado")
-    public ResponseEntity<Pagamento> atualizarStatus(@PathVariable Long id,
-                                                     @RequestBody @Valid AtualizarPagamentoDTO dto) {
-        Pagamento pagamento = pagamentoService.atualizar(new AtualizarPagamentoDTO(id, dto.status()));
-        addLinks(pagamento);
-        return ResponseEntity.ok(pagamento);
+    public ResponseEntity<EntityModel<PagamentoRespostaDTO>> atualizarStatus(@PathVariable Long id,
+                                                                  @RequestBody @Valid AtualizarPagamentoDTO dto) {
+        PagamentoRespostaDTO pagamento = pagamentoService.atualizar(new AtualizarPagamentoDTO(id, dto.status()));
+        return ResponseEntity.ok(assembler.toModel(pagamento));
+    }
+
+    @PutMapping("/lote/status")
+    @Operation(summary = "Atualizar status de vários pagamentos (callbacks do processador)")
+    @ApiResponse(responseCode = "200", description = "Ids atualizados e rejeitados com o motivo")
+    public ResponseEntity<ResultadoStatusLoteDTO> atualizarStatusLote(@RequestBody List<AtualizarPagamentoDTO> dtos) {
+        return ResponseEntity.ok(pagamentoLoteService.atualizarStatusLote(dtos));
     }
 
     @DeleteMapping("/{id}")
@@ -60,38 +126,67 @@ public class PagamentoController {
     }
 
     @GetMapping
-    @Operation(summary = "Listar/filtrar pagamentos")
-    public ResponseEntity<List<Pagamento>> listar(@ParameterObject @ModelAttribute FiltroPagamentoDTO filtro) {
-        List<Pagamento> pagamentos = pagamentoService.listar(filtro)
-                .stream()
-                .peek(this::addLinks)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(pagamentos);
+    @Operation(summary = "Listar/filtrar pagamentos (arquivados=true inclui os arquivados)")
+    public ResponseEntity<List<EntityModel<PagamentoRespostaDTO>>> listar(@ParameterObject @ModelAttribute FiltroPagamentoDTO filtro,
+                                                                          @RequestParam(defaultValue = "false") boolean arquivados) {
+        return ResponseEntity.ok(assembler.toModels(pagamentoService.listar(filtro, arquivados)));
+    }
+
+    @GetMapping(params = "limit")
+    @Operation(summary = "Listar/filtrar pagamentos paginando por cursor (keyset no id)")
+    public ResponseEntity<PaginaPagamentoDTO> listarPaginado(@ParameterObject @ModelAttribute FiltroPagamentoDTO filtro,
+                                                             @RequestParam(required = false) String cursor,
+                                                             @RequestParam int limit,
+                                                             @RequestParam(defaultValue = "false") boolean arquivados) {
+        Window<PagamentoRespostaDTO> janela = pagamentoService.listarPorCursor(filtro, CursorPaginacao.decodificar(cursor),
+                limit, arquivados);
+        List<PagamentoRespostaDTO> pagamentos = janela.getContent();
+        List<EntityModel<PagamentoRespostaDTO>> itens = assembler.toModels(pagamentos);
+
+        if (!janela.hasNext() || pagamentos.isEmpty()) {
+            return ResponseEntity.ok(new PaginaPagamentoDTO(itens, null, null));
+        }
+
+        String proximoCursor = CursorPaginacao.codificar(pagamentos.get(pagamentos.size() - 1).id());
+        String proximaPagina = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("cursor", proximoCursor)
+                .toUriString();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.LINK, "<" + proximaPagina + ">; rel=\"next\"")
+                .body(new PaginaPagamentoDTO(itens, proximoCursor, proximaPagina));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Exportar pagamentos filtrados em streaming (NDJSON ou CSV)")
+    @ApiResponse(responseCode = "200", description = "Uma linha por pagamento, ordenado por id")
+    public ResponseEntity<StreamingResponseBody> exportar(@ParameterObject @ModelAttribute FiltroPagamentoDTO filtro,
+                                                          @RequestParam(defaultValue = "NDJSON") FormatoExportacaoEnum formato) {
+        StreamingResponseBody corpo = saida -> {
+            try (PagamentoExportWriter writer = PagamentoExportWriter.de(formato, saida)) {
+                pagamentoService.exportar(filtro, writer::escrever);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(formato.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("pagamentos." + formato.getExtensao())
+                        .build()
+                        .toString())
+                .body(corpo);
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Buscar por id")
-    public ResponseEntity<Pagamento> buscar(@PathVariable Long id) {
-        Pagamento pagamento = pagamentoService.buscarPorId(id)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pagamento não encontrado"));
-        addLinks(pagamento);
-        return ResponseEntity.ok(pagamento);
+    public ResponseEntity<EntityModel<PagamentoRespostaDTO>> buscar(@PathVariable Long id) {
+        return buscar(id, false);
     }
 
-    // ---------- HATEOAS ----------
-    private void addLinks(Pagamento pagamento) {
-        pagamento.add(
-                linkTo(methodOn(PagamentoController.class).buscar(pagamento.getId()))
-                        .withSelfRel().withType("GET"));
-        pagamento.add(
-                linkTo(methodOn(PagamentoController.class).listar(new FiltroPagamentoDTO(null, null, null)))
-                        .withRel("listar").withType("GET"));
-        // corpo pode ser null — HATEOAS só usa a assinatura
-        pagamento.add(
-                linkTo(methodOn(PagamentoController.class).atualizarStatus(pagamento.getId(), null))
-                        .withRel("atualizar-status").withType("PUT"));
-        pagamento.add(
-                linkTo(methodOn(PagamentoController.class).excluir(pagamento.getId()))
-                        .withRel("excluir").withType("DELETE"));
+    // mapeamento à parte (como a listagem com limit): o link self gerado a partir de buscar(id) sai sem o parâmetro
+    @GetMapping(value = "/{id}", params = "arquivados")
+    @Operation(summary = "Buscar por id (arquivados=true procura também no arquivo)")
+    public ResponseEntity<EntityModel<PagamentoRespostaDTO>> buscar(@PathVariable Long id, @RequestParam boolean arquivados) {
+        PagamentoRespostaDTO pagamento = pagamentoService.buscarPorId(id, arquivados)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Pagamento não encontrado"));
+        return ResponseEntity.ok(assembler.toModel(pagamento));
     }
-}
\ No newline at end of file
+}
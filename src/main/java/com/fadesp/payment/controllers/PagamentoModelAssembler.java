@@ -0,0 +1,90 @@
+package com.fadesp.payment.controllers;
+
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkRelation;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+/**
+ * Monta a representação HATEOAS de {@link PagamentoRespostaDTO} sem reflexão por item.
+ * <p>
+ * Os caminhos ({@code /pagamentos/{id}}, {@code /pagamentos/{id}/status}...) são lidos uma única vez, na
+ * inicialização, dos mapeamentos do {@link PagamentoController}. Por requisição só se resolve a URL base; por
+ * pagamento, o id é concatenado no template; os links vão no {@link EntityModel}.
+ */
+@Component
+public class PagamentoModelAssembler {
+
+    private static final LinkRelation LISTAR = LinkRelation.of("listar");
+    private static final LinkRelation ATUALIZAR_STATUS = LinkRelation.of("atualizar-status");
+    private static final LinkRelation EXCLUIR = LinkRelation.of("excluir");
+
+    private final TemplateId item;
+    private final TemplateId status;
+    private final TemplateId exclusao;
+    private final String listar;
+
+    public PagamentoModelAssembler() {
+        // fora de uma requisição o WebMvcLinkBuilder gera só o caminho, mantendo {id} como variável
+        this.item = TemplateId.de(linkTo(methodOn(PagamentoController.class).buscar(null)).withSelfRel().getHref());
+        this.status = TemplateId.de(linkTo(methodOn(PagamentoController.class).atualizarStatus(null, null)).withSelfRel().getHref());
+        this.exclusao = TemplateId.de(linkTo(methodOn(PagamentoController.class).excluir(null)).withSelfRel().getHref());
+        this.listar = linkTo(PagamentoController.class).withSelfRel().getHref();
+    }
+
+    public EntityModel<PagamentoRespostaDTO> toModel(PagamentoRespostaDTO pagamento) {
+        String base = baseDaRequisicao();
+        return toModel(pagamento, base, Link.of(base + listar, LISTAR).withType("GET"));
+    }
+
+    /** Converte a lista resolvendo a URL base e o link de listagem uma única vez. */
+    public List<EntityModel<PagamentoRespostaDTO>> toModels(List<PagamentoRespostaDTO> pagamentos) {
+        String base = baseDaRequisicao();
+        Link linkListar = Link.of(base + listar, LISTAR).withType("GET");
+        List<EntityModel<PagamentoRespostaDTO>> modelos = new ArrayList<>(pagamentos.size());
+        for (PagamentoRespostaDTO pagamento : pagamentos) {
+            modelos.add(toModel(pagamento, base, linkListar));
+        }
+        return modelos;
+    }
+
+    // -------------------------------------------------------------------------
+    private EntityModel<PagamentoRespostaDTO> toModel(PagamentoRespostaDTO pagamento, String base, Link linkListar) {
+        Long id = pagamento.id();
+        return EntityModel.of(pagamento, List.of(
+                Link.of(item.expandir(base, id), IanaLinkRelations.SELF).withType("GET"),
+                linkListar,
+                Link.of(status.expandir(base, id), ATUALIZAR_STATUS).withType("PUT"),
+                Link.of(exclusao.expandir(base, id), EXCLUIR).withType("DELETE")));
+    }
+
+    // mesma base usada pelo WebMvcLinkBuilder (esquema, host, porta e context path da requisição corrente)
+    private static String baseDaRequisicao() {
+        return ServletUriComponentsBuilder.fromCurrentServletMapping().build().toUriString();
+    }
+
+    /** Caminho com uma única variável {@code {id}}, separado em prefixo e sufixo para expansão por concatenação. */
+    private record TemplateId(String prefixo, String sufixo) {
+
+        static TemplateId de(String caminho) {
+            int inicio = caminho.indexOf("{id}");
+            if (inicio < 0) {
+                throw new IllegalStateException("Caminho sem a variável {id}: " + caminho);
+            }
+            return new TemplateId(caminho.substring(0, inicio), caminho.substring(inicio + "{id}".length()));
+        }
+
+        String expandir(String base, Long id) {
+            return base + prefixo + id + sufixo;
+        }
+    }
+}
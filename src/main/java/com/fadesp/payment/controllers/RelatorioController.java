@@ -0,0 +1,34 @@
+package com.fadesp.payment.controllers;
+
+import com.fadesp.payment.domain.dtos.ConsultaRelatorioDTO;
+import com.fadesp.payment.domain.dtos.RelatorioPagamentoDTO;
+import com.fadesp.payment.services.RelatorioPagamentoService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/relatorios")
+@Tag(name = "Relatórios", description = "Totais de pagamentos por período, método e status")
+public class RelatorioController {
+
+    private final RelatorioPagamentoService relatorioPagamentoService;
+
+    public RelatorioController(RelatorioPagamentoService relatorioPagamentoService) {
+        this.relatorioPagamentoService = relatorioPagamentoService;
+    }
+
+    @GetMapping("/pagamentos")
+    @Operation(summary = "Quantidade e valor dos pagamentos ativos por dia ou hora de criação (UTC)")
+    @ApiResponse(responseCode = "200", description = "Uma linha por período e combinação das dimensões pedidas")
+    @ApiResponse(responseCode = "400", description = "Intervalo ausente, invertido ou longo demais para a granularidade")
+    public ResponseEntity<RelatorioPagamentoDTO> pagamentos(@ParameterObject @ModelAttribute ConsultaRelatorioDTO consulta) {
+        return ResponseEntity.ok(relatorioPagamentoService.gerar(consulta));
+    }
+}
@@ -0,0 +1,16 @@
+package com.fadesp.payment.domain.dtos;
+
+import com.fadesp.payment.domain.enums.DimensaoRelatorioEnum;
+import com.fadesp.payment.domain.enums.GranularidadeRelatorioEnum;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.Instant;
+import java.util.List;
+
+// intervalo de criação semiaberto: de <= criado_em < ate (ISO-8601); sem granularidade, DIA; sem agrupar, só o período
+public record ConsultaRelatorioDTO(
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant de,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant ate,
+        GranularidadeRelatorioEnum granularidade,
+        List<DimensaoRelatorioEnum> agrupar
+) { }
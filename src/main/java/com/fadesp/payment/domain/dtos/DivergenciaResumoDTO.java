@@ -0,0 +1,16 @@
+package com.fadesp.payment.domain.dtos;
+
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+
+import java.math.BigDecimal;
+
+// célula do resumo que não batia com a tabela pagamento (antes da correção)
+public record DivergenciaResumoDTO(
+        StatusPagamentoEnum status,
+        MetodoPagamentoEnum metodoPagamento,
+        long quantidadeResumo,
+        BigDecimal valorResumo,
+        long quantidadeRecalculada,
+        BigDecimal valorRecalculado
+) { }
@@ -0,0 +1,26 @@
+package com.fadesp.payment.domain.dtos;
+
+import com.fadesp.payment.domain.entities.EventoPagamento;
+import com.fadesp.payment.domain.enums.TipoEventoPagamentoEnum;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import java.time.Instant;
+
+/**
+ * Evento de mudança de um pagamento, como entregue aos publicadores e ao stream SSE. {@code posicao} é a ordem de
+ * publicação (o {@code id} do SSE); {@code pagamento} é o JSON gravado no outbox, repassado sem desserializar.
+ */
+public record EventoPagamentoDTO(
+        Long id,
+        Long posicao,
+        TipoEventoPagamentoEnum tipo,
+        Long pagamentoId,
+        Instant ocorridoEm,
+        @JsonRawValue String pagamento
+) {
+
+    public static EventoPagamentoDTO de(EventoPagamento e) {
+        return new EventoPagamentoDTO(e.getId(), e.getPosicaoPublicacao(), e.getTipo(), e.getPagamentoId(),
+                e.getCriadoEm(), e.getPayload());
+    }
+}
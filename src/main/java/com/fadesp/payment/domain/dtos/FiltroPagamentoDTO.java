@@ -1,9 +1,15 @@
 package com.fadesp.payment.domain.dtos;
 
 import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import org.springframework.format.annotation.DateTimeFormat;
 
+import java.time.Instant;
+
+// intervalo de criação semiaberto: criadoDe <= criado_em < criadoAte (ISO-8601, ex.: 2025-01-31T00:00:00Z)
 public record FiltroPagamentoDTO(
         Integer codigoDebito,
         String cpfCnpj,
-        StatusPagamentoEnum status
-) { }
\ No newline at end of file
+        StatusPagamentoEnum status,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant criadoDe,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant criadoAte
+) { }
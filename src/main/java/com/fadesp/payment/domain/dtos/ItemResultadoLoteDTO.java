@@ -0,0 +1,20 @@
+package com.fadesp.payment.domain.dtos;
+
+import com.fadesp.payment.domain.enums.SituacaoItemLoteEnum;
+
+public record ItemResultadoLoteDTO(
+        int indice,
+        Integer codigoDebito,
+        SituacaoItemLoteEnum situacao,
+        Long id,
+        String motivo
+) {
+
+    public static ItemResultadoLoteDTO criado(int indice, Integer codigoDebito, Long id) {
+        return new ItemResultadoLoteDTO(indice, codigoDebito, SituacaoItemLoteEnum.CRIADO, id, null);
+    }
+
+    public static ItemResultadoLoteDTO rejeitado(int indice, Integer codigoDebito, String motivo) {
+        return new ItemResultadoLoteDTO(indice, codigoDebito, SituacaoItemLoteEnum.REJEITADO, null, motivo);
+    }
+}
@@ -0,0 +1,14 @@
+package com.fadesp.payment.domain.dtos;
+
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+
+import java.math.BigDecimal;
+
+// uma célula do resumo do pagador: pagamentos ativos com este status e método
+public record ItemResumoPagadorDTO(
+        StatusPagamentoEnum status,
+        MetodoPagamentoEnum metodoPagamento,
+        Long quantidade,
+        BigDecimal valorTotal
+) { }
@@ -0,0 +1,16 @@
+package com.fadesp.payment.domain.dtos;
+
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// pagamentos ativos criados no período que começa em "periodo"; método e status ficam nulos quando não agrupados
+public record LinhaRelatorioDTO(
+        Instant periodo,
+        MetodoPagamentoEnum metodoPagamento,
+        StatusPagamentoEnum status,
+        long quantidade,
+        BigDecimal valorTotal
+) { }
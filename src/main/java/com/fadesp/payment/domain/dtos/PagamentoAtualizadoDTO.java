@@ -0,0 +1,30 @@
+package com.fadesp.payment.domain.dtos;
+
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.domain.enums.TipoDocumentoEnum;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+// releitura única depois da transição de status: a resposta da API e a chave do pagador que o resumo precisa
+public record PagamentoAtualizadoDTO(
+        PagamentoRespostaDTO resposta,
+        Long documentoPagador,
+        TipoDocumentoEnum tipoDocumento
+) {
+
+    // usado pela projeção JPQL (select new ...)
+    public PagamentoAtualizadoDTO(Long id, Integer codigoDebito, String cpfCnpjPagador,
+                                  MetodoPagamentoEnum metodoPagamento, String numeroCartao, BigDecimal valorPagamento,
+                                  StatusPagamentoEnum status, Boolean ativo, Instant criadoEm, Instant atualizadoEm,
+                                  Long versao, Long documentoPagador, TipoDocumentoEnum tipoDocumento) {
+        this(new PagamentoRespostaDTO(id, codigoDebito, cpfCnpjPagador, metodoPagamento, numeroCartao, valorPagamento,
+                status, ativo, criadoEm, atualizadoEm, versao), documentoPagador, tipoDocumento);
+    }
+
+    public SituacaoPagamentoDTO situacao() {
+        return new SituacaoPagamentoDTO(resposta.id(), resposta.status(), resposta.ativo(), documentoPagador,
+                tipoDocumento, resposta.metodoPagamento(), resposta.valorPagamento());
+    }
+}
@@ -0,0 +1,33 @@
+package com.fadesp.payment.domain.dtos;
+
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Representação de pagamento devolvida pela API. As consultas de leitura montam este record direto das colunas
+ * (projeção), sem hidratar a entidade nem passar pelo contexto de persistência.
+ */
+public record PagamentoRespostaDTO(
+        Long id,
+        Integer codigoDebito,
+        String cpfCnpjPagador,
+        MetodoPagamentoEnum metodoPagamento,
+        String numeroCartao,
+        BigDecimal valorPagamento,
+        StatusPagamentoEnum status,
+        Boolean ativo,
+        Instant criadoEm,
+        Instant atualizadoEm,
+        Long versao
+) {
+
+    public static PagamentoRespostaDTO de(Pagamento p) {
+        return new PagamentoRespostaDTO(p.getId(), p.getCodigoDebito(), p.getCpfCnpjPagador(), p.getMetodoPagamento(),
+                p.getNumeroCartao(), p.getValorPagamento(), p.getStatus(), p.getAtivo(), p.getCriadoEm(),
+                p.getAtualizadoEm(), p.getVersao());
+    }
+}
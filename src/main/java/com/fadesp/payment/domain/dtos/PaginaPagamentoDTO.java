@@ -0,0 +1,11 @@
+package com.fadesp.payment.domain.dtos;
+
+import org.springframework.hateoas.EntityModel;
+
+import java.util.List;
+
+public record PaginaPagamentoDTO(
+        List<EntityModel<PagamentoRespostaDTO>> itens,
+        String proximoCursor,
+        String proximaPagina
+) { }
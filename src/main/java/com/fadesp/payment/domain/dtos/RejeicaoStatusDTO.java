@@ -0,0 +1,6 @@
+package com.fadesp.payment.domain.dtos;
+
+public record RejeicaoStatusDTO(
+        Long id,
+        String motivo
+) { }
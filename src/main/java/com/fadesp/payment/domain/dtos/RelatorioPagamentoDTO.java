@@ -0,0 +1,22 @@
+package com.fadesp.payment.domain.dtos;
+
+import com.fadesp.payment.domain.enums.DimensaoRelatorioEnum;
+import com.fadesp.payment.domain.enums.GranularidadeRelatorioEnum;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Resultado de {@code GET /relatorios/pagamentos}, com as linhas ordenadas por período, método e status.
+ * {@code diasConsolidados} diz quantos dias do intervalo vieram da tabela {@code relatorio_diario}; o resto foi
+ * agregado direto de {@code pagamento}.
+ */
+public record RelatorioPagamentoDTO(
+        Instant de,
+        Instant ate,
+        GranularidadeRelatorioEnum granularidade,
+        Set<DimensaoRelatorioEnum> agrupar,
+        int diasConsolidados,
+        List<LinhaRelatorioDTO> linhas
+) { }
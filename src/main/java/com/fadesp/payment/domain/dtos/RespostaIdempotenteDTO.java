@@ -0,0 +1,12 @@
+package com.fadesp.payment.domain.dtos;
+
+/**
+ * Resultado de um POST com Idempotency-Key: o corpo da resposta original (o pagamento como foi criado, mesmo numa
+ * repetição), o status HTTP original e se a resposta é uma repetição.
+ */
+public record RespostaIdempotenteDTO(PagamentoRespostaDTO pagamento, int statusHttp, boolean repetida) {
+
+    public Long pagamentoId() {
+        return pagamento.id();
+    }
+}
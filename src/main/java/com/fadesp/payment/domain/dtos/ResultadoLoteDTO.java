@@ -0,0 +1,18 @@
+package com.fadesp.payment.domain.dtos;
+
+import com.fadesp.payment.domain.enums.SituacaoItemLoteEnum;
+
+import java.util.List;
+
+public record ResultadoLoteDTO(
+        int total,
+        int criados,
+        int rejeitados,
+        List<ItemResultadoLoteDTO> itens
+) {
+
+    public static ResultadoLoteDTO de(List<ItemResultadoLoteDTO> itens) {
+        int criados = (int) itens.stream().filter(i -> i.situacao() == SituacaoItemLoteEnum.CRIADO).count();
+        return new ResultadoLoteDTO(itens.size(), criados, itens.size() - criados, itens);
+    }
+}
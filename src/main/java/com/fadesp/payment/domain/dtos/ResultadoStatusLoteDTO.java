@@ -0,0 +1,8 @@
+package com.fadesp.payment.domain.dtos;
+
+import java.util.List;
+
+public record ResultadoStatusLoteDTO(
+        List<Long> atualizados,
+        List<RejeicaoStatusDTO> rejeitados
+) { }
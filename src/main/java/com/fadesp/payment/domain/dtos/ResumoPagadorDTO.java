@@ -0,0 +1,38 @@
+package com.fadesp.payment.domain.dtos;
+
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Totais dos pagamentos ativos de um pagador: geral, por status, por método e o cruzamento dos dois ({@code itens}).
+ * Status e métodos sem pagamento aparecem zerados.
+ */
+public record ResumoPagadorDTO(
+        String cpfCnpjPagador,
+        TotalResumoDTO total,
+        Map<StatusPagamentoEnum, TotalResumoDTO> porStatus,
+        Map<MetodoPagamentoEnum, TotalResumoDTO> porMetodo,
+        List<ItemResumoPagadorDTO> itens
+) {
+
+    public static ResumoPagadorDTO de(String cpfCnpjPagador, List<ItemResumoPagadorDTO> itens) {
+        TotalResumoDTO total = TotalResumoDTO.ZERO;
+        Map<StatusPagamentoEnum, TotalResumoDTO> porStatus = new EnumMap<>(StatusPagamentoEnum.class);
+        Map<MetodoPagamentoEnum, TotalResumoDTO> porMetodo = new EnumMap<>(MetodoPagamentoEnum.class);
+        for (StatusPagamentoEnum status : StatusPagamentoEnum.values()) porStatus.put(status, TotalResumoDTO.ZERO);
+        for (MetodoPagamentoEnum metodo : MetodoPagamentoEnum.values()) porMetodo.put(metodo, TotalResumoDTO.ZERO);
+
+        for (ItemResumoPagadorDTO item : itens) {
+            total = total.somar(item.quantidade(), item.valorTotal());
+            porStatus.merge(item.status(), TotalResumoDTO.ZERO.somar(item.quantidade(), item.valorTotal()),
+                    (a, b) -> a.somar(b.quantidade(), b.valorTotal()));
+            porMetodo.merge(item.metodoPagamento(), TotalResumoDTO.ZERO.somar(item.quantidade(), item.valorTotal()),
+                    (a, b) -> a.somar(b.quantidade(), b.valorTotal()));
+        }
+        return new ResumoPagadorDTO(cpfCnpjPagador, total, porStatus, porMetodo, itens);
+    }
+}
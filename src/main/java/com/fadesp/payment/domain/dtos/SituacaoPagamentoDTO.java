@@ -0,0 +1,18 @@
+package com.fadesp.payment.domain.dtos;
+
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.domain.enums.TipoDocumentoEnum;
+
+import java.math.BigDecimal;
+
+// projeção mínima para decidir transições de status sem hidratar a entidade (com o que o resumo do pagador precisa)
+public record SituacaoPagamentoDTO(
+        Long id,
+        StatusPagamentoEnum status,
+        Boolean ativo,
+        Long documentoPagador,
+        TipoDocumentoEnum tipoDocumento,
+        MetodoPagamentoEnum metodoPagamento,
+        BigDecimal valorPagamento
+) { }
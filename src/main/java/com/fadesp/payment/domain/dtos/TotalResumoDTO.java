@@ -0,0 +1,15 @@
+package com.fadesp.payment.domain.dtos;
+
+import java.math.BigDecimal;
+
+public record TotalResumoDTO(
+        long quantidade,
+        BigDecimal valorTotal
+) {
+
+    public static final TotalResumoDTO ZERO = new TotalResumoDTO(0, BigDecimal.ZERO.setScale(2));
+
+    public TotalResumoDTO somar(long quantidade, BigDecimal valor) {
+        return new TotalResumoDTO(this.quantidade + quantidade, this.valorTotal.add(valor));
+    }
+}
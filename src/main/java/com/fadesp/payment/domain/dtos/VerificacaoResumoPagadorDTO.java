@@ -0,0 +1,9 @@
+package com.fadesp.payment.domain.dtos;
+
+import java.util.List;
+
+public record VerificacaoResumoPagadorDTO(
+        String cpfCnpjPagador,
+        boolean consistente,
+        List<DivergenciaResumoDTO> divergencias
+) { }
@@ -0,0 +1,72 @@
+package com.fadesp.payment.domain.entities;
+
+import com.fadesp.payment.domain.enums.TipoEventoPagamentoEnum;
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// outbox: gravado na mesma transação da escrita no pagamento e publicado depois pelo RelayEventosPagamento
+@Entity
+@Table(
+        name = "evento_pagamento",
+        // o relay busca "publicado_em is null order by id"; a limpeza, publicados mais antigos que a retenção
+        indexes = @Index(name = "idx_evento_pagamento_publicado", columnList = "publicado_em, id")
+)
+public class EventoPagamento {
+
+    // mesmo esquema do Pagamento (pooled-lo): os eventos de um lote entram no mesmo batch de INSERTs
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "evento_pagamento_seq")
+    @SequenceGenerator(name = "evento_pagamento_seq", sequenceName = "evento_pagamento_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "pagamento_id", nullable = false, updatable = false)
+    private Long pagamentoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 20, updatable = false)
+    private TipoEventoPagamentoEnum tipo;
+
+    // PagamentoRespostaDTO em JSON, como estava ao fim da transação que gerou o evento
+    @Column(name = "payload", nullable = false, length = 2000, updatable = false)
+    private String payload;
+
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    private Instant criadoEm;
+
+    @Column(name = "publicado_em")
+    private Instant publicadoEm;
+
+    // ordem de publicação (retomada do SSE); atribuída pelo relay com evento_pagamento_controle travado
+    @Column(name = "posicao_publicacao")
+    private Long posicaoPublicacao;
+
+    protected EventoPagamento() {
+    }
+
+    public EventoPagamento(Long pagamentoId, TipoEventoPagamentoEnum tipo, String payload, Instant criadoEm) {
+        this.pagamentoId = pagamentoId;
+        this.tipo = tipo;
+        this.payload = payload;
+        this.criadoEm = criadoEm;
+    }
+
+    public Long getId() { return id; }
+
+    public Long getPagamentoId() { return pagamentoId; }
+
+    public TipoEventoPagamentoEnum getTipo() { return tipo; }
+
+    public String getPayload() { return payload; }
+
+    public Instant getCriadoEm() { return criadoEm; }
+
+    public Instant getPublicadoEm() { return publicadoEm; }
+
+    public Long getPosicaoPublicacao() { return posicaoPublicacao; }
+
+    public void publicar(long posicao, Instant quando) {
+        this.posicaoPublicacao = posicao;
+        this.publicadoEm = quando;
+    }
+}
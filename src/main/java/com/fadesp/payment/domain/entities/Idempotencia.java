@@ -0,0 +1,77 @@
+package com.fadesp.payment.domain.entities;
+
+import jakarta.persistence.*;
+import org.springframework.data.domain.Persistable;
+
+import java.time.Instant;
+
+// resposta registrada para uma Idempotency-Key; gravada na mesma transação que cria o pagamento
+@Entity
+@Table(
+        name = "idempotencia",
+        indexes = @Index(name = "idx_idempotencia_criado_em", columnList = "criado_em")
+)
+public class Idempotencia implements Persistable<String> {
+
+    @Id
+    @Column(name = "chave", length = 100)
+    private String chave;
+
+    // SHA-256 (hex) do corpo da requisição original
+    @Column(name = "hash_requisicao", length = 64, nullable = false)
+    private String hashRequisicao;
+
+    @Column(name = "pagamento_id", nullable = false)
+    private Long pagamentoId;
+
+    @Column(name = "status_http", nullable = false)
+    private Integer statusHttp;
+
+    @Column(name = "criado_em", nullable = false)
+    private Instant criadoEm;
+
+    // PagamentoRespostaDTO em JSON, como foi devolvido no 201; nulo nas chaves anteriores à V6
+    @Column(name = "resposta", length = 2000, updatable = false)
+    private String resposta;
+
+    // chave atribuída pela aplicação: evita o SELECT que o save() faria para decidir entre persist e merge
+    @Transient
+    private boolean novo = true;
+
+    protected Idempotencia() {
+    }
+
+    public Idempotencia(String chave, String hashRequisicao, Long pagamentoId, Integer statusHttp, Instant criadoEm,
+                        String resposta) {
+        this.chave = chave;
+        this.hashRequisicao = hashRequisicao;
+        this.pagamentoId = pagamentoId;
+        this.statusHttp = statusHttp;
+        this.criadoEm = criadoEm;
+        this.resposta = resposta;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistido() {
+        this.novo = false;
+    }
+
+    @Override
+    public String getId() { return chave; }
+
+    @Override
+    public boolean isNew() { return novo; }
+
+    public String getChave() { return chave; }
+
+    public String getHashRequisicao() { return hashRequisicao; }
+
+    public Long getPagamentoId() { return pagamentoId; }
+
+    public Integer getStatusHttp() { return statusHttp; }
+
+    public Instant getCriadoEm() { return criadoEm; }
+
+    public String getResposta() { return resposta; }
+}
@@ -2,26 +2,41 @@ package com.fadesp.payment.domain.entities;
 
 import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
 import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.domain.enums.TipoDocumentoEnum;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.*;
-import org.springframework.hateoas.RepresentationModel;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
 @Table(
         name = "pagamento",
+        // a unicidade do código de débito é garantida pelo banco (sem SELECT prévio no INSERT)
+        uniqueConstraints = @UniqueConstraint(name = "uk_pagamento_codigo_debito", columnNames = "codigo_debito"),
+        // índices no formato das consultas do PagamentoSpecification (sempre com ativo = true e ORDER BY id);
+        // use os NOME DAS COLUNAS no banco (snake_case)
         indexes = {
-                // use os NOME DAS COLUNAS no banco (snake_case)
-                @Index(name = "idx_pagamento_codigo_debito", columnList = "codigo_debito"),
-                @Index(name = "idx_pagamento_cpf_cnpj", columnList = "cpf_cnpj_pagador"),
-                @Index(name = "idx_pagamento_status", columnList = "status")
+                // CPF/CNPJ (chave numérica) [+ status]: igualdade nas quatro primeiras colunas e o id já na ordem da listagem
+                @Index(name = "idx_pagamento_pagador_status",
+                        columnList = "documento_pagador, tipo_documento, status, ativo, id"),
+                // status paginado por id (cursor)
+                @Index(name = "idx_pagamento_status_id", columnList = "status, ativo, id"),
+                // status + intervalo de criação
+                @Index(name = "idx_pagamento_status_criado", columnList = "status, ativo, criado_em"),
+                // relatório por período: agregação por intervalo de criação só pelo índice
+                @Index(name = "idx_pagamento_criado",
+                        columnList = "criado_em, ativo, metodo_pagamento, status, valor_pagamento"),
+                // consolidação do relatório: dias com pagamentos alterados desde a última rodada
+                @Index(name = "idx_pagamento_atualizado", columnList = "atualizado_em, criado_em")
         }
 )
-public class Pagamento extends RepresentationModel<Pagamento> {
+public class Pagamento {
 
+    // sequence com optimizer pooled-lo: ids reservados em blocos, permitindo batch de INSERTs pelo Hibernate
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pagamento_seq")
+    @SequenceGenerator(name = "pagamento_seq", sequenceName = "pagamento_seq", allocationSize = 50)
     private Long id;
 
     @NotNull @Positive
@@ -33,6 +48,15 @@ public class Pagamento extends RepresentationModel<Pagamento> {
     @Column(name = "cpf_cnpj_pagador", length = 14, nullable = false)
     private String cpfCnpjPagador;
 
+    // chave canônica do pagador (ver DocumentoPagador); nula só em linhas antigas ainda não preenchidas
+    // pelo DocumentoPagadorBackfill
+    @Column(name = "documento_pagador")
+    private Long documentoPagador;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_documento", length = 4)
+    private TipoDocumentoEnum tipoDocumento;
+
     @NotNull
     @Enumerated(EnumType.STRING)
     @Column(name = "metodo_pagamento", nullable = false, length = 30)
@@ -55,6 +79,18 @@ public class Pagamento extends RepresentationModel<Pagamento> {
     @Column(name = "ativo", nullable = false)
     private Boolean ativo = Boolean.TRUE;
 
+    @Column(name = "criado_em", nullable = false, updatable = false)
+    private Instant criadoEm;
+
+    // toda escrita no pagamento atualiza; os UPDATEs em massa do PagamentoRepository recebem o instante por parâmetro
+    @Column(name = "atualizado_em", nullable = false)
+    private Instant atualizadoEm;
+
+    // lock otimista: escritas via entidade (ex.: exclusão lógica) falham se a linha mudou desde a leitura
+    @Version
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
 
@@ -64,6 +100,12 @@ public class Pagamento extends RepresentationModel<Pagamento> {
     public String getCpfCnpjPagador() { return cpfCnpjPagador; }
     public void setCpfCnpjPagador(String cpfCnpjPagador) { this.cpfCnpjPagador = cpfCnpjPagador; }
 
+    public Long getDocumentoPagador() { return documentoPagador; }
+    public void setDocumentoPagador(Long documentoPagador) { this.documentoPagador = documentoPagador; }
+
+    public TipoDocumentoEnum getTipoDocumento() { return tipoDocumento; }
+    public void setTipoDocumento(TipoDocumentoEnum tipoDocumento) { this.tipoDocumento = tipoDocumento; }
+
     public MetodoPagamentoEnum getMetodoPagamento() { return metodoPagamento; }
     public void setMetodoPagamento(MetodoPagamentoEnum metodoPagamento) { this.metodoPagamento = metodoPagamento; }
 
@@ -78,4 +120,28 @@ public class Pagamento extends RepresentationModel<Pagamento> {
 
     public Boolean getAtivo() { return ativo; }
     public void setAtivo(Boolean ativo) { this.ativo = ativo; }
+
+    @PrePersist
+    void preencherCriacao() {
+        if (criadoEm == null) {
+            criadoEm = Instant.now();
+        }
+        if (atualizadoEm == null) {
+            atualizadoEm = criadoEm;
+        }
+    }
+
+    @PreUpdate
+    void preencherAtualizacao() {
+        atualizadoEm = Instant.now();
+    }
+
+    public Instant getCriadoEm() { return criadoEm; }
+    public void setCriadoEm(Instant criadoEm) { this.criadoEm = criadoEm; }
+
+    public Instant getAtualizadoEm() { return atualizadoEm; }
+    public void setAtualizadoEm(Instant atualizadoEm) { this.atualizadoEm = atualizadoEm; }
+
+    public Long getVersao() { return versao; }
+    public void setVersao(Long versao) { this.versao = versao; }
 }
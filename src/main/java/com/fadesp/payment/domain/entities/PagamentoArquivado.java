@@ -0,0 +1,108 @@
+package com.fadesp.payment.domain.entities;
+
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.domain.enums.TipoDocumentoEnum;
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Pagamento movido para o arquivo pelo ArquivamentoPagamentoService: a mesma linha de {@link Pagamento}, com os mesmos
+ * nomes de atributo (o PagamentoSpecification serve às duas), mais a data do arquivamento. Somente leitura: as linhas
+ * só entram por INSERT ... SELECT e não mudam mais.
+ */
+@Entity
+@Immutable
+@Table(
+        name = "pagamento_arquivo",
+        uniqueConstraints = @UniqueConstraint(name = "uk_pagamento_arquivo_codigo_debito", columnNames = "codigo_debito"),
+        indexes = {
+                @Index(name = "idx_pagamento_arquivo_pagador",
+                        columnList = "documento_pagador, tipo_documento, status, ativo, id"),
+                @Index(name = "idx_pagamento_arquivo_status_id", columnList = "status, ativo, id"),
+                @Index(name = "idx_pagamento_arquivo_criado",
+                        columnList = "criado_em, ativo, metodo_pagamento, status, valor_pagamento")
+        }
+)
+public class PagamentoArquivado {
+
+    @Id
+    private Long id;
+
+    @Column(name = "codigo_debito", nullable = false)
+    private Integer codigoDebito;
+
+    @Column(name = "cpf_cnpj_pagador", length = 14, nullable = false)
+    private String cpfCnpjPagador;
+
+    @Column(name = "documento_pagador", nullable = false)
+    private Long documentoPagador;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_documento", length = 4, nullable = false)
+    private TipoDocumentoEnum tipoDocumento;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metodo_pagamento", nullable = false, length = 30)
+    private MetodoPagamentoEnum metodoPagamento;
+
+    @Column(name = "numero_cartao", length = 20)
+    private String numeroCartao;
+
+    @Column(name = "valor_pagamento", nullable = false, precision = 17, scale = 2)
+    private BigDecimal valorPagamento;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 40)
+    private StatusPagamentoEnum status;
+
+    @Column(name = "ativo", nullable = false)
+    private Boolean ativo;
+
+    @Column(name = "criado_em", nullable = false)
+    private Instant criadoEm;
+
+    @Column(name = "atualizado_em", nullable = false)
+    private Instant atualizadoEm;
+
+    @Column(name = "versao", nullable = false)
+    private Long versao;
+
+    @Column(name = "arquivado_em", nullable = false)
+    private Instant arquivadoEm;
+
+    protected PagamentoArquivado() {
+        // JPA
+    }
+
+    public Long getId() { return id; }
+
+    public Integer getCodigoDebito() { return codigoDebito; }
+
+    public String getCpfCnpjPagador() { return cpfCnpjPagador; }
+
+    public Long getDocumentoPagador() { return documentoPagador; }
+
+    public TipoDocumentoEnum getTipoDocumento() { return tipoDocumento; }
+
+    public MetodoPagamentoEnum getMetodoPagamento() { return metodoPagamento; }
+
+    public String getNumeroCartao() { return numeroCartao; }
+
+    public BigDecimal getValorPagamento() { return valorPagamento; }
+
+    public StatusPagamentoEnum getStatus() { return status; }
+
+    public Boolean getAtivo() { return ativo; }
+
+    public Instant getCriadoEm() { return criadoEm; }
+
+    public Instant getAtualizadoEm() { return atualizadoEm; }
+
+    public Long getVersao() { return versao; }
+
+    public Instant getArquivadoEm() { return arquivadoEm; }
+}
@@ -0,0 +1,32 @@
+package com.fadesp.payment.domain.entities;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+// totais dos pagamentos ativos de um pagador por status e método; só leitura pelo JPA: as escritas são incrementos
+// feitos pelo ResumoPagadorService na transação de cada pagamento
+@Entity
+@Immutable
+@Table(name = "resumo_pagador")
+public class ResumoPagador {
+
+    @EmbeddedId
+    private ResumoPagadorId id;
+
+    @Column(name = "quantidade", nullable = false)
+    private Long quantidade;
+
+    @Column(name = "valor_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal valorTotal;
+
+    protected ResumoPagador() {
+    }
+
+    public ResumoPagadorId getId() { return id; }
+
+    public Long getQuantidade() { return quantidade; }
+
+    public BigDecimal getValorTotal() { return valorTotal; }
+}
@@ -0,0 +1,63 @@
+package com.fadesp.payment.domain.entities;
+
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.domain.enums.TipoDocumentoEnum;
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class ResumoPagadorId implements Serializable {
+
+    @Column(name = "documento_pagador", nullable = false)
+    private Long documentoPagador;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo_documento", nullable = false, length = 4)
+    private TipoDocumentoEnum tipoDocumento;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 40)
+    private StatusPagamentoEnum status;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "metodo_pagamento", nullable = false, length = 30)
+    private MetodoPagamentoEnum metodoPagamento;
+
+    protected ResumoPagadorId() {
+    }
+
+    public ResumoPagadorId(Long documentoPagador, TipoDocumentoEnum tipoDocumento, StatusPagamentoEnum status,
+                           MetodoPagamentoEnum metodoPagamento) {
+        this.documentoPagador = documentoPagador;
+        this.tipoDocumento = tipoDocumento;
+        this.status = status;
+        this.metodoPagamento = metodoPagamento;
+    }
+
+    public Long getDocumentoPagador() { return documentoPagador; }
+
+    public TipoDocumentoEnum getTipoDocumento() { return tipoDocumento; }
+
+    public StatusPagamentoEnum getStatus() { return status; }
+
+    public MetodoPagamentoEnum getMetodoPagamento() { return metodoPagamento; }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ResumoPagadorId outro)) return false;
+        return Objects.equals(documentoPagador, outro.documentoPagador) && tipoDocumento == outro.tipoDocumento
+                && status == outro.status && metodoPagamento == outro.metodoPagamento;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(documentoPagador, tipoDocumento, status, metodoPagamento);
+    }
+}
@@ -0,0 +1,7 @@
+package com.fadesp.payment.domain.enums;
+
+// colunas pelas quais o relatório pode ser agrupado, além do período
+public enum DimensaoRelatorioEnum {
+    METODO,
+    STATUS
+}
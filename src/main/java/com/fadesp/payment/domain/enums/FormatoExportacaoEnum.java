@@ -0,0 +1,20 @@
+package com.fadesp.payment.domain.enums;
+
+public enum FormatoExportacaoEnum {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String contentType;
+
+    FormatoExportacaoEnum(String contentType) {
+        this.contentType = contentType;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getExtensao() {
+        return name().toLowerCase();
+    }
+}
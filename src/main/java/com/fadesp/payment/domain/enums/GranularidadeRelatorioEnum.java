@@ -0,0 +1,19 @@
+package com.fadesp.payment.domain.enums;
+
+import java.time.temporal.ChronoUnit;
+
+// tamanho do período de cada linha do relatório; os períodos começam à meia-noite/hora cheia em UTC
+public enum GranularidadeRelatorioEnum {
+    DIA(ChronoUnit.DAYS),
+    HORA(ChronoUnit.HOURS);
+
+    private final ChronoUnit unidade;
+
+    GranularidadeRelatorioEnum(ChronoUnit unidade) {
+        this.unidade = unidade;
+    }
+
+    public ChronoUnit getUnidade() {
+        return unidade;
+    }
+}
@@ -0,0 +1,6 @@
+package com.fadesp.payment.domain.enums;
+
+public enum SituacaoItemLoteEnum {
+    CRIADO,
+    REJEITADO
+}
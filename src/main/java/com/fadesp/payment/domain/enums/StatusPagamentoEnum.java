@@ -1,5 +1,7 @@
 package com.fadesp.payment.domain.enums;
 
+import com.fadesp.payment.exceptions.StatusPagamentoException;
+
 public enum StatusPagamentoEnum {
     PENDENTE_PROCESSAMENTO,
     PROCESSADO_SUCESSO,
@@ -29,4 +31,36 @@ public enum StatusPagamentoEnum {
     public boolean isFalha() {
         return this == PROCESSADO_FALHA;
     }
+
+    /**
+     * Único status a partir do qual é permitido chegar a este: PENDENTE -> SUCESSO | FALHA e FALHA -> PENDENTE.
+     * Como cada destino tem uma só origem, uma transição vira um UPDATE condicional {@code WHERE status = :origem}.
+     */
+    public StatusPagamentoEnum origemPermitida() {
+        return switch (this) {
+            case PROCESSADO_SUCESSO, PROCESSADO_FALHA -> PENDENTE_PROCESSAMENTO;
+            case PENDENTE_PROCESSAMENTO -> PROCESSADO_FALHA;
+        };
+    }
+
+    public void validarTransicaoPara(StatusPagamentoEnum novo) {
+        switch (this) {
+            case PENDENTE_PROCESSAMENTO -> {
+                if (novo != PROCESSADO_SUCESSO && novo != PROCESSADO_FALHA) {
+                    throw new StatusPagamentoException(
+                            "Transição inválida: de PENDENTE_PROCESSAMENTO só para PROCESSADO_SUCESSO ou PROCESSADO_FALHA."
+                    );
+                }
+            }
+            case PROCESSADO_SUCESSO ->
+                    throw new StatusPagamentoException("Pagamento já processado com sucesso; status não pode ser alterado.");
+            case PROCESSADO_FALHA -> {
+                if (novo != PENDENTE_PROCESSAMENTO) {
+                    throw new StatusPagamentoException(
+                            "Transição inválida: de PROCESSADO_FALHA só para PENDENTE_PROCESSAMENTO."
+                    );
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,6 @@
+package com.fadesp.payment.domain.enums;
+
+public enum TipoDocumentoEnum {
+    CPF,
+    CNPJ
+}
@@ -0,0 +1,8 @@
+package com.fadesp.payment.domain.enums;
+
+/** Mudanças de estado de um pagamento registradas no outbox ({@code evento_pagamento}). */
+public enum TipoEventoPagamentoEnum {
+    CRIADO,
+    STATUS_ALTERADO,
+    EXCLUIDO
+}
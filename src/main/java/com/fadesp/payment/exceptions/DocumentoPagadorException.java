@@ -0,0 +1,8 @@
+package com.fadesp.payment.exceptions;
+
+public class DocumentoPagadorException extends RuntimeException {
+
+    public DocumentoPagadorException(String message) {
+        super(message);
+    }
+}
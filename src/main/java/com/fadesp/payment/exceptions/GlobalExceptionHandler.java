@@ -1,12 +1,19 @@
 package com.fadesp.payment.exceptions;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -17,16 +24,22 @@ public class GlobalExceptionHandler {
 
     private static final Logger log = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    private final MeterRegistry registry;
+
+    public GlobalExceptionHandler(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.registry = meterRegistry.getIfAvailable(CompositeMeterRegistry::new);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<String> handleValidationExceptions(MethodArgumentNotValidException ex) {
         FieldError error = ex.getBindingResult().getFieldErrors().get(0);
-        createLogError(ex);
+        logRejeicao(ex, HttpStatus.BAD_REQUEST);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error.getDefaultMessage());
     }
 
     @ExceptionHandler(HttpMessageNotReadableException.class)
     public ResponseEntity<String> handleIllegalArgumentExceptions(HttpMessageNotReadableException ex) {
-        createLogError(ex);
+        logRejeicao(ex, HttpStatus.BAD_REQUEST);
         String message = ex.getRootCause() != null ? ex.getRootCause().getMessage() : ex.getMessage();
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(message);
     }
@@ -34,19 +47,46 @@ public class GlobalExceptionHandler {
     @ExceptionHandler({
             MetodoPagamentoException.class,
             StatusPagamentoException.class,
-            EntityExistsException.class
+            PaginacaoException.class,
+            DocumentoPagadorException.class,
+            RelatorioException.class,
+            EntityExistsException.class,
+            // validação de regra sem exceção própria (ex.: "CPF/CNPJ inválido." em PagamentoService.validarRegras)
+            IllegalArgumentException.class
     })
     public ResponseEntity<String> handleBusinessExceptions(RuntimeException ex) {
-        createLogError(ex);
+        logRejeicao(ex, HttpStatus.BAD_REQUEST);
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(ex.getMessage());
     }
 
     @ExceptionHandler(EntityNotFoundException.class)
     public ResponseEntity<String> handleNotFound(EntityNotFoundException ex) {
-        createLogError(ex);
+        logRejeicao(ex, HttpStatus.NOT_FOUND);
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(ex.getMessage());
     }
 
+    @ExceptionHandler(IdempotenciaException.class)
+    public ResponseEntity<String> handleIdempotencia(IdempotenciaException ex) {
+        logRejeicao(ex, HttpStatus.UNPROCESSABLE_ENTITY);
+        return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).body(ex.getMessage());
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<String> handleConflict(OptimisticLockingFailureException ex) {
+        logRejeicao(ex, HttpStatus.CONFLICT);
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("O pagamento foi alterado por outra requisição; tente novamente.");
+    }
+
+    // pool de conexões esgotado (connection-timeout do Hikari): sobrecarga momentânea, o cliente pode repetir
+    @ExceptionHandler({CannotCreateTransactionException.class, DataAccessResourceFailureException.class})
+    public ResponseEntity<String> handleIndisponivel(RuntimeException ex) {
+        logRejeicao(ex, HttpStatus.SERVICE_UNAVAILABLE);
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body("Serviço temporariamente sobrecarregado; tente novamente.");
+    }
+
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<String> handleRuntimeExceptions(RuntimeException ex) {
         createLogError(ex);
@@ -59,8 +99,25 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(ex.getMessage());
     }
 
+    // erro inesperado (500): stack trace completo
     private void createLogError(Exception ex) {
+        contarRejeicao(ex);
         log.error("Exception: {} | Message: {}", ex.getClass().getSimpleName(), ex.getMessage(), ex);
     }
+
+    // erro esperado (regra de negócio, validação, conflito, sobrecarga): uma linha, sem stack trace;
+    // status e exceção vão também como campos no log estruturado (profile producao)
+    private void logRejeicao(Exception ex, HttpStatus status) {
+        contarRejeicao(ex);
+        log.atWarn()
+                .addKeyValue("status", status.value())
+                .addKeyValue("excecao", ex.getClass().getSimpleName())
+                .log("Requisição rejeitada ({} {}): {}", status.value(), ex.getClass().getSimpleName(), ex.getMessage());
+    }
+
+    // pagamento.rejeicoes{excecao}: toda resposta de erro da API, por tipo de exceção
+    private void contarRejeicao(Exception ex) {
+        registry.counter("pagamento.rejeicoes", "excecao", ex.getClass().getSimpleName()).increment();
+    }
 }
 
@@ -0,0 +1,12 @@
+package com.fadesp.payment.exceptions;
+
+public class IdempotenciaException extends RuntimeException {
+
+    public IdempotenciaException(String message) {
+        super(message);
+    }
+
+    public IdempotenciaException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.fadesp.payment.exceptions;
+
+public class PaginacaoException extends RuntimeException {
+
+    public PaginacaoException(String message) {
+        super(message);
+    }
+
+    public PaginacaoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,8 @@
+package com.fadesp.payment.exceptions;
+
+public class RelatorioException extends RuntimeException {
+
+    public RelatorioException(String message) {
+        super(message);
+    }
+}
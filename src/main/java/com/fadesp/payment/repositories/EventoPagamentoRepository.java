@@ -0,0 +1,49 @@
+package com.fadesp.payment.repositories;
+
+import com.fadesp.payment.domain.entities.EventoPagamento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface EventoPagamentoRepository extends JpaRepository<EventoPagamento, Long> {
+
+    // chamada com evento_pagamento_controle travado; SKIP LOCKED só pula linhas presas por outra transação
+    @Query(value = """
+            select * from evento_pagamento
+            where publicado_em is null
+            order by id
+            limit :limite
+            for update skip locked
+            """, nativeQuery = true)
+    List<EventoPagamento> reservarNaoPublicados(@Param("limite") int limite);
+
+    // uma rodada de publicação por vez, entre todos os nós: as posições seguem a ordem dos commits
+    @Query(value = "select ultima_posicao from evento_pagamento_controle where id = 1 for update", nativeQuery = true)
+    long travarUltimaPosicao();
+
+    @Modifying
+    @Query(value = "update evento_pagamento_controle set ultima_posicao = :posicao where id = 1", nativeQuery = true)
+    int gravarUltimaPosicao(@Param("posicao") long posicao);
+
+    @Query(value = "select ultima_posicao from evento_pagamento_controle where id = 1", nativeQuery = true)
+    long findUltimaPosicao();
+
+    // retomada do stream SSE (Last-Event-ID) e leitura do stream ao vivo
+    @Query(value = """
+            select * from evento_pagamento
+            where posicao_publicacao > :aposPosicao
+            order by posicao_publicacao
+            limit :limite
+            """, nativeQuery = true)
+    List<EventoPagamento> findPublicadosApos(@Param("aposPosicao") long aposPosicao, @Param("limite") int limite);
+
+    @Modifying
+    @Query("delete from EventoPagamento e where e.publicadoEm < :limite")
+    int excluirPublicadosAntesDe(@Param("limite") Instant limite);
+}
@@ -0,0 +1,22 @@
+package com.fadesp.payment.repositories;
+
+import com.fadesp.payment.domain.entities.Idempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotenciaRepository extends JpaRepository<Idempotencia, String> {
+
+    @Modifying
+    @Query("delete from Idempotencia i where i.criadoEm < :limite")
+    int excluirCriadasAntesDe(@Param("limite") Instant limite);
+
+    @Modifying
+    @Query("delete from Idempotencia i where i.chave = :chave and i.criadoEm < :limite")
+    int excluirVencida(@Param("chave") String chave, @Param("limite") Instant limite);
+}
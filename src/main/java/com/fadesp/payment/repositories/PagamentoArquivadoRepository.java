@@ -0,0 +1,29 @@
+package com.fadesp.payment.repositories;
+
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.entities.PagamentoArquivado;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PagamentoArquivadoRepository extends JpaRepository<PagamentoArquivado, Long> {
+
+    // leitura da API (GET /pagamentos/{id}?arquivados=true): mesma projeção da tabela quente
+    @Query("""
+            select new com.fadesp.payment.domain.dtos.PagamentoRespostaDTO(
+                p.id, p.codigoDebito, p.cpfCnpjPagador, p.metodoPagamento, p.numeroCartao,
+                p.valorPagamento, p.status, p.ativo, p.criadoEm, p.atualizadoEm, p.versao)
+            from PagamentoArquivado p where p.id = :id
+            """)
+    Optional<PagamentoRespostaDTO> findRespostaById(@Param("id") Long id);
+
+    // conferência depois do INSERT na tabela quente: a uk_pagamento_codigo_debito não enxerga o arquivo
+    @Query("select p.codigoDebito from PagamentoArquivado p where p.codigoDebito in :codigos")
+    List<Integer> findCodigosDebitoArquivados(@Param("codigos") Collection<Integer> codigos);
+}
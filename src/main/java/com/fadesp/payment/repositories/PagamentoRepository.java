@@ -1,28 +1,137 @@
 package com.fadesp.payment.repositories;
 
+import com.fadesp.payment.domain.dtos.PagamentoAtualizadoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.dtos.SituacaoPagamentoDTO;
 import com.fadesp.payment.domain.entities.Pagamento;
 import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.domain.enums.TipoDocumentoEnum;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Repository
-public interface PagamentoRepository extends JpaRepository<Pagamento, Long>, JpaSpecificationExecutor<Pagamento> {
+public interface PagamentoRepository extends JpaRepository<Pagamento, Long>, JpaSpecificationExecutor<Pagamento>,
+        PagamentoRepositoryCustom {
 
     Optional<Pagamento> findByCodigoDebito(Integer codigoDebito);
 
     Optional<Pagamento> findByIdAndAtivoTrue(Long id);
 
+    // leitura da API: só as colunas da resposta, sem entidade gerenciada
+    @Query("""
+            select new com.fadesp.payment.domain.dtos.PagamentoRespostaDTO(
+                p.id, p.codigoDebito, p.cpfCnpjPagador, p.metodoPagamento, p.numeroCartao,
+                p.valorPagamento, p.status, p.ativo, p.criadoEm, p.atualizadoEm, p.versao)
+            from Pagamento p where p.id = :id
+            """)
+    Optional<PagamentoRespostaDTO> findRespostaById(@Param("id") Long id);
+
+    @Query("""
+            select new com.fadesp.payment.domain.dtos.PagamentoRespostaDTO(
+                p.id, p.codigoDebito, p.cpfCnpjPagador, p.metodoPagamento, p.numeroCartao,
+                p.valorPagamento, p.status, p.ativo, p.criadoEm, p.atualizadoEm, p.versao)
+            from Pagamento p where p.id in :ids order by p.id
+            """)
+    List<PagamentoRespostaDTO> findRespostasByIds(@Param("ids") Collection<Long> ids);
+
+    // volta para a fila do processamento interno (PUT para PENDENTE): tentativas e espera começam do zero
+    @Modifying
+    @Query(value = """
+            update pagamento set processamento_tentativas = 0, processamento_proxima = null
+            where id in :ids
+            """, nativeQuery = true)
+    int zerarProcessamento(@Param("ids") Collection<Long> ids);
+
+    long countByStatusAndAtivoTrue(StatusPagamentoEnum status);
+
+    // ponto de partida da primeira consolidação do relatório diário: o menor entre tabela quente e arquivo
+    @Query("select min(p.criadoEm) from Pagamento p union all select min(a.criadoEm) from PagamentoArquivado a")
+    List<Instant> findPrimeirosCriadoEm();
+
+    default Optional<Instant> findPrimeiroCriadoEm() {
+        return findPrimeirosCriadoEm().stream().filter(Objects::nonNull).min(Comparator.naturalOrder());
+    }
+
+    // checagem de duplicidade em conjunto (ingestão em lote e criação agrupada), na tabela quente e no arquivo
+    @Query("""
+            select p.codigoDebito from Pagamento p where p.codigoDebito in :codigos
+            union all
+            select a.codigoDebito from PagamentoArquivado a where a.codigoDebito in :codigos
+            """)
+    List<Integer> findCodigosDebitoExistentes(@Param("codigos") Collection<Integer> codigos);
+
+    // compare-and-set do status: só altera se a linha ainda estiver no status de origem
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Pagamento p set p.status = :para, p.versao = p.versao + 1, p.atualizadoEm = :agora
+            where p.id = :id and p.status = :de and p.ativo = true
+            """)
+    int compararEAtualizarStatus(@Param("id") Long id,
+                                 @Param("de") StatusPagamentoEnum de,
+                                 @Param("para") StatusPagamentoEnum para,
+                                 @Param("agora") Instant agora);
+
+    default int compararEAtualizarStatus(Long id, StatusPagamentoEnum de, StatusPagamentoEnum para) {
+        return compararEAtualizarStatus(id, de, para, Instant.now());
+    }
+
+    // transições de status em conjunto: leitura com lock + UPDATE condicional por status de origem
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+            select new com.fadesp.payment.domain.dtos.SituacaoPagamentoDTO(
+                p.id, p.status, p.ativo, p.documentoPagador, p.tipoDocumento, p.metodoPagamento, p.valorPagamento)
+            from Pagamento p where p.id in :ids
+            """)
+    List<SituacaoPagamentoDTO> findSituacoesParaAtualizacao(@Param("ids") Collection<Long> ids);
+
+    // releitura depois do compararEAtualizarStatus (a linha já está travada pelo UPDATE): resposta e resumo num SELECT
+    @Query("""
+            select new com.fadesp.payment.domain.dtos.PagamentoAtualizadoDTO(
+                p.id, p.codigoDebito, p.cpfCnpjPagador, p.metodoPagamento, p.numeroCartao,
+                p.valorPagamento, p.status, p.ativo, p.criadoEm, p.atualizadoEm, p.versao,
+                p.documentoPagador, p.tipoDocumento)
+            from Pagamento p where p.id = :id
+            """)
+    Optional<PagamentoAtualizadoDTO> findAtualizadoById(@Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+            update Pagamento p set p.status = :para, p.versao = p.versao + 1, p.atualizadoEm = :agora
+            where p.id in :ids and p.status = :de and p.ativo = true
+            """)
+    int atualizarStatus(@Param("ids") Collection<Long> ids,
+                        @Param("de") StatusPagamentoEnum de,
+                        @Param("para") StatusPagamentoEnum para,
+                        @Param("agora") Instant agora);
+
+    default int atualizarStatus(Collection<Long> ids, StatusPagamentoEnum de, StatusPagamentoEnum para) {
+        return atualizarStatus(ids, de, para, Instant.now());
+    }
+
     Page<Pagamento> findAllByAtivoTrue(Pageable pageable);
 
     Page<Pagamento> findAllByAtivoTrueAndCodigoDebito(Integer codigoDebito, Pageable pageable);
 
 
-    Page<Pagamento> findAllByAtivoTrueAndCpfCnpjPagador(String cpfCnpjPagador, Pageable pageable);
+    // pela chave canônica (DocumentoPagador), usando idx_pagamento_pagador_status
+    Page<Pagamento> findAllByAtivoTrueAndDocumentoPagadorAndTipoDocumento(Long documentoPagador,
+                                                                          TipoDocumentoEnum tipoDocumento,
+                                                                          Pageable pageable);
 
     Page<Pagamento> findAllByAtivoTrueAndStatus(StatusPagamentoEnum status, Pageable pageable);
 }
@@ -0,0 +1,64 @@
+package com.fadesp.payment.repositories;
+
+import com.fadesp.payment.domain.dtos.ItemResumoPagadorDTO;
+import com.fadesp.payment.domain.dtos.LinhaRelatorioDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.entities.PagamentoArquivado;
+import com.fadesp.payment.domain.enums.DimensaoRelatorioEnum;
+import com.fadesp.payment.domain.enums.GranularidadeRelatorioEnum;
+import com.fadesp.payment.domain.enums.TipoDocumentoEnum;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * Leituras por filtro dinâmico projetadas direto em {@link PagamentoRespostaDTO}: o SELECT traz só as colunas da
+ * resposta e nenhuma entidade entra no contexto de persistência (sem snapshot para dirty checking). Também as
+ * agregações do relatório por período, montadas conforme as dimensões pedidas. As agregações cobrem a tabela quente e o
+ * arquivo ({@link PagamentoArquivado}) num mesmo comando.
+ */
+public interface PagamentoRepositoryCustom {
+
+    /** Todos os pagamentos do filtro, ordenados por id. */
+    List<PagamentoRespostaDTO> listarRespostas(Specification<Pagamento> spec);
+
+    /** Até {@code limite} pagamentos do filtro com id maior que {@code aposId} (keyset), ordenados por id. */
+    List<PagamentoRespostaDTO> listarRespostas(Specification<Pagamento> spec, Long aposId, int limite);
+
+    /** Como {@link #listarRespostas(Specification)}, sobre o arquivo. */
+    List<PagamentoRespostaDTO> listarArquivados(Specification<PagamentoArquivado> spec);
+
+    /** Como {@link #listarRespostas(Specification, Long, int)}, sobre o arquivo. */
+    List<PagamentoRespostaDTO> listarArquivados(Specification<PagamentoArquivado> spec, Long aposId, int limite);
+
+    /**
+     * Cursor forward-only, somente leitura e ordenado por id sobre o filtro informado. Como as linhas são
+     * projeções, o consumo de memória não cresce com o resultado. Deve ser consumido dentro de uma transação
+     * e fechado ao final.
+     */
+    Stream<PagamentoRespostaDTO> streamPorFiltro(Specification<Pagamento> spec);
+
+    /**
+     * Pagamentos ativos criados em [{@code de}, {@code ate}) somados no banco (GROUP BY) por período, truncado em UTC
+     * conforme a {@code granularidade}, e pelas {@code dimensoes} pedidas. Ordenado por período, método e status.
+     */
+    List<LinhaRelatorioDTO> agregar(Instant de, Instant ate, GranularidadeRelatorioEnum granularidade,
+                                    Set<DimensaoRelatorioEnum> dimensoes);
+
+    /**
+     * Início (UTC) de cada dia com pagamentos criados antes de {@code criadoAntesDe} e alterados em
+     * ({@code alteradoApos}, {@code alteradoAte}]; {@code alteradoAte} nulo não limita. Usa
+     * {@code idx_pagamento_atualizado}.
+     */
+    List<Instant> diasAlterados(Instant alteradoApos, Instant alteradoAte, Instant criadoAntesDe);
+
+    /**
+     * Resumo do pagador recalculado da tabela base, arquivo incluído: pagamentos ativos por status e método
+     * (verificação do {@code resumo_pagador}).
+     */
+    List<ItemResumoPagadorDTO> recalcularResumo(Long documentoPagador, TipoDocumentoEnum tipoDocumento);
+}
@@ -0,0 +1,187 @@
+package com.fadesp.payment.repositories;
+
+import com.fadesp.payment.domain.dtos.ItemResumoPagadorDTO;
+import com.fadesp.payment.domain.dtos.LinhaRelatorioDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.entities.PagamentoArquivado;
+import com.fadesp.payment.domain.enums.DimensaoRelatorioEnum;
+import com.fadesp.payment.domain.enums.GranularidadeRelatorioEnum;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.domain.enums.TipoDocumentoEnum;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+public class PagamentoRepositoryCustomImpl implements PagamentoRepositoryCustom {
+
+    // mesma ordem do ORDER BY de antes do arquivo: os ENUMs do banco ordenam pelo nome
+    private static final Comparator<LinhaRelatorioDTO> ORDEM_RELATORIO = Comparator
+            .comparing(LinhaRelatorioDTO::periodo)
+            .thenComparing(l -> l.metodoPagamento() == null ? "" : l.metodoPagamento().name())
+            .thenComparing(l -> l.status() == null ? "" : l.status().name());
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // no MySQL o fetch size só é respeitado com useCursorFetch=true (ligado no profile mysql)
+    @Value("${pagamento.exportacao.fetch-size:500}")
+    private int fetchSize;
+
+    @Override
+    public List<PagamentoRespostaDTO> listarRespostas(Specification<Pagamento> spec) {
+        return consulta(Pagamento.class, spec, null).getResultList();
+    }
+
+    @Override
+    public List<PagamentoRespostaDTO> listarRespostas(Specification<Pagamento> spec, Long aposId, int limite) {
+        return consulta(Pagamento.class, spec, aposId)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    @Override
+    public List<PagamentoRespostaDTO> listarArquivados(Specification<PagamentoArquivado> spec) {
+        return consulta(PagamentoArquivado.class, spec, null).getResultList();
+    }
+
+    @Override
+    public List<PagamentoRespostaDTO> listarArquivados(Specification<PagamentoArquivado> spec, Long aposId, int limite) {
+        return consulta(PagamentoArquivado.class, spec, aposId)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<PagamentoRespostaDTO> streamPorFiltro(Specification<Pagamento> spec) {
+        return consulta(Pagamento.class, spec, null)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .getResultStream();
+    }
+
+    // SELECT new PagamentoRespostaDTO(...) WHERE <spec> [AND id > :aposId] ORDER BY id, na tabela quente ou no arquivo
+    private <T> TypedQuery<PagamentoRespostaDTO> consulta(Class<T> entidade, Specification<T> spec, Long aposId) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<PagamentoRespostaDTO> query = builder.createQuery(PagamentoRespostaDTO.class);
+        Root<T> root = query.from(entidade);
+
+        query.select(builder.construct(PagamentoRespostaDTO.class,
+                root.get("id"),
+                root.get("codigoDebito"),
+                root.get("cpfCnpjPagador"),
+                root.get("metodoPagamento"),
+                root.get("numeroCartao"),
+                root.get("valorPagamento"),
+                root.get("status"),
+                root.get("ativo"),
+                root.get("criadoEm"),
+                root.get("atualizadoEm"),
+                root.get("versao")));
+
+        List<Predicate> predicates = new ArrayList<>(2);
+        Predicate filtro = spec.toPredicate(root, query, builder);
+        if (filtro != null) {
+            predicates.add(filtro);
+        }
+        if (aposId != null) {
+            predicates.add(builder.greaterThan(root.get("id"), aposId));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(builder.asc(root.get("id")));
+
+        return entityManager.createQuery(query);
+    }
+
+    // SELECT truncate(criado_em) [, metodo] [, status], count, sum ... GROUP BY as mesmas colunas: só as linhas
+    // agregadas saem do banco. Tabela quente e arquivo vão no mesmo comando (UNION ALL), então um bloco arquivado
+    // durante a leitura não é contado duas vezes nem some; as células presentes nos dois lados são somadas aqui.
+    @Override
+    public List<LinhaRelatorioDTO> agregar(Instant de, Instant ate, GranularidadeRelatorioEnum granularidade,
+                                           Set<DimensaoRelatorioEnum> dimensoes) {
+        boolean porMetodo = dimensoes.contains(DimensaoRelatorioEnum.METODO);
+        boolean porStatus = dimensoes.contains(DimensaoRelatorioEnum.STATUS);
+        String unidade = (granularidade == GranularidadeRelatorioEnum.HORA) ? "hour" : "day";
+
+        StringBuilder colunas = new StringBuilder("truncate(p.criadoEm, " + unidade + ")");
+        if (porMetodo) colunas.append(", p.metodoPagamento");
+        if (porStatus) colunas.append(", p.status");
+
+        String ramo = "select " + colunas + ", count(p), sum(p.valorPagamento) from %s p"
+                + " where p.ativo = true and p.criadoEm >= :de and p.criadoEm < :ate"
+                + " group by " + colunas;
+        String hql = ramo.formatted("Pagamento") + " union all " + ramo.formatted("PagamentoArquivado");
+
+        Map<List<Object>, LinhaRelatorioDTO> linhas = new LinkedHashMap<>();
+        entityManager.createQuery(hql, Tuple.class)
+                .setParameter("de", de)
+                .setParameter("ate", ate)
+                .getResultList()
+                .forEach(t -> {
+                    int i = 0;
+                    Instant inicio = t.get(i++, Instant.class);
+                    MetodoPagamentoEnum metodo = porMetodo ? t.get(i++, MetodoPagamentoEnum.class) : null;
+                    StatusPagamentoEnum status = porStatus ? t.get(i++, StatusPagamentoEnum.class) : null;
+                    long quantidade = t.get(i++, Long.class);
+                    LinhaRelatorioDTO linha = new LinhaRelatorioDTO(inicio, metodo, status, quantidade, t.get(i, BigDecimal.class));
+                    linhas.merge(Arrays.asList(inicio, metodo, status), linha, (a, b) -> new LinhaRelatorioDTO(a.periodo(), a.metodoPagamento(),
+                            a.status(), a.quantidade() + b.quantidade(), a.valorTotal().add(b.valorTotal())));
+                });
+        return linhas.values().stream().sorted(ORDEM_RELATORIO).toList();
+    }
+
+    // também em um só comando sobre as duas tabelas, pelo mesmo motivo do agregar
+    @Override
+    public List<ItemResumoPagadorDTO> recalcularResumo(Long documentoPagador, TipoDocumentoEnum tipoDocumento) {
+        String ramo = "select p.status, p.metodoPagamento, count(p), sum(p.valorPagamento) from %s p"
+                + " where p.documentoPagador = :documento and p.tipoDocumento = :tipo and p.ativo = true"
+                + " group by p.status, p.metodoPagamento";
+        String hql = ramo.formatted("Pagamento") + " union all " + ramo.formatted("PagamentoArquivado");
+
+        Map<List<Object>, ItemResumoPagadorDTO> itens = new LinkedHashMap<>();
+        entityManager.createQuery(hql, Tuple.class)
+                .setParameter("documento", documentoPagador)
+                .setParameter("tipo", tipoDocumento)
+                .getResultList()
+                .forEach(t -> {
+                    ItemResumoPagadorDTO item = new ItemResumoPagadorDTO(t.get(0, StatusPagamentoEnum.class),
+                            t.get(1, MetodoPagamentoEnum.class), t.get(2, Long.class), t.get(3, BigDecimal.class));
+                    itens.merge(List.of(item.status(), item.metodoPagamento()), item, (a, b) -> new ItemResumoPagadorDTO(
+                            a.status(), a.metodoPagamento(), a.quantidade() + b.quantidade(), a.valorTotal().add(b.valorTotal())));
+                });
+        return new ArrayList<>(itens.values());
+    }
+
+    @Override
+    public List<Instant> diasAlterados(Instant alteradoApos, Instant alteradoAte, Instant criadoAntesDe) {
+        String hql = "select distinct truncate(p.criadoEm, day) from Pagamento p"
+                + " where p.atualizadoEm > :apos and p.criadoEm < :limite"
+                + (alteradoAte != null ? " and p.atualizadoEm <= :ate" : "");
+        TypedQuery<Instant> query = entityManager.createQuery(hql, Instant.class)
+                .setParameter("apos", alteradoApos)
+                .setParameter("limite", criadoAntesDe);
+        if (alteradoAte != null) {
+            query.setParameter("ate", alteradoAte);
+        }
+        return query.getResultList();
+    }
+}
@@ -2,20 +2,27 @@ package com.fadesp.payment.repositories;
 
 import com.fadesp.payment.domain.dtos.FiltroPagamentoDTO;
 import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.util.DocumentoPagador;
 import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
+/**
+ * Filtro dinâmico da listagem. Os predicados seguem a ordem das colunas dos índices compostos de
+ * {@link Pagamento} (documento do pagador, status, ativo, criado_em) e a ordenação fica por conta de quem consulta (id).
+ * Serve também ao arquivo ({@link com.fadesp.payment.domain.entities.PagamentoArquivado}), que tem os mesmos atributos.
+ */
 public final class PagamentoSpecification {
 
     private PagamentoSpecification() {
         // classe utilitária: não deve ser instanciada
     }
 
-    public static Specification<Pagamento> comFiltro(FiltroPagamentoDTO filtro) {
+    public static <T> Specification<T> comFiltro(FiltroPagamentoDTO filtro) {
         return (root, query, builder) -> {
             List<Predicate> predicates = new ArrayList<>();
 
@@ -24,7 +31,15 @@ public final class PagamentoSpecification {
             }
 
             if (StringUtils.hasText(filtro.cpfCnpj())) {
-                predicates.add(builder.equal(root.get("cpfCnpj"), filtro.cpfCnpj()));
+                // compara pela chave numérica, então qualquer formatação do documento encontra o mesmo pagador;
+                // algo que não tem 11 nem 14 dígitos não casa com nenhum registro
+                Optional<DocumentoPagador> documento = DocumentoPagador.de(filtro.cpfCnpj());
+                if (documento.isPresent()) {
+                    predicates.add(builder.equal(root.get("documentoPagador"), documento.get().numero()));
+                    predicates.add(builder.equal(root.get("tipoDocumento"), documento.get().tipo()));
+                } else {
+                    predicates.add(builder.disjunction());
+                }
             }
 
             if (filtro.status() != null) {
@@ -34,7 +49,15 @@ public final class PagamentoSpecification {
             // garante apenas registros ativos
             predicates.add(builder.isTrue(root.get("ativo")));
 
+            if (filtro.criadoDe() != null) {
+                predicates.add(builder.greaterThanOrEqualTo(root.get("criadoEm"), filtro.criadoDe()));
+            }
+
+            if (filtro.criadoAte() != null) {
+                predicates.add(builder.lessThan(root.get("criadoEm"), filtro.criadoAte()));
+            }
+
             return builder.and(predicates.toArray(new Predicate[0]));
         };
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,27 @@
+package com.fadesp.payment.repositories;
+
+import com.fadesp.payment.domain.dtos.ItemResumoPagadorDTO;
+import com.fadesp.payment.domain.entities.ResumoPagador;
+import com.fadesp.payment.domain.entities.ResumoPagadorId;
+import com.fadesp.payment.domain.enums.TipoDocumentoEnum;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ResumoPagadorRepository extends JpaRepository<ResumoPagador, ResumoPagadorId> {
+
+    // no máximo status x método linhas por pagador, pela chave primária
+    @Query("""
+            select new com.fadesp.payment.domain.dtos.ItemResumoPagadorDTO(
+                r.id.status, r.id.metodoPagamento, r.quantidade, r.valorTotal)
+            from ResumoPagador r
+            where r.id.documentoPagador = :documento and r.id.tipoDocumento = :tipo and r.quantidade > 0
+            order by r.id.status, r.id.metodoPagamento
+            """)
+    List<ItemResumoPagadorDTO> findItens(@Param("documento") Long documentoPagador,
+                                         @Param("tipo") TipoDocumentoEnum tipoDocumento);
+}
@@ -0,0 +1,268 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.enums.TipoEventoPagamentoEnum;
+import com.fadesp.payment.repositories.PagamentoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityExistsException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+
+/**
+ * Criação de pagamentos com commit agrupado (opcional, {@code pagamento.criacao.agrupada.habilitado}): as chamadas
+ * simultâneas de {@link #realizar} são gravadas por uma única thread, num grupo por transação.
+ */
+@Service
+public class AgrupadorCriacaoPagamento {
+
+    private static final Logger log = LoggerFactory.getLogger(AgrupadorCriacaoPagamento.class);
+    private static final String MOTIVO_DUPLICADO = "Já existe um pagamento com o código de débito informado.";
+
+    private final PagamentoService pagamentoService;
+    private final PagamentoRepository pagamentoRepository;
+    private final EventoPagamentoService eventoPagamentoService;
+    private final PagamentoMetricas metricas;
+    private final FiltroCodigoDebito filtroCodigoDebito;
+    private final ResumoPagadorService resumoPagadorService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final long janelaNanos;
+    private final int maximo;
+    private final long esperaNanos;
+
+    private final BlockingQueue<Pedido> fila;
+    private final Thread gravador;
+    private volatile boolean encerrando;
+
+    private final DistributionSummary tamanhoGrupo;
+    private final Counter individuais;
+
+    public AgrupadorCriacaoPagamento(PagamentoService pagamentoService,
+                                     PagamentoRepository pagamentoRepository,
+                                     EventoPagamentoService eventoPagamentoService,
+                                     PagamentoMetricas metricas,
+                                     FiltroCodigoDebito filtroCodigoDebito,
+                                     ResumoPagadorService resumoPagadorService,
+                                     PlatformTransactionManager transactionManager,
+                                     ObjectProvider<MeterRegistry> meterRegistry,
+                                     @Value("${pagamento.criacao.agrupada.habilitado:false}") boolean habilitado,
+                                     @Value("${pagamento.criacao.agrupada.janela:PT0.002S}") Duration janela,
+                                     @Value("${pagamento.criacao.agrupada.maximo:100}") int maximo,
+                                     @Value("${pagamento.criacao.agrupada.fila:10000}") int capacidadeFila,
+                                     @Value("${pagamento.criacao.agrupada.espera:PT10S}") Duration espera) {
+        this.pagamentoService = pagamentoService;
+        this.pagamentoRepository = pagamentoRepository;
+        this.eventoPagamentoService = eventoPagamentoService;
+        this.metricas = metricas;
+        this.filtroCodigoDebito = filtroCodigoDebito;
+        this.resumoPagadorService = resumoPagadorService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.janelaNanos = janela.toNanos();
+        this.maximo = maximo;
+        this.esperaNanos = espera.toNanos();
+        this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(CompositeMeterRegistry::new);
+        registry.gauge("pagamento.criacao.agrupada.fila", fila, BlockingQueue::size);
+        this.tamanhoGrupo = DistributionSummary.builder("pagamento.criacao.agrupada.grupo")
+                .baseUnit("pagamentos")
+                .register(registry);
+        this.individuais = registry.counter("pagamento.criacao.agrupada.individuais");
+
+        this.gravador = new Thread(this::gravarContinuamente, "criacao-agrupada");
+        this.gravador.setDaemon(true);
+        if (habilitado) {
+            this.gravador.start();
+        }
+    }
+
+    /** Cria o pagamento; com o agrupamento ligado, bloqueia até o commit do grupo em que ele entrou. */
+    public Pagamento realizar(PagamentoDTO dto) {
+        if (!habilitado) {
+            return pagamentoService.realizar(dto);
+        }
+        // regras sem banco: o erro volta direto, sem ocupar lugar no grupo
+        pagamentoService.validarRegras(dto);
+
+        Pedido pedido = new Pedido(dto, new CompletableFuture<>());
+        if (encerrando || !fila.offer(pedido)) {
+            throw new DataAccessResourceFailureException("Fila de criação de pagamentos cheia.");
+        }
+        try {
+            return aguardar(pedido.resultado());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Criação do pagamento interrompida.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    private Pagamento aguardar(CompletableFuture<Pagamento> resultado) throws InterruptedException, ExecutionException {
+        try {
+            return resultado.get(esperaNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            if (!resultado.cancel(false)) {
+                // concluído entre o fim da espera e o cancelamento
+                return resultado.get();
+            }
+            // o gravador descarta o pedido cancelado; se os INSERTs do grupo já saíram, o pagamento é criado mesmo assim
+            throw new DataAccessResourceFailureException("Tempo de espera da criação agrupada esgotado.", ex);
+        }
+    }
+
+    private void gravarContinuamente() {
+        List<Pedido> grupo = new ArrayList<>(maximo);
+        while (!encerrando || !fila.isEmpty()) {
+            try {
+                Pedido primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null) {
+                    continue;
+                }
+                grupo.add(primeiro);
+                long limite = System.nanoTime() + janelaNanos;
+                while (grupo.size() < maximo) {
+                    long restante = limite - System.nanoTime();
+                    Pedido proximo = (restante > 0) ? fila.poll(restante, TimeUnit.NANOSECONDS) : fila.poll();
+                    if (proximo == null) {
+                        break;
+                    }
+                    grupo.add(proximo);
+                }
+                gravar(grupo);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                grupo.forEach(p -> p.resultado().completeExceptionally(
+                        new DataAccessResourceFailureException("Aplicação encerrando; reenvie o pagamento.")));
+                return;
+            } catch (RuntimeException ex) {
+                // gravar() já repassou o erro a cada chamador; aqui só não deixa a thread morrer
+                log.error("[Pagamento] Falha inesperada na criação agrupada.", ex);
+            } finally {
+                grupo.clear();
+            }
+        }
+    }
+
+    private void gravar(List<Pedido> grupo) {
+        tamanhoGrupo.record(grupo.size());
+        List<Pedido> gravados;
+        try {
+            gravados = transactionTemplate.execute(status -> metricas.medir("realizar_agrupado", () -> inserir(grupo)));
+        } catch (DataIntegrityViolationException ex) {
+            log.warn("[Pagamento] Conflito ao gravar grupo de {} criações; gravando um a um. {}",
+                    grupo.size(), ex.getMostSpecificCause().getMessage());
+            grupo.forEach(this::gravarIndividual);
+            return;
+        } catch (RuntimeException ex) {
+            grupo.forEach(p -> p.resultado().completeExceptionally(ex));
+            throw ex;
+        }
+        // só depois do commit: antes disso o pagamento ainda poderia sumir num rollback
+        gravados.forEach(p -> p.resultado().complete(p.pagamento));
+    }
+
+    /** Uma transação para o grupo; os pedidos rejeitados por duplicidade são concluídos aqui mesmo. */
+    private List<Pedido> inserir(List<Pedido> grupo) {
+        Set<Integer> codigos = grupo.stream().map(p -> p.dto().codigoDebito()).collect(Collectors.toSet());
+        Set<Integer> existentes = filtroCodigoDebito.existentes(codigos, pagamentoRepository::findCodigosDebitoExistentes);
+        Set<Integer> vistos = new HashSet<>();
+
+        List<Pedido> aceitos = new ArrayList<>(grupo.size());
+        for (Pedido pedido : grupo) {
+            if (pedido.resultado().isCancelled()) {
+                continue;
+            }
+            Integer codigo = pedido.dto().codigoDebito();
+            if (existentes.contains(codigo) || !vistos.add(codigo)) {
+                pedido.resultado().completeExceptionally(new EntityExistsException(MOTIVO_DUPLICADO));
+            } else {
+                pedido.pagamento = pagamentoService.novoPagamento(pedido.dto());
+                aceitos.add(pedido);
+            }
+        }
+
+        List<Pagamento> novos = aceitos.stream().map(p -> p.pagamento).toList();
+        List<Integer> codigosNovos = novos.stream().map(Pagamento::getCodigoDebito).toList();
+        // o arquivo só é consultado para os códigos que o filtro não garante inéditos
+        List<Integer> talvezArquivados = filtroCodigoDebito.talvezExistentes(codigosNovos);
+        filtroCodigoDebito.adicionar(codigosNovos);
+        pagamentoRepository.saveAll(novos);
+        pagamentoRepository.flush();
+        if (pagamentoService.algumArquivado(talvezArquivados)) {
+            throw new DataIntegrityViolationException("Código de débito já usado por um pagamento arquivado.");
+        }
+        resumoPagadorService.registrarCriacao(novos);
+        eventoPagamentoService.registrar(TipoEventoPagamentoEnum.CRIADO, novos.stream().map(PagamentoRespostaDTO::de).toList());
+        metricas.contarCriacoes(novos);
+        return aceitos;
+    }
+
+    private void gravarIndividual(Pedido pedido) {
+        if (pedido.resultado().isDone()) {
+            return;
+        }
+        individuais.increment();
+        try {
+            pedido.resultado().complete(pagamentoService.realizar(pedido.dto()));
+        } catch (RuntimeException ex) {
+            pedido.resultado().completeExceptionally(ex);
+        }
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        encerrando = true;
+        if (habilitado) {
+            // o gravador esvazia a fila antes de sair
+            gravador.join(TimeUnit.SECONDS.toMillis(10));
+            gravador.interrupt();
+        }
+    }
+
+    private static final class Pedido {
+        private final PagamentoDTO dto;
+        private final CompletableFuture<Pagamento> resultado;
+        private Pagamento pagamento;
+
+        Pedido(PagamentoDTO dto, CompletableFuture<Pagamento> resultado) {
+            this.dto = dto;
+            this.resultado = resultado;
+        }
+
+        PagamentoDTO dto() { return dto; }
+
+        CompletableFuture<Pagamento> resultado() { return resultado; }
+    }
+}
@@ -0,0 +1,175 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Arquivamento dos pagamentos encerrados: move de {@code pagamento} para {@code pagamento_arquivo}, em blocos de uma
+ * transação cada, os PROCESSADO_SUCESSO e os inativos sem alteração há mais de {@code pagamento.arquivamento.idade}.
+ */
+@Service
+public class ArquivamentoPagamentoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArquivamentoPagamentoService.class);
+
+    // o que pode sair da tabela quente: nenhuma dessas linhas muda mais de status
+    private static final List<Faixa> FAIXAS = List.of(
+            new Faixa(StatusPagamentoEnum.PROCESSADO_SUCESSO, true),
+            new Faixa(StatusPagamentoEnum.PENDENTE_PROCESSAMENTO, false),
+            new Faixa(StatusPagamentoEnum.PROCESSADO_FALHA, false),
+            new Faixa(StatusPagamentoEnum.PROCESSADO_SUCESSO, false));
+
+    private static final String TRAVAR_CANDIDATOS = """
+            SELECT id FROM pagamento
+            WHERE status = :status AND ativo = :ativo AND id > :aposId
+              AND atualizado_em < :limite AND documento_pagador IS NOT NULL
+            ORDER BY id
+            LIMIT :lote
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String COPIAR = """
+            INSERT INTO pagamento_arquivo
+              (id, codigo_debito, cpf_cnpj_pagador, documento_pagador, tipo_documento, metodo_pagamento, numero_cartao,
+               valor_pagamento, status, ativo, criado_em, atualizado_em, versao, arquivado_em)
+            SELECT id, codigo_debito, cpf_cnpj_pagador, documento_pagador, tipo_documento, metodo_pagamento, numero_cartao,
+                   valor_pagamento, status, ativo, criado_em, atualizado_em, versao, :agora
+            FROM pagamento WHERE id IN (:ids)
+            """;
+
+    private static final String EXCLUIR = """
+            DELETE FROM pagamento WHERE id IN (:ids)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final PagamentoCache pagamentoCache;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final Duration idade;
+    private final int tamanhoLote;
+    private volatile boolean encerrando;
+
+    private final Counter linhasMovidas;
+    private final Timer duracaoBloco;
+    private final AtomicLong linhasQuentes = new AtomicLong();
+    private final AtomicLong linhasArquivadas = new AtomicLong();
+
+    public ArquivamentoPagamentoService(NamedParameterJdbcTemplate jdbc,
+                                        PagamentoCache pagamentoCache,
+                                        PlatformTransactionManager transactionManager,
+                                        ObjectProvider<MeterRegistry> meterRegistry,
+                                        @Value("${pagamento.arquivamento.habilitado:false}") boolean habilitado,
+                                        @Value("${pagamento.arquivamento.idade:P90D}") Duration idade,
+                                        @Value("${pagamento.arquivamento.lote:500}") int tamanhoLote) {
+        this.jdbc = jdbc;
+        this.pagamentoCache = pagamentoCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.idade = idade;
+        this.tamanhoLote = tamanhoLote;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(CompositeMeterRegistry::new);
+        this.linhasMovidas = registry.counter("pagamento.arquivamento.linhas");
+        this.duracaoBloco = registry.timer("pagamento.arquivamento.bloco");
+        registry.gauge("pagamento.arquivamento.tabela.linhas", Tags.of("tabela", "pagamento"), linhasQuentes);
+        registry.gauge("pagamento.arquivamento.tabela.linhas", Tags.of("tabela", "pagamento_arquivo"), linhasArquivadas);
+    }
+
+    @Scheduled(
+            initialDelayString = "${pagamento.arquivamento.intervalo:PT10M}",
+            fixedDelayString = "${pagamento.arquivamento.intervalo:PT10M}"
+    )
+    public void arquivarAgendado() {
+        if (habilitado) {
+            arquivar();
+        }
+    }
+
+    /** Move tudo o que já passou da idade, em blocos; devolve quantos pagamentos foram arquivados. */
+    public long arquivar() {
+        Instant limite = Instant.now().minus(idade);
+        long inicio = System.nanoTime();
+        long total = 0;
+        for (Faixa faixa : FAIXAS) {
+            long aposId = 0;
+            while (!encerrando) {
+                long desde = aposId;
+                Bloco bloco = duracaoBloco.record(() -> moverBloco(faixa, desde, limite));
+                total += bloco.movidos();
+                if (bloco.movidos() < tamanhoLote) {
+                    break;
+                }
+                aposId = bloco.ultimoId();
+            }
+        }
+        contarLinhas();
+        if (total > 0) {
+            double segundos = Math.max((System.nanoTime() - inicio) / 1e9, 1e-3);
+            log.info("[Pagamento] {} pagamento(s) arquivado(s) ({} por segundo).", total, Math.round(total / segundos));
+        }
+        return total;
+    }
+
+    private Bloco moverBloco(Faixa faixa, long aposId, Instant limite) {
+        return transactionTemplate.execute(status -> {
+            List<Long> ids = jdbc.queryForList(TRAVAR_CANDIDATOS, new MapSqlParameterSource()
+                    .addValue("status", faixa.status().name())
+                    .addValue("ativo", faixa.ativo())
+                    .addValue("aposId", aposId)
+                    .addValue("limite", Timestamp.from(limite))
+                    .addValue("lote", tamanhoLote), Long.class);
+            if (ids.isEmpty()) {
+                return new Bloco(0, aposId);
+            }
+            MapSqlParameterSource parametros = new MapSqlParameterSource("ids", ids)
+                    .addValue("agora", Timestamp.from(Instant.now()));
+            jdbc.update(COPIAR, parametros);
+            jdbc.update(EXCLUIR, parametros);
+            pagamentoCache.invalidarAposCommit(ids);
+            linhasMovidas.increment(ids.size());
+            return new Bloco(ids.size(), ids.get(ids.size() - 1));
+        });
+    }
+
+    // contagem completa (índice primário) uma vez por rodada, não a cada leitura do gauge
+    private void contarLinhas() {
+        linhasQuentes.set(contar("pagamento"));
+        linhasArquivadas.set(contar("pagamento_arquivo"));
+    }
+
+    private long contar(String tabela) {
+        Long linhas = jdbc.getJdbcTemplate().queryForObject("SELECT COUNT(*) FROM " + tabela, Long.class);
+        return (linhas != null) ? linhas : 0;
+    }
+
+    @PreDestroy
+    void encerrar() {
+        // o bloco em andamento termina; a rodada não começa outro
+        encerrando = true;
+    }
+
+    private record Faixa(StatusPagamentoEnum status, boolean ativo) { }
+
+    private record Bloco(int movidos, long ultimoId) { }
+}
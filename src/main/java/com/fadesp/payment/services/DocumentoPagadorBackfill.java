@@ -0,0 +1,127 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.util.DocumentoPagador;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Migração das linhas gravadas antes da chave numérica do pagador: preenche {@code documento_pagador} e
+ * {@code tipo_documento} e deixa {@code cpf_cnpj_pagador} só com dígitos.
+ * <p>
+ * Roda na subida, em lotes por id (keyset) com uma transação por lote, e só toca linhas ainda sem chave —
+ * pode ser interrompida e executada de novo, inclusive em dois nós ao mesmo tempo. Documentos que não têm 11 nem
+ * 14 dígitos ficam como estão e são apenas registrados no log. As linhas preenchidas entram no resumo do pagador na
+ * mesma transação, e só pelo nó cujo UPDATE de fato as preencheu.
+ */
+@Component
+public class DocumentoPagadorBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentoPagadorBackfill.class);
+
+    private static final String SELECT_PENDENTES = """
+            SELECT id, cpf_cnpj_pagador FROM pagamento
+            WHERE documento_pagador IS NULL AND id > ?
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    private static final String UPDATE_CHAVE = """
+            UPDATE pagamento
+            SET cpf_cnpj_pagador = ?, documento_pagador = ?, tipo_documento = ?, atualizado_em = ?,
+                versao = versao + 1
+            WHERE id = ? AND documento_pagador IS NULL
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final ResumoPagadorService resumoPagadorService;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int tamanhoLote;
+
+    public DocumentoPagadorBackfill(JdbcTemplate jdbc,
+                                    ResumoPagadorService resumoPagadorService,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${pagamento.documento.backfill.habilitado:true}") boolean habilitado,
+                                    @Value("${pagamento.documento.backfill.lote:1000}") int tamanhoLote) {
+        this.jdbc = jdbc;
+        this.resumoPagadorService = resumoPagadorService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (habilitado) {
+            preencherPendentes();
+        }
+    }
+
+    /** @return quantidade de linhas preenchidas */
+    public int preencherPendentes() {
+        long ultimoId = 0;
+        int preenchidas = 0;
+        int ignoradas = 0;
+
+        while (true) {
+            List<Pendente> pendentes = jdbc.query(SELECT_PENDENTES,
+                    (rs, i) -> new Pendente(rs.getLong(1), rs.getString(2)), ultimoId, tamanhoLote);
+            if (pendentes.isEmpty()) break;
+
+            List<Pendente> validos = new ArrayList<>(pendentes.size());
+            List<DocumentoPagador> documentos = new ArrayList<>(pendentes.size());
+            for (Pendente pendente : pendentes) {
+                Optional<DocumentoPagador> documento = DocumentoPagador.de(pendente.cpfCnpj());
+                if (documento.isEmpty()) {
+                    log.warn("[Pagamento] Backfill: documento do pagamento {} não é CPF nem CNPJ; mantido sem chave.",
+                            pendente.id());
+                    ignoradas++;
+                    continue;
+                }
+                validos.add(pendente);
+                documentos.add(documento.get());
+            }
+
+            if (!validos.isEmpty()) {
+                preenchidas += transactionTemplate.execute(status -> {
+                    Timestamp agora = Timestamp.from(Instant.now());
+                    List<Long> ids = new ArrayList<>(validos.size());
+                    // sem batch: com rewriteBatchedStatements o MySQL devolve SUCCESS_NO_INFO (-2) e não dá para saber
+                    // se a linha já tinha sido preenchida por outro nó
+                    for (int i = 0; i < validos.size(); i++) {
+                        DocumentoPagador d = documentos.get(i);
+                        long id = validos.get(i).id();
+                        if (jdbc.update(UPDATE_CHAVE, d.digitos(), d.numero(), d.tipo().name(), agora, id) == 1) {
+                            ids.add(id);
+                        }
+                    }
+                    resumoPagadorService.registrarPreenchidas(ids);
+                    return ids.size();
+                });
+            }
+            ultimoId = pendentes.get(pendentes.size() - 1).id();
+        }
+
+        if (preenchidas > 0 || ignoradas > 0) {
+            log.info("[Pagamento] Backfill da chave do pagador: {} linha(s) preenchida(s), {} ignorada(s).",
+                    preenchidas, ignoradas);
+        }
+        return preenchidas;
+    }
+
+    private record Pendente(long id, String cpfCnpj) {
+    }
+}
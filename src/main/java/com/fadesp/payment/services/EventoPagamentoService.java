@@ -0,0 +1,76 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.EventoPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.entities.EventoPagamento;
+import com.fadesp.payment.domain.enums.TipoEventoPagamentoEnum;
+import com.fadesp.payment.repositories.EventoPagamentoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Grava eventos de mudança de pagamento no outbox ({@code evento_pagamento}).
+ * <p>
+ * Exige a transação de quem chama: o evento só existe se a escrita no pagamento for confirmada, e vice-versa.
+ * A publicação fica com o {@link RelayEventosPagamento}.
+ */
+@Service
+public class EventoPagamentoService {
+
+    private final EventoPagamentoRepository eventoPagamentoRepository;
+    private final ObjectWriter escritor;
+
+    public EventoPagamentoService(EventoPagamentoRepository eventoPagamentoRepository, ObjectMapper objectMapper) {
+        this.eventoPagamentoRepository = eventoPagamentoRepository;
+        this.escritor = objectMapper.writerFor(PagamentoRespostaDTO.class);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(TipoEventoPagamentoEnum tipo, PagamentoRespostaDTO pagamento) {
+        eventoPagamentoRepository.save(novoEvento(tipo, pagamento, Instant.now()));
+    }
+
+    /** Um evento por pagamento, gravados no mesmo batch de INSERTs. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(TipoEventoPagamentoEnum tipo, List<PagamentoRespostaDTO> pagamentos) {
+        if (pagamentos.isEmpty()) {
+            return;
+        }
+        Instant agora = Instant.now();
+        List<EventoPagamento> eventos = new ArrayList<>(pagamentos.size());
+        for (PagamentoRespostaDTO pagamento : pagamentos) {
+            eventos.add(novoEvento(tipo, pagamento, agora));
+        }
+        eventoPagamentoRepository.saveAll(eventos);
+    }
+
+    /** Eventos publicados depois da posição {@code aposPosicao}, em ordem de publicação (stream SSE). */
+    @Transactional(readOnly = true)
+    public List<EventoPagamentoDTO> buscarPublicadosApos(long aposPosicao, int limite) {
+        return eventoPagamentoRepository.findPublicadosApos(aposPosicao, limite).stream()
+                .map(EventoPagamentoDTO::de)
+                .toList();
+    }
+
+    /** Posição do último evento publicado (com commit feito). */
+    @Transactional(readOnly = true)
+    public long ultimaPosicaoPublicada() {
+        return eventoPagamentoRepository.findUltimaPosicao();
+    }
+
+    private EventoPagamento novoEvento(TipoEventoPagamentoEnum tipo, PagamentoRespostaDTO pagamento, Instant agora) {
+        try {
+            return new EventoPagamento(pagamento.id(), tipo, escritor.writeValueAsString(pagamento), agora);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Falha ao serializar o evento do pagamento " + pagamento.id() + ".", ex);
+        }
+    }
+}
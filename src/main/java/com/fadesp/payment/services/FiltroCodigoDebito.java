@@ -0,0 +1,153 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.util.FiltroBloomEscalavel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Filtro de Bloom com os códigos de débito já gravados, na frente da consulta de duplicidade do lote e da criação
+ * agrupada: um código que o filtro garante ausente não vai ao banco.
+ */
+@Component
+public class FiltroCodigoDebito implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(FiltroCodigoDebito.class);
+
+    // %s: pagamento ou pagamento_arquivo
+    private static final String SELECT_CODIGOS = """
+            SELECT id, codigo_debito FROM %s
+            WHERE id > ?
+            ORDER BY id
+            LIMIT ?
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final boolean habilitado;
+    private final int tamanhoLote;
+    private final FiltroBloomEscalavel filtro;
+    private volatile boolean pronto;
+
+    private final Counter consultasEvitadas;
+    private final Counter ausentes;
+    private final Counter falsosPositivos;
+    private final Counter existentes;
+
+    public FiltroCodigoDebito(JdbcTemplate jdbc,
+                              ObjectProvider<MeterRegistry> meterRegistry,
+                              @Value("${pagamento.codigo-debito.filtro.habilitado:true}") boolean habilitado,
+                              @Value("${pagamento.codigo-debito.filtro.capacidade-inicial:100000}") long capacidadeInicial,
+                              @Value("${pagamento.codigo-debito.filtro.falso-positivo:0.01}") double falsoPositivo,
+                              @Value("${pagamento.codigo-debito.filtro.lote:10000}") int tamanhoLote) {
+        this.jdbc = jdbc;
+        this.habilitado = habilitado;
+        this.tamanhoLote = tamanhoLote;
+        this.filtro = new FiltroBloomEscalavel(capacidadeInicial, falsoPositivo);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(CompositeMeterRegistry::new);
+        registry.gauge("pagamento.codigo_debito.filtro.memoria", filtro, FiltroBloomEscalavel::bytes);
+        registry.gauge("pagamento.codigo_debito.filtro.elementos", filtro, FiltroBloomEscalavel::elementos);
+        registry.gauge("pagamento.codigo_debito.filtro.falso_positivo.estimado", filtro,
+                FiltroBloomEscalavel::falsoPositivoEstimado);
+        this.consultasEvitadas = registry.counter("pagamento.codigo_debito.filtro.consultas_evitadas");
+        this.ausentes = registry.counter("pagamento.codigo_debito.filtro.verificacoes", "resultado", "ausente");
+        this.falsosPositivos = registry.counter("pagamento.codigo_debito.filtro.verificacoes", "resultado", "falso_positivo");
+        this.existentes = registry.counter("pagamento.codigo_debito.filtro.verificacoes", "resultado", "existente");
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (habilitado) {
+            carregar();
+        }
+    }
+
+    /**
+     * Varre a tabela e o arquivo em blocos por id (keyset), sem carregar tudo de uma vez. Nessa ordem, um pagamento
+     * arquivado durante a varredura é lido numa das duas.
+     */
+    void carregar() {
+        long inicio = System.nanoTime();
+        long lidos = carregar("pagamento") + carregar("pagamento_arquivo");
+        pronto = true;
+        log.info("[Pagamento] Filtro de códigos de débito carregado: {} código(s), {} KiB, {} camada(s), em {} ms.",
+                lidos, filtro.bytes() / 1024, filtro.quantidadeCamadas(), (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    private long carregar(String tabela) {
+        String sql = SELECT_CODIGOS.formatted(tabela);
+        long ultimoId = 0;
+        long lidos = 0;
+        while (true) {
+            long[] ultimo = {ultimoId};
+            int[] quantidade = {0};
+            jdbc.query(sql, rs -> {
+                ultimo[0] = rs.getLong(1);
+                filtro.adicionar(rs.getInt(2));
+                quantidade[0]++;
+            }, ultimoId, tamanhoLote);
+            lidos += quantidade[0];
+            if (quantidade[0] < tamanhoLote) break;
+            ultimoId = ultimo[0];
+        }
+        return lidos;
+    }
+
+    /** Registra códigos que vão ser gravados; chamar antes do INSERT. */
+    public void adicionar(Collection<Integer> codigos) {
+        if (habilitado) {
+            codigos.forEach(filtro::adicionar);
+        }
+    }
+
+    public void adicionar(Integer codigo) {
+        if (habilitado) {
+            filtro.adicionar(codigo);
+        }
+    }
+
+    /**
+     * Os {@code codigos} que o filtro não descarta (todos, enquanto ele não está pronto), sem ir ao banco. Chamar antes
+     * de {@link #adicionar}: depois disso o próprio código já responde "talvez".
+     */
+    public List<Integer> talvezExistentes(Collection<Integer> codigos) {
+        if (!habilitado || !pronto) {
+            return List.copyOf(codigos);
+        }
+        return codigos.stream().filter(filtro::podeConter).toList();
+    }
+
+    /**
+     * Quais dos {@code codigos} já existem: só os que o filtro não descarta são passados para {@code consulta}
+     * (a consulta de duplicidade do repositório); se nenhum sobrar, ela nem é executada.
+     */
+    public Set<Integer> existentes(Collection<Integer> codigos, Function<Collection<Integer>, List<Integer>> consulta) {
+        if (!habilitado || !pronto) {
+            return new HashSet<>(consulta.apply(codigos));
+        }
+        List<Integer> candidatos = codigos.stream().filter(filtro::podeConter).toList();
+        ausentes.increment(codigos.size() - candidatos.size());
+        if (candidatos.isEmpty()) {
+            consultasEvitadas.increment();
+            return new HashSet<>();
+        }
+        Set<Integer> encontrados = new HashSet<>(consulta.apply(candidatos));
+        existentes.increment(encontrados.size());
+        falsosPositivos.increment(candidatos.size() - encontrados.size());
+        return encontrados;
+    }
+}
@@ -0,0 +1,73 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.EventoPagamentoDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Stream em memória para os assinantes conectados neste nó (o SSE e os testes). Lê do banco, pela
+ * {@code posicao_publicacao}, os eventos já publicados (com commit feito) por qualquer relay, de qualquer nó.
+ * <p>
+ * Não guarda histórico; quem se conecta depois recupera o que perdeu pelo banco (ver
+ * {@code GET /pagamentos/eventos} com {@code Last-Event-ID}). Um assinante que lança exceção é removido.
+ */
+@Component
+public class FluxoEventosPagamento {
+
+    private static final Logger log = LoggerFactory.getLogger(FluxoEventosPagamento.class);
+    private static final int PAGINA = 500;
+
+    private final EventoPagamentoService eventoPagamentoService;
+    private final List<Consumer<EventoPagamentoDTO>> assinantes = new CopyOnWriteArrayList<>();
+    // última posição repassada; sem assinantes o banco não é lido e ela é relida na próxima assinatura
+    private long posicao;
+
+    public FluxoEventosPagamento(EventoPagamentoService eventoPagamentoService,
+                                 ObjectProvider<MeterRegistry> meterRegistry) {
+        this.eventoPagamentoService = eventoPagamentoService;
+        meterRegistry.ifAvailable(registry -> registry.gauge("pagamento.eventos.assinantes", assinantes, List::size));
+    }
+
+    /** Registra o assinante, que recebe o que for publicado daqui em diante; o {@link Runnable} cancela a assinatura. */
+    public synchronized Runnable assinar(Consumer<EventoPagamentoDTO> assinante) {
+        if (assinantes.isEmpty()) {
+            posicao = eventoPagamentoService.ultimaPosicaoPublicada();
+        }
+        assinantes.add(assinante);
+        return () -> assinantes.remove(assinante);
+    }
+
+    @Scheduled(fixedDelayString = "${pagamento.outbox.sse.intervalo:PT0.5S}")
+    public synchronized void acompanhar() {
+        List<EventoPagamentoDTO> eventos;
+        do {
+            if (assinantes.isEmpty()) {
+                return;
+            }
+            eventos = eventoPagamentoService.buscarPublicadosApos(posicao, PAGINA);
+            if (!eventos.isEmpty()) {
+                posicao = eventos.get(eventos.size() - 1).posicao();
+                repassar(eventos);
+            }
+        } while (eventos.size() == PAGINA);
+    }
+
+    private void repassar(List<EventoPagamentoDTO> eventos) {
+        for (Consumer<EventoPagamentoDTO> assinante : assinantes) {
+            try {
+                eventos.forEach(assinante);
+            } catch (RuntimeException ex) {
+                assinantes.remove(assinante);
+                log.debug("[Pagamento] Assinante de eventos removido: {}", ex.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.dtos.RespostaIdempotenteDTO;
+import com.fadesp.payment.domain.entities.Idempotencia;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.exceptions.IdempotenciaException;
+import com.fadesp.payment.repositories.IdempotenciaRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Deduplicação de POST /pagamentos pelo header Idempotency-Key.
+ * <p>
+ * A chave é registrada na mesma transação que cria o pagamento, então ou os dois existem ou nenhum.
+ * Repetições são respondidas pelo cache local (Caffeine, limitado e com TTL) e, na falta dele, pela tabela
+ * {@code idempotencia}, com o corpo gravado no primeiro POST; nenhuma delas passa pelas validações nem grava de novo.
+ */
+@Service
+public class IdempotenciaService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotenciaService.class);
+    public static final int TAMANHO_MAXIMO_CHAVE = 100;
+
+    private final IdempotenciaRepository idempotenciaRepository;
+    private final PagamentoService pagamentoService;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final Cache<String, Idempotencia> cache;
+    private final ObjectWriter escritor;
+    private final ObjectReader leitor;
+
+    public IdempotenciaService(IdempotenciaRepository idempotenciaRepository,
+                               PagamentoService pagamentoService,
+                               PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper,
+                               @Value("${pagamento.idempotencia.ttl:PT24H}") Duration ttl,
+                               @Value("${pagamento.idempotencia.cache-maximo:10000}") long cacheMaximo) {
+        this.idempotenciaRepository = idempotenciaRepository;
+        this.pagamentoService = pagamentoService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttl = ttl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(cacheMaximo)
+                .expireAfterWrite(ttl)
+                .build();
+        this.escritor = objectMapper.writerFor(PagamentoRespostaDTO.class);
+        this.leitor = objectMapper.readerFor(PagamentoRespostaDTO.class);
+    }
+
+    // =========================================================================
+    // CRIAR COM IDEMPOTÊNCIA
+    // =========================================================================
+    public RespostaIdempotenteDTO realizar(String chave, PagamentoDTO dto) {
+        validarChave(chave);
+        String hash = hashRequisicao(dto);
+
+        Optional<Idempotencia> existente = buscar(chave);
+        if (existente.isPresent()) {
+            return repetir(existente.get(), hash);
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                PagamentoRespostaDTO pagamento = PagamentoRespostaDTO.de(pagamentoService.realizar(dto));
+                // a mesma chave, já vencida, pode seguir na tabela até a limpeza: sai antes do INSERT
+                idempotenciaRepository.excluirVencida(chave, Instant.now().minus(ttl));
+                Idempotencia registro = new Idempotencia(chave, hash, pagamento.id(),
+                        HttpStatus.CREATED.value(), Instant.now(), serializar(pagamento));
+                idempotenciaRepository.saveAndFlush(registro);
+                cacheAposCommit(registro);
+                return new RespostaIdempotenteDTO(pagamento, registro.getStatusHttp(), false);
+            });
+        } catch (DataIntegrityViolationException | EntityExistsException ex) {
+            // requisição concorrente com a mesma chave venceu: devolve o que ela gravou, se ainda estiver no prazo
+            Optional<Idempotencia> vencedora = buscarNoBanco(chave);
+            if (vencedora.isEmpty()) {
+                throw ex;
+            }
+            cache.put(chave, vencedora.get());
+            return repetir(vencedora.get(), hash);
+        }
+    }
+
+    // =========================================================================
+    // LIMPEZA
+    // =========================================================================
+    @Scheduled(
+            initialDelayString = "${pagamento.idempotencia.limpeza-intervalo:PT1H}",
+            fixedDelayString = "${pagamento.idempotencia.limpeza-intervalo:PT1H}"
+    )
+    @Transactional
+    public void removerExpiradas() {
+        int removidas = idempotenciaRepository.excluirCriadasAntesDe(Instant.now().minus(ttl));
+        if (removidas > 0) {
+            log.info("[Pagamento] {} chaves de idempotência expiradas removidas.", removidas);
+        }
+    }
+
+    // -------------------------------------------------------------------------
+    private Optional<Idempotencia> buscar(String chave) {
+        Idempotencia emCache = cache.getIfPresent(chave);
+        if (emCache != null) {
+            return Optional.of(emCache);
+        }
+        Optional<Idempotencia> doBanco = buscarNoBanco(chave);
+        doBanco.ifPresent(r -> cache.put(chave, r));
+        return doBanco;
+    }
+
+    // a limpeza é periódica: uma chave vencida pode continuar na tabela até a próxima rodada
+    private Optional<Idempotencia> buscarNoBanco(String chave) {
+        return idempotenciaRepository.findById(chave)
+                .filter(r -> r.getCriadoEm().isAfter(Instant.now().minus(ttl)));
+    }
+
+    private RespostaIdempotenteDTO repetir(Idempotencia registro, String hash) {
+        if (!registro.getHashRequisicao().equals(hash)) {
+            throw new IdempotenciaException(
+                    "A Idempotency-Key informada já foi usada com um corpo de requisição diferente.");
+        }
+        log.debug("[Pagamento] Repetição da chave de idempotência; devolvendo pagamento {}", registro.getPagamentoId());
+        return new RespostaIdempotenteDTO(respostaOriginal(registro), registro.getStatusHttp(), true);
+    }
+
+    private PagamentoRespostaDTO respostaOriginal(Idempotencia registro) {
+        if (registro.getResposta() == null) {
+            // chave gravada antes da coluna resposta: só resta o estado atual (vale mesmo se já arquivado)
+            return pagamentoService.buscarPorId(registro.getPagamentoId(), true)
+                    .orElseThrow(() -> new EntityNotFoundException("Pagamento não encontrado."));
+        }
+        try {
+            return leitor.readValue(registro.getResposta());
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Resposta gravada ilegível para a chave " + registro.getChave() + ".", ex);
+        }
+    }
+
+    private String serializar(PagamentoRespostaDTO pagamento) {
+        try {
+            return escritor.writeValueAsString(pagamento);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Falha ao serializar a resposta do pagamento " + pagamento.id() + ".", ex);
+        }
+    }
+
+    // só entra no cache o que foi de fato confirmado; um rollback não deixa resposta fantasma
+    private void cacheAposCommit(Idempotencia registro) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(registro.getChave(), registro);
+            }
+        });
+    }
+
+    private void validarChave(String chave) {
+        if (!StringUtils.hasText(chave) || chave.length() > TAMANHO_MAXIMO_CHAVE) {
+            throw new IdempotenciaException(
+                    "Idempotency-Key deve ter entre 1 e " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
+        }
+    }
+
+    static String hashRequisicao(PagamentoDTO dto) {
+        String canonico = String.join("|",
+                Objects.toString(dto.codigoDebito(), ""),
+                Objects.toString(dto.cpfCnpjPagador(), ""),
+                Objects.toString(dto.metodoPagamento(), ""),
+                dto.valorPagamento() == null ? "" : dto.valorPagamento().stripTrailingZeros().toPlainString(),
+                Objects.toString(dto.numeroCartao(), ""));
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(canonico.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível.", e);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Registro em memória de quem acompanha um pagamento específico ({@code GET /pagamentos/{id}/eventos} e
+ * {@code /aguardar}). As escritas avisam os observadores do id depois do commit, com a representação já gravada;
+ * nenhum observador consulta o banco enquanto espera.
+ * <p>
+ * Um conjunto de observadores por id, num {@link ConcurrentHashMap}: incluir e remover usam {@code compute}, que
+ * trava só a entrada do id (ids diferentes não disputam lock), e a notificação é uma leitura sem lock. O conjunto
+ * vazio sai do mapa. Vale só para este nó: com várias instâncias, o observador recebe as mudanças feitas na
+ * instância em que está conectado.
+ */
+@Component
+public class ObservadoresPagamento {
+
+    private static final Logger log = LoggerFactory.getLogger(ObservadoresPagamento.class);
+
+    private final ConcurrentHashMap<Long, Set<Consumer<PagamentoRespostaDTO>>> porId = new ConcurrentHashMap<>();
+    private final AtomicInteger total = new AtomicInteger();
+
+    public ObservadoresPagamento(ObjectProvider<MeterRegistry> meterRegistry) {
+        meterRegistry.ifAvailable(registry -> registry.gauge("pagamento.observadores", total));
+    }
+
+    /** Passa a avisar {@code observador} das mudanças do pagamento; o {@link Runnable} devolvido cancela. */
+    public Runnable observar(Long id, Consumer<PagamentoRespostaDTO> observador) {
+        porId.compute(id, (chave, observadores) -> {
+            Set<Consumer<PagamentoRespostaDTO>> conjunto = (observadores != null) ? observadores : ConcurrentHashMap.newKeySet();
+            if (conjunto.add(observador)) {
+                total.incrementAndGet();
+            }
+            return conjunto;
+        });
+        return () -> remover(id, observador);
+    }
+
+    public void notificarAposCommit(PagamentoRespostaDTO pagamento) {
+        notificarAposCommit(List.of(pagamento));
+    }
+
+    public void notificarAposCommit(Collection<PagamentoRespostaDTO> pagamentos) {
+        if (pagamentos.isEmpty() || total.get() == 0) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            pagamentos.forEach(this::notificar);
+            return;
+        }
+        List<PagamentoRespostaDTO> copia = List.copyOf(pagamentos);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                copia.forEach(ObservadoresPagamento.this::notificar);
+            }
+        });
+    }
+
+    private void notificar(PagamentoRespostaDTO pagamento) {
+        Set<Consumer<PagamentoRespostaDTO>> observadores = porId.get(pagamento.id());
+        if (observadores == null) {
+            return;
+        }
+        for (Consumer<PagamentoRespostaDTO> observador : observadores) {
+            try {
+                observador.accept(pagamento);
+            } catch (RuntimeException ex) {
+                remover(pagamento.id(), observador);
+                log.debug("[Pagamento] Observador do pagamento {} removido: {}", pagamento.id(), ex.getMessage());
+            }
+        }
+    }
+
+    private void remover(Long id, Consumer<PagamentoRespostaDTO> observador) {
+        porId.computeIfPresent(id, (chave, observadores) -> {
+            if (observadores.remove(observador)) {
+                total.decrementAndGet();
+            }
+            return observadores.isEmpty() ? null : observadores;
+        });
+    }
+}
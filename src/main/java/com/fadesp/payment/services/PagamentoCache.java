@@ -0,0 +1,80 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Cache de leitura de pagamentos por id (read-through), limitado por tamanho e TTL.
+ * <p>
+ * Guarda a representação da API ({@link PagamentoRespostaDTO}, imutável), então a mesma instância pode ser
+ * devolvida a qualquer leitor. As escritas invalidam a entrada depois do commit; invalidar antes permitiria que
+ * uma leitura concorrente recolocasse o valor antigo. O TTL limita quanto tempo uma leitura lenta, que termine
+ * depois da invalidação, pode servir um valor desatualizado.
+ */
+@Component
+public class PagamentoCache {
+
+    public static final String NOME = "pagamentos";
+
+    private final boolean habilitado;
+    private final Cache<Long, PagamentoRespostaDTO> cache;
+
+    public PagamentoCache(ObjectProvider<MeterRegistry> meterRegistry,
+                          @Value("${pagamento.cache.habilitado:true}") boolean habilitado,
+                          @Value("${pagamento.cache.maximo:10000}") long maximo,
+                          @Value("${pagamento.cache.ttl:PT30S}") Duration ttl) {
+        this.habilitado = habilitado;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximo)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        meterRegistry.ifAvailable(registry -> CaffeineCacheMetrics.monitor(registry, cache, NOME));
+    }
+
+    /**
+     * Busca no cache; na falta, usa o {@code carregador} e guarda o resultado. Ausências não são guardadas.
+     * Dentro de uma transação o cache é ignorado: a leitura pode enxergar escritas ainda não confirmadas.
+     */
+    public Optional<PagamentoRespostaDTO> buscar(Long id, Function<Long, Optional<PagamentoRespostaDTO>> carregador) {
+        if (!habilitado || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return carregador.apply(id);
+        }
+        return Optional.ofNullable(cache.get(id, chave -> carregador.apply(chave).orElse(null)));
+    }
+
+    public void invalidarAposCommit(Long id) {
+        invalidarAposCommit(List.of(id));
+    }
+
+    public void invalidarAposCommit(Collection<Long> ids) {
+        if (!habilitado || ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidateAll(ids);
+            return;
+        }
+        List<Long> copia = List.copyOf(ids);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidateAll(copia);
+            }
+        });
+    }
+}
@@ -0,0 +1,346 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.ItemResultadoLoteDTO;
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.dtos.RejeicaoStatusDTO;
+import com.fadesp.payment.domain.dtos.ResultadoLoteDTO;
+import com.fadesp.payment.domain.dtos.ResultadoStatusLoteDTO;
+import com.fadesp.payment.domain.dtos.SituacaoPagamentoDTO;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.domain.enums.TipoEventoPagamentoEnum;
+import com.fadesp.payment.exceptions.MetodoPagamentoException;
+import com.fadesp.payment.exceptions.StatusPagamentoException;
+import com.fadesp.payment.repositories.PagamentoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Operações em lote.
+ * <p>
+ * Ingestão: valida cada item isoladamente, checa duplicidade de código de débito com uma única consulta
+ * por bloco (só para os códigos que o {@link FiltroCodigoDebito} não descarta) e grava o bloco com INSERTs em
+ * batch, numa transação por bloco. Um item inválido não derruba o lote; cada item recebe seu resultado no resumo.
+ * <p>
+ * Status: aplica transições a muitos pagamentos com UPDATEs condicionais em conjunto, devolvendo quais ids
+ * mudaram e quais foram rejeitados.
+ * <p>
+ * Os dois caminhos gravam no outbox um evento por pagamento criado ou alterado, como as operações individuais.
+ */
+@Service
+public class PagamentoLoteService {
+
+    private static final Logger log = LoggerFactory.getLogger(PagamentoLoteService.class);
+    private static final String MOTIVO_DUPLICADO = "Já existe um pagamento com o código de débito informado.";
+    private static final int MAXIMO_IDS_POR_COMANDO = 1_000;
+
+    private final PagamentoRepository pagamentoRepository;
+    private final PagamentoService pagamentoService;
+    private final PagamentoCache pagamentoCache;
+    private final EventoPagamentoService eventoPagamentoService;
+    private final ObservadoresPagamento observadores;
+    private final PagamentoMetricas metricas;
+    private final FiltroCodigoDebito filtroCodigoDebito;
+    private final ResumoPagadorService resumoPagadorService;
+    private final Validator validator;
+    private final ObjectReader leitorItem;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PagamentoLoteService(PagamentoRepository pagamentoRepository,
+                                PagamentoService pagamentoService,
+                                PagamentoCache pagamentoCache,
+                                EventoPagamentoService eventoPagamentoService,
+                                ObservadoresPagamento observadores,
+                                PagamentoMetricas metricas,
+                                FiltroCodigoDebito filtroCodigoDebito,
+                                ResumoPagadorService resumoPagadorService,
+                                Validator validator,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${pagamento.lote.tamanho:500}") int tamanhoLote) {
+        this.pagamentoRepository = pagamentoRepository;
+        this.pagamentoService = pagamentoService;
+        this.pagamentoCache = pagamentoCache;
+        this.eventoPagamentoService = eventoPagamentoService;
+        this.observadores = observadores;
+        this.metricas = metricas;
+        this.filtroCodigoDebito = filtroCodigoDebito;
+        this.resumoPagadorService = resumoPagadorService;
+        this.validator = validator;
+        this.leitorItem = objectMapper.readerFor(PagamentoDTO.class);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanhoLote = tamanhoLote;
+    }
+
+    public ResultadoLoteDTO realizarLote(List<PagamentoDTO> dtos) {
+        return processar(dtos.stream().map(Entrada::de).iterator());
+    }
+
+    /** Uma linha JSON por pagamento; linhas em branco são ignoradas e linhas ilegíveis viram itens rejeitados. */
+    public ResultadoLoteDTO realizarLoteNdjson(InputStream corpo) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(corpo, StandardCharsets.UTF_8))) {
+            Iterator<Entrada> entradas = reader.lines()
+                    .filter(linha -> !linha.isBlank())
+                    .map(this::lerLinha)
+                    .iterator();
+            return processar(entradas);
+        }
+    }
+
+    /**
+     * Aplica a mesma máquina de estados de {@link PagamentoService#atualizar} a vários pagamentos de uma vez:
+     * uma leitura com lock ({@code SELECT ... FOR UPDATE}) dos ids pedidos e um UPDATE condicional por status de
+     * destino ({@code WHERE id IN (...) AND status = :origem AND ativo = true}), tudo numa única transação.
+     */
+    @Transactional
+    public ResultadoStatusLoteDTO atualizarStatusLote(List<AtualizarPagamentoDTO> dtos) {
+        log.debug("[Pagamento] Atualização de status em lote: {} itens…", dtos.size());
+        Map<Long, StatusPagamentoEnum> pedidos = new LinkedHashMap<>();
+        List<RejeicaoStatusDTO> rejeitados = new ArrayList<>();
+
+        for (AtualizarPagamentoDTO dto : dtos) {
+            if (dto == null || dto.id() == null) {
+                rejeitados.add(new RejeicaoStatusDTO(null, "O ID do pagamento é obrigatório."));
+            } else if (dto.status() == null) {
+                rejeitados.add(new RejeicaoStatusDTO(dto.id(), "Status é obrigatório."));
+            } else if (pedidos.putIfAbsent(dto.id(), dto.status()) != null) {
+                rejeitados.add(new RejeicaoStatusDTO(dto.id(), "Pagamento repetido no lote."));
+            }
+        }
+
+        Map<Long, SituacaoPagamentoDTO> situacoes = new HashMap<>();
+        for (List<Long> ids : particionar(new ArrayList<>(pedidos.keySet()))) {
+            pagamentoRepository.findSituacoesParaAtualizacao(ids).forEach(s -> situacoes.put(s.id(), s));
+        }
+
+        Map<StatusPagamentoEnum, List<Long>> porDestino = new EnumMap<>(StatusPagamentoEnum.class);
+        Map<Long, StatusPagamentoEnum> destinos = new HashMap<>();
+        List<Long> atualizados = new ArrayList<>();
+        pedidos.forEach((id, novo) -> {
+            String motivo = motivoRejeicao(situacoes.get(id), novo);
+            if (motivo == null) {
+                porDestino.computeIfAbsent(novo, s -> new ArrayList<>()).add(id);
+                destinos.put(id, novo);
+                atualizados.add(id);
+            } else {
+                rejeitados.add(new RejeicaoStatusDTO(id, motivo));
+            }
+        });
+
+        porDestino.forEach((destino, ids) -> {
+            for (List<Long> parte : particionar(ids)) {
+                int alterados = pagamentoRepository.atualizarStatus(parte, destino.origemPermitida(), destino);
+                if (alterados != parte.size()) {
+                    // não deveria ocorrer com as linhas travadas; indica escrita fora do lock
+                    log.warn("[Pagamento] UPDATE em lote alterou {} de {} linhas para {}.", alterados, parte.size(), destino);
+                }
+                if (destino.isPendente()) {
+                    pagamentoRepository.zerarProcessamento(parte);
+                }
+            }
+            metricas.contarTransicao(destino.origemPermitida(), destino, ids.size());
+        });
+        resumoPagadorService.registrarTransicoes(situacoes, destinos);
+
+        for (List<Long> parte : particionar(atualizados)) {
+            List<PagamentoRespostaDTO> alterados = pagamentoRepository.findRespostasByIds(parte);
+            eventoPagamentoService.registrar(TipoEventoPagamentoEnum.STATUS_ALTERADO, alterados);
+            observadores.notificarAposCommit(alterados);
+        }
+        pagamentoCache.invalidarAposCommit(atualizados);
+        log.info("[Pagamento] Status em lote: {} atualizados, {} rejeitados.", atualizados.size(), rejeitados.size());
+        return new ResultadoStatusLoteDTO(atualizados, rejeitados);
+    }
+
+    // -------------------------------------------------------------------------
+    private static String motivoRejeicao(SituacaoPagamentoDTO situacao, StatusPagamentoEnum novo) {
+        if (situacao == null) {
+            return "Pagamento não encontrado.";
+        }
+        if (Boolean.FALSE.equals(situacao.ativo())) {
+            return "Pagamento inativo não pode ter o status alterado.";
+        }
+        try {
+            situacao.status().validarTransicaoPara(novo);
+            return null;
+        } catch (StatusPagamentoException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    private static <T> List<List<T>> particionar(List<T> itens) {
+        List<List<T>> partes = new ArrayList<>();
+        for (int i = 0; i < itens.size(); i += MAXIMO_IDS_POR_COMANDO) {
+            partes.add(itens.subList(i, Math.min(i + MAXIMO_IDS_POR_COMANDO, itens.size())));
+        }
+        return partes;
+    }
+
+    private ResultadoLoteDTO processar(Iterator<Entrada> entradas) {
+        log.debug("[Pagamento] Iniciando ingestão em lote…");
+        List<ItemResultadoLoteDTO> resultados = new ArrayList<>();
+        List<Candidato> bloco = new ArrayList<>(tamanhoLote);
+        int indice = 0;
+
+        while (entradas.hasNext()) {
+            Entrada entrada = entradas.next();
+            int posicao = indice++;
+            String motivo = (entrada.erro() != null) ? entrada.erro() : validar(entrada.dto());
+
+            if (motivo != null) {
+                resultados.add(ItemResultadoLoteDTO.rejeitado(posicao, codigoDebito(entrada), motivo));
+                continue;
+            }
+
+            bloco.add(new Candidato(posicao, entrada.dto()));
+            if (bloco.size() == tamanhoLote) {
+                resultados.addAll(gravarBloco(bloco));
+                bloco.clear();
+            }
+        }
+        if (!bloco.isEmpty()) {
+            resultados.addAll(gravarBloco(bloco));
+        }
+
+        resultados.sort(Comparator.comparingInt(ItemResultadoLoteDTO::indice));
+        ResultadoLoteDTO resultado = ResultadoLoteDTO.de(resultados);
+        log.info("[Pagamento] Lote concluído: {} criados, {} rejeitados.", resultado.criados(), resultado.rejeitados());
+        return resultado;
+    }
+
+    private List<ItemResultadoLoteDTO> gravarBloco(List<Candidato> bloco) {
+        try {
+            return transactionTemplate.execute(status -> inserir(bloco, true));
+        } catch (DataIntegrityViolationException ex) {
+            // outro processo gravou o mesmo código entre a checagem e o INSERT: refaz a checagem uma vez, direto no
+            // banco (o código pode ter vindo de outro nó, que o filtro local não conhece)
+            log.warn("[Pagamento] Conflito ao gravar bloco do lote; reprocessando. {}", ex.getMostSpecificCause().getMessage());
+            try {
+                return transactionTemplate.execute(status -> inserir(bloco, false));
+            } catch (DataIntegrityViolationException novamente) {
+                return bloco.stream()
+                        .map(c -> ItemResultadoLoteDTO.rejeitado(c.indice(), c.dto().codigoDebito(),
+                                "Conflito ao gravar o lote; reenvie o item."))
+                        .toList();
+            }
+        }
+    }
+
+    private List<ItemResultadoLoteDTO> inserir(List<Candidato> bloco, boolean usarFiltro) {
+        Set<Integer> codigos = bloco.stream().map(c -> c.dto().codigoDebito()).collect(Collectors.toSet());
+        Set<Integer> existentes = usarFiltro
+                ? filtroCodigoDebito.existentes(codigos, pagamentoRepository::findCodigosDebitoExistentes)
+                : new HashSet<>(pagamentoRepository.findCodigosDebitoExistentes(codigos));
+        Set<Integer> vistos = new HashSet<>();
+
+        List<ItemResultadoLoteDTO> rejeitados = new ArrayList<>();
+        List<Candidato> aceitos = new ArrayList<>(bloco.size());
+        List<Pagamento> novos = new ArrayList<>(bloco.size());
+
+        for (Candidato candidato : bloco) {
+            Integer codigo = candidato.dto().codigoDebito();
+            if (existentes.contains(codigo) || !vistos.add(codigo)) {
+                rejeitados.add(ItemResultadoLoteDTO.rejeitado(candidato.indice(), codigo, MOTIVO_DUPLICADO));
+            } else {
+                aceitos.add(candidato);
+                novos.add(pagamentoService.novoPagamento(candidato.dto()));
+            }
+        }
+
+        List<Integer> codigosNovos = novos.stream().map(Pagamento::getCodigoDebito).toList();
+        // o arquivo só é consultado para os códigos que o filtro não garante inéditos
+        List<Integer> talvezArquivados = usarFiltro ? filtroCodigoDebito.talvezExistentes(codigosNovos) : codigosNovos;
+        filtroCodigoDebito.adicionar(codigosNovos);
+        pagamentoRepository.saveAll(novos);
+        resumoPagadorService.registrarCriacao(novos);
+        // id, criado_em e versão já foram preenchidos no persist
+        eventoPagamentoService.registrar(TipoEventoPagamentoEnum.CRIADO, novos.stream().map(PagamentoRespostaDTO::de).toList());
+        // flush pelo repositório: a violação da unique chega traduzida (DataIntegrityViolationException) em gravarBloco
+        pagamentoRepository.flush();
+        entityManager.clear();
+        // código arquivado depois da checagem: desfaz o bloco e cai na nova checagem de gravarBloco
+        if (pagamentoService.algumArquivado(talvezArquivados)) {
+            throw new DataIntegrityViolationException("Código de débito já usado por um pagamento arquivado.");
+        }
+        metricas.contarCriacoes(novos);
+
+        List<ItemResultadoLoteDTO> itens = new ArrayList<>(rejeitados);
+        for (int i = 0; i < novos.size(); i++) {
+            Candidato candidato = aceitos.get(i);
+            itens.add(ItemResultadoLoteDTO.criado(candidato.indice(), candidato.dto().codigoDebito(), novos.get(i).getId()));
+        }
+        return itens;
+    }
+
+    private String validar(PagamentoDTO dto) {
+        if (dto == null) {
+            return "Item vazio.";
+        }
+        Set<ConstraintViolation<PagamentoDTO>> violacoes = validator.validate(dto);
+        if (!violacoes.isEmpty()) {
+            return violacoes.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(" "));
+        }
+        try {
+            pagamentoService.validarRegras(dto);
+            return null;
+        } catch (MetodoPagamentoException | IllegalArgumentException ex) {
+            return ex.getMessage();
+        }
+    }
+
+    private Entrada lerLinha(String linha) {
+        try {
+            return Entrada.de(leitorItem.readValue(linha));
+        } catch (JsonProcessingException ex) {
+            return new Entrada(null, "JSON inválido: " + ex.getOriginalMessage());
+        }
+    }
+
+    private static Integer codigoDebito(Entrada entrada) {
+        return (entrada.dto() != null) ? entrada.dto().codigoDebito() : null;
+    }
+
+    private record Entrada(PagamentoDTO dto, String erro) {
+        static Entrada de(PagamentoDTO dto) {
+            return new Entrada(dto, null);
+        }
+    }
+
+    private record Candidato(int indice, PagamentoDTO dto) { }
+}
@@ -0,0 +1,165 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.FiltroPagamentoDTO;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Métricas das operações de pagamento.
+ * <ul>
+ *     <li>{@code pagamento.operacao} (timer; tags {@code operacao}, {@code resultado}): duração de realizar,
+ *     atualizar, excluir e buscarPorId. Dentro de uma transação o tempo vai até o fim do commit (ou rollback);
+ *     {@code resultado} é {@code sucesso}, {@code rollback} ou o nome da exceção.</li>
+ *     <li>{@code pagamento.listagem} (timer) e {@code pagamento.listagem.linhas} (distribuição); tags {@code modo}
+ *     e {@code filtro}, a combinação de filtros informada (ex.: {@code cpfCnpj+status}).</li>
+ *     <li>{@code pagamento.criados} (tag {@code metodo}) e {@code pagamento.transicoes} (tags {@code de},
+ *     {@code para}): contados só depois do commit.</li>
+ * </ul>
+ * Histogramas e SLOs são ligados por configuração ({@code management.metrics.distribution.*}).
+ */
+@Component
+public class PagamentoMetricas {
+
+    private final MeterRegistry registry;
+
+    @Autowired
+    public PagamentoMetricas(ObjectProvider<MeterRegistry> meterRegistry) {
+        this(meterRegistry.getIfAvailable(CompositeMeterRegistry::new));
+    }
+
+    PagamentoMetricas(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** Executa {@code acao} medindo a duração em {@code pagamento.operacao}. */
+    public <T> T medir(String operacao, Supplier<T> acao) {
+        Timer.Sample amostra = Timer.start(registry);
+        T resultado;
+        try {
+            resultado = acao.get();
+        } catch (RuntimeException ex) {
+            amostra.stop(operacao(operacao, ex.getClass().getSimpleName()));
+            throw ex;
+        }
+        aposConclusao(committed -> amostra.stop(operacao(operacao, committed ? "sucesso" : "rollback")));
+        return resultado;
+    }
+
+    public void medir(String operacao, Runnable acao) {
+        medir(operacao, () -> {
+            acao.run();
+            return null;
+        });
+    }
+
+    /** Registra duração e quantidade de linhas de uma listagem. */
+    public void registrarListagem(String modo, FiltroPagamentoDTO filtro, Timer.Sample amostra, long linhas) {
+        String combinacao = combinacao(filtro);
+        amostra.stop(Timer.builder("pagamento.listagem")
+                .tag("modo", modo)
+                .tag("filtro", combinacao)
+                .register(registry));
+        DistributionSummary.builder("pagamento.listagem.linhas")
+                .baseUnit("linhas")
+                .tag("modo", modo)
+                .tag("filtro", combinacao)
+                .register(registry)
+                .record(linhas);
+    }
+
+    public Timer.Sample iniciar() {
+        return Timer.start(registry);
+    }
+
+    /** Conta em {@code pagamento.criados}, por método, os pagamentos gravados; só no commit da transação corrente. */
+    public void contarCriacoes(Collection<Pagamento> pagamentos) {
+        if (pagamentos.isEmpty()) {
+            return;
+        }
+        Map<MetodoPagamentoEnum, Long> porMetodo = pagamentos.stream()
+                .collect(Collectors.groupingBy(Pagamento::getMetodoPagamento,
+                        () -> new EnumMap<>(MetodoPagamentoEnum.class), Collectors.counting()));
+        aposCommit(() -> porMetodo.forEach((metodo, quantidade) ->
+                registry.counter("pagamento.criados", "metodo", metodo.name()).increment(quantidade)));
+    }
+
+    public void contarTransicao(StatusPagamentoEnum de, StatusPagamentoEnum para, int quantidade) {
+        aposConclusao(committed -> {
+            if (committed && quantidade > 0) {
+                registry.counter("pagamento.transicoes", "de", de.name(), "para", para.name()).increment(quantidade);
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------
+    private Timer operacao(String operacao, String resultado) {
+        return Timer.builder("pagamento.operacao")
+                .tag("operacao", operacao)
+                .tag("resultado", resultado)
+                .register(registry);
+    }
+
+    private static void aposConclusao(Conclusao conclusao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            conclusao.concluida(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                conclusao.concluida(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    // um rollback (e a nova tentativa que vem depois dele) não conta a mesma criação duas vezes
+    private static void aposCommit(Runnable acao) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            acao.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                acao.run();
+            }
+        });
+    }
+
+    /** Filtros informados, na ordem do {@link FiltroPagamentoDTO}; no máximo 32 valores para a tag. */
+    static String combinacao(FiltroPagamentoDTO filtro) {
+        if (filtro == null) {
+            return "nenhum";
+        }
+        StringJoiner nomes = new StringJoiner("+");
+        if (filtro.codigoDebito() != null) nomes.add("codigoDebito");
+        if (StringUtils.hasText(filtro.cpfCnpj())) nomes.add("cpfCnpj");
+        if (filtro.status() != null) nomes.add("status");
+        if (filtro.criadoDe() != null) nomes.add("criadoDe");
+        if (filtro.criadoAte() != null) nomes.add("criadoAte");
+        return (nomes.length() == 0) ? "nenhum" : nomes.toString();
+    }
+
+    @FunctionalInterface
+    private interface Conclusao {
+        void concluida(boolean committed);
+    }
+}
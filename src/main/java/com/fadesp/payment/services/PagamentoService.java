@@ -2,36 +2,78 @@ package com.fadesp.payment.services;
 
 import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
 import com.fadesp.payment.domain.dtos.FiltroPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoAtualizadoDTO;
 import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
 import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.entities.PagamentoArquivado;
 import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
 import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.domain.enums.TipoEventoPagamentoEnum;
 import com.fadesp.payment.exceptions.MetodoPagamentoException;
+import com.fadesp.payment.exceptions.PaginacaoException;
 import com.fadesp.payment.exceptions.StatusPagamentoException;
+import com.fadesp.payment.repositories.PagamentoArquivadoRepository;
 import com.fadesp.payment.repositories.PagamentoRepository;
 import com.fadesp.payment.repositories.PagamentoSpecification;
+import com.fadesp.payment.util.DocumentoPagador;
 import com.fadesp.payment.util.IsCpfCnpj;
+import io.micrometer.core.instrument.Timer;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class PagamentoService {
 
     private static final Logger log = LoggerFactory.getLogger(PagamentoService.class);
+    public static final int LIMITE_MAXIMO_PAGINA = 500;
+
     private final PagamentoRepository pagamentoRepository;
+    private final PagamentoArquivadoRepository pagamentoArquivadoRepository;
+    private final PagamentoCache pagamentoCache;
+    private final EventoPagamentoService eventoPagamentoService;
+    private final ObservadoresPagamento observadores;
+    private final PagamentoMetricas metricas;
+    private final FiltroCodigoDebito filtroCodigoDebito;
+    private final ResumoPagadorService resumoPagadorService;
 
-    public PagamentoService(PagamentoRepository pagamentoRepository) {
+    public PagamentoService(PagamentoRepository pagamentoRepository,
+                            PagamentoArquivadoRepository pagamentoArquivadoRepository,
+                            PagamentoCache pagamentoCache,
+                            EventoPagamentoService eventoPagamentoService,
+                            ObservadoresPagamento observadores,
+                            PagamentoMetricas metricas,
+                            FiltroCodigoDebito filtroCodigoDebito,
+                            ResumoPagadorService resumoPagadorService) {
         this.pagamentoRepository = pagamentoRepository;
+        this.pagamentoArquivadoRepository = pagamentoArquivadoRepository;
+        this.pagamentoCache = pagamentoCache;
+        this.eventoPagamentoService = eventoPagamentoService;
+        this.observadores = observadores;
+        this.metricas = metricas;
+        this.filtroCodigoDebito = filtroCodigoDebito;
+        this.resumoPagadorService = resumoPagadorService;
     }
 
     // =========================================================================
@@ -39,71 +81,92 @@ public class PagamentoService {
     // =========================================================================
     @Transactional
     public Pagamento realizar(PagamentoDTO dto) {
-        log.info("[Pagamento] Iniciando criação de pagamento…");
+        return metricas.medir("realizar", () -> criar(dto));
+    }
+
+    private Pagamento criar(PagamentoDTO dto) {
+        log.debug("[Pagamento] Iniciando criação de pagamento…");
         validarNovoPagamento(dto);
 
-        Pagamento pagamento = new Pagamento();
-        pagamento.setCodigoDebito(dto.codigoDebito());
-        pagamento.setCpfCnpjPagador(normalizarCpfCnpj(dto.cpfCnpjPagador()));
-        pagamento.setMetodoPagamento(dto.metodoPagamento());
-        pagamento.setNumeroCartao(definirCartao(dto.metodoPagamento(), dto.numeroCartao()));
-        pagamento.setValorPagamento(dto.valorPagamento().setScale(2, RoundingMode.HALF_UP));
-        pagamento.setStatus(StatusPagamentoEnum.PENDENTE_PROCESSAMENTO);
-        pagamento.setAtivo(Boolean.TRUE);
+        Pagamento pagamento = novoPagamento(dto);
+        // o arquivo só é consultado se o filtro não garantir o código inédito
+        List<Integer> talvezArquivado = filtroCodigoDebito.talvezExistentes(List.of(pagamento.getCodigoDebito()));
+        filtroCodigoDebito.adicionar(pagamento.getCodigoDebito());
 
-        Pagamento salvo = pagamentoRepository.save(pagamento);
-        log.info("[Pagamento] Criado com ID {}", salvo.getId());
+        Pagamento salvo;
+        try {
+            // flush imediato: a violação da uk_pagamento_codigo_debito aparece aqui, não no commit
+            salvo = pagamentoRepository.saveAndFlush(pagamento);
+        } catch (DataIntegrityViolationException ex) {
+            if (isCodigoDebitoDuplicado(ex)) {
+                throw new EntityExistsException("Já existe um pagamento com o código de débito informado.", ex);
+            }
+            throw ex;
+        }
+        if (algumArquivado(talvezArquivado)) {
+            throw new EntityExistsException("Já existe um pagamento com o código de débito informado.");
+        }
+        resumoPagadorService.registrarCriacao(List.of(salvo));
+        eventoPagamentoService.registrar(TipoEventoPagamentoEnum.CRIADO, PagamentoRespostaDTO.de(salvo));
+        metricas.contarCriacoes(List.of(salvo));
+        log.debug("[Pagamento] Criado com ID {}", salvo.getId());
         return salvo;
     }
 
     // =========================================================================
     // ATUALIZAR STATUS
     // =========================================================================
+    /**
+     * A transição é um único UPDATE condicional (compare-and-set no status de origem): duas chamadas concorrentes
+     * a partir do mesmo status nunca vencem juntas. O pagamento só é lido depois: projetado, para a resposta, ou
+     * como entidade, para explicar a rejeição.
+     */
     @Transactional
-    public Pagamento atualizar(AtualizarPagamentoDTO dto) {
-        log.info("[Pagamento] Atualizando status do pagamento {}…", dto.id());
+    public PagamentoRespostaDTO atualizar(AtualizarPagamentoDTO dto) {
+        return metricas.medir("atualizar", () -> aplicarTransicao(dto));
+    }
+
+    private PagamentoRespostaDTO aplicarTransicao(AtualizarPagamentoDTO dto) {
+        log.debug("[Pagamento] Atualizando status do pagamento {}…", dto.id());
 
         if (dto.status() == null) {
             throw new StatusPagamentoException("Status é obrigatório.");
         }
 
-        Pagamento pagamento = pagamentoRepository.findById(dto.id())
-                .orElseThrow(() -> new EntityNotFoundException("Pagamento não encontrado."));
+        final StatusPagamentoEnum novo = dto.status();
+        final StatusPagamentoEnum origem = novo.origemPermitida();
 
-        if (Boolean.FALSE.equals(pagamento.getAtivo())) {
-            throw new StatusPagamentoException("Pagamento inativo não pode ter o status alterado.");
+        if (pagamentoRepository.compararEAtualizarStatus(dto.id(), origem, novo) == 0) {
+            rejeitarAtualizacao(dto.id(), novo);
         }
+        if (novo.isPendente()) {
+            pagamentoRepository.zerarProcessamento(List.of(dto.id()));
+        }
+        pagamentoCache.invalidarAposCommit(dto.id());
+        PagamentoAtualizadoDTO atualizado = pagamentoRepository.findAtualizadoById(dto.id())
+                .orElseThrow(() -> new EntityNotFoundException("Pagamento não encontrado."));
+        resumoPagadorService.registrarTransicao(atualizado.situacao(), origem);
 
-        final StatusPagamentoEnum atual = pagamento.getStatus();
-        final StatusPagamentoEnum novo = dto.status();
+        PagamentoRespostaDTO salvo = atualizado.resposta();
+        eventoPagamentoService.registrar(TipoEventoPagamentoEnum.STATUS_ALTERADO, salvo);
+        observadores.notificarAposCommit(salvo);
+        metricas.contarTransicao(origem, novo, 1);
+        log.debug("[Pagamento] Status atualizado: {} -> {}", origem, salvo.status());
+        return salvo;
+    }
 
-        switch (atual) {
-            case PENDENTE_PROCESSAMENTO -> {
-                if (novo == StatusPagamentoEnum.PROCESSADO_SUCESSO || novo == StatusPagamentoEnum.PROCESSADO_FALHA) {
-                    pagamento.setStatus(novo);
-                } else {
-                    throw new StatusPagamentoException(
-                            "Transição inválida: de PENDENTE_PROCESSAMENTO só para PROCESSADO_SUCESSO ou PROCESSADO_FALHA."
-                    );
-                }
-            }
-            case PROCESSADO_SUCESSO ->
-                    throw new StatusPagamentoException("Pagamento já processado com sucesso; status não pode ser alterado.");
-            case PROCESSADO_FALHA -> {
-                if (novo == StatusPagamentoEnum.PENDENTE_PROCESSAMENTO) {
-                    pagamento.setStatus(novo);
-                } else {
-                    throw new StatusPagamentoException(
-                            "Transição inválida: de PROCESSADO_FALHA só para PENDENTE_PROCESSAMENTO."
-                    );
-                }
-            }
-            default -> throw new StatusPagamentoException("Status atual inválido.");
+    // o UPDATE não afetou linhas: descobre o motivo com a mesma precedência da validação original
+    private void rejeitarAtualizacao(Long id, StatusPagamentoEnum novo) {
+        Pagamento pagamento = pagamentoRepository.findById(id)
+                .orElseThrow(() -> new EntityNotFoundException("Pagamento não encontrado."));
+
+        if (Boolean.FALSE.equals(pagamento.getAtivo())) {
+            throw new StatusPagamentoException("Pagamento inativo não pode ter o status alterado.");
         }
 
-        Pagamento salvo = pagamentoRepository.save(pagamento);
-        log.info("[Pagamento] Status atualizado: {} -> {}", atual, salvo.getStatus());
-        return salvo;
+        pagamento.getStatus().validarTransicaoPara(novo);
+        // transição válida agora, mas a linha mudou entre o UPDATE e esta leitura: conflito (409), o cliente repete
+        throw new OptimisticLockingFailureException("O status do pagamento foi alterado concorrentemente; tente novamente.");
     }
 
     // =========================================================================
@@ -111,15 +174,25 @@ public class PagamentoService {
     // =========================================================================
     @Transactional
     public void excluir(Long id) {
-        log.info("[Pagamento] Exclusão lógica do pagamento {}…", id);
+        metricas.medir("excluir", () -> excluirLogicamente(id));
+    }
+
+    private void excluirLogicamente(Long id) {
+        log.debug("[Pagamento] Exclusão lógica do pagamento {}…", id);
 
         Pagamento pagamento = pagamentoRepository.findByIdAndAtivoTrue(id)
                 .orElseThrow(() -> new EntityNotFoundException("Pagamento não encontrado ou já inativo."));
 
         if (pagamento.getStatus() == StatusPagamentoEnum.PENDENTE_PROCESSAMENTO) {
             pagamento.setAtivo(Boolean.FALSE);
-            pagamentoRepository.save(pagamento);
-            log.info("[Pagamento] Marcado como inativo (exclusão lógica).");
+            // flush para o evento sair com a versão já incrementada
+            pagamentoRepository.saveAndFlush(pagamento);
+            resumoPagadorService.registrarExclusao(pagamento);
+            PagamentoRespostaDTO excluido = PagamentoRespostaDTO.de(pagamento);
+            eventoPagamentoService.registrar(TipoEventoPagamentoEnum.EXCLUIDO, excluido);
+            pagamentoCache.invalidarAposCommit(id);
+            observadores.notificarAposCommit(excluido);
+            log.debug("[Pagamento] Marcado como inativo (exclusão lógica).");
         } else {
             throw new StatusPagamentoException(
                     "Somente pagamentos com status PENDENTE_PROCESSAMENTO podem ser excluídos logicamente."
@@ -130,27 +203,149 @@ public class PagamentoService {
     // =========================================================================
     // CONSULTAS
     // =========================================================================
+    // sem transação própria: um acerto no cache não chega a pegar conexão do pool
+    public Optional<PagamentoRespostaDTO> buscarPorId(Long id) {
+        return buscarPorId(id, false);
+    }
+
+    /** Com {@code incluirArquivados}, um id ausente da tabela quente é procurado no arquivo (sem cache). */
+    public Optional<PagamentoRespostaDTO> buscarPorId(Long id, boolean incluirArquivados) {
+        return metricas.medir("buscar_por_id", () -> {
+            Optional<PagamentoRespostaDTO> pagamento = pagamentoCache.buscar(id, pagamentoRepository::findRespostaById);
+            // nessa ordem: um pagamento arquivado entre as duas leituras é encontrado na segunda
+            return (pagamento.isPresent() || !incluirArquivados)
+                    ? pagamento : pagamentoArquivadoRepository.findRespostaById(id);
+        });
+    }
+
     @Transactional(readOnly = true)
-    public Optional<Pagamento> buscarPorId(Long id) {
-        return pagamentoRepository.findById(id);
+    public List<PagamentoRespostaDTO> listar(FiltroPagamentoDTO filtro) {
+        return listar(filtro, false);
     }
 
+    /** Com {@code incluirArquivados}, junta os pagamentos do arquivo que atendem ao filtro, na mesma ordem por id. */
     @Transactional(readOnly = true)
-    public List<Pagamento> listar(FiltroPagamentoDTO filtro) {
+    public List<PagamentoRespostaDTO> listar(FiltroPagamentoDTO filtro, boolean incluirArquivados) {
+        Timer.Sample amostra = metricas.iniciar();
         Specification<Pagamento> spec = Specification.where(PagamentoSpecification.comFiltro(filtro));
-        return pagamentoRepository.findAll(spec);
+        List<PagamentoRespostaDTO> pagamentos = pagamentoRepository.listarRespostas(spec);
+        if (incluirArquivados) {
+            Specification<PagamentoArquivado> arquivo = Specification.where(PagamentoSpecification.comFiltro(filtro));
+            pagamentos = intercalar(pagamentos, pagamentoRepository.listarArquivados(arquivo), Integer.MAX_VALUE);
+        }
+        metricas.registrarListagem("completa", filtro, amostra, pagamentos.size());
+        return pagamentos;
+    }
+
+    /**
+     * Paginação keyset pelo id: {@code WHERE <filtro> AND id > :aposId ORDER BY id LIMIT :limite + 1}.
+     * Não há OFFSET nem COUNT, então o custo por página independe do tamanho da tabela; a linha excedente só
+     * indica se há próxima página.
+     */
+    @Transactional(readOnly = true)
+    public Window<PagamentoRespostaDTO> listarPorCursor(FiltroPagamentoDTO filtro, Long aposId, int limite) {
+        return listarPorCursor(filtro, aposId, limite, false);
+    }
+
+    /**
+     * Como {@link #listarPorCursor(FiltroPagamentoDTO, Long, int)}; com {@code incluirArquivados}, a página é intercalada
+     * por id com a do arquivo (as duas com o mesmo limite), então o cursor continua sendo só o último id.
+     */
+    @Transactional(readOnly = true)
+    public Window<PagamentoRespostaDTO> listarPorCursor(FiltroPagamentoDTO filtro, Long aposId, int limite,
+                                                        boolean incluirArquivados) {
+        if (limite < 1 || limite > LIMITE_MAXIMO_PAGINA) {
+            throw new PaginacaoException("O limite deve estar entre 1 e " + LIMITE_MAXIMO_PAGINA + ".");
+        }
+
+        Timer.Sample amostra = metricas.iniciar();
+        Specification<Pagamento> spec = Specification.where(PagamentoSpecification.comFiltro(filtro));
+        List<PagamentoRespostaDTO> linhas = pagamentoRepository.listarRespostas(spec, aposId, limite + 1);
+        if (incluirArquivados) {
+            Specification<PagamentoArquivado> arquivo = Specification.where(PagamentoSpecification.comFiltro(filtro));
+            linhas = intercalar(linhas, pagamentoRepository.listarArquivados(arquivo, aposId, limite + 1),
+                    limite + 1);
+        }
+        metricas.registrarListagem("cursor", filtro, amostra, linhas.size());
+
+        boolean temProxima = linhas.size() > limite;
+        List<PagamentoRespostaDTO> pagina = temProxima ? linhas.subList(0, limite) : linhas;
+        return Window.from(pagina, i -> ScrollPosition.forward(Map.of("id", pagina.get(i).id())), temProxima);
+    }
+
+    /**
+     * Percorre o resultado filtrado em streaming (cursor forward-only), entregando cada pagamento ao consumidor.
+     * A transação fica aberta durante todo o consumo; retorna a quantidade de registros entregues.
+     */
+    @Transactional(readOnly = true)
+    public long exportar(FiltroPagamentoDTO filtro, Consumer<PagamentoRespostaDTO> consumidor) {
+        Timer.Sample amostra = metricas.iniciar();
+        Specification<Pagamento> spec = Specification.where(PagamentoSpecification.comFiltro(filtro));
+        long total = 0;
+        try (Stream<PagamentoRespostaDTO> pagamentos = pagamentoRepository.streamPorFiltro(spec)) {
+            var iterador = pagamentos.iterator();
+            while (iterador.hasNext()) {
+                consumidor.accept(iterador.next());
+                total++;
+            }
+        }
+        metricas.registrarListagem("exportacao", filtro, amostra, total);
+        log.info("[Pagamento] Exportação concluída: {} registros.", total);
+        return total;
+    }
+
+    // tabela quente e arquivo, ambos ordenados por id; lidos nessa ordem, um pagamento arquivado entre as duas leituras
+    // aparece nas duas listas e entra uma vez só
+    private static List<PagamentoRespostaDTO> intercalar(List<PagamentoRespostaDTO> quentes,
+                                                         List<PagamentoRespostaDTO> arquivados, int limite) {
+        if (arquivados.isEmpty()) {
+            return quentes;
+        }
+        List<PagamentoRespostaDTO> resultado = new ArrayList<>(Math.min(quentes.size() + arquivados.size(), limite));
+        int q = 0;
+        int a = 0;
+        while (resultado.size() < limite && (q < quentes.size() || a < arquivados.size())) {
+            PagamentoRespostaDTO proximo;
+            if (a == arquivados.size() || (q < quentes.size() && quentes.get(q).id() <= arquivados.get(a).id())) {
+                proximo = quentes.get(q++);
+                if (a < arquivados.size() && arquivados.get(a).id().equals(proximo.id())) {
+                    a++;
+                }
+            } else {
+                proximo = arquivados.get(a++);
+            }
+            resultado.add(proximo);
+        }
+        return resultado;
     }
 
     // =========================================================================
     // VALIDAÇÕES
     // =========================================================================
     private void validarNovoPagamento(PagamentoDTO dto) {
-        log.info("[Pagamento] Validando novo pagamento…");
+        log.debug("[Pagamento] Validando novo pagamento…");
+        // duplicidade do código de débito fica a cargo da constraint única (ver realizar)
+        validarRegras(dto);
+    }
 
-        if (pagamentoRepository.findByCodigoDebito(dto.codigoDebito()).isPresent()) {
-            throw new EntityExistsException("Já existe um pagamento com o código de débito informado.");
-        }
+    /**
+     * Indica se algum dos códigos já está no arquivo, que fica fora da {@code uk_pagamento_codigo_debito}. As criações
+     * chamam depois do INSERT: se o mesmo código estiver sendo arquivado, o INSERT espera esse commit e a consulta o vê.
+     */
+    boolean algumArquivado(Collection<Integer> codigos) {
+        return !codigos.isEmpty() && !pagamentoArquivadoRepository.findCodigosDebitoArquivados(codigos).isEmpty();
+    }
 
+    /** Indica se a violação veio da constraint única do código de débito. */
+    static boolean isCodigoDebitoDuplicado(DataIntegrityViolationException ex) {
+        Throwable causa = ex.getCause();
+        String constraint = (causa instanceof ConstraintViolationException cve) ? cve.getConstraintName() : null;
+        String texto = (constraint != null) ? constraint : ex.getMessage();
+        return texto != null && texto.toLowerCase(Locale.ROOT).contains("uk_pagamento_codigo_debito");
+    }
+
+    /** Regras de documento e cartão, sem acesso ao banco (reaproveitadas pela ingestão em lote). */
+    void validarRegras(PagamentoDTO dto) {
         if (!IsCpfCnpj.isCpfOrCnpj(dto.cpfCnpjPagador())) {
             throw new IllegalArgumentException("CPF/CNPJ inválido.");
         }
@@ -167,9 +362,20 @@ public class PagamentoService {
     }
 
     // -------------------------------------------------------------------------
-    private String normalizarCpfCnpj(String valor) {
-        if (!StringUtils.hasText(valor)) return null;
-        return valor.trim();
+    Pagamento novoPagamento(PagamentoDTO dto) {
+        Pagamento pagamento = new Pagamento();
+        pagamento.setCodigoDebito(dto.codigoDebito());
+        DocumentoPagador documento = DocumentoPagador.de(dto.cpfCnpjPagador())
+                .orElseThrow(() -> new IllegalArgumentException("CPF/CNPJ inválido."));
+        pagamento.setCpfCnpjPagador(documento.digitos());
+        pagamento.setDocumentoPagador(documento.numero());
+        pagamento.setTipoDocumento(documento.tipo());
+        pagamento.setMetodoPagamento(dto.metodoPagamento());
+        pagamento.setNumeroCartao(definirCartao(dto.metodoPagamento(), dto.numeroCartao()));
+        pagamento.setValorPagamento(dto.valorPagamento().setScale(2, RoundingMode.HALF_UP));
+        pagamento.setStatus(StatusPagamentoEnum.PENDENTE_PROCESSAMENTO);
+        pagamento.setAtivo(Boolean.TRUE);
+        return pagamento;
     }
 
     private String definirCartao(MetodoPagamentoEnum metodo, String numeroCartao) {
@@ -0,0 +1,20 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+
+/**
+ * Ponto de extensão do processamento interno ({@link ProcessamentoPagamentoService}): decide o resultado de um
+ * pagamento pendente. É chamado por vários workers ao mesmo tempo, então a implementação deve ser thread-safe.
+ * <p>
+ * Não há implementação padrão: ligar o processamento exige um bean próprio, ou o {@link ProcessadorPagamentoSimulado}
+ * (só para testes e demonstração) com {@code pagamento.processamento.processador=simulado}.
+ */
+public interface ProcessadorPagamento {
+
+    /**
+     * @return {@link StatusPagamentoEnum#PROCESSADO_SUCESSO} ou {@link StatusPagamentoEnum#PROCESSADO_FALHA};
+     *         uma exceção deixa o pagamento pendente para uma próxima rodada
+     */
+    StatusPagamentoEnum processar(PagamentoRespostaDTO pagamento);
+}
@@ -0,0 +1,43 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Processador local para testes e demonstração, sem integração externa: espera a latência configurada e reprova os
+ * pagamentos cujo código de débito termina abaixo do percentual de falha ({@code codigoDebito % 100}). Só é
+ * registrado com {@code pagamento.processamento.processador=simulado}.
+ */
+@Component
+@ConditionalOnProperty(name = "pagamento.processamento.processador", havingValue = "simulado")
+public class ProcessadorPagamentoSimulado implements ProcessadorPagamento {
+
+    private final Duration latencia;
+    private final int percentualFalha;
+
+    public ProcessadorPagamentoSimulado(@Value("${pagamento.processamento.simulado.latencia:PT0S}") Duration latencia,
+                                        @Value("${pagamento.processamento.simulado.falha-percentual:10}") int percentualFalha) {
+        this.latencia = latencia;
+        this.percentualFalha = percentualFalha;
+    }
+
+    @Override
+    public StatusPagamentoEnum processar(PagamentoRespostaDTO pagamento) {
+        if (!latencia.isZero()) {
+            try {
+                Thread.sleep(latencia.toMillis());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Processamento interrompido.", ex);
+            }
+        }
+        return (pagamento.codigoDebito() % 100 < percentualFalha)
+                ? StatusPagamentoEnum.PROCESSADO_FALHA
+                : StatusPagamentoEnum.PROCESSADO_SUCESSO;
+    }
+}
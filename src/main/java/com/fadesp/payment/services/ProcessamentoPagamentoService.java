@@ -0,0 +1,287 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.dtos.ResultadoStatusLoteDTO;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.repositories.PagamentoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processamento interno dos pagamentos em {@code PENDENTE_PROCESSAMENTO}.
+ * <p>
+ * Cada rodada reserva um bloco de pendentes com {@code SELECT ... FOR UPDATE SKIP LOCKED}, grava na linha o prazo da
+ * reserva e faz commit; só então passa cada pagamento ao {@link ProcessadorPagamento}, sem linha travada nem conexão
+ * presa. Os resultados são aplicados com {@link PagamentoLoteService#atualizarStatusLote}, ou seja, com a mesma
+ * máquina de estados de {@link PagamentoService#atualizar}. Workers e nós diferentes nunca reservam a mesma linha
+ * enquanto o prazo vale; um worker que cai no meio devolve as linhas quando o prazo vence.
+ * <p>
+ * Um pagamento cujo processador lançou exceção segue pendente, mas só volta a ser reservado depois de uma espera que
+ * dobra a cada tentativa; esgotadas as tentativas, vai para {@code PROCESSADO_FALHA}.
+ * <p>
+ * Contrapressão: no máximo {@code paralelismo} workers, sem fila de tarefas. Cada um para na primeira rodada incompleta
+ * ou com erro do processador, voltando só no próximo ciclo.
+ */
+@Service
+public class ProcessamentoPagamentoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProcessamentoPagamentoService.class);
+
+    // pula as linhas já travadas por outro worker/nó (SKIP LOCKED: H2 2.x e MySQL 8) e as que estão reservadas ou
+    // esperando nova tentativa; idx_pagamento_status_id atende o filtro e a ordem
+    private static final String TRAVAR_PENDENTES = """
+            SELECT id, processamento_tentativas FROM pagamento
+            WHERE status = 'PENDENTE_PROCESSAMENTO' AND ativo = TRUE
+              AND (processamento_proxima IS NULL OR processamento_proxima <= :agora)
+            ORDER BY id
+            LIMIT :lote
+            FOR UPDATE SKIP LOCKED
+            """;
+
+    private static final String RESERVAR = """
+            UPDATE pagamento
+            SET processamento_tentativas = processamento_tentativas + 1, processamento_proxima = :ate
+            WHERE id IN (:ids)
+            """;
+
+    private static final String ADIAR = """
+            UPDATE pagamento SET processamento_proxima = :proxima WHERE id = :id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final PagamentoRepository pagamentoRepository;
+    private final PagamentoLoteService pagamentoLoteService;
+    private final ProcessadorPagamento processador;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int tamanhoLote;
+    private final int paralelismo;
+    private final Duration reserva;
+    private final Duration espera;
+    private final int tentativas;
+
+    private final ExecutorService workers;
+    private final Semaphore vagas;
+    private final AtomicLong fila = new AtomicLong();
+    private volatile boolean encerrando;
+
+    private final Counter sucessos;
+    private final Counter falhas;
+    private final Counter erros;
+    private final Timer duracaoRodada;
+
+    public ProcessamentoPagamentoService(NamedParameterJdbcTemplate jdbc,
+                                         PagamentoRepository pagamentoRepository,
+                                         PagamentoLoteService pagamentoLoteService,
+                                         ObjectProvider<ProcessadorPagamento> processador,
+                                         PlatformTransactionManager transactionManager,
+                                         ObjectProvider<MeterRegistry> meterRegistry,
+                                         @Value("${pagamento.processamento.habilitado:false}") boolean habilitado,
+                                         @Value("${pagamento.processamento.lote:100}") int tamanhoLote,
+                                         @Value("${pagamento.processamento.paralelismo:2}") int paralelismo,
+                                         @Value("${pagamento.processamento.reserva:PT5M}") Duration reserva,
+                                         @Value("${pagamento.processamento.espera:PT30S}") Duration espera,
+                                         @Value("${pagamento.processamento.tentativas:5}") int tentativas) {
+        this.jdbc = jdbc;
+        this.pagamentoRepository = pagamentoRepository;
+        this.pagamentoLoteService = pagamentoLoteService;
+        this.processador = processador.getIfAvailable();
+        if (habilitado && this.processador == null) {
+            throw new IllegalStateException("pagamento.processamento.habilitado=true exige um bean ProcessadorPagamento.");
+        }
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.tamanhoLote = tamanhoLote;
+        this.paralelismo = paralelismo;
+        this.reserva = reserva;
+        this.espera = espera;
+        this.tentativas = tentativas;
+
+        AtomicInteger numero = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(paralelismo, tarefa -> {
+            Thread thread = new Thread(tarefa, "processamento-" + numero.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.vagas = new Semaphore(paralelismo);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(CompositeMeterRegistry::new);
+        registry.gauge("pagamento.processamento.fila", fila);
+        registry.gauge("pagamento.processamento.workers", vagas, v -> paralelismo - v.availablePermits());
+        this.sucessos = registry.counter("pagamento.processamento.processados", "resultado", "sucesso");
+        this.falhas = registry.counter("pagamento.processamento.processados", "resultado", "falha");
+        this.erros = registry.counter("pagamento.processamento.erros");
+        this.duracaoRodada = registry.timer("pagamento.processamento.rodada");
+    }
+
+    /** Inicia workers conforme a última contagem da fila e as vagas livres; sem contagem, um worker sonda a fila. */
+    @Scheduled(fixedDelayString = "${pagamento.processamento.intervalo:PT1S}")
+    public void agendar() {
+        if (!habilitado || encerrando) {
+            return;
+        }
+        long necessarios = Math.max(1, (fila.get() + tamanhoLote - 1) / tamanhoLote);
+        for (long i = 0; i < necessarios && vagas.tryAcquire(); i++) {
+            workers.execute(() -> {
+                try {
+                    drenar();
+                } catch (RuntimeException ex) {
+                    log.error("[Pagamento] Falha no worker de processamento.", ex);
+                } finally {
+                    vagas.release();
+                }
+            });
+        }
+    }
+
+    // contagem completa num ciclo próprio, mais lento, não a cada agendamento; entre uma e outra as rodadas a descontam
+    @Scheduled(
+            initialDelayString = "${pagamento.processamento.fila-intervalo:PT30S}",
+            fixedDelayString = "${pagamento.processamento.fila-intervalo:PT30S}"
+    )
+    public void contarFila() {
+        if (!habilitado || encerrando) {
+            return;
+        }
+        fila.set(pagamentoRepository.countByStatusAndAtivoTrue(StatusPagamentoEnum.PENDENTE_PROCESSAMENTO));
+    }
+
+    /** Processa rodadas seguidas até a fila esvaziar, uma rodada vir incompleta ou o processador falhar. */
+    public void drenar() {
+        while (!encerrando) {
+            Rodada rodada = processarLote();
+            if (rodada.reservados() < tamanhoLote || rodada.erros() > 0) {
+                return;
+            }
+        }
+    }
+
+    /** Uma rodada: reserva (com commit), processa fora de transação e grava o bloco. */
+    public Rodada processarLote() {
+        if (processador == null) {
+            throw new IllegalStateException("Nenhum ProcessadorPagamento registrado.");
+        }
+        Rodada rodada = duracaoRodada.record(() -> {
+            Map<Long, Integer> reservados = reservar();
+            if (reservados.isEmpty()) {
+                return Rodada.VAZIA;
+            }
+
+            List<AtualizarPagamentoDTO> resultados = new ArrayList<>(reservados.size());
+            List<Long> comErro = new ArrayList<>();
+            for (PagamentoRespostaDTO pagamento : pagamentoRepository.findRespostasByIds(reservados.keySet())) {
+                try {
+                    resultados.add(new AtualizarPagamentoDTO(pagamento.id(), processador.processar(pagamento)));
+                } catch (RuntimeException ex) {
+                    comErro.add(pagamento.id());
+                    log.warn("[Pagamento] Processador falhou para o pagamento {} (tentativa {} de {}). Motivo: {}",
+                            pagamento.id(), reservados.get(pagamento.id()), tentativas, ex.getMessage());
+                }
+            }
+
+            return transactionTemplate.execute(status -> gravar(reservados, resultados, comErro));
+        });
+
+        sucessos.increment(rodada.sucessos());
+        falhas.increment(rodada.falhas());
+        erros.increment(rodada.erros());
+        if (rodada.reservados() > 0) {
+            fila.updateAndGet(atual -> Math.max(0, atual - rodada.sucessos() - rodada.falhas()));
+        }
+        return rodada;
+    }
+
+    // trava, grava o prazo da reserva e faz commit: as linhas ficam livres enquanto o processador roda
+    private Map<Long, Integer> reservar() {
+        return transactionTemplate.execute(status -> {
+            Instant agora = Instant.now();
+            Map<Long, Integer> reservados = new HashMap<>();
+            jdbc.query(TRAVAR_PENDENTES, new MapSqlParameterSource()
+                            .addValue("agora", Timestamp.from(agora))
+                            .addValue("lote", tamanhoLote),
+                    rs -> {
+                        reservados.put(rs.getLong(1), rs.getInt(2) + 1);
+                    });
+            if (!reservados.isEmpty()) {
+                jdbc.update(RESERVAR, new MapSqlParameterSource()
+                        .addValue("ate", Timestamp.from(agora.plus(reserva)))
+                        .addValue("ids", reservados.keySet()));
+            }
+            return reservados;
+        });
+    }
+
+    private Rodada gravar(Map<Long, Integer> reservados, List<AtualizarPagamentoDTO> resultados, List<Long> comErro) {
+        Instant agora = Instant.now();
+        List<SqlParameterSource> adiados = new ArrayList<>();
+        for (Long id : comErro) {
+            int feitas = reservados.get(id);
+            if (feitas >= tentativas) {
+                log.warn("[Pagamento] Pagamento {} esgotou {} tentativas; marcado como falha.", id, feitas);
+                resultados.add(new AtualizarPagamentoDTO(id, StatusPagamentoEnum.PROCESSADO_FALHA));
+            } else {
+                adiados.add(new MapSqlParameterSource()
+                        .addValue("id", id)
+                        .addValue("proxima", Timestamp.from(agora.plus(espera.multipliedBy(1L << (feitas - 1))))));
+            }
+        }
+        if (!adiados.isEmpty()) {
+            jdbc.batchUpdate(ADIAR, adiados.toArray(SqlParameterSource[]::new));
+        }
+
+        ResultadoStatusLoteDTO gravado = pagamentoLoteService.atualizarStatusLote(resultados);
+        gravado.rejeitados().forEach(r ->
+                log.warn("[Pagamento] Resultado do processador rejeitado para {}: {}", r.id(), r.motivo()));
+
+        Set<Long> atualizados = new HashSet<>(gravado.atualizados());
+        int sucesso = (int) resultados.stream()
+                .filter(r -> r.status() == StatusPagamentoEnum.PROCESSADO_SUCESSO && atualizados.contains(r.id()))
+                .count();
+        return new Rodada(reservados.size(), sucesso, atualizados.size() - sucesso, comErro.size());
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        encerrando = true;
+        workers.shutdown();
+        if (!workers.awaitTermination(10, TimeUnit.SECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    /** Resultado de uma rodada: linhas reservadas, quantas foram para sucesso ou falha e quantas deram erro. */
+    public record Rodada(int reservados, int sucessos, int falhas, int erros) {
+        static final Rodada VAZIA = new Rodada(0, 0, 0, 0);
+    }
+}
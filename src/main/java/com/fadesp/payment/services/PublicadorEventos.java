@@ -0,0 +1,16 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.EventoPagamentoDTO;
+
+import java.util.List;
+
+/**
+ * Destino dos eventos do outbox. O {@link RelayEventosPagamento} entrega a cada bean registrado os eventos de uma
+ * rodada, em ordem de publicação ({@code posicao}), antes do commit. A entrega é "pelo menos uma vez": se algum
+ * publicador falhar ou o commit não acontecer, a rodada inteira é repetida, então um evento pode chegar de novo e o
+ * consumidor deve descartar ids já vistos. Sem nenhum bean registrado o relay não publica.
+ */
+public interface PublicadorEventos {
+
+    void publicar(List<EventoPagamentoDTO> eventos);
+}
@@ -0,0 +1,47 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.EventoPagamentoDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Publicador que acrescenta os eventos num arquivo NDJSON, um evento por linha. Registrado só quando
+ * {@code pagamento.outbox.arquivo} é informado; útil em testes e para alimentar outro processo por {@code tail -f}.
+ */
+@Component
+@ConditionalOnProperty(name = "pagamento.outbox.arquivo")
+public class PublicadorEventosArquivo implements PublicadorEventos {
+
+    private final Path arquivo;
+    private final ObjectWriter escritor;
+
+    public PublicadorEventosArquivo(@Value("${pagamento.outbox.arquivo}") Path arquivo, ObjectMapper objectMapper) {
+        this.arquivo = arquivo;
+        this.escritor = objectMapper.writerFor(EventoPagamentoDTO.class);
+    }
+
+    @Override
+    public synchronized void publicar(List<EventoPagamentoDTO> eventos) {
+        try (BufferedWriter writer = Files.newBufferedWriter(arquivo, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (EventoPagamentoDTO evento : eventos) {
+                writer.write(escritor.writeValueAsString(evento));
+                writer.newLine();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Falha ao gravar eventos em " + arquivo + ".", ex);
+        }
+    }
+}
@@ -0,0 +1,318 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.ConsultaRelatorioDTO;
+import com.fadesp.payment.domain.dtos.LinhaRelatorioDTO;
+import com.fadesp.payment.domain.dtos.RelatorioPagamentoDTO;
+import com.fadesp.payment.domain.enums.DimensaoRelatorioEnum;
+import com.fadesp.payment.domain.enums.GranularidadeRelatorioEnum;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.exceptions.RelatorioException;
+import com.fadesp.payment.repositories.PagamentoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Relatório de pagamentos ativos por período ({@code GET /relatorios/pagamentos}). Os dias fechados e sem alteração
+ * pendente vêm de {@code relatorio_diario}, mantida por {@link #consolidar}; o resto é agregado de {@code pagamento}.
+ */
+@Service
+public class RelatorioPagamentoService {
+
+    private static final Logger log = LoggerFactory.getLogger(RelatorioPagamentoService.class);
+
+    private static final String LER_CONTROLE = """
+            SELECT consolidado_ate, alteracoes_ate FROM relatorio_diario_controle WHERE id = 1
+            """;
+
+    // serializa rodadas simultâneas (agendada e manual, ou vários nós)
+    private static final String TRAVAR_CONTROLE = """
+            SELECT id FROM relatorio_diario_controle WHERE id = 1 FOR UPDATE
+            """;
+
+    private static final String GRAVAR_CONTROLE = """
+            UPDATE relatorio_diario_controle SET consolidado_ate = ?, alteracoes_ate = ? WHERE id = 1
+            """;
+
+    private static final String EXCLUIR_DIAS = """
+            DELETE FROM relatorio_diario WHERE dia >= ? AND dia < ?
+            """;
+
+    private static final String INSERIR_DIA = """
+            INSERT INTO relatorio_diario (dia, metodo_pagamento, status, quantidade, valor_total) VALUES (?, ?, ?, ?, ?)
+            """;
+
+    private static final Comparator<LinhaRelatorioDTO> ORDEM = Comparator.comparing(LinhaRelatorioDTO::periodo)
+            .thenComparing(LinhaRelatorioDTO::metodoPagamento, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(LinhaRelatorioDTO::status, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final PagamentoRepository pagamentoRepository;
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int diasPorBloco;
+    private final Duration margem;
+    private final Duration maximoPorHora;
+
+    private final Counter diasConsolidados;
+    private final Timer duracaoConsolidacao;
+
+    public RelatorioPagamentoService(PagamentoRepository pagamentoRepository,
+                                     JdbcTemplate jdbc,
+                                     PlatformTransactionManager transactionManager,
+                                     ObjectProvider<MeterRegistry> meterRegistry,
+                                     @Value("${pagamento.relatorio.consolidacao.habilitado:true}") boolean habilitado,
+                                     @Value("${pagamento.relatorio.consolidacao.dias-por-bloco:31}") int diasPorBloco,
+                                     @Value("${pagamento.relatorio.consolidacao.margem:PT1M}") Duration margem,
+                                     @Value("${pagamento.relatorio.hora.intervalo-maximo:P31D}") Duration maximoPorHora) {
+        this.pagamentoRepository = pagamentoRepository;
+        this.jdbc = jdbc;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.diasPorBloco = diasPorBloco;
+        this.margem = margem;
+        this.maximoPorHora = maximoPorHora;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(CompositeMeterRegistry::new);
+        this.diasConsolidados = registry.counter("pagamento.relatorio.consolidacao.dias");
+        this.duracaoConsolidacao = registry.timer("pagamento.relatorio.consolidacao");
+    }
+
+    // =========================================================================
+    // CONSULTA
+    // =========================================================================
+    @Transactional(readOnly = true)
+    public RelatorioPagamentoDTO gerar(ConsultaRelatorioDTO consulta) {
+        Instant de = consulta.de();
+        Instant ate = consulta.ate();
+        if (de == null || ate == null) {
+            throw new RelatorioException("Informe o intervalo (de e ate).");
+        }
+        if (!de.isBefore(ate)) {
+            throw new RelatorioException("O início do intervalo deve ser anterior ao fim.");
+        }
+        GranularidadeRelatorioEnum granularidade = (consulta.granularidade() != null)
+                ? consulta.granularidade() : GranularidadeRelatorioEnum.DIA;
+        if (granularidade == GranularidadeRelatorioEnum.HORA && Duration.between(de, ate).compareTo(maximoPorHora) > 0) {
+            throw new RelatorioException("Intervalo acima do máximo para consulta por hora (" + maximoPorHora + ").");
+        }
+        Set<DimensaoRelatorioEnum> dimensoes = EnumSet.noneOf(DimensaoRelatorioEnum.class);
+        if (consulta.agrupar() != null) {
+            dimensoes.addAll(consulta.agrupar());
+        }
+
+        List<Trecho> trechos = (granularidade == GranularidadeRelatorioEnum.DIA)
+                ? planejar(de, ate, lerControle())
+                : List.of(new Trecho(de, ate, false));
+
+        List<LinhaRelatorioDTO> linhas = new ArrayList<>();
+        int consolidados = 0;
+        for (Trecho trecho : trechos) {
+            if (trecho.consolidado()) {
+                linhas.addAll(lerConsolidado(trecho, dimensoes));
+                consolidados += (int) Duration.between(trecho.inicio(), trecho.fim()).toDays();
+            } else {
+                linhas.addAll(pagamentoRepository.agregar(trecho.inicio(), trecho.fim(), granularidade, dimensoes));
+            }
+        }
+        // trechos não se sobrepõem em dias, então cada linha já é única
+        linhas.sort(ORDEM);
+        return new RelatorioPagamentoDTO(de, ate, granularidade, dimensoes, consolidados, linhas);
+    }
+
+    /**
+     * Divide [de, ate) em trechos: dias inteiros consolidados e sem alteração pendente vão para
+     * {@code relatorio_diario}; os demais, agrupados em intervalos contínuos, para {@code pagamento}.
+     */
+    private List<Trecho> planejar(Instant de, Instant ate, Controle controle) {
+        if (controle.consolidadoAte() == null) {
+            return List.of(new Trecho(de, ate, false));
+        }
+        LocalDate primeiro = dia(de);
+        if (inicio(primeiro).isBefore(de)) {
+            primeiro = primeiro.plusDays(1);
+        }
+        LocalDate limite = dia(ate);
+        if (limite.isAfter(controle.consolidadoAte())) {
+            limite = controle.consolidadoAte();
+        }
+        if (!primeiro.isBefore(limite)) {
+            return List.of(new Trecho(de, ate, false));
+        }
+
+        Set<LocalDate> alterados = new HashSet<>();
+        pagamentoRepository.diasAlterados(controle.alteracoesAte(), null, inicio(limite))
+                .forEach(d -> alterados.add(dia(d)));
+
+        List<Trecho> trechos = new ArrayList<>();
+        Instant cursor = de;
+        for (LocalDate d = primeiro; d.isBefore(limite); d = d.plusDays(1)) {
+            if (alterados.contains(d)) continue;
+            Instant inicio = inicio(d);
+            Instant fim = inicio(d.plusDays(1));
+            if (cursor.isBefore(inicio)) {
+                trechos.add(new Trecho(cursor, inicio, false));
+                trechos.add(new Trecho(inicio, fim, true));
+            } else {
+                Trecho anterior = trechos.isEmpty() ? null : trechos.get(trechos.size() - 1);
+                if (anterior != null && anterior.consolidado()) {
+                    trechos.set(trechos.size() - 1, new Trecho(anterior.inicio(), fim, true));
+                } else {
+                    trechos.add(new Trecho(inicio, fim, true));
+                }
+            }
+            cursor = fim;
+        }
+        if (cursor.isBefore(ate)) {
+            trechos.add(new Trecho(cursor, ate, false));
+        }
+        return trechos;
+    }
+
+    private List<LinhaRelatorioDTO> lerConsolidado(Trecho trecho, Set<DimensaoRelatorioEnum> dimensoes) {
+        boolean porMetodo = dimensoes.contains(DimensaoRelatorioEnum.METODO);
+        boolean porStatus = dimensoes.contains(DimensaoRelatorioEnum.STATUS);
+        String colunas = "dia" + (porMetodo ? ", metodo_pagamento" : "") + (porStatus ? ", status" : "");
+        String sql = "SELECT " + colunas + ", SUM(quantidade), SUM(valor_total) FROM relatorio_diario"
+                + " WHERE dia >= ? AND dia < ? GROUP BY " + colunas;
+
+        return jdbc.query(sql, (rs, n) -> {
+            int i = 1;
+            Instant periodo = inicio(rs.getObject(i++, LocalDate.class));
+            MetodoPagamentoEnum metodo = porMetodo ? MetodoPagamentoEnum.valueOf(rs.getString(i++)) : null;
+            StatusPagamentoEnum status = porStatus ? StatusPagamentoEnum.valueOf(rs.getString(i++)) : null;
+            long quantidade = rs.getLong(i++);
+            return new LinhaRelatorioDTO(periodo, metodo, status, quantidade, rs.getBigDecimal(i));
+        }, dia(trecho.inicio()), dia(trecho.fim()));
+    }
+
+    // =========================================================================
+    // CONSOLIDAÇÃO
+    // =========================================================================
+    @Scheduled(
+            initialDelayString = "${pagamento.relatorio.consolidacao.intervalo:PT5M}",
+            fixedDelayString = "${pagamento.relatorio.consolidacao.intervalo:PT5M}"
+    )
+    public void consolidarAgendado() {
+        if (habilitado) {
+            consolidar();
+        }
+    }
+
+    /** Recalcula os dias fechados ou alterados desde a rodada anterior; devolve quantos dias foram regravados. */
+    public int consolidar() {
+        return duracaoConsolidacao.record(() -> {
+            Instant corte = Instant.now().minus(margem);
+            // o dia só fecha depois da margem: uma criação às 23:59:59 pode ainda não ter feito commit
+            LocalDate hoje = dia(corte);
+            Controle controle = lerControle();
+
+            TreeSet<LocalDate> dias = new TreeSet<>();
+            LocalDate desde = controle.consolidadoAte();
+            if (desde == null) {
+                desde = pagamentoRepository.findPrimeiroCriadoEm().map(RelatorioPagamentoService::dia).orElse(hoje);
+            } else if (controle.alteracoesAte() != null) {
+                pagamentoRepository.diasAlterados(controle.alteracoesAte(), corte, inicio(desde))
+                        .forEach(d -> dias.add(dia(d)));
+            }
+            if (desde.isBefore(hoje)) {
+                desde.datesUntil(hoje).forEach(dias::add);
+            }
+
+            for (List<LocalDate> bloco : blocos(dias)) {
+                transactionTemplate.executeWithoutResult(s -> regravar(bloco.get(0), bloco.get(bloco.size() - 1).plusDays(1)));
+                diasConsolidados.increment(bloco.size());
+            }
+            LocalDate consolidadoAte = (desde.isAfter(hoje)) ? desde : hoje;
+            transactionTemplate.executeWithoutResult(s -> {
+                jdbc.queryForList(TRAVAR_CONTROLE);
+                jdbc.update(GRAVAR_CONTROLE, consolidadoAte, Timestamp.from(corte));
+            });
+            if (!dias.isEmpty()) {
+                log.info("[Pagamento] Relatório diário: {} dia(s) consolidado(s), de {} a {}.",
+                        dias.size(), dias.first(), dias.last());
+            }
+            return dias.size();
+        });
+    }
+
+    // dias [de, ate) recalculados de pagamento e regravados juntos: uma consulta nunca vê o bloco pela metade
+    private void regravar(LocalDate de, LocalDate ate) {
+        jdbc.queryForList(TRAVAR_CONTROLE);
+        List<LinhaRelatorioDTO> linhas = pagamentoRepository.agregar(inicio(de), inicio(ate),
+                GranularidadeRelatorioEnum.DIA, EnumSet.allOf(DimensaoRelatorioEnum.class));
+        jdbc.update(EXCLUIR_DIAS, de, ate);
+        jdbc.batchUpdate(INSERIR_DIA, linhas, linhas.size(), (ps, l) -> {
+            ps.setObject(1, dia(l.periodo()));
+            ps.setString(2, l.metodoPagamento().name());
+            ps.setString(3, l.status().name());
+            ps.setLong(4, l.quantidade());
+            ps.setBigDecimal(5, l.valorTotal());
+        });
+    }
+
+    // dias consecutivos, até diasPorBloco por bloco
+    private List<List<LocalDate>> blocos(TreeSet<LocalDate> dias) {
+        List<List<LocalDate>> blocos = new ArrayList<>();
+        List<LocalDate> atual = new ArrayList<>();
+        for (LocalDate d : dias) {
+            boolean continua = !atual.isEmpty() && atual.get(atual.size() - 1).plusDays(1).equals(d);
+            if (!atual.isEmpty() && (!continua || atual.size() == diasPorBloco)) {
+                blocos.add(atual);
+                atual = new ArrayList<>();
+            }
+            atual.add(d);
+        }
+        if (!atual.isEmpty()) {
+            blocos.add(atual);
+        }
+        return blocos;
+    }
+
+    // -------------------------------------------------------------------------
+    private Controle lerControle() {
+        return jdbc.queryForObject(LER_CONTROLE, (rs, n) -> {
+            Timestamp alteracoesAte = rs.getTimestamp(2);
+            return new Controle(rs.getObject(1, LocalDate.class), (alteracoesAte != null) ? alteracoesAte.toInstant() : null);
+        });
+    }
+
+    private static LocalDate dia(Instant instante) {
+        return LocalDate.ofInstant(instante, ZoneOffset.UTC);
+    }
+
+    private static Instant inicio(LocalDate dia) {
+        return dia.atStartOfDay(ZoneOffset.UTC).toInstant();
+    }
+
+    // dias anteriores a consolidadoAte estão em relatorio_diario, com as alterações até alteracoesAte
+    private record Controle(LocalDate consolidadoAte, Instant alteracoesAte) { }
+
+    private record Trecho(Instant inicio, Instant fim, boolean consolidado) { }
+}
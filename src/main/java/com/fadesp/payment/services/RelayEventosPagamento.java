@@ -0,0 +1,130 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.EventoPagamentoDTO;
+import com.fadesp.payment.domain.entities.EventoPagamento;
+import com.fadesp.payment.repositories.EventoPagamentoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Publica os eventos do outbox.
+ * <p>
+ * Cada rodada, numa transação, trava {@code evento_pagamento_controle} (uma rodada por vez, entre todos os nós),
+ * reserva os eventos ainda não publicados mais antigos, numera-os com a {@code posicao_publicacao} seguinte, entrega o
+ * bloco a todos os {@link PublicadorEventos} e só então faz commit. Se um publicador falhar ou o commit não acontecer,
+ * o bloco é repetido na próxima rodada: a entrega aos publicadores é "pelo menos uma vez". Sem nenhum publicador
+ * registrado nada é publicado: os eventos esperam no outbox até haver um destino.
+ */
+@Service
+public class RelayEventosPagamento {
+
+    private static final Logger log = LoggerFactory.getLogger(RelayEventosPagamento.class);
+
+    private final EventoPagamentoRepository eventoPagamentoRepository;
+    private final List<PublicadorEventos> publicadores;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean habilitado;
+    private final int tamanhoLote;
+    private final Duration retencao;
+
+    private final Counter publicados;
+    private final Counter erros;
+
+    public RelayEventosPagamento(EventoPagamentoRepository eventoPagamentoRepository,
+                                 List<PublicadorEventos> publicadores,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${pagamento.outbox.habilitado:true}") boolean habilitado,
+                                 @Value("${pagamento.outbox.lote:500}") int tamanhoLote,
+                                 @Value("${pagamento.outbox.retencao:P7D}") Duration retencao) {
+        this.eventoPagamentoRepository = eventoPagamentoRepository;
+        this.publicadores = publicadores;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.habilitado = habilitado;
+        this.tamanhoLote = tamanhoLote;
+        this.retencao = retencao;
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(CompositeMeterRegistry::new);
+        this.publicados = registry.counter("pagamento.outbox.publicados");
+        this.erros = registry.counter("pagamento.outbox.erros");
+
+        if (habilitado && publicadores.isEmpty()) {
+            log.warn("[Pagamento] Nenhum PublicadorEventos registrado; os eventos ficam no outbox sem publicar.");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${pagamento.outbox.intervalo:PT0.5S}")
+    public void agendar() {
+        if (!habilitado) {
+            return;
+        }
+        try {
+            publicarPendentes();
+        } catch (RuntimeException ex) {
+            erros.increment();
+            log.warn("[Pagamento] Falha ao publicar eventos; nova tentativa no próximo ciclo. Motivo: {}", ex.getMessage());
+        }
+    }
+
+    /** Publica rodadas seguidas até uma vir incompleta; devolve quantos eventos foram publicados. */
+    public int publicarPendentes() {
+        if (publicadores.isEmpty()) {
+            // numerar sem entregar a ninguém marcaria o evento como publicado e ele se perderia
+            return 0;
+        }
+        int total = 0;
+        int publicadosNaRodada;
+        do {
+            publicadosNaRodada = publicarLote();
+            total += publicadosNaRodada;
+        } while (publicadosNaRodada == tamanhoLote);
+        return total;
+    }
+
+    private int publicarLote() {
+        Integer quantidade = transactionTemplate.execute(status -> {
+            long posicao = eventoPagamentoRepository.travarUltimaPosicao();
+            List<EventoPagamento> eventos = eventoPagamentoRepository.reservarNaoPublicados(tamanhoLote);
+            if (eventos.isEmpty()) {
+                return 0;
+            }
+            Instant agora = Instant.now();
+            for (EventoPagamento evento : eventos) {
+                evento.publicar(++posicao, agora);
+            }
+            List<EventoPagamentoDTO> dtos = eventos.stream().map(EventoPagamentoDTO::de).toList();
+            for (PublicadorEventos publicador : publicadores) {
+                publicador.publicar(dtos);
+            }
+            eventoPagamentoRepository.gravarUltimaPosicao(posicao);
+            return dtos.size();
+        });
+        publicados.increment(quantidade);
+        return quantidade;
+    }
+
+    @Scheduled(
+            initialDelayString = "${pagamento.outbox.limpeza-intervalo:PT1H}",
+            fixedDelayString = "${pagamento.outbox.limpeza-intervalo:PT1H}"
+    )
+    public void removerPublicados() {
+        Integer removidos = transactionTemplate.execute(status ->
+                eventoPagamentoRepository.excluirPublicadosAntesDe(Instant.now().minus(retencao)));
+        if (removidos > 0) {
+            log.info("[Pagamento] {} eventos publicados há mais de {} removidos do outbox.", removidos, retencao);
+        }
+    }
+}
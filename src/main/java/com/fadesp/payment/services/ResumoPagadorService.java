@@ -0,0 +1,256 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.DivergenciaResumoDTO;
+import com.fadesp.payment.domain.dtos.ItemResumoPagadorDTO;
+import com.fadesp.payment.domain.dtos.ResumoPagadorDTO;
+import com.fadesp.payment.domain.dtos.SituacaoPagamentoDTO;
+import com.fadesp.payment.domain.dtos.VerificacaoResumoPagadorDTO;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.domain.enums.TipoDocumentoEnum;
+import com.fadesp.payment.exceptions.DocumentoPagadorException;
+import com.fadesp.payment.repositories.PagamentoRepository;
+import com.fadesp.payment.repositories.ResumoPagadorRepository;
+import com.fadesp.payment.util.DocumentoPagador;
+import com.fadesp.payment.util.IsCpfCnpj;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Resumo por pagador ({@code resumo_pagador}): quantidade e soma dos pagamentos ativos por status e método, atualizados
+ * na mesma transação de cada escrita em pagamento e conferidos contra as tabelas por {@link #verificar}.
+ */
+@Service
+public class ResumoPagadorService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResumoPagadorService.class);
+
+    private static final String SOMAR = """
+            UPDATE resumo_pagador SET quantidade = quantidade + ?, valor_total = valor_total + ?
+            WHERE documento_pagador = ? AND tipo_documento = ? AND status = ? AND metodo_pagamento = ?
+            """;
+
+    private static final String INSERIR = """
+            INSERT INTO resumo_pagador (quantidade, valor_total, documento_pagador, tipo_documento, status, metodo_pagamento)
+            VALUES (?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String TRAVAR_CELULA = """
+            SELECT quantidade, valor_total FROM resumo_pagador
+            WHERE documento_pagador = ? AND tipo_documento = ? AND status = ? AND metodo_pagamento = ?
+            FOR UPDATE
+            """;
+
+    private static final String GRAVAR = """
+            UPDATE resumo_pagador SET quantidade = ?, valor_total = ?
+            WHERE documento_pagador = ? AND tipo_documento = ? AND status = ? AND metodo_pagamento = ?
+            """;
+
+    private static final Comparator<Chave> ORDEM = Comparator.comparingLong(Chave::documento)
+            .thenComparing(Chave::tipo)
+            .thenComparing(Chave::status)
+            .thenComparing(Chave::metodo);
+
+    private final JdbcTemplate jdbc;
+    private final ResumoPagadorRepository resumoPagadorRepository;
+    private final PagamentoRepository pagamentoRepository;
+    private final Counter divergencias;
+
+    public ResumoPagadorService(JdbcTemplate jdbc,
+                                ResumoPagadorRepository resumoPagadorRepository,
+                                PagamentoRepository pagamentoRepository,
+                                ObjectProvider<MeterRegistry> meterRegistry) {
+        this.jdbc = jdbc;
+        this.resumoPagadorRepository = resumoPagadorRepository;
+        this.pagamentoRepository = pagamentoRepository;
+        this.divergencias = meterRegistry.getIfAvailable(CompositeMeterRegistry::new)
+                .counter("pagamento.resumo_pagador.divergencias");
+    }
+
+    // =========================================================================
+    // MANUTENÇÃO (na transação de quem escreve o pagamento)
+    // =========================================================================
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarCriacao(Collection<Pagamento> pagamentos) {
+        Variacoes variacoes = new Variacoes();
+        for (Pagamento p : pagamentos) {
+            variacoes.somar(p.getDocumentoPagador(), p.getTipoDocumento(), p.getStatus(), p.getMetodoPagamento(),
+                    1, p.getValorPagamento());
+        }
+        aplicar(variacoes);
+    }
+
+    /** {@code situacao} já no status novo; {@code origem} é o status de antes do UPDATE. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarTransicao(SituacaoPagamentoDTO situacao, StatusPagamentoEnum origem) {
+        Variacoes variacoes = new Variacoes();
+        variacoes.transicao(situacao, origem, situacao.status());
+        aplicar(variacoes);
+    }
+
+    /** {@code situacoes} lidas antes do UPDATE em lote; {@code destinos} por id, só dos que mudaram. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarTransicoes(Map<Long, SituacaoPagamentoDTO> situacoes, Map<Long, StatusPagamentoEnum> destinos) {
+        Variacoes variacoes = new Variacoes();
+        destinos.forEach((id, destino) -> {
+            SituacaoPagamentoDTO antes = situacoes.get(id);
+            variacoes.transicao(antes, antes.status(), destino);
+        });
+        aplicar(variacoes);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarExclusao(Pagamento pagamento) {
+        Variacoes variacoes = new Variacoes();
+        variacoes.somar(pagamento.getDocumentoPagador(), pagamento.getTipoDocumento(), pagamento.getStatus(),
+                pagamento.getMetodoPagamento(), -1, pagamento.getValorPagamento().negate());
+        aplicar(variacoes);
+    }
+
+    /** Linhas que acabaram de ganhar a chave do pagador (backfill): entram no resumo como se fossem novas. */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarPreenchidas(Collection<Long> ids) {
+        Variacoes variacoes = new Variacoes();
+        for (SituacaoPagamentoDTO s : pagamentoRepository.findSituacoesParaAtualizacao(ids)) {
+            if (Boolean.TRUE.equals(s.ativo())) {
+                variacoes.somar(s.documentoPagador(), s.tipoDocumento(), s.status(), s.metodoPagamento(),
+                        1, s.valorPagamento());
+            }
+        }
+        aplicar(variacoes);
+    }
+
+    private void aplicar(Variacoes variacoes) {
+        variacoes.porChave.forEach((chave, variacao) -> {
+            if (variacao.quantidade() == 0 && variacao.valor().signum() == 0) return;
+            Object[] args = {variacao.quantidade(), variacao.valor(), chave.documento(), chave.tipo().name(),
+                    chave.status().name(), chave.metodo().name()};
+            if (jdbc.update(SOMAR, args) > 0) return;
+            try {
+                jdbc.update(INSERIR, args);
+            } catch (DuplicateKeyException ex) {
+                // outra transação criou a célula entre o UPDATE e o INSERT
+                jdbc.update(SOMAR, args);
+            }
+        });
+    }
+
+    // =========================================================================
+    // CONSULTA E VERIFICAÇÃO
+    // =========================================================================
+    @Transactional(readOnly = true)
+    public ResumoPagadorDTO buscar(String cpfCnpj) {
+        DocumentoPagador documento = documento(cpfCnpj);
+        List<ItemResumoPagadorDTO> itens = resumoPagadorRepository.findItens(documento.numero(), documento.tipo());
+        return ResumoPagadorDTO.de(documento.digitos(), itens);
+    }
+
+    /**
+     * Recalcula o resumo do pagador a partir das tabelas {@code pagamento} e {@code pagamento_arquivo} e corrige o que
+     * divergir. Todas as células do pagador ficam travadas durante o recálculo; escritas do mesmo pagador esperam.
+     */
+    @Transactional
+    public VerificacaoResumoPagadorDTO verificar(String cpfCnpj) {
+        DocumentoPagador documento = documento(cpfCnpj);
+        // status x método células, na ordem dos incrementos; as que faltam são criadas zeradas e travadas também, para
+        // a primeira criação numa célula nova esperar a verificação em vez de cair entre o recálculo e a comparação
+        Map<Chave, ItemResumoPagadorDTO> gravado = new TreeMap<>(ORDEM);
+        for (StatusPagamentoEnum status : StatusPagamentoEnum.values()) {
+            for (MetodoPagamentoEnum metodo : MetodoPagamentoEnum.values()) {
+                Chave chave = new Chave(documento.numero(), documento.tipo(), status, metodo);
+                gravado.put(chave, travarCelula(chave));
+            }
+        }
+        Map<Chave, ItemResumoPagadorDTO> recalculado = new HashMap<>();
+        pagamentoRepository.recalcularResumo(documento.numero(), documento.tipo()).forEach(i -> recalculado.put(
+                new Chave(documento.numero(), documento.tipo(), i.status(), i.metodoPagamento()), i));
+
+        List<DivergenciaResumoDTO> encontradas = new ArrayList<>();
+        gravado.forEach((chave, g) -> {
+            ItemResumoPagadorDTO r = recalculado.get(chave);
+            long quantidadeRecalculada = (r != null) ? r.quantidade() : 0;
+            BigDecimal valorRecalculado = (r != null) ? r.valorTotal() : BigDecimal.ZERO;
+            if (g.quantidade() != quantidadeRecalculada || g.valorTotal().compareTo(valorRecalculado) != 0) {
+                encontradas.add(new DivergenciaResumoDTO(chave.status(), chave.metodo(),
+                        g.quantidade(), g.valorTotal(), quantidadeRecalculada, valorRecalculado));
+                jdbc.update(GRAVAR, quantidadeRecalculada, valorRecalculado, chave.documento(), chave.tipo().name(),
+                        chave.status().name(), chave.metodo().name());
+            }
+        });
+
+        if (!encontradas.isEmpty()) {
+            divergencias.increment(encontradas.size());
+            log.warn("[Pagamento] Resumo do pagador divergente em {} célula(s); recalculado da tabela pagamento "
+                    + "e do arquivo.", encontradas.size());
+        }
+        return new VerificacaoResumoPagadorDTO(documento.digitos(), encontradas.isEmpty(), encontradas);
+    }
+
+    private ItemResumoPagadorDTO travarCelula(Chave chave) {
+        Object[] id = {chave.documento(), chave.tipo().name(), chave.status().name(), chave.metodo().name()};
+        List<ItemResumoPagadorDTO> linha = jdbc.query(TRAVAR_CELULA, (rs, i) ->
+                new ItemResumoPagadorDTO(chave.status(), chave.metodo(), rs.getLong(1), rs.getBigDecimal(2)), id);
+        if (!linha.isEmpty()) {
+            return linha.get(0);
+        }
+        try {
+            jdbc.update(INSERIR, 0, BigDecimal.ZERO, id[0], id[1], id[2], id[3]);
+            return new ItemResumoPagadorDTO(chave.status(), chave.metodo(), 0L, BigDecimal.ZERO);
+        } catch (DuplicateKeyException ex) {
+            // outra transação criou a célula entre a leitura e o INSERT: espera o commit dela e trava a linha
+            return travarCelula(chave);
+        }
+    }
+
+    private static DocumentoPagador documento(String cpfCnpj) {
+        if (!IsCpfCnpj.isCpfOrCnpj(cpfCnpj)) {
+            throw new DocumentoPagadorException("CPF/CNPJ inválido.");
+        }
+        return DocumentoPagador.de(cpfCnpj).orElseThrow(() -> new DocumentoPagadorException("CPF/CNPJ inválido."));
+    }
+
+    // -------------------------------------------------------------------------
+    private record Chave(long documento, TipoDocumentoEnum tipo, StatusPagamentoEnum status, MetodoPagamentoEnum metodo) { }
+
+    private record Variacao(long quantidade, BigDecimal valor) {
+        Variacao somar(Variacao outra) {
+            return new Variacao(quantidade + outra.quantidade, valor.add(outra.valor));
+        }
+    }
+
+    // variações acumuladas por célula, na ordem de gravação
+    private static final class Variacoes {
+        private final Map<Chave, Variacao> porChave = new TreeMap<>(ORDEM);
+
+        void somar(Long documento, TipoDocumentoEnum tipo, StatusPagamentoEnum status, MetodoPagamentoEnum metodo,
+                   long quantidade, BigDecimal valor) {
+            if (documento == null || tipo == null) return; // linha antiga, ainda sem a chave do pagador
+            porChave.merge(new Chave(documento, tipo, status, metodo), new Variacao(quantidade, valor), Variacao::somar);
+        }
+
+        void transicao(SituacaoPagamentoDTO s, StatusPagamentoEnum de, StatusPagamentoEnum para) {
+            if (!Boolean.TRUE.equals(s.ativo()) || de == para) return;
+            somar(s.documentoPagador(), s.tipoDocumento(), de, s.metodoPagamento(), -1, s.valorPagamento().negate());
+            somar(s.documentoPagador(), s.tipoDocumento(), para, s.metodoPagamento(), 1, s.valorPagamento());
+        }
+    }
+}
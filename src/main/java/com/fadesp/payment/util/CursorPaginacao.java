@@ -0,0 +1,42 @@
+package com.fadesp.payment.util;
+
+import com.fadesp.payment.exceptions.PaginacaoException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica/decodifica o cursor opaco da paginação keyset.
+ * O token carrega apenas o último id entregue; o prefixo de versão permite evoluir o formato sem quebrar clientes.
+ */
+public final class CursorPaginacao {
+
+    private static final String PREFIXO = "v1:";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private CursorPaginacao() {
+        throw new UnsupportedOperationException("Classe utilitária - não deve ser instanciada.");
+    }
+
+    public static String codificar(Long ultimoId) {
+        return ENCODER.encodeToString((PREFIXO + ultimoId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    public static Long decodificar(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String valor = new String(DECODER.decode(cursor.trim()), StandardCharsets.US_ASCII);
+            if (!valor.startsWith(PREFIXO)) {
+                throw new PaginacaoException("Cursor de paginação inválido.");
+            }
+            long id = Long.parseLong(valor.substring(PREFIXO.length()));
+            if (id < 0) {
+                throw new PaginacaoException("Cursor de paginação inválido.");
+            }
+            return id;
+        } catch (IllegalArgumentException ex) {
+            throw new PaginacaoException("Cursor de paginação inválido.", ex);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.fadesp.payment.util;
+
+import com.fadesp.payment.domain.enums.TipoDocumentoEnum;
+
+import java.util.Optional;
+
+/**
+ * Forma canônica do CPF/CNPJ do pagador: os dígitos como número ({@code documento_pagador}, BIGINT) mais o tipo,
+ * que desfaz a ambiguidade entre um CPF e um CNPJ com o mesmo valor numérico. "615.632.135-65" e "61563213565"
+ * geram a mesma chave.
+ * <p>
+ * Só conta dígitos (11 = CPF, 14 = CNPJ); os dígitos verificadores são conferidos na escrita por {@link IsCpfCnpj}.
+ */
+public record DocumentoPagador(long numero, TipoDocumentoEnum tipo) {
+
+    public static Optional<DocumentoPagador> de(CharSequence documento) {
+        if (documento == null) return Optional.empty();
+
+        long numero = 0;
+        int quantidade = 0;
+        for (int i = 0, tamanho = documento.length(); i < tamanho; i++) {
+            char c = documento.charAt(i);
+            if (c < '0' || c > '9') continue;
+            if (++quantidade > IsCpfCnpj.TAMANHO_CNPJ) return Optional.empty();
+            numero = numero * 10 + (c - '0');
+        }
+
+        if (quantidade == IsCpfCnpj.TAMANHO_CPF) return Optional.of(new DocumentoPagador(numero, TipoDocumentoEnum.CPF));
+        if (quantidade == IsCpfCnpj.TAMANHO_CNPJ) return Optional.of(new DocumentoPagador(numero, TipoDocumentoEnum.CNPJ));
+        return Optional.empty();
+    }
+
+    /** Dígitos sem formatação, com os zeros à esquerda. */
+    public String digitos() {
+        return (tipo == TipoDocumentoEnum.CPF) ? String.format("%011d", numero) : String.format("%014d", numero);
+    }
+}
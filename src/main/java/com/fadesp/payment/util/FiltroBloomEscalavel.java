@@ -0,0 +1,154 @@
+package com.fadesp.payment.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom escalável para inteiros: responde "com certeza não contém" ou "talvez contenha", nunca dá falso
+ * negativo para um valor já adicionado.
+ * <p>
+ * Começa com uma camada dimensionada para {@code capacidadeInicial} valores; quando ela enche, abre outra com o dobro
+ * da capacidade e metade da taxa de falso positivo, de modo que a taxa composta nunca passa de {@code falsoPositivo}
+ * (Almeida et al., "Scalable Bloom Filters"). Não há remoção.
+ * <p>
+ * Seguro para uso concorrente: os bits são gravados com CAS e a lista de camadas é trocada inteira ao crescer.
+ * Uma consulta simultânea a {@link #adicionar} do mesmo valor pode ainda não enxergá-lo.
+ */
+public final class FiltroBloomEscalavel {
+
+    private static final double LN2 = Math.log(2);
+    private static final double RAZAO_APERTO = 0.5;
+    private static final int FATOR_CRESCIMENTO = 2;
+
+    private final double falsoPositivo;
+    private volatile Camada[] camadas;
+
+    public FiltroBloomEscalavel(long capacidadeInicial, double falsoPositivo) {
+        if (capacidadeInicial < 1) throw new IllegalArgumentException("Capacidade inicial deve ser positiva.");
+        if (falsoPositivo <= 0 || falsoPositivo >= 1) throw new IllegalArgumentException("Taxa de falso positivo deve estar entre 0 e 1.");
+        this.falsoPositivo = falsoPositivo;
+        // soma da série p0 * r^i fica abaixo de falsoPositivo
+        this.camadas = new Camada[]{new Camada(capacidadeInicial, falsoPositivo * (1 - RAZAO_APERTO))};
+    }
+
+    public boolean podeConter(int valor) {
+        long hash = misturar(valor);
+        for (Camada camada : camadas) {
+            if (camada.contem(hash)) return true;
+        }
+        return false;
+    }
+
+    /** @return {@code false} se o valor já podia estar no filtro (nada foi gravado) */
+    public boolean adicionar(int valor) {
+        long hash = misturar(valor);
+        Camada[] atuais = camadas;
+        for (Camada camada : atuais) {
+            if (camada.contem(hash)) return false;
+        }
+        Camada ultima = atuais[atuais.length - 1];
+        if (ultima.elementos.get() >= ultima.capacidade) {
+            ultima = crescer(ultima);
+        }
+        ultima.gravar(hash);
+        ultima.elementos.incrementAndGet();
+        return true;
+    }
+
+    private synchronized Camada crescer(Camada cheia) {
+        Camada[] atuais = camadas;
+        Camada ultima = atuais[atuais.length - 1];
+        if (ultima != cheia) {
+            return ultima; // outra thread já abriu a camada nova
+        }
+        Camada nova = new Camada(cheia.capacidade * FATOR_CRESCIMENTO, cheia.falsoPositivo * RAZAO_APERTO);
+        Camada[] proximas = new Camada[atuais.length + 1];
+        System.arraycopy(atuais, 0, proximas, 0, atuais.length);
+        proximas[atuais.length] = nova;
+        camadas = proximas;
+        return nova;
+    }
+
+    public long elementos() {
+        long total = 0;
+        for (Camada camada : camadas) total += camada.elementos.get();
+        return total;
+    }
+
+    public int quantidadeCamadas() {
+        return camadas.length;
+    }
+
+    /** Memória dos vetores de bits. */
+    public long bytes() {
+        long total = 0;
+        for (Camada camada : camadas) total += (long) camada.bits.length() * Long.BYTES;
+        return total;
+    }
+
+    /** Taxa de falso positivo configurada (limite superior). */
+    public double falsoPositivoAlvo() {
+        return falsoPositivo;
+    }
+
+    /** Taxa esperada com a ocupação atual: 1 - Π(1 - (1 - e^(-k·n/m))^k) sobre as camadas. */
+    public double falsoPositivoEstimado() {
+        double nenhum = 1.0;
+        for (Camada camada : camadas) {
+            double ocupacao = 1 - Math.exp(-(double) camada.hashes * camada.elementos.get() / camada.tamanhoBits);
+            nenhum *= 1 - Math.pow(ocupacao, camada.hashes);
+        }
+        return 1 - nenhum;
+    }
+
+    // fmix64 do MurmurHash3: espalha códigos sequenciais pelos 64 bits
+    private static long misturar(int valor) {
+        long h = valor;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    private static final class Camada {
+        final long capacidade;
+        final double falsoPositivo;
+        final long tamanhoBits;
+        final int hashes;
+        final AtomicLongArray bits;
+        final AtomicLong elementos = new AtomicLong();
+
+        Camada(long capacidade, double falsoPositivo) {
+            this.capacidade = capacidade;
+            this.falsoPositivo = falsoPositivo;
+            long palavras = (long) Math.ceil(-capacidade * Math.log(falsoPositivo) / (LN2 * LN2) / Long.SIZE);
+            if (palavras > Integer.MAX_VALUE) throw new IllegalStateException("Camada do filtro grande demais.");
+            this.tamanhoBits = Math.max(1, palavras) * Long.SIZE;
+            this.hashes = Math.max(1, (int) Math.round((double) tamanhoBits / capacidade * LN2));
+            this.bits = new AtomicLongArray((int) (tamanhoBits / Long.SIZE));
+        }
+
+        // double hashing (Kirsch-Mitzenmacher): posição i = h1 + i*h2
+        boolean contem(long hash) {
+            long h1 = hash;
+            long h2 = (hash >>> 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long posicao = Math.floorMod(h1 + i * h2, tamanhoBits);
+                if ((bits.get((int) (posicao >>> 6)) & (1L << posicao)) == 0) return false;
+            }
+            return true;
+        }
+
+        void gravar(long hash) {
+            long h1 = hash;
+            long h2 = (hash >>> 32) | 1;
+            for (int i = 0; i < hashes; i++) {
+                long posicao = Math.floorMod(h1 + i * h2, tamanhoBits);
+                long mascara = 1L << posicao;
+                bits.getAndUpdate((int) (posicao >>> 6), palavra -> palavra | mascara);
+            }
+        }
+    }
+}
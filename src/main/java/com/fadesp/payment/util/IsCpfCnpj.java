@@ -1,80 +1,90 @@
 package com.fadesp.payment.util;
 
-import java.util.regex.Pattern;
-
+/**
+ * Validação de CPF/CNPJ direto sobre a entrada, sem alocar: caracteres que não são dígitos (pontuação, espaços,
+ * qualquer outro) são ignorados durante a leitura e os dois dígitos verificadores de CPF e de CNPJ são somados
+ * numa única passada, com os pesos de cada posição pré-calculados.
+ */
 public class IsCpfCnpj {
-    private static final Pattern SOMENTE_DIGITOS = Pattern.compile("\\D+");
+
+    public static final int TAMANHO_CPF = 11;
+    public static final int TAMANHO_CNPJ = 14;
+
+    // peso de cada posição (0..13) em cada soma; zero onde a posição não participa
+    private static final int[] PESOS_CPF_DV1 = {10, 9, 8, 7, 6, 5, 4, 3, 2, 0, 0, 0, 0, 0};
+    private static final int[] PESOS_CPF_DV2 = {11, 10, 9, 8, 7, 6, 5, 4, 3, 2, 0, 0, 0, 0};
+    private static final int[] PESOS_CNPJ_DV1 = {5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2, 0, 0};
+    private static final int[] PESOS_CNPJ_DV2 = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2, 0};
 
     private IsCpfCnpj() {
         throw new UnsupportedOperationException("Classe utilitária - não deve ser instanciada.");
     }
 
-
-    private static String limpar(String valor) {
-        if (valor == null) return "";
-        return SOMENTE_DIGITOS.matcher(valor.trim()).replaceAll("");
+    public static boolean isCpfOrCnpj(CharSequence documento) {
+        return normalizar(documento, null) != 0;
     }
 
-
-    public static boolean isCpfOrCnpj(String documento) {
-        String numeros = limpar(documento);
-        if (numeros.length() == 11) {
-            return isCpf(numeros);
-        } else if (numeros.length() == 14) {
-            return isCnpj(numeros);
-        }
-        return false;
+    public static boolean isCpf(CharSequence cpf) {
+        return normalizar(cpf, null) == TAMANHO_CPF;
     }
 
-    public static boolean isCpf(String cpf) {
-        String numeros = limpar(cpf);
-        if (numeros.length() != 11 || todosDigitosIguais(numeros)) return false;
-
-        int digito1 = calcularDigitoCpf(numeros, 10);
-        int digito2 = calcularDigitoCpf(numeros, 11);
-        return digito1 == (numeros.charAt(9) - '0') && digito2 == (numeros.charAt(10) - '0');
+    public static boolean isCnpj(CharSequence cnpj) {
+        return normalizar(cnpj, null) == TAMANHO_CNPJ;
     }
 
-    private static int calcularDigitoCpf(String numeros, int pesoInicial) {
-        int soma = 0;
-        for (int i = 0; i < pesoInicial - 1; i++) {
-            soma += (numeros.charAt(i) - '0') * (pesoInicial - i);
+    /**
+     * Valida o documento e, se {@code destino} não for nulo, copia para ele os dígitos (sem formatação).
+     *
+     * @param destino buffer do chamador com pelo menos {@value #TAMANHO_CNPJ} posições, ou {@code null}
+     * @return {@value #TAMANHO_CPF} para CPF válido, {@value #TAMANHO_CNPJ} para CNPJ válido, 0 se inválido
+     *         (o conteúdo de {@code destino} não tem significado nesse caso)
+     */
+    public static int normalizar(CharSequence documento, char[] destino) {
+        if (destino != null && destino.length < TAMANHO_CNPJ) {
+            throw new IllegalArgumentException("O buffer deve ter ao menos " + TAMANHO_CNPJ + " posições.");
+        }
+        if (documento == null) return 0;
+
+        int quantidade = 0;
+        int somaCpf1 = 0, somaCpf2 = 0, somaCnpj1 = 0, somaCnpj2 = 0;
+        int penultimo = 0, ultimo = 0;
+        char primeiro = 0;
+        boolean todosIguais = true;
+
+        for (int i = 0, tamanho = documento.length(); i < tamanho; i++) {
+            char c = documento.charAt(i);
+            if (c < '0' || c > '9') continue;
+            if (quantidade == TAMANHO_CNPJ) return 0; // dígitos demais
+
+            int d = c - '0';
+            if (quantidade == 0) {
+                primeiro = c;
+            } else if (c != primeiro) {
+                todosIguais = false;
+            }
+            somaCpf1 += d * PESOS_CPF_DV1[quantidade];
+            somaCpf2 += d * PESOS_CPF_DV2[quantidade];
+            somaCnpj1 += d * PESOS_CNPJ_DV1[quantidade];
+            somaCnpj2 += d * PESOS_CNPJ_DV2[quantidade];
+            if (destino != null) destino[quantidade] = c;
+
+            penultimo = ultimo;
+            ultimo = d;
+            quantidade++;
         }
-        int resto = soma % 11;
-        return (resto < 2) ? 0 : 11 - resto;
-    }
-
-    public static boolean isCnpj(String cnpj) {
-        String numeros = limpar(cnpj);
-        if (numeros.length() != 14 || todosDigitosIguais(numeros)) return false;
-
-        int digito1 = calcularDigitoCnpj(numeros, 12);
-        int digito2 = calcularDigitoCnpj(numeros, 13);
-        return digito1 == (numeros.charAt(12) - '0') && digito2 == (numeros.charAt(13) - '0');
-    }
-
-    private static int calcularDigitoCnpj(String numeros, int posicaoFinal) {
-        int soma = 0;
-        int peso = (posicaoFinal == 12) ? 5 : 6;
 
-        for (int i = 0; i < posicaoFinal; i++) {
-            soma += (numeros.charAt(i) - '0') * peso;
-            peso = (peso == 2) ? 9 : peso - 1;
+        if (todosIguais) return 0;
+        if (quantidade == TAMANHO_CPF) {
+            return (digitoVerificador(somaCpf1) == penultimo && digitoVerificador(somaCpf2) == ultimo) ? TAMANHO_CPF : 0;
+        }
+        if (quantidade == TAMANHO_CNPJ) {
+            return (digitoVerificador(somaCnpj1) == penultimo && digitoVerificador(somaCnpj2) == ultimo) ? TAMANHO_CNPJ : 0;
         }
+        return 0;
+    }
 
+    private static int digitoVerificador(int soma) {
         int resto = soma % 11;
         return (resto < 2) ? 0 : 11 - resto;
     }
-
-
-    private static boolean todosDigitosIguais(String valor) {
-        char primeiro = valor.charAt(0);
-        for (int i = 1; i < valor.length(); i++) {
-            if (valor.charAt(i) != primeiro) {
-                return false;
-            }
-        }
-        return true;
-    }
 }
-
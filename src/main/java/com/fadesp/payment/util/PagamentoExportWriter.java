@@ -0,0 +1,119 @@
+package com.fadesp.payment.util;
+
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.enums.FormatoExportacaoEnum;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escreve pagamentos linha a linha (NDJSON ou CSV) direto no stream da resposta, sem materializar a lista.
+ * Descarrega após a primeira linha, para o primeiro byte sair logo, e depois a cada {@value #FLUSH_A_CADA} linhas.
+ */
+public final class PagamentoExportWriter implements Closeable {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final int FLUSH_A_CADA = 256;
+    private static final String CABECALHO_CSV =
+            "id,codigoDebito,cpfCnpjPagador,metodoPagamento,numeroCartao,valorPagamento,status,ativo\n";
+
+    private final FormatoExportacaoEnum formato;
+    private final Writer writer;
+    private final JsonGenerator json;
+    private long linhas;
+
+    private PagamentoExportWriter(FormatoExportacaoEnum formato, OutputStream saida) throws IOException {
+        this.formato = formato;
+        this.writer = new OutputStreamWriter(saida, StandardCharsets.UTF_8);
+        // sem separador entre valores raiz: o padrão (" ") abriria cada linha depois da primeira com um espaço
+        this.json = (formato == FormatoExportacaoEnum.NDJSON)
+                ? JSON_FACTORY.createGenerator(writer).setRootValueSeparator(null)
+                : null;
+        if (formato == FormatoExportacaoEnum.CSV) {
+            writer.write(CABECALHO_CSV);
+        }
+    }
+
+    public static PagamentoExportWriter de(FormatoExportacaoEnum formato, OutputStream saida) throws IOException {
+        return new PagamentoExportWriter(formato, saida);
+    }
+
+    public void escrever(PagamentoRespostaDTO pagamento) {
+        try {
+            if (formato == FormatoExportacaoEnum.NDJSON) {
+                escreverJson(pagamento);
+            } else {
+                escreverCsv(pagamento);
+            }
+            if (++linhas == 1 || linhas % FLUSH_A_CADA == 0) {
+                flush();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void escreverJson(PagamentoRespostaDTO p) throws IOException {
+        json.writeStartObject();
+        json.writeNumberField("id", p.id());
+        json.writeNumberField("codigoDebito", p.codigoDebito());
+        json.writeStringField("cpfCnpjPagador", p.cpfCnpjPagador());
+        json.writeStringField("metodoPagamento", p.metodoPagamento().name());
+        json.writeStringField("numeroCartao", p.numeroCartao());
+        json.writeNumberField("valorPagamento", p.valorPagamento());
+        json.writeStringField("status", p.status().name());
+        json.writeBooleanField("ativo", p.ativo());
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private void escreverCsv(PagamentoRespostaDTO p) throws IOException {
+        writer.write(String.valueOf(p.id()));
+        writer.write(',');
+        writer.write(String.valueOf(p.codigoDebito()));
+        writer.write(',');
+        writer.write(csv(p.cpfCnpjPagador()));
+        writer.write(',');
+        writer.write(p.metodoPagamento().name());
+        writer.write(',');
+        writer.write(csv(p.numeroCartao()));
+        writer.write(',');
+        writer.write(p.valorPagamento().toPlainString());
+        writer.write(',');
+        writer.write(p.status().name());
+        writer.write(',');
+        writer.write(String.valueOf(p.ativo()));
+        writer.write('\n');
+    }
+
+    private static String csv(String valor) {
+        if (valor == null) return "";
+        if (valor.indexOf(',') < 0 && valor.indexOf('"') < 0 && valor.indexOf('\n') < 0 && valor.indexOf('\r') < 0) {
+            return valor;
+        }
+        return '"' + valor.replace("\"", "\"\"") + '"';
+    }
+
+    private void flush() throws IOException {
+        if (json != null) {
+            json.flush();
+        } else {
+            writer.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.close();
+        }
+        writer.close();
+    }
+}
@@ -1,11 +0,0 @@
--- H2 e MySQL: SEM a coluna id
-INSERT INTO pagamento
-  (codigo_debito, cpf_cnpj_pagador, metodo_pagamento, numero_cartao, valor_pagamento, status, ativo)
-VALUES
-  (213261, '61563213565', 'BOLETO',        NULL, 2363.66, 'PENDENTE_PROCESSAMENTO', TRUE),
-  (231233, '61563213565', 'BOLETO',        NULL, 6313.53, 'PROCESSADO_FALHA',        TRUE),
-  (424522, '61563213565', 'CARTAO_DEBITO', '6321',33123.21,'PENDENTE_PROCESSAMENTO', TRUE),
-  (327722, '76910197003', 'PIX',           NULL, 96532.23, 'PROCESSADO_SUCESSO',     TRUE),
-  (245434, '76910197003', 'BOLETO',        NULL, 63232.45, 'PROCESSADO_SUCESSO',     TRUE),
-  (772753, '20387642048','CARTAO_DEBITO',  '1236',1235.22, 'PROCESSADO_FALHA',       TRUE),
-  (753737, '20387642048','CARTAO_CREDITO', '1236', 123.52, 'PENDENTE_PROCESSAMENTO', TRUE);
@@ -0,0 +1,17 @@
+-- Massa de exemplo do ambiente local (H2), aplicada pelo Flyway depois das migrações de db/migration/h2.
+-- Fora do profile padrão (ex.: mysql) esta pasta não entra em spring.flyway.locations.
+-- H2: ids explícitos; a sequence pagamento_seq é reposicionada logo após a massa
+-- linhas no formato antigo (sem documento_pagador/tipo_documento, documento como o cliente enviou):
+-- a chave numérica é preenchida pelo DocumentoPagadorBackfill na subida
+INSERT INTO pagamento
+  (id, codigo_debito, cpf_cnpj_pagador, metodo_pagamento, numero_cartao, valor_pagamento, status, ativo, criado_em, atualizado_em, versao)
+VALUES
+  (1, 213261, '61563213565', 'BOLETO',        NULL, 2363.66, 'PENDENTE_PROCESSAMENTO', TRUE, '2025-01-10 09:00:00+00', '2025-01-10 09:00:00+00', 0),
+  (2, 231233, '615.632.135-65', 'BOLETO',     NULL, 6313.53, 'PROCESSADO_FALHA',        TRUE, '2025-01-12 14:30:00+00', '2025-01-12 14:30:00+00', 0),
+  (3, 424522, '61563213565', 'CARTAO_DEBITO', '6321',33123.21,'PENDENTE_PROCESSAMENTO', TRUE, '2025-01-15 08:15:00+00', '2025-01-15 08:15:00+00', 0),
+  (4, 327722, '76910197003', 'PIX',           NULL, 96532.23, 'PROCESSADO_SUCESSO',     TRUE, '2025-02-01 11:00:00+00', '2025-02-01 11:00:00+00', 0),
+  (5, 245434, '76910197003', 'BOLETO',        NULL, 63232.45, 'PROCESSADO_SUCESSO',     TRUE, '2025-02-03 16:45:00+00', '2025-02-03 16:45:00+00', 0),
+  (6, 772753, '20387642048','CARTAO_DEBITO',  '1236',1235.22, 'PROCESSADO_FALHA',       TRUE, '2025-02-10 10:20:00+00', '2025-02-10 10:20:00+00', 0),
+  (7, 753737, '20387642048','CARTAO_CREDITO', '1236', 123.52, 'PENDENTE_PROCESSAMENTO', TRUE, '2025-03-01 12:00:00+00', '2025-03-01 12:00:00+00', 0);
+
+ALTER SEQUENCE pagamento_seq RESTART WITH 8;
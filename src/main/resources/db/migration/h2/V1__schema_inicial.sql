@@ -0,0 +1,50 @@
+-- Schema inicial (H2). Mantenha igual ao mapeamento JPA: a aplicação sobe com ddl-auto=validate.
+-- O equivalente para MySQL fica em db/migration/mysql.
+
+-- ids em blocos de 50 (optimizer pooled-lo): permite batch de INSERTs pelo Hibernate
+CREATE SEQUENCE pagamento_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE evento_pagamento_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE pagamento (
+    id                BIGINT         NOT NULL,
+    codigo_debito     INTEGER        NOT NULL,
+    cpf_cnpj_pagador  VARCHAR(14)    NOT NULL,
+    documento_pagador BIGINT,
+    tipo_documento    ENUM ('CNPJ','CPF'),
+    metodo_pagamento  ENUM ('BOLETO','CARTAO_CREDITO','CARTAO_DEBITO','PIX') NOT NULL,
+    numero_cartao     VARCHAR(20),
+    valor_pagamento   NUMERIC(17,2)  NOT NULL,
+    status            ENUM ('PENDENTE_PROCESSAMENTO','PROCESSADO_FALHA','PROCESSADO_SUCESSO') NOT NULL,
+    ativo             BOOLEAN        NOT NULL,
+    criado_em         TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    versao            BIGINT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_pagamento_codigo_debito UNIQUE (codigo_debito)
+);
+
+CREATE INDEX idx_pagamento_pagador_status ON pagamento (documento_pagador, tipo_documento, status, ativo, id);
+CREATE INDEX idx_pagamento_status_id ON pagamento (status, ativo, id);
+CREATE INDEX idx_pagamento_status_criado ON pagamento (status, ativo, criado_em);
+
+CREATE TABLE idempotencia (
+    chave           VARCHAR(100) NOT NULL,
+    hash_requisicao VARCHAR(64)  NOT NULL,
+    pagamento_id    BIGINT       NOT NULL,
+    status_http     INTEGER      NOT NULL,
+    criado_em       TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    PRIMARY KEY (chave)
+);
+
+CREATE INDEX idx_idempotencia_criado_em ON idempotencia (criado_em);
+
+CREATE TABLE evento_pagamento (
+    id           BIGINT        NOT NULL,
+    pagamento_id BIGINT        NOT NULL,
+    tipo         ENUM ('CRIADO','EXCLUIDO','STATUS_ALTERADO') NOT NULL,
+    payload      VARCHAR(2000) NOT NULL,
+    criado_em    TIMESTAMP(6) WITH TIME ZONE NOT NULL,
+    publicado_em TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_evento_pagamento_publicado ON evento_pagamento (publicado_em, id);
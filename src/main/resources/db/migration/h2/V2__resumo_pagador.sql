@@ -0,0 +1,20 @@
+-- Resumo por pagador (GET /pagadores/{cpfCnpj}/resumo): quantidade e soma de valor_pagamento dos pagamentos ativos
+-- por status e método, mantidos pelas escritas na mesma transação (ResumoPagadorService).
+-- O equivalente para MySQL fica em db/migration/mysql.
+
+CREATE TABLE resumo_pagador (
+    documento_pagador BIGINT        NOT NULL,
+    tipo_documento    ENUM ('CNPJ','CPF') NOT NULL,
+    status            ENUM ('PENDENTE_PROCESSAMENTO','PROCESSADO_FALHA','PROCESSADO_SUCESSO') NOT NULL,
+    metodo_pagamento  ENUM ('BOLETO','CARTAO_CREDITO','CARTAO_DEBITO','PIX') NOT NULL,
+    quantidade        BIGINT        NOT NULL,
+    valor_total       NUMERIC(19,2) NOT NULL,
+    PRIMARY KEY (documento_pagador, tipo_documento, status, metodo_pagamento)
+);
+
+-- linhas ainda sem documento_pagador entram quando o DocumentoPagadorBackfill as preenche
+INSERT INTO resumo_pagador (documento_pagador, tipo_documento, status, metodo_pagamento, quantidade, valor_total)
+SELECT documento_pagador, tipo_documento, status, metodo_pagamento, COUNT(*), SUM(valor_pagamento)
+FROM pagamento
+WHERE ativo = TRUE AND documento_pagador IS NOT NULL
+GROUP BY documento_pagador, tipo_documento, status, metodo_pagamento;
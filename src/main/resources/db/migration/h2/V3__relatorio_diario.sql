@@ -0,0 +1,31 @@
+-- Relatório por período (GET /relatorios/pagamentos): data da última alteração do pagamento, índices das agregações
+-- e o resumo diário dos dias já fechados, mantido pelo RelatorioPagamentoService.
+-- O equivalente para MySQL fica em db/migration/mysql.
+
+ALTER TABLE pagamento ADD COLUMN atualizado_em TIMESTAMP(6) WITH TIME ZONE;
+UPDATE pagamento SET atualizado_em = criado_em;
+ALTER TABLE pagamento ALTER COLUMN atualizado_em SET NOT NULL;
+
+-- agregação por intervalo de criação sem ler a tabela (cobre as colunas do GROUP BY e da soma)
+CREATE INDEX idx_pagamento_criado ON pagamento (criado_em, ativo, metodo_pagamento, status, valor_pagamento);
+-- dias alterados desde a última consolidação
+CREATE INDEX idx_pagamento_atualizado ON pagamento (atualizado_em, criado_em);
+
+CREATE TABLE relatorio_diario (
+    dia              DATE          NOT NULL,
+    metodo_pagamento ENUM ('BOLETO','CARTAO_CREDITO','CARTAO_DEBITO','PIX') NOT NULL,
+    status           ENUM ('PENDENTE_PROCESSAMENTO','PROCESSADO_FALHA','PROCESSADO_SUCESSO') NOT NULL,
+    quantidade       BIGINT        NOT NULL,
+    valor_total      NUMERIC(19,2) NOT NULL,
+    PRIMARY KEY (dia, metodo_pagamento, status)
+);
+
+-- uma linha: dias anteriores a consolidado_ate estão em relatorio_diario com as alterações até alteracoes_ate
+CREATE TABLE relatorio_diario_controle (
+    id              INTEGER NOT NULL,
+    consolidado_ate DATE,
+    alteracoes_ate  TIMESTAMP(6) WITH TIME ZONE,
+    PRIMARY KEY (id)
+);
+
+INSERT INTO relatorio_diario_controle (id) VALUES (1);
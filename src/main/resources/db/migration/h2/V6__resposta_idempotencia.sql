@@ -0,0 +1,5 @@
+-- Corpo da resposta original (PagamentoRespostaDTO em JSON) de cada Idempotency-Key: a repetição devolve exatamente
+-- o que o primeiro POST devolveu, mesmo que o pagamento tenha mudado depois. Nulo nas chaves gravadas antes desta versão.
+-- O equivalente para MySQL fica em db/migration/mysql.
+
+ALTER TABLE idempotencia ADD COLUMN resposta VARCHAR(2000);
@@ -0,0 +1,7 @@
+-- Controle do processamento interno (ProcessamentoPagamentoService): tentativas feitas e a partir de quando a linha pode
+-- ser reservada de novo. A reserva grava o prazo e faz commit antes de chamar o processador; um erro adia a próxima
+-- tentativa (espera dobrando a cada vez) e, esgotadas as tentativas, o pagamento vai para PROCESSADO_FALHA.
+-- O equivalente para MySQL fica em db/migration/mysql.
+
+ALTER TABLE pagamento ADD COLUMN processamento_tentativas INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE pagamento ADD COLUMN processamento_proxima TIMESTAMP(6) WITH TIME ZONE;
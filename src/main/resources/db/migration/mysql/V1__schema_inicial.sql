@@ -0,0 +1,59 @@
+-- Schema inicial (MySQL 8, InnoDB). Mantenha igual ao mapeamento JPA: a aplicação sobe com ddl-auto=validate.
+-- O equivalente para H2 fica em db/migration/h2.
+
+CREATE TABLE pagamento (
+    id                BIGINT         NOT NULL,
+    codigo_debito     INTEGER        NOT NULL,
+    cpf_cnpj_pagador  VARCHAR(14)    NOT NULL,
+    documento_pagador BIGINT,
+    tipo_documento    ENUM ('CNPJ','CPF'),
+    metodo_pagamento  ENUM ('BOLETO','CARTAO_CREDITO','CARTAO_DEBITO','PIX') NOT NULL,
+    numero_cartao     VARCHAR(20),
+    valor_pagamento   DECIMAL(17,2)  NOT NULL,
+    status            ENUM ('PENDENTE_PROCESSAMENTO','PROCESSADO_FALHA','PROCESSADO_SUCESSO') NOT NULL,
+    ativo             BIT            NOT NULL,
+    criado_em         DATETIME(6)    NOT NULL,
+    versao            BIGINT         NOT NULL,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_pagamento_codigo_debito UNIQUE (codigo_debito)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX idx_pagamento_pagador_status ON pagamento (documento_pagador, tipo_documento, status, ativo, id);
+CREATE INDEX idx_pagamento_status_id ON pagamento (status, ativo, id);
+CREATE INDEX idx_pagamento_status_criado ON pagamento (status, ativo, criado_em);
+
+-- MySQL não tem sequence: o Hibernate a emula com uma tabela de uma linha (ids em blocos de 50, pooled-lo)
+CREATE TABLE pagamento_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO pagamento_seq VALUES (1);
+
+CREATE TABLE idempotencia (
+    chave           VARCHAR(100) NOT NULL,
+    hash_requisicao VARCHAR(64)  NOT NULL,
+    pagamento_id    BIGINT       NOT NULL,
+    status_http     INTEGER      NOT NULL,
+    criado_em       DATETIME(6)  NOT NULL,
+    PRIMARY KEY (chave)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX idx_idempotencia_criado_em ON idempotencia (criado_em);
+
+CREATE TABLE evento_pagamento (
+    id           BIGINT        NOT NULL,
+    pagamento_id BIGINT        NOT NULL,
+    tipo         ENUM ('CRIADO','EXCLUIDO','STATUS_ALTERADO') NOT NULL,
+    payload      VARCHAR(2000) NOT NULL,
+    criado_em    DATETIME(6)   NOT NULL,
+    publicado_em DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+CREATE INDEX idx_evento_pagamento_publicado ON evento_pagamento (publicado_em, id);
+
+CREATE TABLE evento_pagamento_seq (
+    next_val BIGINT
+) ENGINE=InnoDB;
+
+INSERT INTO evento_pagamento_seq VALUES (1);
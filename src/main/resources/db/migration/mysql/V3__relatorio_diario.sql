@@ -0,0 +1,31 @@
+-- Relatório por período (GET /relatorios/pagamentos): data da última alteração do pagamento, índices das agregações
+-- e o resumo diário dos dias já fechados, mantido pelo RelatorioPagamentoService.
+-- O equivalente para H2 fica em db/migration/h2.
+
+ALTER TABLE pagamento ADD COLUMN atualizado_em DATETIME(6) NULL;
+UPDATE pagamento SET atualizado_em = criado_em;
+ALTER TABLE pagamento MODIFY COLUMN atualizado_em DATETIME(6) NOT NULL;
+
+-- agregação por intervalo de criação sem ler a tabela (cobre as colunas do GROUP BY e da soma)
+CREATE INDEX idx_pagamento_criado ON pagamento (criado_em, ativo, metodo_pagamento, status, valor_pagamento);
+-- dias alterados desde a última consolidação
+CREATE INDEX idx_pagamento_atualizado ON pagamento (atualizado_em, criado_em);
+
+CREATE TABLE relatorio_diario (
+    dia              DATE          NOT NULL,
+    metodo_pagamento ENUM ('BOLETO','CARTAO_CREDITO','CARTAO_DEBITO','PIX') NOT NULL,
+    status           ENUM ('PENDENTE_PROCESSAMENTO','PROCESSADO_FALHA','PROCESSADO_SUCESSO') NOT NULL,
+    quantidade       BIGINT        NOT NULL,
+    valor_total      DECIMAL(19,2) NOT NULL,
+    PRIMARY KEY (dia, metodo_pagamento, status)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- uma linha: dias anteriores a consolidado_ate estão em relatorio_diario com as alterações até alteracoes_ate
+CREATE TABLE relatorio_diario_controle (
+    id              INT         NOT NULL,
+    consolidado_ate DATE,
+    alteracoes_ate  DATETIME(6),
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT INTO relatorio_diario_controle (id) VALUES (1);
@@ -0,0 +1,29 @@
+-- Arquivo de pagamentos encerrados (ArquivamentoPagamentoService): as linhas PROCESSADO_SUCESSO e as inativas saem da
+-- tabela pagamento depois de uma idade configurável e vêm para cá com as mesmas colunas, mais a data do arquivamento.
+-- O equivalente para H2 fica em db/migration/h2.
+
+CREATE TABLE pagamento_arquivo (
+    id                BIGINT         NOT NULL,
+    codigo_debito     INTEGER        NOT NULL,
+    cpf_cnpj_pagador  VARCHAR(14)    NOT NULL,
+    documento_pagador BIGINT         NOT NULL,
+    tipo_documento    ENUM ('CNPJ','CPF') NOT NULL,
+    metodo_pagamento  ENUM ('BOLETO','CARTAO_CREDITO','CARTAO_DEBITO','PIX') NOT NULL,
+    numero_cartao     VARCHAR(20),
+    valor_pagamento   DECIMAL(17,2)  NOT NULL,
+    status            ENUM ('PENDENTE_PROCESSAMENTO','PROCESSADO_FALHA','PROCESSADO_SUCESSO') NOT NULL,
+    ativo             BIT            NOT NULL,
+    criado_em         DATETIME(6)    NOT NULL,
+    atualizado_em     DATETIME(6)    NOT NULL,
+    versao            BIGINT         NOT NULL,
+    arquivado_em      DATETIME(6)    NOT NULL,
+    PRIMARY KEY (id),
+    -- a unicidade entre as duas tabelas é checada pela aplicação depois do INSERT (ver PagamentoService.realizar)
+    CONSTRAINT uk_pagamento_arquivo_codigo_debito UNIQUE (codigo_debito)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- mesmos formatos de consulta da tabela quente: pagador, status paginado por id e agregação por criação
+CREATE INDEX idx_pagamento_arquivo_pagador ON pagamento_arquivo (documento_pagador, tipo_documento, status, ativo, id);
+CREATE INDEX idx_pagamento_arquivo_status_id ON pagamento_arquivo (status, ativo, id);
+CREATE INDEX idx_pagamento_arquivo_criado
+    ON pagamento_arquivo (criado_em, ativo, metodo_pagamento, status, valor_pagamento);
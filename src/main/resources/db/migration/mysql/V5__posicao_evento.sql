@@ -0,0 +1,18 @@
+-- Posição de publicação dos eventos do outbox (RelayEventosPagamento): cresce na ordem em que os eventos são
+-- publicados, o que o id não garante (blocos de sequence por nó, commits fora de ordem). A retomada do SSE usa a posição.
+-- O equivalente para H2 fica em db/migration/h2.
+
+ALTER TABLE evento_pagamento ADD COLUMN posicao_publicacao BIGINT;
+-- os já publicados mantêm a ordem em que eram retomados até aqui
+UPDATE evento_pagamento SET posicao_publicacao = id WHERE publicado_em IS NOT NULL;
+CREATE UNIQUE INDEX uk_evento_pagamento_posicao ON evento_pagamento (posicao_publicacao);
+
+-- uma linha: última posição atribuída; o relay a trava durante a rodada (uma publicação por vez, entre todos os nós)
+CREATE TABLE evento_pagamento_controle (
+    id             INTEGER NOT NULL,
+    ultima_posicao BIGINT  NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+INSERT INTO evento_pagamento_controle (id, ultima_posicao)
+SELECT 1, COALESCE(MAX(posicao_publicacao), 0) FROM evento_pagamento;
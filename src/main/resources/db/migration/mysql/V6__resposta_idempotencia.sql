@@ -0,0 +1,5 @@
+-- Corpo da resposta original (PagamentoRespostaDTO em JSON) de cada Idempotency-Key: a repetição devolve exatamente
+-- o que o primeiro POST devolveu, mesmo que o pagamento tenha mudado depois. Nulo nas chaves gravadas antes desta versão.
+-- O equivalente para H2 fica em db/migration/h2.
+
+ALTER TABLE idempotencia ADD COLUMN resposta VARCHAR(2000);
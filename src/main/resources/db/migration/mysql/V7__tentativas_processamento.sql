@@ -0,0 +1,7 @@
+-- Controle do processamento interno (ProcessamentoPagamentoService): tentativas feitas e a partir de quando a linha pode
+-- ser reservada de novo. A reserva grava o prazo e faz commit antes de chamar o processador; um erro adia a próxima
+-- tentativa (espera dobrando a cada vez) e, esgotadas as tentativas, o pagamento vai para PROCESSADO_FALHA.
+-- O equivalente para H2 fica em db/migration/h2.
+
+ALTER TABLE pagamento ADD COLUMN processamento_tentativas INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE pagamento ADD COLUMN processamento_proxima DATETIME(6);
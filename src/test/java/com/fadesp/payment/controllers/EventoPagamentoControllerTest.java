@@ -0,0 +1,134 @@
+package com.fadesp.payment.controllers;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.services.PagamentoLoteService;
+import com.fadesp.payment.services.PagamentoService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// sem @Transactional: os observadores só são avisados depois do commit; mesmo contexto do OutboxPagamentoTest
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "pagamento.outbox.habilitado=false",
+        "pagamento.outbox.arquivo=target/outbox-test.ndjson"
+})
+@AutoConfigureMockMvc
+class EventoPagamentoControllerTest {
+
+    private static final AtomicInteger CODIGOS = new AtomicInteger(8_500_000);
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    PagamentoService pagamentoService;
+
+    @Autowired
+    PagamentoLoteService pagamentoLoteService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("GET /pagamentos/{id}/aguardar: responde quando o status muda, sem consultar o banco enquanto espera")
+    void long_poll_responde_na_mudanca() throws Exception {
+        Long id = novoPagamento();
+
+        MvcResult espera = mvc.perform(get("/pagamentos/{id}/aguardar", id))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(observadores()).isGreaterThanOrEqualTo(1.0);
+
+        pagamentoService.atualizar(new AtualizarPagamentoDTO(id, StatusPagamentoEnum.PROCESSADO_FALHA));
+
+        mvc.perform(asyncDispatch(espera))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.status").value("PROCESSADO_FALHA"))
+                .andExpect(jsonPath("$.versao").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /pagamentos/{id}/aguardar?versao=N: mudança feita pelo lote também acorda o long-poll")
+    void long_poll_por_versao_e_lote() throws Exception {
+        Long id = novoPagamento();
+
+        MvcResult espera = mvc.perform(get("/pagamentos/{id}/aguardar", id).param("versao", "0"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        pagamentoLoteService.atualizarStatusLote(List.of(new AtualizarPagamentoDTO(id, StatusPagamentoEnum.PROCESSADO_SUCESSO)));
+
+        mvc.perform(asyncDispatch(espera))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PROCESSADO_SUCESSO"));
+    }
+
+    @Test
+    @DisplayName("GET /pagamentos/{id}/aguardar: pagamento já processado responde na hora")
+    void long_poll_ja_processado() throws Exception {
+        // id 4 de data.sql: PROCESSADO_SUCESSO
+        MvcResult espera = mvc.perform(get("/pagamentos/{id}/aguardar", 4))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mvc.perform(asyncDispatch(espera))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("PROCESSADO_SUCESSO"));
+    }
+
+    @Test
+    @DisplayName("GET /pagamentos/{id}/eventos: estado atual, cada mudança e fim do stream no estado final")
+    void sse_do_pagamento() throws Exception {
+        Long id = novoPagamento();
+
+        MvcResult sse = mvc.perform(get("/pagamentos/{id}/eventos", id))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        pagamentoService.atualizar(new AtualizarPagamentoDTO(id, StatusPagamentoEnum.PROCESSADO_FALHA));
+        pagamentoService.atualizar(new AtualizarPagamentoDTO(id, StatusPagamentoEnum.PENDENTE_PROCESSAMENTO));
+        pagamentoService.atualizar(new AtualizarPagamentoDTO(id, StatusPagamentoEnum.PROCESSADO_SUCESSO));
+
+        String corpo = sse.getResponse().getContentAsString();
+        assertThat(corpo).contains("id:0", "id:1", "id:2", "id:3", "event:status");
+        assertThat(corpo.indexOf("PROCESSADO_FALHA")).isLessThan(corpo.indexOf("PROCESSADO_SUCESSO"));
+        assertThat(corpo.indexOf("\"versao\":3")).isGreaterThan(0);
+    }
+
+    @Test
+    @DisplayName("GET /pagamentos/{id}/eventos e /aguardar: id inexistente => 404")
+    void inexistente() throws Exception {
+        mvc.perform(get("/pagamentos/{id}/aguardar", 999_999_999L)).andExpect(status().isNotFound());
+        mvc.perform(get("/pagamentos/{id}/eventos", 999_999_999L)).andExpect(status().isNotFound());
+    }
+
+    // -------------------------------------------------------------------------
+    private Long novoPagamento() {
+        return pagamentoService.realizar(new PagamentoDTO(CODIGOS.incrementAndGet(), "52998224725",
+                MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null)).getId();
+    }
+
+    private double observadores() {
+        return meterRegistry.get("pagamento.observadores").gauge().value();
+    }
+}
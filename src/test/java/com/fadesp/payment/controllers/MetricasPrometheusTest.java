@@ -0,0 +1,72 @@
+package com.fadesp.payment.controllers;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// sem @Transactional: timers e contadores de escrita só fecham depois do commit;
+// @AutoConfigureObservability religa o registry do Prometheus, que o Spring Boot desliga nos testes
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:metricas;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+class MetricasPrometheusTest {
+
+    private static final String CORPO = """
+            {"codigoDebito": 9100001, "cpfCnpjPagador": "52998224725", "metodoPagamento": "PIX", "valorPagamento": 10.00}
+            """;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Test
+    @DisplayName("GET /actuator/prometheus: timers com histograma, contadores por método/transição/rejeição e linhas por filtro")
+    void expoe_metricas_de_pagamento() throws Exception {
+        mvc.perform(post("/pagamentos").contentType(MediaType.APPLICATION_JSON).content(CORPO))
+                .andExpect(status().isCreated());
+        mvc.perform(post("/pagamentos").contentType(MediaType.APPLICATION_JSON).content(CORPO))
+                .andExpect(status().isBadRequest());
+        mvc.perform(put("/pagamentos/1/status").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"id\": 1, \"status\": \"PROCESSADO_FALHA\"}"))
+                .andExpect(status().isOk());
+        mvc.perform(get("/pagamentos").param("status", "PENDENTE_PROCESSAMENTO")).andExpect(status().isOk());
+        mvc.perform(get("/pagamentos/2")).andExpect(status().isOk());
+
+        List<String> linhas = Arrays.asList(mvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString().split("\n"));
+
+        assertThat(linha(linhas, "pagamento_operacao_seconds_bucket{", "operacao=\"realizar\"", "resultado=\"sucesso\"", "le=\"0.1\"")).isNotNull();
+        assertThat(linha(linhas, "pagamento_operacao_seconds_count{", "operacao=\"realizar\"", "resultado=\"EntityExistsException\"")).isNotNull();
+        assertThat(linha(linhas, "pagamento_operacao_seconds_count{", "operacao=\"buscar_por_id\"")).isNotNull();
+        assertThat(linha(linhas, "pagamento_criados_total{", "metodo=\"PIX\"")).endsWith(" 1.0");
+        assertThat(linha(linhas, "pagamento_transicoes_total{", "de=\"PENDENTE_PROCESSAMENTO\"", "para=\"PROCESSADO_FALHA\"")).endsWith(" 1.0");
+        assertThat(linha(linhas, "pagamento_rejeicoes_total{", "excecao=\"EntityExistsException\"")).endsWith(" 1.0");
+        assertThat(linha(linhas, "pagamento_listagem_seconds_count{", "filtro=\"status\"", "modo=\"completa\"")).isNotNull();
+        assertThat(linha(linhas, "pagamento_listagem_linhas_bucket{", "filtro=\"status\"", "le=\"10.0\"")).isNotNull();
+    }
+
+    private static String linha(List<String> linhas, String prefixo, String... rotulos) {
+        return linhas.stream()
+                .filter(l -> l.startsWith(prefixo))
+                .filter(l -> Arrays.stream(rotulos).allMatch(l::contains))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("Série não encontrada: " + prefixo + String.join(",", rotulos)));
+    }
+}
@@ -0,0 +1,384 @@
+package com.fadesp.payment.controllers;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// integração sobre o H2 em memória, com a massa de data.sql (ids 1..7, todos ativos)
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class PagamentoControllerTest {
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Nested
+    class PaginacaoPorCursor {
+
+        @Test
+        @DisplayName("GET /pagamentos?limit=N: percorre todas as páginas seguindo o cursor/next")
+        void percorre_paginas() throws Exception {
+            List<Long> ids = new ArrayList<>();
+            String url = "/pagamentos?limit=3";
+            int paginas = 0;
+
+            while (url != null) {
+                MvcResult resultado = mvc.perform(get(url))
+                        .andExpect(status().isOk())
+                        .andReturn();
+                JsonNode corpo = objectMapper.readTree(resultado.getResponse().getContentAsString());
+                corpo.get("itens").forEach(item -> ids.add(item.get("id").asLong()));
+
+                JsonNode proxima = corpo.get("proximaPagina");
+                url = proxima.isNull() ? null : proxima.asText().replace("http://localhost", "");
+                if (url != null) {
+                    assertThat(resultado.getResponse().getHeader(HttpHeaders.LINK)).contains("rel=\"next\"");
+                }
+                paginas++;
+            }
+
+            assertThat(ids).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L);
+            assertThat(paginas).isEqualTo(3);
+        }
+
+        @Test
+        @DisplayName("GET /pagamentos?limit=N&cursor=lixo => 400")
+        void cursor_invalido() throws Exception {
+            mvc.perform(get("/pagamentos").param("limit", "2").param("cursor", "nao-e-um-cursor"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("GET /pagamentos?limit=0 => 400")
+        void limite_invalido() throws Exception {
+            mvc.perform(get("/pagamentos").param("limit", "0"))
+                    .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @DisplayName("GET /pagamentos sem limit mantém a listagem completa")
+        void sem_limit_lista_tudo() throws Exception {
+            mvc.perform(get("/pagamentos"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(7));
+        }
+    }
+
+    @Nested
+    class Exportacao {
+
+        @Test
+        @DisplayName("GET /pagamentos/export: NDJSON em streaming, uma linha por pagamento filtrado")
+        void exporta_ndjson() throws Exception {
+            MvcResult iniciado = mvc.perform(get("/pagamentos/export").param("status", "PROCESSADO_FALHA"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String corpo = mvc.perform(asyncDispatch(iniciado))
+                    .andExpect(status().isOk())
+                    .andExpect(content().contentType("application/x-ndjson"))
+                    .andReturn().getResponse().getContentAsString();
+
+            String[] linhas = corpo.split("\n");
+            assertThat(linhas).hasSize(2);
+            assertThat(linhas).allSatisfy(linha -> assertThat(linha).startsWith("{"));
+            assertThat(objectMapper.readTree(linhas[0]).get("id").asLong()).isEqualTo(2L);
+            assertThat(objectMapper.readTree(linhas[1]).get("status").asText()).isEqualTo("PROCESSADO_FALHA");
+        }
+
+        @Test
+        @DisplayName("GET /pagamentos/export?formato=CSV: cabeçalho + linhas")
+        void exporta_csv() throws Exception {
+            MvcResult iniciado = mvc.perform(get("/pagamentos/export").param("formato", "CSV"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            String corpo = mvc.perform(asyncDispatch(iniciado))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString("pagamentos.csv")))
+                    .andReturn().getResponse().getContentAsString();
+
+            String[] linhas = corpo.split("\n");
+            assertThat(linhas[0]).startsWith("id,codigoDebito,");
+            assertThat(linhas).hasSize(8);
+            assertThat(linhas[1]).isEqualTo("1,213261,61563213565,BOLETO,,2363.66,PENDENTE_PROCESSAMENTO,true");
+        }
+    }
+
+    @Nested
+    class Lote {
+
+        @Test
+        @DisplayName("POST /pagamentos/lote (JSON): grava os válidos e rejeita duplicados/inválidos com motivo por item")
+        void lote_json() throws Exception {
+            String corpo = """
+                    [
+                      {"codigoDebito": 900001, "cpfCnpjPagador": "52998224725", "metodoPagamento": "PIX", "valorPagamento": 10.00},
+                      {"codigoDebito": 213261, "cpfCnpjPagador": "52998224725", "metodoPagamento": "PIX", "valorPagamento": 10.00},
+                      {"codigoDebito": 900002, "cpfCnpjPagador": "00000000000", "metodoPagamento": "PIX", "valorPagamento": 10.00},
+                      {"codigoDebito": 900001, "cpfCnpjPagador": "52998224725", "metodoPagamento": "BOLETO", "valorPagamento": 5.00},
+                      {"codigoDebito": 900003, "cpfCnpjPagador": "52998224725", "metodoPagamento": "CARTAO_CREDITO",
+                       "valorPagamento": 7.5, "numeroCartao": "4111111111111111"}
+                    ]
+                    """;
+
+            mvc.perform(post("/pagamentos/lote").contentType(MediaType.APPLICATION_JSON).content(corpo))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(5))
+                    .andExpect(jsonPath("$.criados").value(2))
+                    .andExpect(jsonPath("$.rejeitados").value(3))
+                    .andExpect(jsonPath("$.itens[0].situacao").value("CRIADO"))
+                    .andExpect(jsonPath("$.itens[0].id").isNumber())
+                    .andExpect(jsonPath("$.itens[1].motivo").value(containsString("Já existe")))
+                    .andExpect(jsonPath("$.itens[2].motivo").value("CPF/CNPJ inválido."))
+                    .andExpect(jsonPath("$.itens[3].motivo").value(containsString("Já existe")))
+                    .andExpect(jsonPath("$.itens[4].situacao").value("CRIADO"));
+
+            mvc.perform(get("/pagamentos").param("codigoDebito", "900003"))
+                    .andExpect(jsonPath("$[0].numeroCartao").value("1111"))
+                    .andExpect(jsonPath("$[0].status").value("PENDENTE_PROCESSAMENTO"));
+        }
+
+        @Test
+        @DisplayName("POST /pagamentos/lote (NDJSON): linha ilegível vira item rejeitado sem interromper o lote")
+        void lote_ndjson() throws Exception {
+            String corpo = """
+                    {"codigoDebito": 910001, "cpfCnpjPagador": "52998224725", "metodoPagamento": "PIX", "valorPagamento": 1.00}
+                    {"codigoDebito": 910002, "cpfCnpjPagador":
+
+                    {"codigoDebito": 910003, "cpfCnpjPagador": "11222333000181", "metodoPagamento": "BOLETO", "valorPagamento": 2.00}
+                    {"codigoDebito": -1, "cpfCnpjPagador": "52998224725", "metodoPagamento": "BOLETO", "valorPagamento": 2.00}
+                    """;
+
+            mvc.perform(post("/pagamentos/lote").contentType("application/x-ndjson").content(corpo))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.total").value(4))
+                    .andExpect(jsonPath("$.criados").value(2))
+                    .andExpect(jsonPath("$.itens[1].motivo").value(containsString("JSON inválido")))
+                    .andExpect(jsonPath("$.itens[3].motivo").value(containsString("inteiro positivo")));
+        }
+    }
+
+    @Nested
+    class StatusEmLote {
+
+        @Test
+        @DisplayName("PUT /pagamentos/lote/status: aplica as transições válidas e rejeita as demais com o motivo")
+        void status_em_lote() throws Exception {
+            // 1 PENDENTE, 2 FALHA, 3 PENDENTE, 4 SUCESSO (ver data.sql)
+            String corpo = """
+                    [
+                      {"id": 1, "status": "PROCESSADO_SUCESSO"},
+                      {"id": 2, "status": "PENDENTE_PROCESSAMENTO"},
+                      {"id": 3, "status": "PROCESSADO_FALHA"},
+                      {"id": 4, "status": "PROCESSADO_FALHA"},
+                      {"id": 999, "status": "PROCESSADO_SUCESSO"},
+                      {"id": 1, "status": "PROCESSADO_FALHA"},
+                      {"id": 2, "status": null}
+                    ]
+                    """;
+
+            mvc.perform(put("/pagamentos/lote/status").contentType(MediaType.APPLICATION_JSON).content(corpo))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.atualizados").value(contains(1, 2, 3)))
+                    .andExpect(jsonPath("$.rejeitados.length()").value(4))
+                    .andExpect(jsonPath("$.rejeitados[?(@.id == 4)].motivo").value(hasItem(containsString("já processado"))))
+                    .andExpect(jsonPath("$.rejeitados[?(@.id == 999)].motivo").value(hasItem(containsString("não encontrado"))));
+
+            mvc.perform(get("/pagamentos/1")).andExpect(jsonPath("$.status").value("PROCESSADO_SUCESSO"));
+            mvc.perform(get("/pagamentos/2")).andExpect(jsonPath("$.status").value("PENDENTE_PROCESSAMENTO"));
+            mvc.perform(get("/pagamentos/3")).andExpect(jsonPath("$.status").value("PROCESSADO_FALHA"));
+            mvc.perform(get("/pagamentos/4")).andExpect(jsonPath("$.status").value("PROCESSADO_SUCESSO"));
+        }
+    }
+
+    @Nested
+    class Idempotencia {
+
+        private static final String CORPO = """
+                {"codigoDebito": 920001, "cpfCnpjPagador": "52998224725", "metodoPagamento": "PIX", "valorPagamento": 10.00}
+                """;
+
+        @Test
+        @DisplayName("POST /pagamentos com Idempotency-Key repetida: devolve o mesmo pagamento sem criar outro")
+        void repeticao_devolve_mesmo_pagamento() throws Exception {
+            MvcResult primeira = mvc.perform(post("/pagamentos").header("Idempotency-Key", "chave-1")
+                            .contentType(MediaType.APPLICATION_JSON).content(CORPO))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Idempotent-Replayed", "false"))
+                    .andReturn();
+            long id = objectMapper.readTree(primeira.getResponse().getContentAsString()).get("id").asLong();
+
+            mvc.perform(post("/pagamentos").header("Idempotency-Key", "chave-1")
+                            .contentType(MediaType.APPLICATION_JSON).content(CORPO))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Idempotent-Replayed", "true"))
+                    .andExpect(header().string(HttpHeaders.LOCATION, "/pagamentos/" + id))
+                    .andExpect(jsonPath("$.id").value(id));
+
+            mvc.perform(get("/pagamentos").param("codigoDebito", "920001"))
+                    .andExpect(jsonPath("$.length()").value(1));
+        }
+
+        @Test
+        @DisplayName("POST /pagamentos repetido depois de mudar o status: devolve o corpo do 201 original")
+        void repeticao_devolve_resposta_original() throws Exception {
+            MvcResult primeira = mvc.perform(post("/pagamentos").header("Idempotency-Key", "chave-3")
+                            .contentType(MediaType.APPLICATION_JSON).content(CORPO))
+                    .andExpect(status().isCreated())
+                    .andReturn();
+            long id = objectMapper.readTree(primeira.getResponse().getContentAsString()).get("id").asLong();
+
+            mvc.perform(put("/pagamentos/" + id + "/status").contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"id\": " + id + ", \"status\": \"PROCESSADO_SUCESSO\"}"))
+                    .andExpect(status().isOk());
+
+            mvc.perform(post("/pagamentos").header("Idempotency-Key", "chave-3")
+                            .contentType(MediaType.APPLICATION_JSON).content(CORPO))
+                    .andExpect(status().isCreated())
+                    .andExpect(header().string("Idempotent-Replayed", "true"))
+                    .andExpect(jsonPath("$.id").value(id))
+                    .andExpect(jsonPath("$.status").value("PENDENTE_PROCESSAMENTO"))
+                    .andExpect(jsonPath("$.versao").value(0));
+        }
+
+        @Test
+        @DisplayName("POST /pagamentos reaproveitando a Idempotency-Key com outro corpo => 422")
+        void mesma_chave_outro_corpo() throws Exception {
+            mvc.perform(post("/pagamentos").header("Idempotency-Key", "chave-2")
+                            .contentType(MediaType.APPLICATION_JSON).content(CORPO))
+                    .andExpect(status().isCreated());
+
+            mvc.perform(post("/pagamentos").header("Idempotency-Key", "chave-2")
+                            .contentType(MediaType.APPLICATION_JSON).content(CORPO.replace("10.00", "11.00")))
+                    .andExpect(status().isUnprocessableEntity())
+                    .andExpect(content().string(containsString("corpo de requisição diferente")));
+        }
+
+        @Test
+        @DisplayName("POST /pagamentos sem chave e com código de débito existente => 400 pela constraint única")
+        void codigo_duplicado_sem_chave() throws Exception {
+            // 213261 já existe em data.sql
+            mvc.perform(post("/pagamentos").contentType(MediaType.APPLICATION_JSON)
+                            .content(CORPO.replace("920001", "213261")))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(containsString("Já existe um pagamento")));
+        }
+
+        @Test
+        @DisplayName("POST /pagamentos com CPF de dígito verificador errado => 400, não 500")
+        void documento_invalido() throws Exception {
+            mvc.perform(post("/pagamentos").contentType(MediaType.APPLICATION_JSON)
+                            .content(CORPO.replace("52998224725", "52998224700")))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string("CPF/CNPJ inválido."));
+        }
+    }
+
+    @Nested
+    class Links {
+
+        @Test
+        @DisplayName("GET /pagamentos/{id}: links HAL expandidos com o id, sem duplicar a cada leitura")
+        void links_do_item() throws Exception {
+            for (int i = 0; i < 3; i++) {
+                mvc.perform(get("/pagamentos/3"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$._links.length()").value(4))
+                        .andExpect(jsonPath("$._links.self.href").value("http://localhost/pagamentos/3"))
+                        .andExpect(jsonPath("$._links.listar.href").value("http://localhost/pagamentos"))
+                        .andExpect(jsonPath("$._links.atualizar-status.href").value("http://localhost/pagamentos/3/status"))
+                        .andExpect(jsonPath("$._links.atualizar-status.type").value("PUT"))
+                        .andExpect(jsonPath("$._links.excluir.type").value("DELETE"));
+            }
+        }
+
+        @Test
+        @DisplayName("GET /pagamentos: cada item traz os quatro links com a base da requisição")
+        void links_da_listagem() throws Exception {
+            mvc.perform(get("/pagamentos").header("Host", "api.exemplo.com"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].links.length()").value(4))
+                    .andExpect(jsonPath("$[0].links[0].rel").value("self"))
+                    .andExpect(jsonPath("$[0].links[0].href").value("http://api.exemplo.com/pagamentos/1"))
+                    .andExpect(jsonPath("$[6].links[3].href").value("http://api.exemplo.com/pagamentos/7"));
+        }
+    }
+
+    @Nested
+    class Filtros {
+
+        @Test
+        @DisplayName("GET /pagamentos?cpfCnpj=...: filtra pelo pagador (ids 1..3 em data.sql)")
+        void por_pagador() throws Exception {
+            mvc.perform(get("/pagamentos").param("cpfCnpj", "61563213565"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].id").value(contains(1, 2, 3)));
+        }
+
+        @Test
+        @DisplayName("GET /pagamentos?cpfCnpj=...: a formatação do documento não importa (id 2 foi gravado formatado)")
+        void por_pagador_formatado() throws Exception {
+            mvc.perform(get("/pagamentos").param("cpfCnpj", "615.632.135-65"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].id").value(contains(1, 2, 3)))
+                    .andExpect(jsonPath("$[1].cpfCnpjPagador").value("61563213565"));
+        }
+
+        @Test
+        @DisplayName("GET /pagamentos?cpfCnpj=...: documento sem 11 nem 14 dígitos não encontra nada")
+        void por_pagador_invalido() throws Exception {
+            mvc.perform(get("/pagamentos").param("cpfCnpj", "123"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.length()").value(0));
+        }
+
+        @Test
+        @DisplayName("GET /pagamentos?cpfCnpj=...&status=...: combina pagador e status")
+        void por_pagador_e_status() throws Exception {
+            mvc.perform(get("/pagamentos").param("cpfCnpj", "61563213565").param("status", "PENDENTE_PROCESSAMENTO"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].id").value(contains(1, 3)));
+        }
+
+        @Test
+        @DisplayName("GET /pagamentos?status=...&criadoDe=...&criadoAte=...: intervalo semiaberto de criação")
+        void por_status_e_intervalo() throws Exception {
+            // SUCESSO: 4 (2025-02-01 11:00) e 5 (2025-02-03 16:45)
+            mvc.perform(get("/pagamentos")
+                            .param("status", "PROCESSADO_SUCESSO")
+                            .param("criadoDe", "2025-02-01T11:00:00Z")
+                            .param("criadoAte", "2025-02-03T16:45:00Z"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[*].id").value(contains(4)))
+                    .andExpect(jsonPath("$[0].criadoEm").value("2025-02-01T11:00:00Z"));
+        }
+    }
+}
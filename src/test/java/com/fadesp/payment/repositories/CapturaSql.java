@@ -0,0 +1,36 @@
+package com.fadesp.payment.repositories;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Guarda o SQL gerado pelo Hibernate, para os testes rodarem EXPLAIN sobre a consulta real.
+ * Registrado via {@code spring.jpa.properties.hibernate.session_factory.statement_inspector}.
+ */
+public class CapturaSql implements StatementInspector {
+
+    private static final List<String> CONSULTAS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+        CONSULTAS.add(sql);
+        return sql;
+    }
+
+    static void limpar() {
+        CONSULTAS.clear();
+    }
+
+    static String ultimoSelect() {
+        for (int i = CONSULTAS.size() - 1; i >= 0; i--) {
+            String sql = CONSULTAS.get(i);
+            if (sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select")) {
+                return sql;
+            }
+        }
+        throw new IllegalStateException("Nenhum SELECT capturado.");
+    }
+}
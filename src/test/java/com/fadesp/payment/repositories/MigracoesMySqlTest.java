@@ -0,0 +1,142 @@
+package com.fadesp.payment.repositories;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.FiltroPagamentoDTO;
+import com.fadesp.payment.domain.dtos.ItemResultadoLoteDTO;
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.dtos.ResultadoLoteDTO;
+import com.fadesp.payment.domain.dtos.ResultadoStatusLoteDTO;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.services.IdempotenciaService;
+import com.fadesp.payment.services.PagamentoLoteService;
+import com.fadesp.payment.services.PagamentoService;
+import com.fadesp.payment.services.ProcessamentoPagamentoService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Profile {@code mysql} sem servidor MySQL: H2 em modo de compatibilidade MySQL, com as migrações de
+ * {@code db/migration/mysql} (o {vendor} resolveria para h2) e o dialeto do MySQL. A subida já confere as migrações
+ * contra o mapeamento JPA (ddl-auto=validate); os testes passam pelos caminhos que dependem do dialeto: sequence
+ * emulada em tabela, batch de INSERTs e consultas nativas.
+ */
+@ActiveProfiles("mysql")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:mysql-compat;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driverClassName=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.flyway.locations=classpath:db/migration/mysql",
+        // com o driver do H2 o Hibernate escolheria o H2Dialect
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.show-sql=false",
+        "pagamento.outbox.habilitado=false",
+        "pagamento.processamento.processador=simulado"
+})
+class MigracoesMySqlTest {
+
+    private static final AtomicInteger CODIGOS = new AtomicInteger(7_000_000);
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    DataSource dataSource;
+
+    @Autowired
+    PagamentoService pagamentoService;
+
+    @Autowired
+    PagamentoLoteService pagamentoLoteService;
+
+    @Autowired
+    IdempotenciaService idempotenciaService;
+
+    @Autowired
+    ProcessamentoPagamentoService processamento;
+
+    @Test
+    @DisplayName("subida: migrações aplicadas, sem massa de exemplo, e pool/driver com a configuração do profile")
+    void migracoes_e_configuracao() {
+        assertThat(jdbc.queryForList("SELECT version FROM flyway_schema_history WHERE version IS NOT NULL AND success = TRUE", String.class))
+                .containsExactly("1", "2", "3", "4", "5", "6", "7");
+        // 213261 é o primeiro código da massa de exemplo (db/dados/h2)
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM pagamento WHERE codigo_debito = 213261", Long.class))
+                .isZero();
+
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        assertThat(hikari.getPoolName()).isEqualTo("pagamentos");
+        assertThat(hikari.getMaximumPoolSize()).isEqualTo(hikari.getMinimumIdle());
+        assertThat(hikari.getDataSourceProperties())
+                .containsEntry("rewriteBatchedStatements", "true")
+                .containsEntry("useServerPrepStmts", "true")
+                .containsEntry("cachePrepStmts", "true")
+                .containsEntry("useCursorFetch", "true");
+    }
+
+    @Test
+    @DisplayName("lote: ids em blocos pela tabela pagamento_seq, eventos gravados e transição em lote")
+    void lote_com_sequence_emulada() {
+        List<PagamentoDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            dtos.add(new PagamentoDTO(CODIGOS.incrementAndGet(), "52998224725", MetodoPagamentoEnum.PIX,
+                    new BigDecimal("10.00"), null));
+        }
+
+        ResultadoLoteDTO resultado = pagamentoLoteService.realizarLote(dtos);
+
+        assertThat(resultado.criados()).isEqualTo(120);
+        List<Long> ids = resultado.itens().stream().map(ItemResultadoLoteDTO::id).toList();
+        assertThat(ids).doesNotHaveDuplicates();
+        // pooled-lo: o próximo bloco começa depois do maior id entregue
+        assertThat(jdbc.queryForObject("SELECT next_val FROM pagamento_seq", Long.class))
+                .isGreaterThan(ids.stream().mapToLong(Long::longValue).max().orElseThrow());
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM evento_pagamento WHERE pagamento_id IN ("
+                + ids.get(0) + "," + ids.get(119) + ")", Long.class)).isEqualTo(2L);
+
+        ResultadoStatusLoteDTO status = pagamentoLoteService.atualizarStatusLote(ids.subList(0, 10).stream()
+                .map(id -> new AtualizarPagamentoDTO(id, StatusPagamentoEnum.PROCESSADO_SUCESSO))
+                .toList());
+        assertThat(status.atualizados()).hasSize(10);
+    }
+
+    @Test
+    @DisplayName("consultas nativas e idempotência: SKIP LOCKED, cursor por id e chave repetida")
+    void consultas_nativas_e_idempotencia() {
+        PagamentoDTO dto = new PagamentoDTO(CODIGOS.incrementAndGet(), "76910197003", MetodoPagamentoEnum.BOLETO,
+                new BigDecimal("25.50"), null);
+        Long id = idempotenciaService.realizar("chave-mysql", dto).pagamentoId();
+        assertThat(idempotenciaService.realizar("chave-mysql", dto).repetida()).isTrue();
+
+        PagamentoRespostaDTO salvo = pagamentoService.buscarPorId(id).orElseThrow();
+        assertThat(salvo.valorPagamento()).isEqualByComparingTo("25.50");
+
+        assertThat(pagamentoService.listarPorCursor(
+                new FiltroPagamentoDTO(null, "76910197003", null, null, null), null, 10).getContent())
+                .extracting(PagamentoRespostaDTO::id)
+                .contains(id);
+
+        // reserva com SKIP LOCKED e prazo gravado, processador depois do commit
+        while (processamento.processarLote().reservados() > 0) {
+            // continua até a fila esvaziar
+        }
+        assertThat(pagamentoService.buscarPorId(id).orElseThrow().status().isPendente()).isFalse();
+        assertThat(jdbc.queryForObject("SELECT processamento_tentativas FROM pagamento WHERE id = ?", Integer.class, id))
+                .isEqualTo(1);
+    }
+}
@@ -0,0 +1,32 @@
+package com.fadesp.payment.repositories;
+
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:planos;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        // o relay do outbox também passaria pelo CapturaSql
+        "pagamento.outbox.habilitado=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.fadesp.payment.repositories.CapturaSql"
+})
+class PlanoConsultaH2Test extends PlanoConsultaTestBase {
+
+    // o plano do H2 anota o índice escolhido como /* PUBLIC.NOME_DO_INDICE: ... */ logo após a tabela
+    private static final Pattern INDICE = Pattern.compile("\"PAGAMENTO\"\\s+\"?\\w+\"?\\s*/\\*\\s*PUBLIC\\.(\\w+)");
+
+    @Override
+    protected String indiceUsado(String sql, Object... parametros) {
+        String plano = jdbc.queryForObject("EXPLAIN " + sql, String.class, parametros);
+        Matcher m = INDICE.matcher(plano);
+        return m.find() ? m.group(1).toLowerCase(Locale.ROOT) : plano;
+    }
+
+    @Override
+    protected void analisar() {
+        jdbc.execute("ANALYZE TABLE pagamento");
+    }
+}
@@ -0,0 +1,45 @@
+package com.fadesp.payment.repositories;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Mesmos formatos de consulta do {@link PlanoConsultaH2Test}, contra um MySQL real. Só roda quando a URL é
+ * informada; o schema é recriado pelo Hibernate no banco indicado:
+ *
+ * <pre>mvn test -Dtest=PlanoConsultaMySqlTest -Dpagamento.teste.mysql.url=jdbc:mysql://localhost:3306/pagamentos_teste \
+ *     -Dpagamento.teste.mysql.usuario=root -Dpagamento.teste.mysql.senha=root</pre>
+ */
+@EnabledIfSystemProperty(named = "pagamento.teste.mysql.url", matches = ".+")
+@SpringBootTest(properties = {
+        "spring.datasource.url=${pagamento.teste.mysql.url}",
+        "spring.datasource.username=${pagamento.teste.mysql.usuario:root}",
+        "spring.datasource.password=${pagamento.teste.mysql.senha:}",
+        "spring.datasource.driverClassName=com.mysql.cj.jdbc.Driver",
+        "spring.jpa.database-platform=org.hibernate.dialect.MySQLDialect",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "spring.flyway.enabled=false",
+        "spring.h2.console.enabled=false",
+        "spring.jpa.show-sql=false",
+        // o relay do outbox também passaria pelo CapturaSql
+        "pagamento.outbox.habilitado=false",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.fadesp.payment.repositories.CapturaSql"
+})
+class PlanoConsultaMySqlTest extends PlanoConsultaTestBase {
+
+    @Override
+    protected String indiceUsado(String sql, Object... parametros) {
+        List<Map<String, Object>> plano = jdbc.queryForList("EXPLAIN " + sql, parametros);
+        Object indice = plano.get(0).get("key");
+        return indice == null ? "(nenhum) " + plano : indice.toString().toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    protected void analisar() {
+        jdbc.queryForList("ANALYZE TABLE pagamento");
+    }
+}
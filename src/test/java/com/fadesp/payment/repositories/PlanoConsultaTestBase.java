@@ -0,0 +1,133 @@
+package com.fadesp.payment.repositories;
+
+import com.fadesp.payment.domain.dtos.FiltroPagamentoDTO;
+import com.fadesp.payment.domain.enums.DimensaoRelatorioEnum;
+import com.fadesp.payment.domain.enums.GranularidadeRelatorioEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.services.PagamentoService;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Confere que as consultas geradas pelo {@link PagamentoSpecification} (e a agregação do relatório) usam os índices
+ * compostos declarados em {@code Pagamento}. O SQL é capturado do Hibernate ({@link CapturaSql}) e passado ao EXPLAIN
+ * do banco com os mesmos parâmetros, na ordem em que o filtro os adiciona.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+abstract class PlanoConsultaTestBase {
+
+    static final String[] DOCUMENTOS = new String[50];
+    static final Instant INICIO = Instant.parse("2025-01-01T00:00:00Z");
+    private static final int LINHAS = 5_000;
+
+    static {
+        for (int i = 0; i < DOCUMENTOS.length; i++) {
+            DOCUMENTOS[i] = String.format("%011d", 10_000_000_000L + i);
+        }
+    }
+
+    @Autowired
+    PagamentoService service;
+
+    @Autowired
+    PagamentoRepository repository;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    /** Nome (minúsculo) do índice escolhido pelo banco para a tabela pagamento. */
+    protected abstract String indiceUsado(String sql, Object... parametros);
+
+    /** Atualiza as estatísticas do otimizador depois da carga. */
+    protected abstract void analisar();
+
+    @BeforeAll
+    void popular() {
+        List<Object[]> linhas = new ArrayList<>(LINHAS);
+        for (int i = 0; i < LINHAS; i++) {
+            linhas.add(new Object[]{
+                    1_000_000L + i,
+                    10_000_000 + i,
+                    DOCUMENTOS[i % DOCUMENTOS.length],
+                    Long.parseLong(DOCUMENTOS[i % DOCUMENTOS.length]),
+                    "PIX",
+                    new BigDecimal("10.00"),
+                    StatusPagamentoEnum.values()[i % 3].name(),
+                    Timestamp.from(INICIO.plus(i % 100, ChronoUnit.DAYS))
+            });
+        }
+        jdbc.batchUpdate("""
+                INSERT INTO pagamento
+                  (id, codigo_debito, cpf_cnpj_pagador, documento_pagador, tipo_documento, metodo_pagamento,
+                   valor_pagamento, status, ativo, criado_em, atualizado_em, versao)
+                VALUES (?, ?, ?, ?, 'CPF', ?, ?, ?, TRUE, ?, CURRENT_TIMESTAMP, 0)
+                """, linhas);
+        analisar();
+    }
+
+    @Test
+    @DisplayName("CPF/CNPJ + status => idx_pagamento_pagador_status")
+    void pagador_e_status() {
+        CapturaSql.limpar();
+        service.listar(new FiltroPagamentoDTO(null, DOCUMENTOS[7], StatusPagamentoEnum.PROCESSADO_SUCESSO, null, null));
+
+        String sql = CapturaSql.ultimoSelect();
+        assertThat(sql).containsIgnoringCase("documento_pagador");
+        assertThat(indiceUsado(sql, Long.parseLong(DOCUMENTOS[7]), "CPF", StatusPagamentoEnum.PROCESSADO_SUCESSO.name()))
+                .isEqualTo("idx_pagamento_pagador_status");
+    }
+
+    @Test
+    @DisplayName("status + intervalo de criação => idx_pagamento_status_criado")
+    void status_e_intervalo() {
+        Instant de = INICIO.plus(10, ChronoUnit.DAYS);
+        Instant ate = INICIO.plus(13, ChronoUnit.DAYS);
+        CapturaSql.limpar();
+        service.listar(new FiltroPagamentoDTO(null, null, StatusPagamentoEnum.PROCESSADO_FALHA, de, ate));
+
+        String sql = CapturaSql.ultimoSelect();
+        assertThat(indiceUsado(sql, StatusPagamentoEnum.PROCESSADO_FALHA.name(), Timestamp.from(de), Timestamp.from(ate)))
+                .isEqualTo("idx_pagamento_status_criado");
+    }
+
+    @Test
+    @DisplayName("relatório por intervalo de criação (GROUP BY dia, método, status) => idx_pagamento_criado")
+    void relatorio_por_intervalo() {
+        Instant de = INICIO.plus(10, ChronoUnit.DAYS);
+        Instant ate = INICIO.plus(13, ChronoUnit.DAYS);
+        CapturaSql.limpar();
+        repository.agregar(de, ate, GranularidadeRelatorioEnum.DIA, EnumSet.allOf(DimensaoRelatorioEnum.class));
+
+        String sql = CapturaSql.ultimoSelect();
+        // tabela quente e arquivo no mesmo comando (UNION ALL): os parâmetros se repetem; o índice conferido é o da
+        // tabela quente, primeiro ramo
+        assertThat(indiceUsado(sql, Timestamp.from(de), Timestamp.from(ate), Timestamp.from(de), Timestamp.from(ate)))
+                .isEqualTo("idx_pagamento_criado");
+    }
+
+    @Test
+    @DisplayName("status paginado por cursor (id > ? ORDER BY id) => idx_pagamento_status_id")
+    void status_por_cursor() {
+        CapturaSql.limpar();
+        service.listarPorCursor(new FiltroPagamentoDTO(null, null, StatusPagamentoEnum.PENDENTE_PROCESSAMENTO, null, null),
+                1_002_000L, 50);
+
+        String sql = CapturaSql.ultimoSelect();
+        assertThat(indiceUsado(sql, StatusPagamentoEnum.PENDENTE_PROCESSAMENTO.name(), 1_002_000L, 51))
+                .isEqualTo("idx_pagamento_status_id");
+    }
+}
@@ -0,0 +1,224 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.ConsultaRelatorioDTO;
+import com.fadesp.payment.domain.dtos.FiltroPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.dtos.RelatorioPagamentoDTO;
+import com.fadesp.payment.domain.dtos.ResumoPagadorDTO;
+import com.fadesp.payment.domain.enums.DimensaoRelatorioEnum;
+import com.fadesp.payment.domain.enums.GranularidadeRelatorioEnum;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import jakarta.persistence.EntityExistsException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Window;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:arquivamento;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "pagamento.outbox.habilitado=false",
+        // as rodadas são disparadas pelos testes; blocos pequenos para passar por mais de um
+        "pagamento.arquivamento.habilitado=false",
+        "pagamento.arquivamento.idade=P1D",
+        "pagamento.arquivamento.lote=2"
+})
+@AutoConfigureMockMvc
+class ArquivamentoPagamentoTest {
+
+    private static final AtomicInteger CODIGOS = new AtomicInteger(9_700_000);
+    private static final AtomicInteger PAGADORES = new AtomicInteger(300_000_000);
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ArquivamentoPagamentoService arquivamentoService;
+
+    @Autowired
+    PagamentoService pagamentoService;
+
+    @Autowired
+    PagamentoLoteService pagamentoLoteService;
+
+    @Autowired
+    ResumoPagadorService resumoPagadorService;
+
+    @Autowired
+    RelatorioPagamentoService relatorioService;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Test
+    @DisplayName("só saem da tabela quente os encerrados (sucesso ou inativos) mais antigos que a idade")
+    void move_somente_encerrados_antigos() throws Exception {
+        String cpf = novoCpf();
+        Long sucesso = criar(cpf, StatusPagamentoEnum.PROCESSADO_SUCESSO);
+        Long falha = criar(cpf, StatusPagamentoEnum.PROCESSADO_FALHA);
+        Long pendente = criar(cpf, null);
+        Long excluido = criar(cpf, null);
+        pagamentoService.excluir(excluido);
+        Long recente = criar(cpf, StatusPagamentoEnum.PROCESSADO_SUCESSO);
+        envelhecer(List.of(sucesso, falha, pendente, excluido));
+
+        assertThat(pagamentoService.buscarPorId(sucesso)).isPresent();
+        assertThat(arquivamentoService.arquivar()).isGreaterThanOrEqualTo(2);
+
+        assertThat(idsQuentes(List.of(sucesso, falha, pendente, excluido, recente)))
+                .containsExactly(falha, pendente, recente);
+        assertThat(pagamentoService.buscarPorId(sucesso)).isEmpty();
+        assertThat(pagamentoService.buscarPorId(sucesso, true)).get()
+                .satisfies(p -> assertThat(p.status()).isEqualTo(StatusPagamentoEnum.PROCESSADO_SUCESSO));
+        assertThat(pagamentoService.buscarPorId(excluido, true)).get()
+                .satisfies(p -> assertThat(p.ativo()).isFalse());
+
+        mvc.perform(get("/pagamentos/{id}", sucesso).param("arquivados", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(sucesso))
+                .andExpect(jsonPath("$._links.self.href").value("http://localhost/pagamentos/" + sucesso));
+
+        // nada mais a mover
+        arquivamentoService.arquivar();
+        assertThat(idsQuentes(List.of(falha, pendente, recente))).containsExactly(falha, pendente, recente);
+    }
+
+    @Test
+    @DisplayName("resumo do pagador e relatório por período não mudam com o arquivamento")
+    void totais_nao_mudam() {
+        String cpf = novoCpf();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(criar(cpf, StatusPagamentoEnum.PROCESSADO_SUCESSO));
+        }
+        ids.add(criar(cpf, StatusPagamentoEnum.PROCESSADO_FALHA));
+        Instant agora = Instant.now();
+        ConsultaRelatorioDTO consulta = new ConsultaRelatorioDTO(agora.minus(1, ChronoUnit.HOURS),
+                agora.plus(1, ChronoUnit.HOURS), GranularidadeRelatorioEnum.HORA,
+                List.of(DimensaoRelatorioEnum.METODO, DimensaoRelatorioEnum.STATUS));
+        ResumoPagadorDTO resumoAntes = resumoPagadorService.buscar(cpf);
+        RelatorioPagamentoDTO relatorioAntes = relatorioService.gerar(consulta);
+
+        envelhecer(ids);
+        arquivamentoService.arquivar();
+
+        assertThat(idsQuentes(ids)).containsExactly(ids.get(5));
+        assertThat(resumoPagadorService.buscar(cpf)).isEqualTo(resumoAntes);
+        assertThat(resumoPagadorService.verificar(cpf).consistente()).isTrue();
+        assertThat(relatorioService.gerar(consulta).linhas()).isEqualTo(relatorioAntes.linhas());
+    }
+
+    @Test
+    @DisplayName("listagens com arquivados=true intercalam as duas tabelas por id, sem repetir")
+    void listagem_com_arquivados() throws Exception {
+        String cpf = novoCpf();
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            ids.add(criar(cpf, (i % 2 == 0) ? StatusPagamentoEnum.PROCESSADO_SUCESSO : null));
+        }
+        envelhecer(ids);
+        arquivamentoService.arquivar();
+        FiltroPagamentoDTO filtro = new FiltroPagamentoDTO(null, cpf, null, null, null);
+
+        assertThat(pagamentoService.listar(filtro)).extracting(PagamentoRespostaDTO::id)
+                .containsExactly(ids.get(1), ids.get(3));
+        assertThat(pagamentoService.listar(filtro, true)).extracting(PagamentoRespostaDTO::id)
+                .containsExactlyElementsOf(ids);
+
+        List<Long> paginados = new ArrayList<>();
+        Long cursor = null;
+        Window<PagamentoRespostaDTO> pagina;
+        do {
+            pagina = pagamentoService.listarPorCursor(filtro, cursor, 2, true);
+            pagina.forEach(p -> paginados.add(p.id()));
+            cursor = paginados.get(paginados.size() - 1);
+        } while (pagina.hasNext());
+        assertThat(paginados).containsExactlyElementsOf(ids);
+
+        mvc.perform(get("/pagamentos").param("cpfCnpj", cpf).param("arquivados", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5));
+    }
+
+    @Test
+    @DisplayName("código de débito de um pagamento arquivado não é aceito de novo (individual e em lote)")
+    void codigo_arquivado_continua_unico() {
+        String cpf = novoCpf();
+        Long id = criar(cpf, StatusPagamentoEnum.PROCESSADO_SUCESSO);
+        Integer codigo = pagamentoService.buscarPorId(id).orElseThrow().codigoDebito();
+        envelhecer(List.of(id));
+        arquivamentoService.arquivar();
+
+        PagamentoDTO repetido = new PagamentoDTO(codigo, cpf, MetodoPagamentoEnum.PIX, new BigDecimal("1.00"), null);
+        assertThatThrownBy(() -> pagamentoService.realizar(repetido)).isInstanceOf(EntityExistsException.class);
+
+        var resultado = pagamentoLoteService.realizarLote(List.of(repetido, dto(cpf)));
+        assertThat(resultado.criados()).isEqualTo(1);
+        assertThat(resultado.itens()).filteredOn(i -> codigo.equals(i.codigoDebito()))
+                .singleElement()
+                .satisfies(i -> assertThat(i.id()).isNull());
+    }
+
+    // -------------------------------------------------------------------------
+    private Long criar(String cpf, StatusPagamentoEnum status) {
+        Long id = pagamentoService.realizar(dto(cpf)).getId();
+        if (status != null) {
+            pagamentoService.atualizar(new AtualizarPagamentoDTO(id, status));
+        }
+        return id;
+    }
+
+    // última alteração há dois dias: passa da idade configurada (P1D)
+    private void envelhecer(List<Long> ids) {
+        Timestamp antigo = Timestamp.from(Instant.now().minus(2, ChronoUnit.DAYS));
+        ids.forEach(id -> jdbc.update("UPDATE pagamento SET atualizado_em = ? WHERE id = ?", antigo, id));
+    }
+
+    private List<Long> idsQuentes(List<Long> ids) {
+        return jdbc.queryForList("SELECT id FROM pagamento ORDER BY id", Long.class).stream()
+                .filter(ids::contains)
+                .toList();
+    }
+
+    private static PagamentoDTO dto(String cpf) {
+        return new PagamentoDTO(CODIGOS.incrementAndGet(), cpf, MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null);
+    }
+
+    // CPF válido e inédito: nove dígitos base + os dois verificadores
+    private static String novoCpf() {
+        String base = String.valueOf(PAGADORES.incrementAndGet()).substring(0, 9);
+        int d1 = digito(base, 10);
+        int d2 = digito(base + d1, 11);
+        return base + d1 + d2;
+    }
+
+    private static int digito(String digitos, int pesoInicial) {
+        int soma = 0;
+        for (int i = 0; i < digitos.length(); i++) {
+            soma += (digitos.charAt(i) - '0') * (pesoInicial - i);
+        }
+        int resto = soma % 11;
+        return (resto < 2) ? 0 : 11 - resto;
+    }
+}
@@ -0,0 +1,202 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityExistsException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+// janela larga o bastante para as chamadas simultâneas do teste caírem no mesmo grupo
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:agrupada;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "pagamento.outbox.habilitado=false",
+        "pagamento.criacao.agrupada.habilitado=true",
+        "pagamento.criacao.agrupada.janela=PT0.2S",
+        "pagamento.criacao.agrupada.maximo=50",
+        "pagamento.criacao.agrupada.espera=PT2S"
+})
+class CriacaoAgrupadaTest {
+
+    private static final AtomicInteger CODIGOS = new AtomicInteger(8_000_000);
+
+    @Autowired
+    AgrupadorCriacaoPagamento agrupador;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @MockitoSpyBean
+    FiltroCodigoDebito filtroCodigoDebito;
+
+    @Test
+    @DisplayName("criações simultâneas dividem o commit e cada chamador recebe o seu pagamento")
+    void criacoes_simultaneas_agrupadas() throws Exception {
+        DistributionSummary grupos = meterRegistry.get("pagamento.criacao.agrupada.grupo").summary();
+        long gruposAntes = grupos.count();
+
+        List<PagamentoDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            dtos.add(pix(CODIGOS.incrementAndGet()));
+        }
+        List<Pagamento> criados = new ArrayList<>();
+        for (Future<Pagamento> f : simultaneamente(dtos)) {
+            criados.add(f.get());
+        }
+
+        assertThat(criados).extracting(Pagamento::getId).doesNotContainNull().doesNotHaveDuplicates();
+        for (int i = 0; i < dtos.size(); i++) {
+            assertThat(criados.get(i).getCodigoDebito()).isEqualTo(dtos.get(i).codigoDebito());
+        }
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM evento_pagamento WHERE pagamento_id = ?", Long.class,
+                criados.get(0).getId())).isEqualTo(1L);
+        // 40 pedidos em bem menos de 40 transações
+        assertThat(grupos.count() - gruposAntes).isLessThan(40);
+        assertThat(grupos.max()).isGreaterThan(1.0);
+    }
+
+    @Test
+    @DisplayName("duplicidade no grupo ou no banco: só o chamador duplicado recebe EntityExistsException")
+    void duplicidade_por_chamador() throws Exception {
+        int existente = CODIGOS.incrementAndGet();
+        agrupador.realizar(pix(existente));
+        int repetido = CODIGOS.incrementAndGet();
+        Counter criados = meterRegistry.get("pagamento.criados").tag("metodo", "PIX").counter();
+        double criadosAntes = criados.count();
+
+        List<Future<Pagamento>> resultados = simultaneamente(List.of(
+                pix(repetido), pix(repetido), pix(existente), pix(CODIGOS.incrementAndGet())));
+
+        int sucessos = 0;
+        int duplicados = 0;
+        for (Future<Pagamento> f : resultados) {
+            try {
+                f.get();
+                sucessos++;
+            } catch (ExecutionException ex) {
+                assertThat(ex.getCause()).isInstanceOf(EntityExistsException.class);
+                duplicados++;
+            }
+        }
+        assertThat(sucessos).isEqualTo(2);
+        assertThat(duplicados).isEqualTo(2);
+        // só as duas criações confirmadas entram no contador, cada uma uma vez
+        assertThat(criados.count() - criadosAntes).isEqualTo(2.0);
+        assertThat(jdbc.queryForObject("SELECT COUNT(*) FROM pagamento WHERE codigo_debito = ?", Long.class, repetido))
+                .isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("regra de negócio inválida falha na hora, sem entrar na fila")
+    void regra_invalida_sem_fila() {
+        PagamentoDTO semCartao = new PagamentoDTO(CODIGOS.incrementAndGet(), "52998224725",
+                MetodoPagamentoEnum.CARTAO_CREDITO, new BigDecimal("10.00"), null);
+
+        assertThatThrownBy(() -> agrupador.realizar(semCartao))
+                .hasMessageContaining("requer o número do cartão");
+    }
+
+    @Test
+    @DisplayName("grupo preso além da espera: 503 para quem aguarda, e o pedido que desistiu não é gravado")
+    void espera_esgotada() throws Exception {
+        int travado = CODIGOS.incrementAndGet();
+        int naFila = CODIGOS.incrementAndGet();
+        CountDownLatch gravando = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        doAnswer(invocacao -> {
+            Collection<Integer> codigos = invocacao.getArgument(0);
+            if (codigos.contains(travado)) {
+                gravando.countDown();
+                liberar.await(30, TimeUnit.SECONDS);
+            }
+            return invocacao.callRealMethod();
+        }).when(filtroCodigoDebito).existentes(any(), any());
+
+        ExecutorService outra = Executors.newSingleThreadExecutor();
+        try {
+            Future<Pagamento> primeiro = outra.submit(() -> agrupador.realizar(pix(travado)));
+            assertThat(gravando.await(10, TimeUnit.SECONDS)).isTrue();
+
+            assertThatThrownBy(() -> agrupador.realizar(pix(naFila)))
+                    .isInstanceOf(DataAccessResourceFailureException.class);
+            liberar.countDown();
+            assertThatThrownBy(() -> primeiro.get(10, TimeUnit.SECONDS))
+                    .hasCauseInstanceOf(DataAccessResourceFailureException.class);
+        } finally {
+            liberar.countDown();
+            outra.shutdownNow();
+        }
+
+        // o gravador é uma thread só, em ordem: quando este volta, os pedidos descartados já passaram por ele
+        agrupador.realizar(pix(CODIGOS.incrementAndGet()));
+        // os dois desistiram antes dos INSERTs do grupo: nenhum foi gravado
+        assertThat(contar(travado)).isZero();
+        assertThat(contar(naFila)).isZero();
+    }
+
+    // -------------------------------------------------------------------------
+    private Long contar(int codigo) {
+        return jdbc.queryForObject("SELECT COUNT(*) FROM pagamento WHERE codigo_debito = ?", Long.class, codigo);
+    }
+
+    private List<Future<Pagamento>> simultaneamente(List<PagamentoDTO> dtos) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(dtos.size());
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Callable<Pagamento>> tarefas = new ArrayList<>();
+            for (PagamentoDTO dto : dtos) {
+                tarefas.add(() -> {
+                    largada.await();
+                    return agrupador.realizar(dto);
+                });
+            }
+            List<Future<Pagamento>> futuros = new ArrayList<>();
+            tarefas.forEach(t -> futuros.add(executor.submit(t)));
+            largada.countDown();
+            for (Future<Pagamento> f : futuros) {
+                try {
+                    f.get();
+                } catch (ExecutionException ignorada) {
+                    // verificada por quem chamou
+                }
+            }
+            return futuros;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static PagamentoDTO pix(int codigo) {
+        return new PagamentoDTO(codigo, "52998224725", MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null);
+    }
+}
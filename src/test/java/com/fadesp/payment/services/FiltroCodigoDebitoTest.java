@@ -0,0 +1,81 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.ItemResultadoLoteDTO;
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.ResultadoLoteDTO;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.SituacaoItemLoteEnum;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:filtro-codigo;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "pagamento.outbox.habilitado=false"
+})
+class FiltroCodigoDebitoTest {
+
+    private static final AtomicInteger CODIGOS = new AtomicInteger(9_000_000);
+
+    @Autowired
+    PagamentoLoteService pagamentoLoteService;
+
+    @Autowired
+    PagamentoService pagamentoService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("lote só com códigos novos: nenhuma consulta de duplicidade")
+    void lote_novo_evita_consulta() {
+        double antes = evitadas();
+        List<PagamentoDTO> dtos = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            dtos.add(pix(CODIGOS.incrementAndGet()));
+        }
+
+        ResultadoLoteDTO resultado = pagamentoLoteService.realizarLote(dtos);
+
+        assertThat(resultado.criados()).isEqualTo(50);
+        assertThat(evitadas() - antes).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("duplicados continuam rejeitados: massa de exemplo (carregada na subida), criação individual e o próprio lote")
+    void duplicados_rejeitados() {
+        int individual = CODIGOS.incrementAndGet();
+        pagamentoService.realizar(pix(individual));
+        int novo = CODIGOS.incrementAndGet();
+
+        // 213261 vem da massa de exemplo (db/dados/h2)
+        ResultadoLoteDTO resultado = pagamentoLoteService.realizarLote(List.of(pix(213261), pix(individual), pix(novo)));
+
+        assertThat(resultado.itens())
+                .filteredOn(i -> i.situacao() == SituacaoItemLoteEnum.CRIADO)
+                .extracting(ItemResultadoLoteDTO::codigoDebito)
+                .containsExactly(novo);
+        assertThat(resultado.rejeitados()).isEqualTo(2);
+        assertThat(meterRegistry.get("pagamento.codigo_debito.filtro.verificacoes")
+                .tag("resultado", "existente").counter().count()).isGreaterThanOrEqualTo(2.0);
+        assertThat(meterRegistry.get("pagamento.codigo_debito.filtro.memoria").gauge().value()).isPositive();
+    }
+
+    private double evitadas() {
+        return meterRegistry.get("pagamento.codigo_debito.filtro.consultas_evitadas").counter().count();
+    }
+
+    private static PagamentoDTO pix(int codigo) {
+        return new PagamentoDTO(codigo, "52998224725", MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null);
+    }
+}
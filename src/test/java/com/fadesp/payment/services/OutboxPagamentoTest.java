@@ -0,0 +1,264 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.EventoPagamentoDTO;
+import com.fadesp.payment.domain.dtos.ItemResultadoLoteDTO;
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.ResultadoLoteDTO;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.exceptions.StatusPagamentoException;
+import com.fadesp.payment.repositories.EventoPagamentoRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+// relay agendado desligado: as rodadas de publicação são disparadas pelo próprio teste
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "pagamento.outbox.habilitado=false",
+        "pagamento.outbox.arquivo=target/outbox-test.ndjson"
+})
+@AutoConfigureMockMvc
+class OutboxPagamentoTest {
+
+    private static final AtomicInteger CODIGOS = new AtomicInteger(8_000_000);
+    private static final Path ARQUIVO = Path.of("target/outbox-test.ndjson");
+
+    @Autowired
+    PagamentoService pagamentoService;
+
+    @Autowired
+    PagamentoLoteService pagamentoLoteService;
+
+    @Autowired
+    RelayEventosPagamento relay;
+
+    @Autowired
+    FluxoEventosPagamento fluxo;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    EventoPagamentoRepository eventoPagamentoRepository;
+
+    @Autowired
+    ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final List<EventoPagamentoDTO> recebidos = new CopyOnWriteArrayList<>();
+    private Runnable cancelar;
+
+    @BeforeEach
+    void assinar() throws Exception {
+        publicar();
+        Files.deleteIfExists(ARQUIVO);
+        cancelar = fluxo.assinar(recebidos::add);
+    }
+
+    @AfterEach
+    void cancelarAssinatura() {
+        cancelar.run();
+    }
+
+    @Test
+    @DisplayName("realizar/atualizar/excluir: um evento por escrita no outbox, publicado pelo relay em ordem")
+    void escritas_geram_eventos() throws Exception {
+        Long pago = pagamentoService.realizar(novoDto()).getId();
+        pagamentoService.atualizar(new AtualizarPagamentoDTO(pago, StatusPagamentoEnum.PROCESSADO_SUCESSO));
+        Long excluido = pagamentoService.realizar(novoDto()).getId();
+        pagamentoService.excluir(excluido);
+
+        assertThat(naoPublicados(pago)).isEqualTo(2);
+        assertThat(publicar()).isEqualTo(4);
+        assertThat(naoPublicados(pago)).isZero();
+
+        assertThat(tipos(pago)).containsExactly("CRIADO", "STATUS_ALTERADO");
+        assertThat(tipos(excluido)).containsExactly("CRIADO", "EXCLUIDO");
+        EventoPagamentoDTO ultimo = recebidos.get(recebidos.size() - 1);
+        assertThat(ultimo.pagamento()).contains("\"ativo\":false").contains("\"versao\":1");
+
+        // publicador em arquivo recebeu o mesmo bloco
+        assertThat(Files.readAllLines(ARQUIVO)).hasSize(4)
+                .allSatisfy(linha -> assertThat(linha).startsWith("{\"id\":"));
+        assertThat(publicar()).isZero();
+    }
+
+    @Test
+    @DisplayName("escrita rejeitada: a transação volta atrás sem deixar evento")
+    void rollback_sem_evento() {
+        Long id = pagamentoService.realizar(novoDto()).getId();
+        assertThatThrownBy(() -> pagamentoService.atualizar(new AtualizarPagamentoDTO(id, StatusPagamentoEnum.PENDENTE_PROCESSAMENTO)))
+                .isInstanceOf(StatusPagamentoException.class);
+
+        publicar();
+        assertThat(tipos(id)).containsExactly("CRIADO");
+    }
+
+    @Test
+    @DisplayName("lote: ingestão e status em lote também geram eventos")
+    void lote_gera_eventos() {
+        ResultadoLoteDTO lote = pagamentoLoteService.realizarLote(List.of(novoDto(), novoDto()));
+        List<Long> ids = lote.itens().stream().map(ItemResultadoLoteDTO::id).toList();
+        pagamentoLoteService.atualizarStatusLote(ids.stream()
+                .map(id -> new AtualizarPagamentoDTO(id, StatusPagamentoEnum.PROCESSADO_FALHA))
+                .toList());
+
+        publicar();
+        for (Long id : ids) {
+            assertThat(tipos(id)).containsExactly("CRIADO", "STATUS_ALTERADO");
+        }
+    }
+
+    @Test
+    @DisplayName("GET /pagamentos/eventos: retoma pelo Last-Event-ID e segue com os eventos ao vivo")
+    void sse_retoma_e_acompanha() throws Exception {
+        Long antes = pagamentoService.realizar(novoDto()).getId();
+        publicar();
+        long ultimoVisto = jdbc.queryForObject("select max(posicao_publicacao) from evento_pagamento", Long.class);
+
+        Long perdido = pagamentoService.realizar(novoDto()).getId();
+        publicar();
+
+        MvcResult sse = mvc.perform(get("/pagamentos/eventos").header("Last-Event-ID", ultimoVisto))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        Long aoVivo = pagamentoService.realizar(novoDto()).getId();
+        publicar();
+
+        String corpo = sse.getResponse().getContentAsString();
+        assertThat(corpo).doesNotContain("\"pagamentoId\":" + antes + ",")
+                .contains("\"pagamentoId\":" + perdido + ",")
+                .contains("\"pagamentoId\":" + aoVivo + ",")
+                .contains("event:CRIADO");
+        assertThat(corpo.indexOf("\"pagamentoId\":" + perdido + ","))
+                .isLessThan(corpo.indexOf("\"pagamentoId\":" + aoVivo + ","));
+    }
+
+    @Test
+    @DisplayName("relay sem nenhum PublicadorEventos: o evento continua pendente, sem posição")
+    void relay_sem_publicador() {
+        RelayEventosPagamento semDestino = new RelayEventosPagamento(eventoPagamentoRepository, List.of(),
+                transactionManager, meterRegistry, true, 500, Duration.ofDays(7));
+        Long id = pagamentoService.realizar(novoDto()).getId();
+
+        assertThat(semDestino.publicarPendentes()).isZero();
+        assertThat(jdbc.queryForObject("select posicao_publicacao from evento_pagamento where pagamento_id = ?",
+                Long.class, id)).isNull();
+
+        assertThat(publicar()).isEqualTo(1);
+        assertThat(posicao(id)).isPositive();
+    }
+
+    @Test
+    @DisplayName("GET /pagamentos/eventos: evento de id menor publicado depois do Last-Event-ID também é reenviado")
+    void sse_retoma_pela_ordem_de_publicacao() throws Exception {
+        Long atrasado = pagamentoService.realizar(novoDto()).getId();
+        Long adiantado = pagamentoService.realizar(novoDto()).getId();
+        long eventoAtrasado = jdbc.queryForObject("select id from evento_pagamento where pagamento_id = ?", Long.class, atrasado);
+
+        // outra transação segura o evento de id menor: a rodada pula a linha e publica só o de id maior
+        CountDownLatch travado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        ExecutorService outra = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> trava = outra.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(s -> {
+                jdbc.queryForList("select id from evento_pagamento where id = ? for update", eventoAtrasado);
+                travado.countDown();
+                aguardar(liberar);
+            }));
+            travado.await(30, TimeUnit.SECONDS);
+            assertThat(publicar()).isEqualTo(1);
+            liberar.countDown();
+            trava.get(30, TimeUnit.SECONDS);
+        } finally {
+            outra.shutdownNow();
+        }
+        long ultimoVisto = posicao(adiantado);
+        assertThat(publicar()).isEqualTo(1);
+        assertThat(posicao(atrasado)).isGreaterThan(ultimoVisto);
+
+        MvcResult sse = mvc.perform(get("/pagamentos/eventos").header("Last-Event-ID", ultimoVisto))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        assertThat(sse.getResponse().getContentAsString())
+                .contains("\"pagamentoId\":" + atrasado + ",")
+                .doesNotContain("\"pagamentoId\":" + adiantado + ",");
+    }
+
+    // -------------------------------------------------------------------------
+    // relay e, em seguida, a leitura do stream em memória (o agendamento dela também roda, em paralelo)
+    private int publicar() {
+        int publicados = relay.publicarPendentes();
+        fluxo.acompanhar();
+        return publicados;
+    }
+
+    private long posicao(Long pagamentoId) {
+        return jdbc.queryForObject("select posicao_publicacao from evento_pagamento where pagamento_id = ?",
+                Long.class, pagamentoId);
+    }
+
+    private static void aguardar(CountDownLatch latch) {
+        try {
+            latch.await(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<String> tipos(Long pagamentoId) {
+        return recebidos.stream()
+                .filter(e -> e.pagamentoId().equals(pagamentoId))
+                .map(e -> e.tipo().name())
+                .toList();
+    }
+
+    private int naoPublicados(Long pagamentoId) {
+        return jdbc.queryForObject(
+                "select count(*) from evento_pagamento where pagamento_id = ? and publicado_em is null",
+                Integer.class, pagamentoId);
+    }
+
+    private static PagamentoDTO novoDto() {
+        return new PagamentoDTO(CODIGOS.incrementAndGet(), "52998224725", MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null);
+    }
+}
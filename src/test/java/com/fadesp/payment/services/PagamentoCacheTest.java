@@ -0,0 +1,92 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// leituras fora de transação (como no controller); banco próprio para não misturar com a massa dos outros testes
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cache;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class PagamentoCacheTest {
+
+    private static final AtomicInteger CODIGOS = new AtomicInteger(6_000_000);
+
+    @Autowired
+    PagamentoService service;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Test
+    @DisplayName("buscarPorId(): a segunda leitura vem do cache e conta como hit")
+    void segunda_leitura_do_cache() {
+        Long id = novoPagamento();
+        double hitsAntes = hits();
+
+        service.buscarPorId(id).orElseThrow();
+        service.buscarPorId(id).orElseThrow();
+
+        assertThat(hits() - hitsAntes).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("buscarPorId(): acertos devolvem a mesma representação imutável")
+    void acerto_devolve_registro_imutavel() {
+        Long id = novoPagamento();
+        PagamentoRespostaDTO primeira = service.buscarPorId(id).orElseThrow();
+        PagamentoRespostaDTO segunda = service.buscarPorId(id).orElseThrow();
+
+        assertThat(segunda).isSameAs(primeira);
+        assertThat(segunda.status()).isEqualTo(StatusPagamentoEnum.PENDENTE_PROCESSAMENTO);
+    }
+
+    @Test
+    @DisplayName("atualizar()/excluir(): invalidam a entrada após o commit")
+    void escrita_invalida() {
+        Long id = novoPagamento();
+        service.buscarPorId(id).orElseThrow();
+
+        service.atualizar(new AtualizarPagamentoDTO(id, StatusPagamentoEnum.PROCESSADO_FALHA));
+        assertThat(service.buscarPorId(id).orElseThrow().status()).isEqualTo(StatusPagamentoEnum.PROCESSADO_FALHA);
+
+        service.atualizar(new AtualizarPagamentoDTO(id, StatusPagamentoEnum.PENDENTE_PROCESSAMENTO));
+        service.buscarPorId(id).orElseThrow();
+        service.excluir(id);
+        assertThat(service.buscarPorId(id).orElseThrow().ativo()).isFalse();
+    }
+
+    @Test
+    @DisplayName("buscarPorId(): id inexistente não fica guardado no cache")
+    void ausencia_nao_cacheada() {
+        assertThat(service.buscarPorId(Long.MAX_VALUE)).isEmpty();
+        assertThat(service.buscarPorId(Long.MAX_VALUE)).isEmpty();
+    }
+
+    // -------------------------------------------------------------------------
+    private Long novoPagamento() {
+        return service.realizar(new PagamentoDTO(CODIGOS.incrementAndGet(), "52998224725",
+                MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null)).getId();
+    }
+
+    private double hits() {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", PagamentoCache.NOME)
+                .tag("result", "hit")
+                .functionCounter()
+                .count();
+    }
+}
@@ -0,0 +1,246 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.ItemResultadoLoteDTO;
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.RespostaIdempotenteDTO;
+import com.fadesp.payment.domain.dtos.ResultadoLoteDTO;
+import com.fadesp.payment.domain.entities.Idempotencia;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.SituacaoItemLoteEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.exceptions.StatusPagamentoException;
+import com.fadesp.payment.repositories.IdempotenciaRepository;
+import com.fadesp.payment.repositories.PagamentoRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+// estresse do compare-and-set de status e da idempotência; banco próprio para não misturar com a massa dos outros testes
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:concorrencia;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false"
+})
+class PagamentoConcorrenciaTest {
+
+    private static final Logger log = LoggerFactory.getLogger(PagamentoConcorrenciaTest.class);
+    private static final int THREADS = 16;
+
+    @Autowired
+    PagamentoService service;
+
+    @Autowired
+    PagamentoRepository pagamentoRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    IdempotenciaService idempotenciaService;
+
+    @Autowired
+    PagamentoLoteService pagamentoLoteService;
+
+    @Autowired
+    IdempotenciaRepository idempotenciaRepository;
+
+    @MockitoSpyBean
+    FiltroCodigoDebito filtroCodigoDebito;
+
+    private static final AtomicInteger CODIGOS = new AtomicInteger(5_000_000);
+
+    @Test
+    @DisplayName("PENDENTE -> SUCESSO/FALHA disputado por várias threads: exatamente uma vence e o SUCESSO é final")
+    void uma_unica_transicao_vence() throws Exception {
+        for (int rodada = 0; rodada < 20; rodada++) {
+            Long id = novoPagamento();
+
+            AtomicInteger vencedores = new AtomicInteger();
+            AtomicInteger rejeitados = new AtomicInteger();
+            disputar(THREADS, i -> {
+                StatusPagamentoEnum alvo = (i % 2 == 0)
+                        ? StatusPagamentoEnum.PROCESSADO_SUCESSO
+                        : StatusPagamentoEnum.PROCESSADO_FALHA;
+                try {
+                    service.atualizar(new AtualizarPagamentoDTO(id, alvo));
+                    vencedores.incrementAndGet();
+                } catch (StatusPagamentoException | OptimisticLockingFailureException ex) {
+                    rejeitados.incrementAndGet();
+                }
+            });
+
+            Pagamento resultado = pagamentoRepository.findById(id).orElseThrow();
+            assertThat(vencedores.get()).isEqualTo(1);
+            assertThat(rejeitados.get()).isEqualTo(THREADS - 1);
+            assertThat(resultado.getStatus()).isNotEqualTo(StatusPagamentoEnum.PENDENTE_PROCESSAMENTO);
+            assertThat(resultado.getVersao()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    @DisplayName("ciclo FALHA <-> PENDENTE sob contenção: cada passo é aplicado uma única vez (sem lost update)")
+    void ciclo_sem_atualizacao_perdida() throws Exception {
+        Long id = novoPagamento();
+        int operacoes = 2_000;
+        AtomicInteger aplicadas = new AtomicInteger();
+
+        long inicio = System.nanoTime();
+        disputar(operacoes, i -> {
+            StatusPagamentoEnum alvo = switch (i % 3) {
+                case 0 -> StatusPagamentoEnum.PROCESSADO_FALHA;
+                case 1 -> StatusPagamentoEnum.PENDENTE_PROCESSAMENTO;
+                default -> StatusPagamentoEnum.PROCESSADO_FALHA;
+            };
+            try {
+                service.atualizar(new AtualizarPagamentoDTO(id, alvo));
+                aplicadas.incrementAndGet();
+            } catch (StatusPagamentoException | OptimisticLockingFailureException ignorada) {
+                // transição inválida para o estado corrente, ou perdeu a corrida: esperado sob contenção
+            }
+        });
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        Pagamento resultado = pagamentoRepository.findById(id).orElseThrow();
+        // cada transição aplicada incrementa a versão exatamente uma vez
+        assertThat(resultado.getVersao()).isEqualTo(aplicadas.get());
+        // partindo de PENDENTE e alternando, a paridade das transições define o estado final
+        StatusPagamentoEnum esperado = (aplicadas.get() % 2 == 1)
+                ? StatusPagamentoEnum.PROCESSADO_FALHA
+                : StatusPagamentoEnum.PENDENTE_PROCESSAMENTO;
+        assertThat(resultado.getStatus()).isEqualTo(esperado);
+
+        log.info("Contenção em 1 linha: {} tentativas, {} aplicadas, {} tentativas/s com {} threads",
+                operacoes, aplicadas.get(), Math.round(operacoes / segundos), THREADS);
+    }
+
+    @Test
+    @DisplayName("mesma Idempotency-Key em paralelo: um único pagamento criado, as demais recebem a repetição")
+    void idempotencia_sob_concorrencia() throws Exception {
+        for (int rodada = 0; rodada < 10; rodada++) {
+            String chave = "concorrente-" + rodada;
+            PagamentoDTO dto = new PagamentoDTO(CODIGOS.incrementAndGet(), "52998224725",
+                    MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null);
+
+            List<RespostaIdempotenteDTO> respostas = Collections.synchronizedList(new ArrayList<>());
+            disputar(THREADS, i -> respostas.add(idempotenciaService.realizar(chave, dto)));
+
+            assertThat(respostas).hasSize(THREADS);
+            assertThat(respostas).extracting(RespostaIdempotenteDTO::pagamentoId).containsOnly(respostas.get(0).pagamentoId());
+            assertThat(respostas).filteredOn(r -> !r.repetida()).hasSize(1);
+            assertThat(pagamentoRepository.findByCodigoDebito(dto.codigoDebito())).isPresent();
+        }
+    }
+
+    @Test
+    @DisplayName("chave vencida ainda na tabela (antes da limpeza): cria um pagamento novo e substitui o registro")
+    void chave_vencida_nao_e_repetida() {
+        PagamentoDTO dto = pix(CODIGOS.incrementAndGet());
+        String hash = IdempotenciaService.hashRequisicao(dto);
+        idempotenciaRepository.save(new Idempotencia("vencida", hash, 1L, 201,
+                Instant.now().minus(Duration.ofDays(2)), null));
+
+        RespostaIdempotenteDTO resposta = idempotenciaService.realizar("vencida", dto);
+
+        assertThat(resposta.repetida()).isFalse();
+        Pagamento criado = pagamentoRepository.findByCodigoDebito(dto.codigoDebito()).orElseThrow();
+        assertThat(resposta.pagamentoId()).isEqualTo(criado.getId());
+        assertThat(idempotenciaRepository.findById("vencida").orElseThrow().getPagamentoId()).isEqualTo(criado.getId());
+    }
+
+    @Test
+    @DisplayName("código gravado por outra requisição entre a checagem e o INSERT do lote: só o item repetido é rejeitado")
+    void lote_com_conflito_entre_checagem_e_insert() throws Exception {
+        PagamentoDTO disputado = pix(CODIGOS.incrementAndGet());
+        PagamentoDTO livre = pix(CODIGOS.incrementAndGet());
+        AtomicBoolean primeiraChecagem = new AtomicBoolean(true);
+        doAnswer(invocacao -> {
+            Object existentes = invocacao.callRealMethod();
+            if (primeiraChecagem.getAndSet(false)) {
+                // outra requisição, com conexão e commit próprios, grava o código depois da checagem do bloco
+                ExecutorService outra = Executors.newSingleThreadExecutor();
+                try {
+                    outra.submit(() -> service.realizar(disputado)).get(30, TimeUnit.SECONDS);
+                } finally {
+                    outra.shutdownNow();
+                }
+            }
+            return existentes;
+        }).when(filtroCodigoDebito).existentes(any(), any());
+        double criadosAntes = criadosPix();
+
+        ResultadoLoteDTO resultado = pagamentoLoteService.realizarLote(List.of(disputado, livre));
+
+        assertThat(resultado.criados()).isEqualTo(1);
+        assertThat(resultado.itens()).filteredOn(i -> i.situacao() == SituacaoItemLoteEnum.REJEITADO)
+                .extracting(ItemResultadoLoteDTO::codigoDebito)
+                .containsExactly(disputado.codigoDebito());
+        assertThat(pagamentoRepository.findByCodigoDebito(livre.codigoDebito())).isPresent();
+        // o bloco desfeito não conta: só o pagamento da outra requisição e o item livre, gravado na nova tentativa
+        assertThat(criadosPix() - criadosAntes).isEqualTo(2.0);
+    }
+
+    // -------------------------------------------------------------------------
+    private double criadosPix() {
+        Counter criados = meterRegistry.find("pagamento.criados").tag("metodo", "PIX").counter();
+        return criados == null ? 0 : criados.count();
+    }
+
+    private static PagamentoDTO pix(int codigo) {
+        return new PagamentoDTO(codigo, "52998224725", MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null);
+    }
+
+    private Long novoPagamento() {
+        return service.realizar(new PagamentoDTO(CODIGOS.incrementAndGet(), "52998224725",
+                MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null)).getId();
+    }
+
+    private void disputar(int tarefas, IntConsumer tarefa) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        try {
+            List<Future<?>> futuros = new ArrayList<>(tarefas);
+            for (int i = 0; i < tarefas; i++) {
+                int indice = i;
+                futuros.add(executor.submit(() -> {
+                    largada.await();
+                    tarefa.accept(indice);
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> futuro : futuros) {
+                futuro.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
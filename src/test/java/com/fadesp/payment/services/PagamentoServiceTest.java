@@ -2,27 +2,42 @@ package com.fadesp.payment.services;
 
 import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
 import com.fadesp.payment.domain.dtos.FiltroPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoAtualizadoDTO;
 import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
 import com.fadesp.payment.domain.entities.Pagamento;
 import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
 import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import com.fadesp.payment.domain.enums.TipoDocumentoEnum;
+import com.fadesp.payment.domain.enums.TipoEventoPagamentoEnum;
 import com.fadesp.payment.exceptions.MetodoPagamentoException;
+import com.fadesp.payment.exceptions.PaginacaoException;
 import com.fadesp.payment.exceptions.StatusPagamentoException;
+import com.fadesp.payment.repositories.PagamentoArquivadoRepository;
 import com.fadesp.payment.repositories.PagamentoRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityExistsException;
 import jakarta.persistence.EntityNotFoundException;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Window;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -34,6 +49,27 @@ class PagamentoServiceTest {
     @Mock
     PagamentoRepository pagamentoRepository;
 
+    @Mock
+    PagamentoArquivadoRepository pagamentoArquivadoRepository;
+
+    @Mock
+    PagamentoCache pagamentoCache;
+
+    @Mock
+    EventoPagamentoService eventoPagamentoService;
+
+    @Mock
+    ObservadoresPagamento observadores;
+
+    @Spy
+    PagamentoMetricas metricas = new PagamentoMetricas(new SimpleMeterRegistry());
+
+    @Mock
+    FiltroCodigoDebito filtroCodigoDebito;
+
+    @Mock
+    ResumoPagadorService resumoPagadorService;
+
     @InjectMocks
     PagamentoService service;
 
@@ -48,14 +84,13 @@ class PagamentoServiceTest {
         // arrange
         PagamentoDTO dto = new PagamentoDTO(
                 456,
-                "52998224725", // CPF válido
+                "529.982.247-25", // CPF válido, formatado
                 MetodoPagamentoEnum.CARTAO_CREDITO,
                 new BigDecimal("500"),               // sem casas decimais
                 "4111111111111111"
         );
 
-        when(pagamentoRepository.findByCodigoDebito(456)).thenReturn(Optional.empty());
-        when(pagamentoRepository.save(any(Pagamento.class)))
+        when(pagamentoRepository.saveAndFlush(any(Pagamento.class)))
                 .thenAnswer(inv -> {
                     Pagamento p = inv.getArgument(0);
                     p.setId(1L);
@@ -67,14 +102,16 @@ class PagamentoServiceTest {
 
         // assert
         assertThat(salvo.getId()).isNotNull();
-        assertThat(salvo.getCpfCnpjPagador()).isEqualTo("52998224725");
+        assertThat(salvo.getCpfCnpjPagador()).isEqualTo("52998224725"); // <<< só dígitos
+        assertThat(salvo.getDocumentoPagador()).isEqualTo(52998224725L);
+        assertThat(salvo.getTipoDocumento()).isEqualTo(TipoDocumentoEnum.CPF);
         assertThat(salvo.getNumeroCartao()).isEqualTo("1111"); // <<< máscara!
         assertThat(salvo.getValorPagamento()).isEqualByComparingTo("500.00"); // <<< 2 casas
         assertThat(salvo.getStatus()).isEqualTo(StatusPagamentoEnum.PENDENTE_PROCESSAMENTO);
         assertThat(salvo.getAtivo()).isTrue();
 
-        verify(pagamentoRepository).findByCodigoDebito(456);
-        verify(pagamentoRepository).save(any(Pagamento.class));
+        verify(pagamentoRepository, never()).findByCodigoDebito(anyInt());
+        verify(pagamentoRepository).saveAndFlush(any(Pagamento.class));
     }
 
     @Test
@@ -88,8 +125,7 @@ class PagamentoServiceTest {
                 null
         );
 
-        when(pagamentoRepository.findByCodigoDebito(789)).thenReturn(Optional.empty());
-        when(pagamentoRepository.save(any(Pagamento.class)))
+        when(pagamentoRepository.saveAndFlush(any(Pagamento.class)))
                 .thenAnswer(inv -> {
                     Pagamento p = inv.getArgument(0);
                     p.setId(2L);
@@ -100,29 +136,61 @@ class PagamentoServiceTest {
 
         assertThat(salvo.getNumeroCartao()).isNull();
         assertThat(salvo.getValorPagamento()).isEqualByComparingTo("100.10");
-        verify(pagamentoRepository).save(any(Pagamento.class));
+        verify(pagamentoRepository).saveAndFlush(any(Pagamento.class));
+        // código que o filtro garante inédito: o arquivo não é consultado
+        verify(pagamentoArquivadoRepository, never()).findCodigosDebitoArquivados(any());
+    }
+
+    @Test
+    @DisplayName("realizar(): código que o filtro não descarta é conferido no arquivo")
+    void realizar_codigo_arquivado() {
+        PagamentoDTO dto = new PagamentoDTO(
+                125, "52998224725", MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null
+        );
+        when(filtroCodigoDebito.talvezExistentes(List.of(125))).thenReturn(List.of(125));
+        when(pagamentoRepository.saveAndFlush(any(Pagamento.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(pagamentoArquivadoRepository.findCodigosDebitoArquivados(List.of(125))).thenReturn(List.of(125));
+
+        assertThatThrownBy(() -> service.realizar(dto))
+                .isInstanceOf(EntityExistsException.class)
+                .hasMessageContaining("Já existe um pagamento");
     }
 
     @Test
-    @DisplayName("realizar(): impede duplicidade de código de débito")
+    @DisplayName("realizar(): impede duplicidade de código de débito (violação da constraint única)")
     void realizar_codigo_debito_duplicado() {
         PagamentoDTO dto = new PagamentoDTO(
                 123, "52998224725", MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null
         );
-        when(pagamentoRepository.findByCodigoDebito(123)).thenReturn(Optional.of(new Pagamento()));
+        when(pagamentoRepository.saveAndFlush(any(Pagamento.class))).thenThrow(new DataIntegrityViolationException(
+                "duplicado",
+                new ConstraintViolationException("duplicado", new SQLException(), "PUBLIC.UK_PAGAMENTO_CODIGO_DEBITO")));
 
         assertThatThrownBy(() -> service.realizar(dto))
                 .isInstanceOf(EntityExistsException.class)
                 .hasMessageContaining("Já existe um pagamento");
     }
 
+    @Test
+    @DisplayName("realizar(): outras violações de integridade não viram duplicidade")
+    void realizar_outra_violacao() {
+        PagamentoDTO dto = new PagamentoDTO(
+                124, "52998224725", MetodoPagamentoEnum.PIX, new BigDecimal("10.00"), null
+        );
+        when(pagamentoRepository.saveAndFlush(any(Pagamento.class))).thenThrow(new DataIntegrityViolationException(
+                "nulo",
+                new ConstraintViolationException("nulo", new SQLException(), "NN_VALOR_PAGAMENTO")));
+
+        assertThatThrownBy(() -> service.realizar(dto))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+
     @Test
     @DisplayName("realizar(): CPF/CNPJ inválido lança IllegalArgumentException")
     void realizar_documento_invalido() {
         PagamentoDTO dto = new PagamentoDTO(
                 999, "00000000000", MetodoPagamentoEnum.PIX, new BigDecimal("1.00"), null
         );
-        when(pagamentoRepository.findByCodigoDebito(999)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> service.realizar(dto))
                 .isInstanceOf(IllegalArgumentException.class)
@@ -135,7 +203,6 @@ class PagamentoServiceTest {
         PagamentoDTO dto = new PagamentoDTO(
                 400, "52998224725", MetodoPagamentoEnum.CARTAO_DEBITO, new BigDecimal("5.00"), null
         );
-        when(pagamentoRepository.findByCodigoDebito(400)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> service.realizar(dto))
                 .isInstanceOf(MetodoPagamentoException.class)
@@ -148,7 +215,6 @@ class PagamentoServiceTest {
         PagamentoDTO dto = new PagamentoDTO(
                 401, "52998224725", MetodoPagamentoEnum.PIX, new BigDecimal("5.00"), "4111111111111111"
         );
-        when(pagamentoRepository.findByCodigoDebito(401)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> service.realizar(dto))
                 .isInstanceOf(MetodoPagamentoException.class)
@@ -158,20 +224,31 @@ class PagamentoServiceTest {
     @Nested
     class AtualizarStatus {
 
+        private static final StatusPagamentoEnum PENDENTE = StatusPagamentoEnum.PENDENTE_PROCESSAMENTO;
+        private static final StatusPagamentoEnum SUCESSO = StatusPagamentoEnum.PROCESSADO_SUCESSO;
+        private static final StatusPagamentoEnum FALHA = StatusPagamentoEnum.PROCESSADO_FALHA;
+
         @Test
-        @DisplayName("atualizar(): PENDENTE -> SUCESSO ok")
+        @DisplayName("atualizar(): PENDENTE -> SUCESSO ok (UPDATE condicional, sem SELECT antes)")
         void pendente_para_sucesso() {
             Pagamento p = new Pagamento();
             p.setId(1L);
             p.setAtivo(true);
-            p.setStatus(StatusPagamentoEnum.PENDENTE_PROCESSAMENTO);
+            p.setStatus(SUCESSO);
 
-            when(pagamentoRepository.findById(1L)).thenReturn(Optional.of(p));
-            when(pagamentoRepository.save(any(Pagamento.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(pagamentoRepository.compararEAtualizarStatus(1L, PENDENTE, SUCESSO)).thenReturn(1);
+            when(pagamentoRepository.findAtualizadoById(1L)).thenReturn(Optional.of(atualizado(p)));
 
-            Pagamento salvo = service.atualizar(new AtualizarPagamentoDTO(1L, StatusPagamentoEnum.PROCESSADO_SUCESSO));
+            PagamentoRespostaDTO salvo = service.atualizar(new AtualizarPagamentoDTO(1L, SUCESSO));
 
-            assertThat(salvo.getStatus()).isEqualTo(StatusPagamentoEnum.PROCESSADO_SUCESSO);
+            assertThat(salvo.status()).isEqualTo(SUCESSO);
+            var ordem = inOrder(pagamentoRepository);
+            ordem.verify(pagamentoRepository).compararEAtualizarStatus(1L, PENDENTE, SUCESSO);
+            ordem.verify(pagamentoRepository).findAtualizadoById(1L);
+            // uma única releitura depois do UPDATE
+            verify(pagamentoRepository, never()).findRespostaById(any());
+            verify(pagamentoRepository, never()).findById(any());
+            verify(pagamentoRepository, never()).save(any());
         }
 
         @Test
@@ -180,12 +257,14 @@ class PagamentoServiceTest {
             Pagamento p = new Pagamento();
             p.setId(1L);
             p.setAtivo(true);
-            p.setStatus(StatusPagamentoEnum.PROCESSADO_SUCESSO);
+            p.setStatus(SUCESSO);
 
+            when(pagamentoRepository.compararEAtualizarStatus(1L, FALHA, PENDENTE)).thenReturn(0);
             when(pagamentoRepository.findById(1L)).thenReturn(Optional.of(p));
 
-            assertThatThrownBy(() -> service.atualizar(new AtualizarPagamentoDTO(1L, StatusPagamentoEnum.PENDENTE_PROCESSAMENTO)))
-                    .isInstanceOf(StatusPagamentoException.class);
+            assertThatThrownBy(() -> service.atualizar(new AtualizarPagamentoDTO(1L, PENDENTE)))
+                    .isInstanceOf(StatusPagamentoException.class)
+                    .hasMessageContaining("já processado");
         }
 
         @Test
@@ -194,19 +273,23 @@ class PagamentoServiceTest {
             Pagamento p = new Pagamento();
             p.setId(1L);
             p.setAtivo(true);
-            p.setStatus(StatusPagamentoEnum.PROCESSADO_FALHA);
+            p.setStatus(PENDENTE);
 
-            when(pagamentoRepository.findById(1L)).thenReturn(Optional.of(p));
-            when(pagamentoRepository.save(any(Pagamento.class))).thenAnswer(inv -> inv.getArgument(0));
+            when(pagamentoRepository.compararEAtualizarStatus(1L, FALHA, PENDENTE)).thenReturn(1);
+            when(pagamentoRepository.findAtualizadoById(1L)).thenReturn(Optional.of(atualizado(p)));
 
             // ok
-            Pagamento salvo = service.atualizar(new AtualizarPagamentoDTO(1L, StatusPagamentoEnum.PENDENTE_PROCESSAMENTO));
-            assertThat(salvo.getStatus()).isEqualTo(StatusPagamentoEnum.PENDENTE_PROCESSAMENTO);
+            PagamentoRespostaDTO salvo = service.atualizar(new AtualizarPagamentoDTO(1L, PENDENTE));
+            assertThat(salvo.status()).isEqualTo(PENDENTE);
+            verify(pagamentoRepository).zerarProcessamento(List.of(1L));
 
             // agora tenta outra transição inválida
-            p.setStatus(StatusPagamentoEnum.PROCESSADO_FALHA);
-            assertThatThrownBy(() -> service.atualizar(new AtualizarPagamentoDTO(1L, StatusPagamentoEnum.PROCESSADO_SUCESSO)))
-                    .isInstanceOf(StatusPagamentoException.class);
+            p.setStatus(FALHA);
+            when(pagamentoRepository.findById(1L)).thenReturn(Optional.of(p));
+            when(pagamentoRepository.compararEAtualizarStatus(1L, PENDENTE, SUCESSO)).thenReturn(0);
+            assertThatThrownBy(() -> service.atualizar(new AtualizarPagamentoDTO(1L, SUCESSO)))
+                    .isInstanceOf(StatusPagamentoException.class)
+                    .hasMessageContaining("PROCESSADO_FALHA só para PENDENTE_PROCESSAMENTO");
         }
 
         @Test
@@ -215,11 +298,12 @@ class PagamentoServiceTest {
             Pagamento p = new Pagamento();
             p.setId(1L);
             p.setAtivo(false);
-            p.setStatus(StatusPagamentoEnum.PENDENTE_PROCESSAMENTO);
+            p.setStatus(PENDENTE);
 
+            when(pagamentoRepository.compararEAtualizarStatus(1L, PENDENTE, SUCESSO)).thenReturn(0);
             when(pagamentoRepository.findById(1L)).thenReturn(Optional.of(p));
 
-            assertThatThrownBy(() -> service.atualizar(new AtualizarPagamentoDTO(1L, StatusPagamentoEnum.PROCESSADO_SUCESSO)))
+            assertThatThrownBy(() -> service.atualizar(new AtualizarPagamentoDTO(1L, SUCESSO)))
                     .isInstanceOf(StatusPagamentoException.class)
                     .hasMessageContaining("inativo");
         }
@@ -227,11 +311,29 @@ class PagamentoServiceTest {
         @Test
         @DisplayName("atualizar(): id inexistente => 404")
         void atualizar_inexistente() {
+            when(pagamentoRepository.compararEAtualizarStatus(99L, PENDENTE, SUCESSO)).thenReturn(0);
             when(pagamentoRepository.findById(99L)).thenReturn(Optional.empty());
 
-            assertThatThrownBy(() -> service.atualizar(new AtualizarPagamentoDTO(99L, StatusPagamentoEnum.PROCESSADO_SUCESSO)))
+            assertThatThrownBy(() -> service.atualizar(new AtualizarPagamentoDTO(99L, SUCESSO)))
                     .isInstanceOf(EntityNotFoundException.class);
         }
+
+        @Test
+        @DisplayName("atualizar(): UPDATE sem efeito mas transição válida na releitura => conflito concorrente (409)")
+        void atualizar_conflito_concorrente() {
+            Pagamento p = new Pagamento();
+            p.setId(1L);
+            p.setAtivo(true);
+            p.setStatus(PENDENTE);
+
+            when(pagamentoRepository.compararEAtualizarStatus(1L, PENDENTE, SUCESSO)).thenReturn(0);
+            when(pagamentoRepository.findById(1L)).thenReturn(Optional.of(p));
+
+            // OptimisticLockingFailureException: 409 no GlobalExceptionHandler, não o 400 das regras de negócio
+            assertThatThrownBy(() -> service.atualizar(new AtualizarPagamentoDTO(1L, SUCESSO)))
+                    .isInstanceOf(OptimisticLockingFailureException.class)
+                    .hasMessageContaining("concorrentemente");
+        }
     }
 
     @Nested
@@ -250,7 +352,8 @@ class PagamentoServiceTest {
             service.excluir(10L);
 
             assertThat(p.getAtivo()).isFalse();
-            verify(pagamentoRepository).save(p);
+            verify(pagamentoRepository).saveAndFlush(p);
+            verify(eventoPagamentoService).registrar(eq(TipoEventoPagamentoEnum.EXCLUIDO), any(PagamentoRespostaDTO.class));
         }
 
         @Test
@@ -278,27 +381,80 @@ class PagamentoServiceTest {
     }
 
     @Test
-    @DisplayName("buscarPorId(): repassa para repository")
+    @DisplayName("buscarPorId(): passa pelo cache, com a projeção do repository como carregador")
     void buscarPorId() {
-        Pagamento p = new Pagamento();
-        p.setId(1L);
-        when(pagamentoRepository.findById(1L)).thenReturn(Optional.of(p));
+        PagamentoRespostaDTO p = resposta(1L);
+        when(pagamentoRepository.findRespostaById(1L)).thenReturn(Optional.of(p));
+        when(pagamentoCache.buscar(eq(1L), any()))
+                .thenAnswer(inv -> inv.<Function<Long, Optional<PagamentoRespostaDTO>>>getArgument(1).apply(1L));
 
-        Optional<Pagamento> opt = service.buscarPorId(1L);
+        Optional<PagamentoRespostaDTO> opt = service.buscarPorId(1L);
 
-        assertThat(opt).isPresent();
-        verify(pagamentoRepository).findById(1L);
+        assertThat(opt).contains(p);
+        verify(pagamentoRepository).findRespostaById(1L);
+        verify(pagamentoRepository, never()).findById(any());
     }
 
     @Test
-    @DisplayName("listar(): chama repository.findAll(Specification)")
+    @DisplayName("listar(): usa a projeção por Specification, sem carregar entidades")
     void listar_com_filtro() {
-        when(pagamentoRepository.findAll(any(Specification.class))).thenReturn(List.of());
+        when(pagamentoRepository.listarRespostas(qualquerSpec())).thenReturn(List.of());
 
-        var filtro = new FiltroPagamentoDTO(null, null, null);
-        List<Pagamento> lista = service.listar(filtro);
+        var filtro = new FiltroPagamentoDTO(null, null, null, null, null);
+        List<PagamentoRespostaDTO> lista = service.listar(filtro);
 
         assertThat(lista).isEmpty();
-        verify(pagamentoRepository).findAll(any(Specification.class));
+        verify(pagamentoRepository).listarRespostas(qualquerSpec());
+        verify(pagamentoRepository, never()).findAll(qualquerSpec());
+    }
+
+    @Test
+    @DisplayName("listarPorCursor(): busca limite + 1 após o cursor; a linha excedente só indica próxima página")
+    void listarPorCursor_delega() {
+        when(pagamentoRepository.listarRespostas(qualquerSpec(), eq(4L), eq(2)))
+                .thenReturn(List.of(resposta(5L), resposta(6L)));
+
+        Window<PagamentoRespostaDTO> resultado = service.listarPorCursor(new FiltroPagamentoDTO(null, null, null, null, null), 4L, 1);
+
+        assertThat(resultado.getContent()).extracting(PagamentoRespostaDTO::id).containsExactly(5L);
+        assertThat(resultado.hasNext()).isTrue();
+    }
+
+    @Test
+    @DisplayName("listarPorCursor(): última página => sem próxima")
+    void listarPorCursor_ultima_pagina() {
+        when(pagamentoRepository.listarRespostas(qualquerSpec(), isNull(), eq(3)))
+                .thenReturn(List.of(resposta(1L), resposta(2L)));
+
+        Window<PagamentoRespostaDTO> resultado = service.listarPorCursor(new FiltroPagamentoDTO(null, null, null, null, null), null, 2);
+
+        assertThat(resultado.getContent()).hasSize(2);
+        assertThat(resultado.hasNext()).isFalse();
+    }
+
+    private static PagamentoRespostaDTO resposta(Long id) {
+        return new PagamentoRespostaDTO(id, id.intValue(), "52998224725", MetodoPagamentoEnum.PIX, null,
+                new BigDecimal("1.00"), StatusPagamentoEnum.PENDENTE_PROCESSAMENTO, true, Instant.EPOCH, Instant.EPOCH, 0L);
+    }
+
+    private static PagamentoAtualizadoDTO atualizado(Pagamento p) {
+        return new PagamentoAtualizadoDTO(PagamentoRespostaDTO.de(p), p.getDocumentoPagador(), p.getTipoDocumento());
+    }
+
+    // any(Specification.class) devolve o tipo cru e gera aviso de conversão não verificada
+    private static Specification<Pagamento> qualquerSpec() {
+        return any();
+    }
+
+    @Test
+    @DisplayName("listarPorCursor(): limite fora do intervalo => erro")
+    void listarPorCursor_limite_invalido() {
+        var filtro = new FiltroPagamentoDTO(null, null, null, null, null);
+
+        assertThatThrownBy(() -> service.listarPorCursor(filtro, null, 0))
+                .isInstanceOf(PaginacaoException.class);
+        assertThatThrownBy(() -> service.listarPorCursor(filtro, null, PagamentoService.LIMITE_MAXIMO_PAGINA + 1))
+                .isInstanceOf(PaginacaoException.class);
+        verifyNoInteractions(pagamentoRepository);
     }
 }
@@ -0,0 +1,231 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoRespostaDTO;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// o agendamento fica desligado: as rodadas são disparadas pelo próprio teste, em paralelo
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:processamento;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "pagamento.processamento.habilitado=false",
+        "pagamento.processamento.processador=simulado",
+        "pagamento.processamento.lote=25",
+        "pagamento.processamento.tentativas=3",
+        "pagamento.processamento.simulado.falha-percentual=10"
+})
+class ProcessamentoPagamentoTest {
+
+    private static final AtomicInteger IDS = new AtomicInteger(3_000_000);
+
+    /** Chamadas por id ao processador, ids que lançam exceção e ids gravados por outra conexão durante a chamada. */
+    static final Map<Long, AtomicInteger> CHAMADAS = new ConcurrentHashMap<>();
+    static final Set<Long> COM_ERRO = ConcurrentHashMap.newKeySet();
+    static final Set<Long> ALTERAR_DURANTE = ConcurrentHashMap.newKeySet();
+
+    @TestConfiguration
+    static class ProcessadorContado {
+        @Bean
+        @Primary
+        ProcessadorPagamento processadorContado(ProcessadorPagamentoSimulado simulado, JdbcTemplate jdbc) {
+            return pagamento -> {
+                CHAMADAS.computeIfAbsent(pagamento.id(), id -> new AtomicInteger()).incrementAndGet();
+                if (COM_ERRO.contains(pagamento.id())) {
+                    throw new IllegalStateException("gateway indisponível");
+                }
+                if (ALTERAR_DURANTE.contains(pagamento.id())) {
+                    // outra conexão grava na mesma linha: só passa se a reserva não a deixou travada
+                    try {
+                        CompletableFuture.runAsync(() -> jdbc.update(
+                                "UPDATE pagamento SET numero_cartao = NULL WHERE id = ?", pagamento.id()))
+                                .get(5, TimeUnit.SECONDS);
+                    } catch (Exception ex) {
+                        throw new IllegalStateException("linha travada durante o processador", ex);
+                    }
+                }
+                return simulado.processar(pagamento);
+            };
+        }
+    }
+
+    @Autowired
+    ProcessamentoPagamentoService processamento;
+
+    @Autowired
+    PagamentoService pagamentoService;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void limpar() {
+        CHAMADAS.clear();
+        COM_ERRO.clear();
+        ALTERAR_DURANTE.clear();
+    }
+
+    @Test
+    @DisplayName("workers concorrentes: cada pendente é reservado e processado uma única vez (SKIP LOCKED)")
+    void drena_sem_duplicar() throws Exception {
+        List<Long> ids = inserirPendentes(500);
+        double processadosAntes = processados();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Callable<Void>> tarefas = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                tarefas.add(() -> {
+                    while (processamento.processarLote().reservados() > 0) {
+                        // continua até a fila esvaziar
+                    }
+                    return null;
+                });
+            }
+            for (Future<Void> f : executor.invokeAll(tarefas)) {
+                f.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Long id : ids) {
+            assertThat(CHAMADAS.get(id)).as("chamadas do id %d", id).hasValue(1);
+            PagamentoRespostaDTO p = pagamentoService.buscarPorId(id).orElseThrow();
+            StatusPagamentoEnum esperado = (p.codigoDebito() % 100 < 10)
+                    ? StatusPagamentoEnum.PROCESSADO_FALHA
+                    : StatusPagamentoEnum.PROCESSADO_SUCESSO;
+            assertThat(p.status()).isEqualTo(esperado);
+            assertThat(p.versao()).isEqualTo(1L);
+        }
+        assertThat(processados() - processadosAntes).isGreaterThanOrEqualTo(ids.size());
+    }
+
+    @Test
+    @DisplayName("erro do processador: o pagamento segue pendente, espera a próxima tentativa e o restante é gravado")
+    void erro_mantem_pendente() {
+        List<Long> ids = inserirPendentes(3);
+        COM_ERRO.add(ids.get(1));
+
+        processamento.drenar();
+
+        assertThat(pagamentoService.buscarPorId(ids.get(0)).orElseThrow().status().isPendente()).isFalse();
+        assertThat(pagamentoService.buscarPorId(ids.get(1)).orElseThrow().status().isPendente()).isTrue();
+        assertThat(pagamentoService.buscarPorId(ids.get(2)).orElseThrow().status().isPendente()).isFalse();
+        assertThat(meterRegistry.get("pagamento.processamento.erros").counter().count()).isGreaterThanOrEqualTo(1.0);
+
+        // dentro da espera a linha não volta para a rodada, mesmo com o processador já respondendo
+        COM_ERRO.clear();
+        processamento.drenar();
+        assertThat(CHAMADAS.get(ids.get(1))).hasValue(1);
+        assertThat(pagamentoService.buscarPorId(ids.get(1)).orElseThrow().status().isPendente()).isTrue();
+
+        vencerEspera(ids.get(1));
+        processamento.drenar();
+        assertThat(CHAMADAS.get(ids.get(1))).hasValue(2);
+        assertThat(pagamentoService.buscarPorId(ids.get(1)).orElseThrow().status().isPendente()).isFalse();
+        assertThat(tentativas(ids.get(1))).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("erro em todas as tentativas: na última o pagamento vai para PROCESSADO_FALHA")
+    void tentativas_esgotadas() {
+        Long id = inserirPendentes(1).get(0);
+        COM_ERRO.add(id);
+
+        for (int tentativa = 1; tentativa <= 3; tentativa++) {
+            processamento.drenar();
+            vencerEspera(id);
+        }
+        processamento.drenar();
+
+        assertThat(CHAMADAS.get(id)).hasValue(3);
+        PagamentoRespostaDTO p = pagamentoService.buscarPorId(id).orElseThrow();
+        assertThat(p.status()).isEqualTo(StatusPagamentoEnum.PROCESSADO_FALHA);
+        assertThat(p.versao()).isEqualTo(1L);
+
+        // devolvido à fila por PUT: tentativas e espera recomeçam, e a próxima rodada já o pega
+        COM_ERRO.clear();
+        pagamentoService.atualizar(new AtualizarPagamentoDTO(id, StatusPagamentoEnum.PENDENTE_PROCESSAMENTO));
+        assertThat(tentativas(id)).isZero();
+        processamento.drenar();
+        assertThat(CHAMADAS.get(id)).hasValue(4);
+        assertThat(pagamentoService.buscarPorId(id).orElseThrow().status().isPendente()).isFalse();
+    }
+
+    @Test
+    @DisplayName("processador roda depois do commit da reserva: a linha não fica travada durante a chamada")
+    void processador_sem_linha_travada() {
+        Long id = inserirPendentes(1).get(0);
+        ALTERAR_DURANTE.add(id);
+
+        processamento.drenar();
+
+        assertThat(CHAMADAS.get(id)).hasValue(1);
+        assertThat(pagamentoService.buscarPorId(id).orElseThrow().status().isPendente()).isFalse();
+    }
+
+    // -------------------------------------------------------------------------
+    private List<Long> inserirPendentes(int quantidade) {
+        List<Long> ids = new ArrayList<>(quantidade);
+        List<Object[]> linhas = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            long id = IDS.incrementAndGet();
+            ids.add(id);
+            linhas.add(new Object[]{id, (int) id, new BigDecimal("10.00"), Timestamp.from(Instant.now())});
+        }
+        jdbc.batchUpdate("""
+                INSERT INTO pagamento
+                  (id, codigo_debito, cpf_cnpj_pagador, documento_pagador, tipo_documento, metodo_pagamento,
+                   valor_pagamento, status, ativo, criado_em, atualizado_em, versao)
+                VALUES (?, ?, '52998224725', 52998224725, 'CPF', 'PIX', ?, 'PENDENTE_PROCESSAMENTO', TRUE, ?, CURRENT_TIMESTAMP, 0)
+                """, linhas);
+        return ids;
+    }
+
+    // simula a passagem do tempo até a próxima tentativa
+    private void vencerEspera(Long id) {
+        jdbc.update("UPDATE pagamento SET processamento_proxima = ? WHERE id = ?",
+                Timestamp.from(Instant.now().minusSeconds(1)), id);
+    }
+
+    private int tentativas(Long id) {
+        return jdbc.queryForObject("SELECT processamento_tentativas FROM pagamento WHERE id = ?", Integer.class, id);
+    }
+
+    private double processados() {
+        return meterRegistry.get("pagamento.processamento.processados").counters().stream()
+                .mapToDouble(c -> c.count())
+                .sum();
+    }
+}
@@ -0,0 +1,213 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.ConsultaRelatorioDTO;
+import com.fadesp.payment.domain.dtos.LinhaRelatorioDTO;
+import com.fadesp.payment.domain.dtos.RelatorioPagamentoDTO;
+import com.fadesp.payment.domain.enums.DimensaoRelatorioEnum;
+import com.fadesp.payment.domain.enums.GranularidadeRelatorioEnum;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import org.assertj.core.api.recursive.comparison.RecursiveComparisonConfiguration;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.fadesp.payment.domain.enums.MetodoPagamentoEnum.BOLETO;
+import static com.fadesp.payment.domain.enums.MetodoPagamentoEnum.PIX;
+import static com.fadesp.payment.domain.enums.StatusPagamentoEnum.PENDENTE_PROCESSAMENTO;
+import static com.fadesp.payment.domain.enums.StatusPagamentoEnum.PROCESSADO_FALHA;
+import static com.fadesp.payment.domain.enums.StatusPagamentoEnum.PROCESSADO_SUCESSO;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:relatorio;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "pagamento.outbox.habilitado=false",
+        // as rodadas são disparadas pelos testes
+        "pagamento.relatorio.consolidacao.habilitado=false",
+        "pagamento.relatorio.consolidacao.margem=PT0S"
+})
+@AutoConfigureMockMvc
+class RelatorioPagamentoTest {
+
+    private static final AtomicLong IDS = new AtomicLong(9_000_000);
+    private static final List<DimensaoRelatorioEnum> TODAS = List.of(DimensaoRelatorioEnum.METODO, DimensaoRelatorioEnum.STATUS);
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    RelatorioPagamentoService relatorioService;
+
+    @Autowired
+    PagamentoService pagamentoService;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Test
+    @DisplayName("dias fechados: depois da consolidação vêm de relatorio_diario com o mesmo resultado da agregação direta")
+    void consolidado_igual_a_agregacao() {
+        inserir(PIX, PENDENTE_PROCESSAMENTO, "10.00", "2020-01-01T08:00:00Z", true);
+        inserir(PIX, PENDENTE_PROCESSAMENTO, "15.50", "2020-01-01T23:59:59Z", true);
+        inserir(BOLETO, PROCESSADO_SUCESSO, "100.00", "2020-01-02T00:00:00Z", true);
+        inserir(PIX, PROCESSADO_FALHA, "7.00", "2020-01-03T12:00:00Z", true);
+        inserir(PIX, PENDENTE_PROCESSAMENTO, "999.00", "2020-01-03T12:00:00Z", false);
+        ConsultaRelatorioDTO consulta = consulta("2020-01-01T00:00:00Z", "2020-01-04T00:00:00Z", null, TODAS);
+
+        RelatorioPagamentoDTO direto = relatorioService.gerar(consulta);
+        relatorioService.consolidar();
+        RelatorioPagamentoDTO consolidado = relatorioService.gerar(consulta);
+
+        assertThat(direto.diasConsolidados()).isZero();
+        assertThat(consolidado.diasConsolidados()).isEqualTo(3);
+        assertThat(consolidado.linhas()).usingRecursiveFieldByFieldElementComparator(valoresComparados())
+                .containsExactlyElementsOf(direto.linhas());
+        assertThat(consolidado.linhas()).hasSize(3);
+        assertThat(consolidado.linhas().get(0)).satisfies(l -> {
+            assertThat(l.periodo()).isEqualTo(Instant.parse("2020-01-01T00:00:00Z"));
+            assertThat(l.metodoPagamento()).isEqualTo(PIX);
+            assertThat(l.quantidade()).isEqualTo(2);
+            assertThat(l.valorTotal()).isEqualByComparingTo("25.50");
+        });
+
+        // sem dimensões: um total por dia, somado de relatorio_diario
+        RelatorioPagamentoDTO porDia = relatorioService.gerar(
+                consulta("2020-01-01T00:00:00Z", "2020-01-04T00:00:00Z", null, null));
+        assertThat(porDia.linhas()).extracting(LinhaRelatorioDTO::metodoPagamento).containsOnlyNulls();
+        assertThat(porDia.linhas()).extracting(LinhaRelatorioDTO::quantidade).containsExactly(2L, 1L, 1L);
+
+        // nada fechou nem mudou desde a rodada anterior
+        assertThat(relatorioService.consolidar()).isZero();
+    }
+
+    @Test
+    @DisplayName("transição e exclusão em dia fechado aparecem na hora; a rodada seguinte recalcula só esse dia")
+    void alteracao_em_dia_fechado() {
+        long pendente = inserir(PIX, PENDENTE_PROCESSAMENTO, "20.00", "2020-02-10T10:00:00Z", true);
+        long excluido = inserir(BOLETO, PENDENTE_PROCESSAMENTO, "30.00", "2020-02-10T11:00:00Z", true);
+        inserir(PIX, PROCESSADO_SUCESSO, "40.00", "2020-02-11T10:00:00Z", true);
+        relatorioService.consolidar();
+
+        pagamentoService.atualizar(new AtualizarPagamentoDTO(pendente, PROCESSADO_SUCESSO));
+        pagamentoService.excluir(excluido);
+        ConsultaRelatorioDTO consulta = consulta("2020-02-10T00:00:00Z", "2020-02-12T00:00:00Z", null, TODAS);
+
+        RelatorioPagamentoDTO antes = relatorioService.gerar(consulta);
+        assertThat(antes.diasConsolidados()).isEqualTo(1);
+        assertThat(antes.linhas()).extracting(LinhaRelatorioDTO::status, LinhaRelatorioDTO::quantidade)
+                .containsExactly(
+                        tuple(PROCESSADO_SUCESSO, 1L),
+                        tuple(PROCESSADO_SUCESSO, 1L));
+
+        assertThat(relatorioService.consolidar()).isEqualTo(1);
+        RelatorioPagamentoDTO depois = relatorioService.gerar(consulta);
+        assertThat(depois.diasConsolidados()).isEqualTo(2);
+        assertThat(depois.linhas()).usingRecursiveFieldByFieldElementComparator(valoresComparados())
+                .containsExactlyElementsOf(antes.linhas());
+    }
+
+    @Test
+    @DisplayName("bordas fora da meia-noite agregam só a parte pedida; o miolo vem do consolidado")
+    void bordas_parciais() {
+        inserir(PIX, PENDENTE_PROCESSAMENTO, "1.00", "2020-03-01T06:00:00Z", true);
+        inserir(PIX, PENDENTE_PROCESSAMENTO, "2.00", "2020-03-01T18:00:00Z", true);
+        inserir(PIX, PENDENTE_PROCESSAMENTO, "3.00", "2020-03-02T12:00:00Z", true);
+        inserir(PIX, PENDENTE_PROCESSAMENTO, "4.00", "2020-03-03T03:00:00Z", true);
+        inserir(PIX, PENDENTE_PROCESSAMENTO, "5.00", "2020-03-03T09:00:00Z", true);
+        relatorioService.consolidar();
+
+        RelatorioPagamentoDTO relatorio = relatorioService.gerar(
+                consulta("2020-03-01T12:00:00Z", "2020-03-03T06:00:00Z", null, null));
+
+        assertThat(relatorio.diasConsolidados()).isEqualTo(1);
+        assertThat(relatorio.linhas()).extracting(LinhaRelatorioDTO::valorTotal)
+                .usingElementComparator(BigDecimal::compareTo)
+                .containsExactly(new BigDecimal("2.00"), new BigDecimal("3.00"), new BigDecimal("4.00"));
+    }
+
+    @Test
+    @DisplayName("granularidade HORA: agregação direta por hora cheia")
+    void por_hora() {
+        inserir(PIX, PENDENTE_PROCESSAMENTO, "1.00", "2020-04-01T10:05:00Z", true);
+        inserir(BOLETO, PENDENTE_PROCESSAMENTO, "2.00", "2020-04-01T10:55:00Z", true);
+        inserir(PIX, PENDENTE_PROCESSAMENTO, "3.00", "2020-04-01T11:00:00Z", true);
+        relatorioService.consolidar();
+
+        RelatorioPagamentoDTO relatorio = relatorioService.gerar(consulta("2020-04-01T00:00:00Z", "2020-04-02T00:00:00Z",
+                GranularidadeRelatorioEnum.HORA, List.of(DimensaoRelatorioEnum.METODO)));
+
+        assertThat(relatorio.diasConsolidados()).isZero();
+        assertThat(relatorio.linhas()).extracting(LinhaRelatorioDTO::periodo, LinhaRelatorioDTO::metodoPagamento)
+                .containsExactly(
+                        tuple(Instant.parse("2020-04-01T10:00:00Z"), BOLETO),
+                        tuple(Instant.parse("2020-04-01T10:00:00Z"), PIX),
+                        tuple(Instant.parse("2020-04-01T11:00:00Z"), PIX));
+    }
+
+    @Test
+    @DisplayName("GET /relatorios/pagamentos: massa de exemplo por método e validação do intervalo")
+    void endpoint() throws Exception {
+        mvc.perform(get("/relatorios/pagamentos")
+                        .param("de", "2025-02-01T00:00:00Z")
+                        .param("ate", "2025-03-01T00:00:00Z")
+                        .param("agrupar", "METODO"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.granularidade").value("DIA"))
+                .andExpect(jsonPath("$.linhas.length()").value(3))
+                .andExpect(jsonPath("$.linhas[0].periodo").value("2025-02-01T00:00:00Z"))
+                .andExpect(jsonPath("$.linhas[0].metodoPagamento").value("PIX"))
+                .andExpect(jsonPath("$.linhas[0].valorTotal").value(96532.23));
+
+        mvc.perform(get("/relatorios/pagamentos").param("de", "2025-02-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/relatorios/pagamentos")
+                        .param("de", "2025-02-01T00:00:00Z").param("ate", "2025-02-01T00:00:00Z"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/relatorios/pagamentos")
+                        .param("de", "2025-01-01T00:00:00Z").param("ate", "2025-03-01T00:00:00Z")
+                        .param("granularidade", "HORA"))
+                .andExpect(status().isBadRequest());
+    }
+
+    // -------------------------------------------------------------------------
+    // linha gravada como a API gravaria agora (instantes com offset UTC, como o Hibernate grava), mas com a data de
+    // criação informada
+    private long inserir(MetodoPagamentoEnum metodo, StatusPagamentoEnum status, String valor, String criadoEm, boolean ativo) {
+        long id = IDS.incrementAndGet();
+        jdbc.update("""
+                INSERT INTO pagamento (id, codigo_debito, cpf_cnpj_pagador, metodo_pagamento, valor_pagamento, status,
+                                       ativo, criado_em, atualizado_em, versao)
+                VALUES (?, ?, '52998224725', ?, ?, ?, ?, ?, ?, 0)
+                """, id, (int) id, metodo.name(), new BigDecimal(valor), status.name(), ativo,
+                Instant.parse(criadoEm).atOffset(ZoneOffset.UTC), Instant.now().atOffset(ZoneOffset.UTC));
+        return id;
+    }
+
+    private static ConsultaRelatorioDTO consulta(String de, String ate, GranularidadeRelatorioEnum granularidade,
+                                                 List<DimensaoRelatorioEnum> agrupar) {
+        return new ConsultaRelatorioDTO(Instant.parse(de), Instant.parse(ate), granularidade, agrupar);
+    }
+
+    // a soma vinda do banco pode mudar de escala conforme a origem (NUMERIC(17,2) ou (19,2))
+    private static RecursiveComparisonConfiguration valoresComparados() {
+        return RecursiveComparisonConfiguration.builder()
+                .withComparatorForType(BigDecimal::compareTo, BigDecimal.class)
+                .build();
+    }
+}
@@ -0,0 +1,243 @@
+package com.fadesp.payment.services;
+
+import com.fadesp.payment.domain.dtos.AtualizarPagamentoDTO;
+import com.fadesp.payment.domain.dtos.PagamentoDTO;
+import com.fadesp.payment.domain.dtos.ResumoPagadorDTO;
+import com.fadesp.payment.domain.dtos.VerificacaoResumoPagadorDTO;
+import com.fadesp.payment.domain.entities.Pagamento;
+import com.fadesp.payment.domain.enums.MetodoPagamentoEnum;
+import com.fadesp.payment.domain.enums.StatusPagamentoEnum;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:resumo-pagador;DB_CLOSE_DELAY=-1",
+        "spring.jpa.show-sql=false",
+        "pagamento.outbox.habilitado=false"
+})
+@AutoConfigureMockMvc
+class ResumoPagadorTest {
+
+    private static final AtomicInteger CODIGOS = new AtomicInteger(9_500_000);
+    private static final AtomicInteger PAGADORES = new AtomicInteger(100_000_000);
+
+    @Autowired
+    MockMvc mvc;
+
+    @Autowired
+    ResumoPagadorService resumoPagadorService;
+
+    @Autowired
+    PagamentoService pagamentoService;
+
+    @Autowired
+    PagamentoLoteService pagamentoLoteService;
+
+    @Autowired
+    DocumentoPagadorBackfill backfill;
+
+    @Autowired
+    JdbcTemplate jdbc;
+
+    @Test
+    @DisplayName("massa de exemplo: linhas antigas entram no resumo quando o backfill preenche a chave do pagador")
+    void massa_de_exemplo_via_backfill() throws Exception {
+        // pagamentos 6 e 7 de db/dados/h2, consultados com o documento formatado
+        mvc.perform(get("/pagadores/203.876.420-48/resumo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.cpfCnpjPagador").value("20387642048"))
+                .andExpect(jsonPath("$.total.quantidade").value(2))
+                .andExpect(jsonPath("$.total.valorTotal").value(1358.74))
+                .andExpect(jsonPath("$.porStatus.PROCESSADO_FALHA.valorTotal").value(1235.22))
+                .andExpect(jsonPath("$.porStatus.PROCESSADO_SUCESSO.quantidade").value(0))
+                .andExpect(jsonPath("$.porMetodo.CARTAO_CREDITO.quantidade").value(1));
+
+        assertThat(resumoPagadorService.verificar("20387642048").consistente()).isTrue();
+    }
+
+    @Test
+    @DisplayName("criação, transição e exclusão (individuais e em lote) mantêm o resumo igual ao recalculado")
+    void escritas_mantem_resumo() {
+        String cpf = novoCpf();
+        Pagamento pix = pagamentoService.realizar(dto(cpf, MetodoPagamentoEnum.PIX, "10.00"));
+        Pagamento boleto = pagamentoService.realizar(dto(cpf, MetodoPagamentoEnum.BOLETO, "20.00"));
+        Pagamento excluido = pagamentoService.realizar(dto(cpf, MetodoPagamentoEnum.PIX, "30.00"));
+        List<Long> lote = pagamentoLoteService.realizarLote(List.of(
+                        dto(cpf, MetodoPagamentoEnum.PIX, "5.00"), dto(cpf, MetodoPagamentoEnum.PIX, "5.00")))
+                .itens().stream().map(i -> i.id()).toList();
+
+        pagamentoService.atualizar(new AtualizarPagamentoDTO(pix.getId(), StatusPagamentoEnum.PROCESSADO_SUCESSO));
+        pagamentoLoteService.atualizarStatusLote(List.of(
+                new AtualizarPagamentoDTO(boleto.getId(), StatusPagamentoEnum.PROCESSADO_FALHA),
+                new AtualizarPagamentoDTO(lote.get(0), StatusPagamentoEnum.PROCESSADO_SUCESSO),
+                // rejeitada: já está em sucesso
+                new AtualizarPagamentoDTO(pix.getId(), StatusPagamentoEnum.PROCESSADO_FALHA)));
+        pagamentoService.excluir(excluido.getId());
+
+        ResumoPagadorDTO resumo = resumoPagadorService.buscar(cpf);
+        assertThat(resumo.total().quantidade()).isEqualTo(4);
+        assertThat(resumo.total().valorTotal()).isEqualByComparingTo("40.00");
+        assertThat(resumo.porStatus().get(StatusPagamentoEnum.PROCESSADO_SUCESSO).quantidade()).isEqualTo(2);
+        assertThat(resumo.porStatus().get(StatusPagamentoEnum.PROCESSADO_SUCESSO).valorTotal()).isEqualByComparingTo("15.00");
+        assertThat(resumo.porStatus().get(StatusPagamentoEnum.PROCESSADO_FALHA).valorTotal()).isEqualByComparingTo("20.00");
+        assertThat(resumo.porStatus().get(StatusPagamentoEnum.PENDENTE_PROCESSAMENTO).quantidade()).isEqualTo(1);
+        assertThat(resumo.porMetodo().get(MetodoPagamentoEnum.PIX).quantidade()).isEqualTo(3);
+
+        assertThat(resumoPagadorService.verificar(cpf).consistente()).isTrue();
+    }
+
+    @Test
+    @DisplayName("criações simultâneas do mesmo pagador: a célula nova é criada uma vez e nenhuma soma se perde")
+    void criacoes_simultaneas() throws Exception {
+        String cpf = novoCpf();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Pagamento>> futuros = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                futuros.add(executor.submit(() -> pagamentoService.realizar(dto(cpf, MetodoPagamentoEnum.PIX, "1.50"))));
+            }
+            for (Future<Pagamento> f : futuros) f.get();
+        } finally {
+            executor.shutdown();
+        }
+
+        ResumoPagadorDTO resumo = resumoPagadorService.buscar(cpf);
+        assertThat(resumo.total().quantidade()).isEqualTo(40);
+        assertThat(resumo.total().valorTotal()).isEqualByComparingTo("60.00");
+    }
+
+    @Test
+    @DisplayName("verificação durante a primeira criação em células novas: nenhuma divergência falsa, nenhuma soma perdida")
+    void verificacao_concorrente_com_criacoes() throws Exception {
+        List<MetodoPagamentoEnum> metodos = List.of(MetodoPagamentoEnum.PIX, MetodoPagamentoEnum.BOLETO,
+                MetodoPagamentoEnum.PIX, MetodoPagamentoEnum.BOLETO);
+        ExecutorService executor = Executors.newFixedThreadPool(metodos.size() + 1);
+        try {
+            for (int rodada = 0; rodada < 10; rodada++) {
+                String cpf = novoCpf();
+                CountDownLatch largada = new CountDownLatch(1);
+                List<Future<?>> criacoes = new ArrayList<>();
+                for (MetodoPagamentoEnum metodo : metodos) {
+                    criacoes.add(executor.submit(() -> {
+                        largada.await();
+                        return pagamentoService.realizar(dto(cpf, metodo, "2.00"));
+                    }));
+                }
+                Future<VerificacaoResumoPagadorDTO> verificacao = executor.submit(() -> {
+                    largada.await();
+                    return resumoPagadorService.verificar(cpf);
+                });
+                largada.countDown();
+                for (Future<?> f : criacoes) f.get(30, TimeUnit.SECONDS);
+
+                assertThat(verificacao.get(30, TimeUnit.SECONDS).divergencias()).isEmpty();
+                assertThat(resumoPagadorService.buscar(cpf).total().quantidade()).isEqualTo(metodos.size());
+                assertThat(resumoPagadorService.verificar(cpf).consistente()).isTrue();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("verificação: célula adulterada é apontada e recalculada da tabela pagamento")
+    void verificacao_corrige_divergencia() {
+        String cpf = novoCpf();
+        pagamentoService.realizar(dto(cpf, MetodoPagamentoEnum.BOLETO, "12.34"));
+        jdbc.update("UPDATE resumo_pagador SET quantidade = 99 WHERE documento_pagador = ?", Long.parseLong(cpf));
+
+        VerificacaoResumoPagadorDTO verificacao = resumoPagadorService.verificar(cpf);
+
+        assertThat(verificacao.consistente()).isFalse();
+        assertThat(verificacao.divergencias()).singleElement().satisfies(d -> {
+            assertThat(d.quantidadeResumo()).isEqualTo(99);
+            assertThat(d.quantidadeRecalculada()).isEqualTo(1);
+        });
+        assertThat(resumoPagadorService.buscar(cpf).total().quantidade()).isEqualTo(1);
+        assertThat(resumoPagadorService.verificar(cpf).consistente()).isTrue();
+    }
+
+    @Test
+    @DisplayName("backfill em dois nós ao mesmo tempo: cada linha antiga entra no resumo uma vez")
+    void backfill_concorrente() throws Exception {
+        String cpf = novoCpf();
+        String formatado = cpf.substring(0, 3) + "." + cpf.substring(3, 6) + "." + cpf.substring(6, 9) + "-" + cpf.substring(9);
+        for (int i = 0; i < 30; i++) {
+            // linha no formato antigo, como as da massa de exemplo: sem chave numérica e com o documento formatado
+            jdbc.update("""
+                    INSERT INTO pagamento (id, codigo_debito, cpf_cnpj_pagador, metodo_pagamento, valor_pagamento, status,
+                                           ativo, criado_em, atualizado_em, versao)
+                    VALUES (?, ?, ?, 'PIX', 2.00, 'PENDENTE_PROCESSAMENTO', TRUE, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP, 0)
+                    """, 900_000_000L + CODIGOS.get(), CODIGOS.incrementAndGet(), formatado);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        int preenchidas = 0;
+        try {
+            CountDownLatch largada = new CountDownLatch(1);
+            List<Future<Integer>> nos = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                nos.add(executor.submit(() -> {
+                    largada.await();
+                    return backfill.preencherPendentes();
+                }));
+            }
+            largada.countDown();
+            for (Future<Integer> no : nos) preenchidas += no.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(preenchidas).isEqualTo(30);
+        assertThat(resumoPagadorService.buscar(cpf).total().quantidade()).isEqualTo(30);
+        assertThat(resumoPagadorService.verificar(cpf).consistente()).isTrue();
+    }
+
+    @Test
+    @DisplayName("GET /pagadores/{cpfCnpj}/resumo: documento inválido => 400")
+    void documento_invalido() throws Exception {
+        mvc.perform(get("/pagadores/12345678900/resumo")).andExpect(status().isBadRequest());
+    }
+
+    // -------------------------------------------------------------------------
+    private static PagamentoDTO dto(String cpf, MetodoPagamentoEnum metodo, String valor) {
+        return new PagamentoDTO(CODIGOS.incrementAndGet(), cpf, metodo, new BigDecimal(valor), null);
+    }
+
+    // CPF válido e inédito: nove dígitos base + os dois verificadores
+    private static String novoCpf() {
+        String base = String.valueOf(PAGADORES.incrementAndGet()).substring(0, 9);
+        int d1 = digito(base, 10);
+        int d2 = digito(base + d1, 11);
+        return base + d1 + d2;
+    }
+
+    private static int digito(String digitos, int pesoInicial) {
+        int soma = 0;
+        for (int i = 0; i < digitos.length(); i++) {
+            soma += (digitos.charAt(i) - '0') * (pesoInicial - i);
+        }
+        int resto = soma % 11;
+        return (resto < 2) ? 0 : 11 - resto;
+    }
+}
@@ -0,0 +1,45 @@
+package com.fadesp.payment.util;
+
+import net.jqwik.api.Example;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.constraints.Size;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FiltroBloomEscalavelPropertyTest {
+
+    @Property(tries = 200)
+    void nunca_da_falso_negativo(@ForAll @Size(max = 5_000) List<Integer> valores) {
+        // capacidade pequena para forçar várias camadas
+        FiltroBloomEscalavel filtro = new FiltroBloomEscalavel(64, 0.01);
+        valores.forEach(filtro::adicionar);
+
+        assertThat(valores).allMatch(filtro::podeConter);
+    }
+
+    @Example
+    void cresce_mantendo_a_taxa_de_falso_positivo() {
+        FiltroBloomEscalavel filtro = new FiltroBloomEscalavel(10_000, 0.01);
+        // códigos sequenciais, como os de débito costumam ser
+        for (int codigo = 1; codigo <= 300_000; codigo++) {
+            filtro.adicionar(codigo);
+        }
+
+        int falsos = 0;
+        int consultas = 200_000;
+        for (int codigo = 1_000_000; codigo < 1_000_000 + consultas; codigo++) {
+            if (filtro.podeConter(codigo)) falsos++;
+        }
+
+        assertThat(filtro.quantidadeCamadas()).isGreaterThan(1);
+        // valores que já pareciam presentes (falso positivo na inserção) não são contados
+        assertThat(filtro.elementos()).isBetween(297_000L, 300_000L);
+        assertThat(filtro.falsoPositivoEstimado()).isLessThanOrEqualTo(filtro.falsoPositivoAlvo());
+        assertThat((double) falsos / consultas).isLessThan(0.015);
+        // ~1,2 MB por milhão a 1%, com a folga da camada aberta pela metade
+        assertThat(filtro.bytes()).isLessThan(1_000_000L);
+    }
+}
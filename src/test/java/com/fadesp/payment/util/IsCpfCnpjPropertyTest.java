@@ -0,0 +1,139 @@
+package com.fadesp.payment.util;
+
+import net.jqwik.api.Arbitraries;
+import net.jqwik.api.Arbitrary;
+import net.jqwik.api.ForAll;
+import net.jqwik.api.Property;
+import net.jqwik.api.Provide;
+import net.jqwik.api.constraints.IntRange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Compara o validador sem alocação com a implementação original ({@link IsCpfCnpjLegado}).
+ */
+class IsCpfCnpjPropertyTest {
+
+    private static final int[] PESOS_CPF = {11, 10, 9, 8, 7, 6, 5, 4, 3, 2};
+    private static final int[] PESOS_CNPJ = {6, 5, 4, 3, 2, 9, 8, 7, 6, 5, 4, 3, 2};
+
+    @Property(tries = 2000)
+    void concorda_com_legado_para_qualquer_texto(@ForAll("textos") String valor) {
+        assertThat(IsCpfCnpj.isCpfOrCnpj(valor)).isEqualTo(IsCpfCnpjLegado.isCpfOrCnpj(valor));
+        assertThat(IsCpfCnpj.isCpf(valor)).isEqualTo(IsCpfCnpjLegado.isCpf(valor));
+        assertThat(IsCpfCnpj.isCnpj(valor)).isEqualTo(IsCpfCnpjLegado.isCnpj(valor));
+    }
+
+    @Property
+    void cpf_gerado_e_valido_com_qualquer_formatacao(@ForAll("cpfs") String cpf, @ForAll("formatacoes") String separador) {
+        String formatado = formatar(cpf, separador);
+        char[] destino = new char[IsCpfCnpj.TAMANHO_CNPJ];
+
+        assertThat(IsCpfCnpj.normalizar(formatado, destino)).isEqualTo(IsCpfCnpj.TAMANHO_CPF);
+        assertThat(new String(destino, 0, IsCpfCnpj.TAMANHO_CPF)).isEqualTo(cpf);
+        assertThat(IsCpfCnpj.isCpf(formatado)).isTrue();
+        assertThat(IsCpfCnpj.isCnpj(formatado)).isFalse();
+        assertThat(IsCpfCnpjLegado.isCpf(formatado)).isTrue();
+    }
+
+    @Property
+    void cnpj_gerado_e_valido_com_qualquer_formatacao(@ForAll("cnpjs") String cnpj, @ForAll("formatacoes") String separador) {
+        String formatado = formatar(cnpj, separador);
+        char[] destino = new char[IsCpfCnpj.TAMANHO_CNPJ];
+
+        assertThat(IsCpfCnpj.normalizar(formatado, destino)).isEqualTo(IsCpfCnpj.TAMANHO_CNPJ);
+        assertThat(new String(destino)).isEqualTo(cnpj);
+        assertThat(IsCpfCnpj.isCnpj(formatado)).isTrue();
+        assertThat(IsCpfCnpj.isCpf(formatado)).isFalse();
+        assertThat(IsCpfCnpjLegado.isCnpj(formatado)).isTrue();
+    }
+
+    @Property
+    void digito_alterado_concorda_com_legado(@ForAll("documentos") String documento,
+                                             @ForAll @IntRange(min = 0, max = 13) int posicao,
+                                             @ForAll @IntRange(min = 1, max = 9) int incremento) {
+        char[] digitos = documento.toCharArray();
+        int indice = posicao % digitos.length;
+        digitos[indice] = (char) ('0' + (digitos[indice] - '0' + incremento) % 10);
+        String alterado = new String(digitos);
+
+        assertThat(IsCpfCnpj.isCpfOrCnpj(alterado)).isEqualTo(IsCpfCnpjLegado.isCpfOrCnpj(alterado));
+    }
+
+    @Property
+    void chave_numerica_independe_da_formatacao(@ForAll("documentos") String documento,
+                                                @ForAll("formatacoes") String separador) {
+        DocumentoPagador chave = DocumentoPagador.de(formatar(documento, separador)).orElseThrow();
+
+        assertThat(chave).isEqualTo(DocumentoPagador.de(documento).orElseThrow());
+        assertThat(chave.numero()).isEqualTo(Long.parseLong(documento));
+        assertThat(chave.digitos()).isEqualTo(documento);
+    }
+
+    @Property(tries = 20)
+    void buffer_pequeno_e_rejeitado(@ForAll @IntRange(min = 0, max = 13) int tamanho) {
+        assertThatThrownBy(() -> IsCpfCnpj.normalizar("529.982.247-25", new char[tamanho]))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Provide
+    Arbitrary<String> textos() {
+        Arbitrary<String> ruido = Arbitraries.strings().ofMaxLength(20);
+        Arbitrary<String> quaseDocumentos = Arbitraries.strings()
+                .withChars("0123456789.-/ ").ofMinLength(9).ofMaxLength(20);
+        Arbitrary<String> naoAscii = Arbitraries.strings()
+                .withChars("0123456789٠١٢٣٤٥٦٧٨٩０１２３").ofMinLength(10).ofMaxLength(16);
+        return Arbitraries.oneOf(ruido, quaseDocumentos, naoAscii, cpfs(), cnpjs(),
+                Arbitraries.of("", " ", "00000000000", "11111111111111", "529.982.247-25", "11.222.333/0001-81"));
+    }
+
+    @Provide
+    Arbitrary<String> cpfs() {
+        return digitos(9).map(base -> completar(base, PESOS_CPF));
+    }
+
+    @Provide
+    Arbitrary<String> cnpjs() {
+        return digitos(12).map(base -> completar(base, PESOS_CNPJ));
+    }
+
+    @Provide
+    Arbitrary<String> documentos() {
+        return Arbitraries.oneOf(cpfs(), cnpjs());
+    }
+
+    @Provide
+    Arbitrary<String> formatacoes() {
+        return Arbitraries.of("", ".", "-", "/", " ", "\t", "x");
+    }
+
+    private static Arbitrary<String> digitos(int quantidade) {
+        return Arbitraries.strings().numeric().ofLength(quantidade)
+                .filter(base -> base.chars().distinct().count() > 1);
+    }
+
+    /** Acrescenta os dois dígitos verificadores usando os pesos do DV2 (o DV1 usa o mesmo vetor deslocado). */
+    private static String completar(String base, int[] pesos) {
+        StringBuilder documento = new StringBuilder(base);
+        for (int dv = 0; dv < 2; dv++) {
+            int deslocamento = 1 - dv;
+            int soma = 0;
+            for (int i = 0; i < documento.length(); i++) {
+                soma += (documento.charAt(i) - '0') * pesos[i + deslocamento];
+            }
+            int resto = soma % 11;
+            documento.append((resto < 2) ? 0 : 11 - resto);
+        }
+        return documento.toString();
+    }
+
+    private static String formatar(String digitos, String separador) {
+        StringBuilder formatado = new StringBuilder(" ");
+        for (int i = 0; i < digitos.length(); i++) {
+            if (i > 0 && i % 3 == 0) formatado.append(separador);
+            formatado.append(digitos.charAt(i));
+        }
+        return formatado.append(' ').toString();
+    }
+}